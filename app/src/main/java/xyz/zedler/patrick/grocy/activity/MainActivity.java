@@ -89,6 +89,7 @@ import xyz.zedler.patrick.grocy.util.HapticUtil;
 import xyz.zedler.patrick.grocy.util.LocaleUtil;
 import xyz.zedler.patrick.grocy.util.NavUtil;
 import xyz.zedler.patrick.grocy.util.NetUtil;
+import xyz.zedler.patrick.grocy.util.PictureUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.ResUtil;
 import xyz.zedler.patrick.grocy.util.ShortcutUtil;
@@ -142,6 +143,11 @@ public class MainActivity extends AppCompatActivity {
     UiUtil.setTheme(this, sharedPrefs);
     UiUtil.applyColorHarmonization(this);
 
+    // PICTURES
+
+    // has to be placed before super.onCreate because restored fragments could load pictures
+    PictureUtil.initGlide(getApplicationContext());
+
     Bundle bundleInstanceState = getIntent().getBundleExtra(ARGUMENT.INSTANCE_STATE);
     super.onCreate(bundleInstanceState != null ? bundleInstanceState : savedInstanceState);
 
@@ -40,6 +40,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
@@ -48,6 +49,7 @@ import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.databinding.RowMealPlanEntryBinding;
 import xyz.zedler.patrick.grocy.databinding.RowMealPlanSectionHeaderBinding;
+import xyz.zedler.patrick.grocy.helper.PicturePreloader.PictureUrlProvider;
 import xyz.zedler.patrick.grocy.model.GroupedListItem;
 import xyz.zedler.patrick.grocy.model.MealPlanEntry;
 import xyz.zedler.patrick.grocy.model.MealPlanSection;
@@ -60,6 +62,7 @@ import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.Userfield;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.ChipUtil;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PictureUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
@@ -68,7 +71,7 @@ import xyz.zedler.patrick.grocy.view.MaterialTimelineView;
 import xyz.zedler.patrick.grocy.viewmodel.MealPlanViewModel;
 
 public class MealPlanEntryAdapter extends
-    RecyclerView.Adapter<MealPlanEntryAdapter.ViewHolder> {
+    RecyclerView.Adapter<MealPlanEntryAdapter.ViewHolder> implements PictureUrlProvider {
 
   private final static String TAG = MealPlanEntryAdapter.class.getSimpleName();
 
@@ -76,7 +79,7 @@ public class MealPlanEntryAdapter extends
   private final HashMap<Integer, Recipe> recipeHashMap;
   private final HashMap<Integer, Product> productHashMap;
   private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
+  private final IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
   private final HashMap<String, RecipeFulfillment> recipeResolvedFulfillmentHashMap;
   private final HashMap<Integer, StockItem> stockItemHashMap;
   private final HashMap<String, Userfield> userfieldHashMap;
@@ -111,7 +114,7 @@ public class MealPlanEntryAdapter extends
     this.recipeHashMap = new HashMap<>();
     this.productHashMap = new HashMap<>();
     this.quantityUnitHashMap = new HashMap<>();
-    this.productLastPurchasedHashMap = new HashMap<>();
+    this.productLastPurchasedHashMap = new IntObjectMap<>();
     this.recipeResolvedFulfillmentHashMap = new HashMap<>();
     this.stockItemHashMap = new HashMap<>();
     this.userfieldHashMap = new HashMap<>();
@@ -522,6 +525,31 @@ public class MealPlanEntryAdapter extends
     return groupedListItems.size();
   }
 
+  @Nullable
+  @Override
+  public String getPictureUrl(int position) {
+    if (!activeFields.contains(MealPlanViewModel.FIELD_PICTURE)
+        || position < 0 || position >= groupedListItems.size()
+        || !(groupedListItems.get(position) instanceof MealPlanEntry)) {
+      return null;
+    }
+    MealPlanEntry entry = (MealPlanEntry) groupedListItems.get(position);
+    if (MealPlanEntry.TYPE_RECIPE.equals(entry.getType())
+        && NumUtil.isStringInt(entry.getRecipeId())) {
+      Recipe recipe = recipeHashMap.get(Integer.parseInt(entry.getRecipeId()));
+      String pictureFileName = recipe != null ? recipe.getPictureFileName() : null;
+      if (pictureFileName == null || pictureFileName.isEmpty()) return null;
+      return grocyApi.getRecipePictureServeSmall(pictureFileName);
+    } else if (MealPlanEntry.TYPE_PRODUCT.equals(entry.getType())
+        && NumUtil.isStringInt(entry.getProductId())) {
+      Product product = productHashMap.get(Integer.parseInt(entry.getProductId()));
+      String pictureFileName = product != null ? product.getPictureFileName() : null;
+      if (pictureFileName == null || pictureFileName.isEmpty()) return null;
+      return grocyApi.getProductPictureServeSmall(pictureFileName);
+    }
+    return null;
+  }
+
   public List<GroupedListItem> getGroupedListItems() {
     return groupedListItems;
   }
@@ -548,8 +576,8 @@ public class MealPlanEntryAdapter extends
       HashMap<Integer, Recipe> recipeHashMap,
       HashMap<Integer, Product> productHashMap,
       HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
-      HashMap<String, RecipeFulfillment> recipeResolvedFulfillmentHashMap,
+      IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap,
+      Map<String, RecipeFulfillment> recipeResolvedFulfillmentHashMap,
       HashMap<Integer, StockItem> stockItemHashMap,
       HashMap<String, Userfield> userfieldHashMap,
       List<String> activeFields
@@ -616,10 +644,10 @@ public class MealPlanEntryAdapter extends
     HashMap<Integer, Product> newProductHashMap;
     HashMap<Integer, QuantityUnit> oldQuantityUnitHashMap;
     HashMap<Integer, QuantityUnit> newQuantityUnitHashMap;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew;
+    IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapOld;
+    IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapNew;
     HashMap<String, RecipeFulfillment> oldRecipeResolvedFulfillmentHashMap;
-    HashMap<String, RecipeFulfillment> newRecipeResolvedFulfillmentHashMap;
+    Map<String, RecipeFulfillment> newRecipeResolvedFulfillmentHashMap;
     HashMap<Integer, StockItem> oldStockItemHashMap;
     HashMap<Integer, StockItem> newStockItemHashMap;
     HashMap<String, Userfield> oldUserfieldHashMap;
@@ -637,10 +665,10 @@ public class MealPlanEntryAdapter extends
         HashMap<Integer, Product> newProductHashMap,
         HashMap<Integer, QuantityUnit> oldQuantityUnitHashMap,
         HashMap<Integer, QuantityUnit> newQuantityUnitHashMap,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew,
+        IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapOld,
+        IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapNew,
         HashMap<String, RecipeFulfillment> oldRecipeResolvedFulfillmentHashMap,
-        HashMap<String, RecipeFulfillment> newRecipeResolvedFulfillmentHashMap,
+        Map<String, RecipeFulfillment> newRecipeResolvedFulfillmentHashMap,
         HashMap<Integer, StockItem> oldStockItemHashMap,
         HashMap<Integer, StockItem> newStockItemHashMap,
         HashMap<String, Userfield> oldUserfieldHashMap,
@@ -719,7 +747,14 @@ public class MealPlanEntryAdapter extends
         if (newItem.getType() != null && !newItem.getType().equals(oldItem.getType())) {
           return false;
         }
-        if (newItem.getType().equals(MealPlanEntry.TYPE_RECIPE)) {
+        if (newItem.getType().equals(MealPlanEntry.TYPE_DAY_INFO)) {
+          if (!Objects.equals(
+              oldRecipeResolvedFulfillmentHashMap.get(date),
+              newRecipeResolvedFulfillmentHashMap.get(date)
+          )) {
+            return false;
+          }
+        } else if (newItem.getType().equals(MealPlanEntry.TYPE_RECIPE)) {
           if (!Objects.equals(newItem.getRecipeId(), oldItem.getRecipeId())) {
             return false;
           }
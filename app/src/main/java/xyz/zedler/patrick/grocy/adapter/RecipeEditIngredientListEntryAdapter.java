@@ -34,7 +34,7 @@ import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Objects;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
 import xyz.zedler.patrick.grocy.R;
@@ -45,6 +45,7 @@ import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.RecipePosition;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class RecipeEditIngredientListEntryAdapter extends
     RecyclerView.Adapter<RecipeEditIngredientListEntryAdapter.ViewHolder> {
@@ -57,7 +58,7 @@ public class RecipeEditIngredientListEntryAdapter extends
   private final ArrayList<RecipePosition> recipePositions;
   private final ArrayList<Product> products;
   private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final List<QuantityUnitConversionResolved> unitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
   private final RecipeEditIngredientListEntryAdapterListener listener;
 
   private final PluralUtil pluralUtil;
@@ -73,7 +74,7 @@ public class RecipeEditIngredientListEntryAdapter extends
     this.recipePositions = new ArrayList<>();
     this.products = new ArrayList<>();
     this.quantityUnitHashMap = new HashMap<>();
-    this.unitConversions = new ArrayList<>();
+    this.unitConversionIndex = new QuantityUnitConversionIndex(null, null);
     this.listener = listener;
     this.pluralUtil = new PluralUtil(context);
     maxDecimalPlacesAmount = PreferenceManager.getDefaultSharedPreferences(context).getInt(
@@ -133,8 +134,8 @@ public class RecipeEditIngredientListEntryAdapter extends
         || recipePosition.getVariableAmount().isEmpty())) {
       double amount = recipePosition.getAmount();
       if (!recipePosition.isOnlyCheckSingleUnitInStock()) {
-        QuantityUnitConversionResolved conversionResolved = QuantityUnitConversionResolved
-            .findConversion(unitConversions, product.getId(), product.getQuIdStockInt(),
+        QuantityUnitConversionResolved conversionResolved = unitConversionIndex.findConversion(
+                product.getId(), product.getQuIdStockInt(),
                 recipePosition.getQuantityUnitId());
         if (conversionResolved != null) amount *= conversionResolved.getFactor();
       }
@@ -186,7 +187,7 @@ public class RecipeEditIngredientListEntryAdapter extends
       ArrayList<RecipePosition> newList,
       ArrayList<Product> newProducts,
       HashMap<Integer, QuantityUnit> newQuantityUnitHashMap,
-      List<QuantityUnitConversionResolved> newUnitConversions,
+      QuantityUnitConversionIndex newUnitConversionIndex,
       Runnable onListFilled
   ) {
     RecipeEditIngredientListEntryAdapter.DiffCallback diffCallback = new RecipeEditIngredientListEntryAdapter.DiffCallback(
@@ -196,8 +197,8 @@ public class RecipeEditIngredientListEntryAdapter extends
         newProducts,
         this.quantityUnitHashMap,
         newQuantityUnitHashMap,
-        this.unitConversions,
-        newUnitConversions
+        this.unitConversionIndex,
+        newUnitConversionIndex
     );
 
     if (onListFilled != null && !newList.isEmpty() && recipePositions.isEmpty()) {
@@ -211,8 +212,7 @@ public class RecipeEditIngredientListEntryAdapter extends
     this.products.addAll(newProducts);
     this.quantityUnitHashMap.clear();
     this.quantityUnitHashMap.putAll(newQuantityUnitHashMap);
-    this.unitConversions.clear();
-    this.unitConversions.addAll(newUnitConversions);
+    this.unitConversionIndex = newUnitConversionIndex;
     diffResult.dispatchUpdatesTo(new AdapterListUpdateCallback(this, linearLayoutManager));
   }
 
@@ -224,8 +224,8 @@ public class RecipeEditIngredientListEntryAdapter extends
     ArrayList<Product> newProducts;
     HashMap<Integer, QuantityUnit> oldQuantityUnitHashMap;
     HashMap<Integer, QuantityUnit> newQuantityUnitHashMap;
-    List<QuantityUnitConversionResolved> oldUnitConversions;
-    List<QuantityUnitConversionResolved> newUnitConversions;
+    QuantityUnitConversionIndex oldUnitConversionIndex;
+    QuantityUnitConversionIndex newUnitConversionIndex;
 
     public DiffCallback(
         ArrayList<RecipePosition> oldItems,
@@ -234,8 +234,8 @@ public class RecipeEditIngredientListEntryAdapter extends
         ArrayList<Product> newProducts,
         HashMap<Integer, QuantityUnit> oldQuantityUnitHashMap,
         HashMap<Integer, QuantityUnit> newQuantityUnitHashMap,
-        List<QuantityUnitConversionResolved> oldUnitConversions,
-        List<QuantityUnitConversionResolved> newUnitConversions
+        QuantityUnitConversionIndex oldUnitConversionIndex,
+        QuantityUnitConversionIndex newUnitConversionIndex
     ) {
       this.oldItems = oldItems;
       this.newItems = newItems;
@@ -243,8 +243,8 @@ public class RecipeEditIngredientListEntryAdapter extends
       this.newProducts = newProducts;
       this.oldQuantityUnitHashMap = oldQuantityUnitHashMap;
       this.newQuantityUnitHashMap = newQuantityUnitHashMap;
-      this.oldUnitConversions = oldUnitConversions;
-      this.newUnitConversions = newUnitConversions;
+      this.oldUnitConversionIndex = oldUnitConversionIndex;
+      this.newUnitConversionIndex = newUnitConversionIndex;
     }
 
     @Override
@@ -282,8 +282,16 @@ public class RecipeEditIngredientListEntryAdapter extends
       if (newItem.getQuantityUnitId() != oldItem.getQuantityUnitId()) {
         return false;
       }
-      if (!newQuantityUnitHashMap.equals(oldQuantityUnitHashMap)
-          || !newUnitConversions.equals(oldUnitConversions)) {
+      if (!newQuantityUnitHashMap.equals(oldQuantityUnitHashMap)) {
+        return false;
+      }
+      QuantityUnitConversionResolved newConversion = newUnitConversionIndex.findConversion(
+          newItemProduct.getId(), newItemProduct.getQuIdStockInt(), newItem.getQuantityUnitId()
+      );
+      QuantityUnitConversionResolved oldConversion = oldUnitConversionIndex.findConversion(
+          oldItemProduct.getId(), oldItemProduct.getQuIdStockInt(), oldItem.getQuantityUnitId()
+      );
+      if (!Objects.equals(newConversion, oldConversion)) {
         return false;
       }
 
@@ -31,6 +31,7 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -51,6 +52,7 @@ import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.databinding.RowRecipeEntryBinding;
 import xyz.zedler.patrick.grocy.databinding.RowRecipeEntryGridBinding;
+import xyz.zedler.patrick.grocy.helper.PicturePreloader.PictureUrlProvider;
 import xyz.zedler.patrick.grocy.model.Recipe;
 import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
 import xyz.zedler.patrick.grocy.model.Userfield;
@@ -62,7 +64,7 @@ import xyz.zedler.patrick.grocy.viewmodel.RecipesViewModel;
 import xyz.zedler.patrick.grocy.web.RequestHeaders;
 
 public class RecipeEntryAdapter extends
-    RecyclerView.Adapter<RecipeEntryAdapter.ViewHolder> {
+    RecyclerView.Adapter<RecipeEntryAdapter.ViewHolder> implements PictureUrlProvider {
 
   private final static String TAG = RecipeEntryAdapter.class.getSimpleName();
   private final static boolean DEBUG = false;
@@ -266,6 +268,18 @@ public class RecipeEntryAdapter extends
     return recipes.size();
   }
 
+  @Nullable
+  @Override
+  public String getPictureUrl(int position) {
+    if (!activeFields.contains(RecipesViewModel.FIELD_PICTURE)
+        || position < 0 || position >= recipes.size()) {
+      return null;
+    }
+    String pictureFileName = recipes.get(position).getPictureFileName();
+    if (pictureFileName == null || pictureFileName.isEmpty()) return null;
+    return grocyApi.getRecipePictureServeSmall(pictureFileName);
+  }
+
   public interface RecipesItemAdapterListener {
 
     void onItemRowClicked(Recipe recipe);
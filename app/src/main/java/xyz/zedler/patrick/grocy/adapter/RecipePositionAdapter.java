@@ -45,13 +45,13 @@ import xyz.zedler.patrick.grocy.databinding.RowRecipePositionEntryBinding;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.Recipe;
 import xyz.zedler.patrick.grocy.model.RecipePosition;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.ResUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
 
@@ -67,7 +67,7 @@ public class RecipePositionAdapter extends
   private final List<RecipePosition> recipePositions;
   private final List<Product> products;
   private final List<QuantityUnit> quantityUnits;
-  private final List<QuantityUnitConversionResolved> quantityUnitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
   private final HashMap<Integer, StockItem> stockItemHashMap;
   private final List<ShoppingListItem> shoppingListItems;
   private final RecipePositionsItemAdapterListener listener;
@@ -83,7 +83,7 @@ public class RecipePositionAdapter extends
       List<RecipePosition> recipePositions,
       List<Product> products,
       List<QuantityUnit> quantityUnits,
-      List<QuantityUnitConversionResolved> quantityUnitConversions,
+      QuantityUnitConversionIndex unitConversionIndex,
       HashMap<Integer, StockItem> stockItemHashMap,
       List<ShoppingListItem> shoppingListItems,
       RecipePositionsItemAdapterListener listener
@@ -98,7 +98,7 @@ public class RecipePositionAdapter extends
     this.recipePositions = new ArrayList<>(recipePositions);
     this.products = new ArrayList<>(products);
     this.quantityUnits = new ArrayList<>(quantityUnits);
-    this.quantityUnitConversions = new ArrayList<>(quantityUnitConversions);
+    this.unitConversionIndex = unitConversionIndex;
     this.stockItemHashMap = stockItemHashMap != null
         ? new HashMap<>(stockItemHashMap)
         : new HashMap<>();
@@ -151,8 +151,7 @@ public class RecipePositionAdapter extends
     for (RecipePosition recipePosition : recipePositions) {
       Product product = Product.getProductFromId(products, recipePosition.getProductId());
       QuantityUnitConversion conversion = product != null
-          ? QuantityUnitConversionResolved.findConversion(
-          quantityUnitConversions,
+          ? unitConversionIndex.findConversion(
           product.getId(),
           product.getQuIdStockInt(),
           recipePosition.getQuantityUnitId()
@@ -192,8 +191,7 @@ public class RecipePositionAdapter extends
         quantityUnits, recipePosition.getQuantityUnitId()
     );
     QuantityUnitConversion conversion = product != null
-        ? QuantityUnitConversionResolved.findConversion(
-            quantityUnitConversions,
+        ? unitConversionIndex.findConversion(
             product.getId(),
             product.getQuIdStockInt(),
             recipePosition.getQuantityUnitId()
@@ -329,7 +327,7 @@ public class RecipePositionAdapter extends
       List<RecipePosition> newList,
       List<Product> newProducts,
       List<QuantityUnit> newQuantityUnits,
-      List<QuantityUnitConversionResolved> newQuantityUnitConversions,
+      QuantityUnitConversionIndex newUnitConversionIndex,
       HashMap<Integer, StockItem> newStockItemHashMap,
       List<ShoppingListItem> newShoppingListItems
   ) {
@@ -343,8 +341,8 @@ public class RecipePositionAdapter extends
         newProducts,
         this.quantityUnits,
         newQuantityUnits,
-        this.quantityUnitConversions,
-        newQuantityUnitConversions,
+        this.unitConversionIndex,
+        newUnitConversionIndex,
         this.stockItemHashMap,
         newStockItemHashMap,
         this.shoppingListItems,
@@ -358,8 +356,7 @@ public class RecipePositionAdapter extends
     this.products.addAll(newProducts);
     this.quantityUnits.clear();
     this.quantityUnits.addAll(newQuantityUnits);
-    this.quantityUnitConversions.clear();
-    this.quantityUnitConversions.addAll(newQuantityUnitConversions);
+    this.unitConversionIndex = newUnitConversionIndex;
     this.stockItemHashMap.clear();
     this.stockItemHashMap.putAll(newStockItemHashMap);
     this.shoppingListItems.clear();
@@ -377,8 +374,8 @@ public class RecipePositionAdapter extends
     List<Product> newProducts;
     List<QuantityUnit> oldQuantityUnits;
     List<QuantityUnit> newQuantityUnits;
-    List<QuantityUnitConversionResolved> oldQuantityUnitConversions;
-    List<QuantityUnitConversionResolved> newQuantityUnitConversions;
+    QuantityUnitConversionIndex oldUnitConversionIndex;
+    QuantityUnitConversionIndex newUnitConversionIndex;
     HashMap<Integer, StockItem> oldStockItemHashMap;
     HashMap<Integer, StockItem> newStockItemHashMap;
     List<ShoppingListItem> oldShoppingListItems;
@@ -393,8 +390,8 @@ public class RecipePositionAdapter extends
         List<Product> newProducts,
         List<QuantityUnit> oldQuantityUnits,
         List<QuantityUnit> newQuantityUnits,
-        List<QuantityUnitConversionResolved> oldQuantityUnitConversions,
-        List<QuantityUnitConversionResolved> newQuantityUnitConversions,
+        QuantityUnitConversionIndex oldUnitConversionIndex,
+        QuantityUnitConversionIndex newUnitConversionIndex,
         HashMap<Integer, StockItem> oldStockItemHashMap,
         HashMap<Integer, StockItem> newStockItemHashMap,
         List<ShoppingListItem> oldShoppingListItems,
@@ -408,8 +405,8 @@ public class RecipePositionAdapter extends
       this.newProducts = newProducts;
       this.oldQuantityUnits = oldQuantityUnits;
       this.newQuantityUnits = newQuantityUnits;
-      this.oldQuantityUnitConversions = oldQuantityUnitConversions;
-      this.newQuantityUnitConversions = newQuantityUnitConversions;
+      this.oldUnitConversionIndex = oldUnitConversionIndex;
+      this.newUnitConversionIndex = newUnitConversionIndex;
       this.oldStockItemHashMap = oldStockItemHashMap;
       this.newStockItemHashMap = newStockItemHashMap;
       this.oldShoppingListItems = oldShoppingListItems;
@@ -451,15 +448,13 @@ public class RecipePositionAdapter extends
           oldQuantityUnits, oldItem.getQuantityUnitId()
       );
       QuantityUnitConversion newQuantityUnitConversion = newItemProduct != null
-          ? QuantityUnitConversionResolved.findConversion(
-              newQuantityUnitConversions,
+          ? newUnitConversionIndex.findConversion(
               newItemProduct.getId(),
               newItemProduct.getQuIdStockInt(),
               newItem.getQuantityUnitId()
           ) : null;
       QuantityUnitConversion oldQuantityUnitConversion = oldItemProduct != null
-          ? QuantityUnitConversionResolved.findConversion(
-              oldQuantityUnitConversions,
+          ? oldUnitConversionIndex.findConversion(
               oldItemProduct.getId(),
               oldItemProduct.getQuIdStockInt(),
               oldItem.getQuantityUnitId()
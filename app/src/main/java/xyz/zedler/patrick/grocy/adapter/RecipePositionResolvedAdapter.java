@@ -51,11 +51,11 @@ import xyz.zedler.patrick.grocy.model.GroupedListItem;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.Recipe;
 import xyz.zedler.patrick.grocy.model.RecipePositionResolved;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.ResUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
@@ -73,7 +73,7 @@ public class RecipePositionResolvedAdapter extends
   private final List<GroupedListItem> groupedListItems;
   private final List<Product> products;
   private final List<QuantityUnit> quantityUnits;
-  private final List<QuantityUnitConversionResolved> quantityUnitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
   private final List<String> activeFields;
   private final RecipePositionsItemAdapterListener listener;
 
@@ -91,7 +91,7 @@ public class RecipePositionResolvedAdapter extends
       List<RecipePositionResolved> recipePositions,
       List<Product> products,
       List<QuantityUnit> quantityUnits,
-      List<QuantityUnitConversionResolved> quantityUnitConversions,
+      QuantityUnitConversionIndex unitConversionIndex,
       List<String> activeFields,
       RecipePositionsItemAdapterListener listener
   ) {
@@ -112,7 +112,7 @@ public class RecipePositionResolvedAdapter extends
     this.groupedListItems = getGroupedListItems(context, recipePositions);
     this.products = new ArrayList<>(products);
     this.quantityUnits = new ArrayList<>(quantityUnits);
-    this.quantityUnitConversions = new ArrayList<>(quantityUnitConversions);
+    this.unitConversionIndex = unitConversionIndex;
     this.activeFields = new ArrayList<>(activeFields);
     this.listener = listener;
     this.pluralUtil = new PluralUtil(context);
@@ -267,8 +267,7 @@ public class RecipePositionResolvedAdapter extends
         quantityUnits, recipePosition.getQuId()
     );
     QuantityUnitConversion conversion = product != null
-        ? QuantityUnitConversionResolved.findConversion(
-            quantityUnitConversions,
+        ? unitConversionIndex.findConversion(
             product.getId(),
             product.getQuIdStockInt(),
             recipePosition.getQuId()
@@ -441,7 +440,7 @@ public class RecipePositionResolvedAdapter extends
       List<RecipePositionResolved> newList,
       List<Product> newProducts,
       List<QuantityUnit> newQuantityUnits,
-      List<QuantityUnitConversionResolved> newQuantityUnitConversions,
+      QuantityUnitConversionIndex newUnitConversionIndex,
       List<String> newActiveFields
   ) {
     List<GroupedListItem> groupedListItemsNew = getGroupedListItems(
@@ -456,8 +455,8 @@ public class RecipePositionResolvedAdapter extends
         newProducts,
         this.quantityUnits,
         newQuantityUnits,
-        this.quantityUnitConversions,
-        newQuantityUnitConversions,
+        this.unitConversionIndex,
+        newUnitConversionIndex,
         this.activeFields,
         newActiveFields
     );
@@ -469,8 +468,7 @@ public class RecipePositionResolvedAdapter extends
     this.products.addAll(newProducts);
     this.quantityUnits.clear();
     this.quantityUnits.addAll(newQuantityUnits);
-    this.quantityUnitConversions.clear();
-    this.quantityUnitConversions.addAll(newQuantityUnitConversions);
+    this.unitConversionIndex = newUnitConversionIndex;
     this.activeFields.clear();
     this.activeFields.addAll(newActiveFields);
     diffResult.dispatchUpdatesTo(new AdapterListUpdateCallback(this, linearLayoutManager));
@@ -486,8 +484,8 @@ public class RecipePositionResolvedAdapter extends
     List<Product> newProducts;
     List<QuantityUnit> oldQuantityUnits;
     List<QuantityUnit> newQuantityUnits;
-    List<QuantityUnitConversionResolved> oldQuantityUnitConversions;
-    List<QuantityUnitConversionResolved> newQuantityUnitConversions;
+    QuantityUnitConversionIndex oldUnitConversionIndex;
+    QuantityUnitConversionIndex newUnitConversionIndex;
     List<String> oldActiveFields;
     List<String> newActiveFields;
 
@@ -500,8 +498,8 @@ public class RecipePositionResolvedAdapter extends
         List<Product> newProducts,
         List<QuantityUnit> oldQuantityUnits,
         List<QuantityUnit> newQuantityUnits,
-        List<QuantityUnitConversionResolved> oldQuantityUnitConversions,
-        List<QuantityUnitConversionResolved> newQuantityUnitConversions,
+        QuantityUnitConversionIndex oldUnitConversionIndex,
+        QuantityUnitConversionIndex newUnitConversionIndex,
         List<String> oldActiveFields,
         List<String> newActiveFields
     ) {
@@ -513,8 +511,8 @@ public class RecipePositionResolvedAdapter extends
       this.newProducts = newProducts;
       this.oldQuantityUnits = oldQuantityUnits;
       this.newQuantityUnits = newQuantityUnits;
-      this.oldQuantityUnitConversions = oldQuantityUnitConversions;
-      this.newQuantityUnitConversions = newQuantityUnitConversions;
+      this.oldUnitConversionIndex = oldUnitConversionIndex;
+      this.newUnitConversionIndex = newUnitConversionIndex;
       this.oldActiveFields = oldActiveFields;
       this.newActiveFields = newActiveFields;
     }
@@ -566,15 +564,13 @@ public class RecipePositionResolvedAdapter extends
             oldQuantityUnits, oldItem.getQuId()
         );
         QuantityUnitConversion newQuantityUnitConversion = newItemProduct != null
-            ? QuantityUnitConversionResolved.findConversion(
-            newQuantityUnitConversions,
+            ? newUnitConversionIndex.findConversion(
             newItemProduct.getId(),
             newItemProduct.getQuIdStockInt(),
             newItem.getQuId()
         ) : null;
         QuantityUnitConversion oldQuantityUnitConversion = oldItemProduct != null
-            ? QuantityUnitConversionResolved.findConversion(
-            oldQuantityUnitConversions,
+            ? oldUnitConversionIndex.findConversion(
             oldItemProduct.getId(),
             oldItemProduct.getQuIdStockInt(),
             oldItem.getQuId()
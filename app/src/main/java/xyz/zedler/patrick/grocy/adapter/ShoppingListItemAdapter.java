@@ -26,9 +26,6 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.res.ColorStateList;
 import android.graphics.Paint;
-import android.text.Html;
-import android.text.Spanned;
-import android.text.SpannedString;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -41,7 +38,6 @@ import com.google.android.material.chip.Chip;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
@@ -50,24 +46,25 @@ import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingListBottomNotesBinding;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingListGroupBinding;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingListItemBinding;
-import xyz.zedler.patrick.grocy.model.FilterChipLiveDataGroupingShoppingList;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Input;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Result;
 import xyz.zedler.patrick.grocy.model.GroupHeader;
 import xyz.zedler.patrick.grocy.model.GroupedListItem;
 import xyz.zedler.patrick.grocy.model.Product;
-import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListBottomNotes;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
-import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
+import xyz.zedler.patrick.grocy.util.IntDoubleMap;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
+import xyz.zedler.patrick.grocy.util.IntSet;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PictureUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.ResUtil;
-import xyz.zedler.patrick.grocy.util.SortUtil;
-import xyz.zedler.patrick.grocy.util.TextUtil;
 import xyz.zedler.patrick.grocy.viewmodel.ShoppingListViewModel;
 import xyz.zedler.patrick.grocy.viewmodel.StockOverviewViewModel;
 import xyz.zedler.patrick.grocy.web.RequestHeaders;
@@ -77,23 +74,22 @@ public class ShoppingListItemAdapter extends
 
   private final static String TAG = ShoppingListItemAdapter.class.getSimpleName();
 
-  private final ArrayList<GroupedListItem> groupedListItems;
-  private final HashMap<Integer, Product> productHashMap;
-  private final HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
-  private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final List<QuantityUnitConversionResolved> unitConversions;
-  private final HashMap<Integer, Double> shoppingListItemAmountsHashMap;
-  private final ArrayList<Integer> missingProductIds;
+  private List<GroupedListItem> groupedListItems;
+  private HashMap<Integer, Product> productHashMap;
+  private IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
+  private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private IntDoubleMap shoppingListItemAmountsHashMap;
+  private IntSet missingProductIds;
   private final ShoppingListItemAdapterListener listener;
   private final GrocyApi grocyApi;
   private final LazyHeaders grocyAuthHeaders;
   private final PluralUtil pluralUtil;
   private String groupingMode;
-  private final List<String> activeFields;
+  private List<String> activeFields;
   private final int maxDecimalPlacesAmount;
   private final int decimalPlacesPriceDisplay;
   private final String currency;
-  private final boolean priceTrackingEnabled;
 
   public ShoppingListItemAdapter(
       Context context,
@@ -109,14 +105,12 @@ public class ShoppingListItemAdapter extends
         SETTINGS_DEFAULT.STOCK.DECIMAL_PLACES_PRICES_DISPLAY
     );
     this.currency = sharedPrefs.getString(PREF.CURRENCY, "");
-    this.priceTrackingEnabled = sharedPrefs
-        .getBoolean(PREF.FEATURE_STOCK_PRICE_TRACKING, true);
     this.productHashMap = new HashMap<>();
-    this.productLastPurchasedHashMap = new HashMap<>();
+    this.productLastPurchasedHashMap = new IntObjectMap<>();
     this.quantityUnitHashMap = new HashMap<>();
-    this.unitConversions = new ArrayList<>();
-    this.shoppingListItemAmountsHashMap = new HashMap<>();
-    this.missingProductIds = new ArrayList<>();
+    this.unitConversionIndex = new QuantityUnitConversionIndex(null, null);
+    this.shoppingListItemAmountsHashMap = new IntDoubleMap();
+    this.missingProductIds = new IntSet();
     this.listener = listener;
     this.grocyApi = new GrocyApi((Application) context.getApplicationContext());
     this.grocyAuthHeaders = RequestHeaders.getGlideGrocyAuthHeaders(context);
@@ -125,165 +119,6 @@ public class ShoppingListItemAdapter extends
     this.groupedListItems = new ArrayList<>();
   }
 
-  static ArrayList<GroupedListItem> getGroupedListItems(
-      Context context,
-      ArrayList<ShoppingListItem> shoppingListItems,
-      HashMap<Integer, ProductGroup> productGroupHashMap,
-      HashMap<Integer, Product> productHashMap,
-      HashMap<Integer, String> productNamesHashMap,
-      HashMap<Integer, Store> storeHashMap,
-      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
-      HashMap<Integer, Double> shoppingListItemAmountsHashMap,
-      String shoppingListNotes,
-      String groupingMode,
-      boolean priceTrackingEnabled,
-      int decimalPlacesPriceDisplay,
-      String currency
-  ) {
-    if (groupingMode.equals(FilterChipLiveDataGroupingShoppingList.GROUPING_NONE)) {
-      SortUtil.sortShoppingListItemsByName(shoppingListItems, productNamesHashMap, true);
-      ArrayList<GroupedListItem> groupedListItems = new ArrayList<>(shoppingListItems);
-      addBottomNotes(
-          context,
-          shoppingListNotes,
-          groupedListItems,
-          !shoppingListItems.isEmpty()
-      );
-      if (!shoppingListItems.isEmpty() && priceTrackingEnabled) {
-        addTotalPrice(context, shoppingListItems, groupedListItems, productLastPurchasedHashMap,
-            shoppingListItemAmountsHashMap, decimalPlacesPriceDisplay, currency);
-      }
-      return groupedListItems;
-    }
-    HashMap<String, ArrayList<ShoppingListItem>> shoppingListItemsGroupedHashMap = new HashMap<>();
-    ArrayList<ShoppingListItem> ungroupedItems = new ArrayList<>();
-    for (ShoppingListItem shoppingListItem : shoppingListItems) {
-      String groupName = getGroupName(shoppingListItem, productHashMap, productGroupHashMap,
-          storeHashMap, groupingMode);
-      if (groupName != null && !groupName.isEmpty()) {
-        ArrayList<ShoppingListItem> itemsFromGroup = shoppingListItemsGroupedHashMap.get(groupName);
-        if (itemsFromGroup == null) {
-          itemsFromGroup = new ArrayList<>();
-          shoppingListItemsGroupedHashMap.put(groupName, itemsFromGroup);
-        }
-        itemsFromGroup.add(shoppingListItem);
-      } else {
-        ungroupedItems.add(shoppingListItem);
-      }
-    }
-    ArrayList<GroupedListItem> groupedListItems = new ArrayList<>();
-    ArrayList<String> groupsSorted = new ArrayList<>(shoppingListItemsGroupedHashMap.keySet());
-    SortUtil.sortStringsByName(groupsSorted, true);
-    if (!ungroupedItems.isEmpty()) {
-      groupedListItems.add(new GroupHeader(context.getString(R.string.property_ungrouped)));
-      SortUtil.sortShoppingListItemsByName(ungroupedItems, productNamesHashMap, true);
-      groupedListItems.addAll(ungroupedItems);
-    }
-    for (String group : groupsSorted) {
-      ArrayList<ShoppingListItem> itemsFromGroup = shoppingListItemsGroupedHashMap.get(group);
-      if (itemsFromGroup == null) continue;
-      GroupHeader groupHeader = new GroupHeader(group);
-      groupHeader.setDisplayDivider(!ungroupedItems.isEmpty() || !groupsSorted.get(0).equals(group));
-      groupedListItems.add(groupHeader);
-      SortUtil.sortShoppingListItemsByName(itemsFromGroup, productNamesHashMap, true);
-      groupedListItems.addAll(itemsFromGroup);
-    }
-    addBottomNotes(
-        context,
-        shoppingListNotes,
-        groupedListItems,
-        !ungroupedItems.isEmpty() || !groupsSorted.isEmpty()
-    );
-    if ((!ungroupedItems.isEmpty() || !groupsSorted.isEmpty()) && priceTrackingEnabled) {
-      addTotalPrice(context, shoppingListItems, groupedListItems, productLastPurchasedHashMap,
-          shoppingListItemAmountsHashMap, decimalPlacesPriceDisplay, currency);
-    }
-    return groupedListItems;
-  }
-
-  static String getGroupName(
-      ShoppingListItem shoppingListItem,
-      HashMap<Integer, Product> productHashMap,
-      HashMap<Integer, ProductGroup> productGroupHashMap,
-      HashMap<Integer, Store> storeHashMap,
-      String groupingMode
-  ) {
-    String groupName = null;
-    if (groupingMode.equals(FilterChipLiveDataGroupingShoppingList.GROUPING_PRODUCT_GROUP)
-        && shoppingListItem.hasProduct()) {
-      Product product = productHashMap.get(shoppingListItem.getProductIdInt());
-      Integer productGroupId = product != null && NumUtil.isStringInt(product.getProductGroupId())
-          ? Integer.parseInt(product.getProductGroupId())
-          : null;
-      ProductGroup productGroup = productGroupId != null
-          ? productGroupHashMap.get(productGroupId)
-          : null;
-      groupName = productGroup != null ? productGroup.getName() : null;
-    } else if (groupingMode.equals(FilterChipLiveDataGroupingShoppingList.GROUPING_STORE)
-        && shoppingListItem.hasProduct()) {
-      Product product = productHashMap.get(shoppingListItem.getProductIdInt());
-      Integer storeId = product != null && NumUtil.isStringInt(product.getStoreId())
-          ? Integer.parseInt(product.getStoreId())
-          : null;
-      Store store = storeId != null
-          ? storeHashMap.get(storeId)
-          : null;
-      groupName = store != null ? store.getName() : null;
-    }
-    return groupName;
-  }
-
-  static void addBottomNotes(
-      Context context,
-      String shoppingListNotes,
-      ArrayList<GroupedListItem> groupedListItems,
-      boolean displayDivider
-  ) {
-    if (shoppingListNotes == null) {
-      return;
-    }
-    Spanned spanned = Html.fromHtml(shoppingListNotes.trim());
-    Spanned notes = (Spanned) TextUtil.trimCharSequence(spanned);
-    if (notes != null && !notes.toString().trim().isEmpty()) {
-      GroupHeader h = new GroupHeader(context.getString(R.string.property_notes));
-      h.setDisplayDivider(displayDivider);
-      groupedListItems.add(h);
-      groupedListItems.add(new ShoppingListBottomNotes(notes));
-    }
-  }
-
-  static void addTotalPrice(
-      Context context,
-      List<ShoppingListItem> shoppingListItems,
-      ArrayList<GroupedListItem> groupedListItems,
-      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
-      HashMap<Integer, Double> shoppingListItemAmountsHashMap,
-      int decimalPlacesPriceDisplay,
-      String currency
-  ) {
-    double priceTotal = 0;
-    for (ShoppingListItem shoppingListItem : shoppingListItems) {
-      ProductLastPurchased p = shoppingListItem.hasProduct()
-          ? productLastPurchasedHashMap.get(shoppingListItem.getProductIdInt()) : null;
-      if (p == null || p.getPrice() == null || p.getPrice().isEmpty()) continue;
-      double amount = shoppingListItem.getAmountDouble();
-      if (NumUtil.isStringDouble(p.getPrice())) priceTotal += NumUtil.toDouble(p.getPrice()) * amount;
-    }
-
-    GroupHeader h = new GroupHeader();
-    h.setDisplayDivider(true);
-    groupedListItems.add(h);
-    ShoppingListBottomNotes priceText = new ShoppingListBottomNotes(
-        new SpannedString(context.getString(
-            R.string.subtitle_total_price,
-            NumUtil.trimPrice(priceTotal, decimalPlacesPriceDisplay),
-            currency
-        ))
-    );
-    priceText.setClickable(false);
-    groupedListItems.add(priceText);
-  }
-
   public static class ViewHolder extends RecyclerView.ViewHolder {
 
     public ViewHolder(View view) {
@@ -439,10 +274,10 @@ public class ShoppingListItemAdapter extends
 
     // AMOUNT
 
-    Double amountInItemUnit = shoppingListItemAmountsHashMap.get(item.getId());
+    double amountInItemUnit = shoppingListItemAmountsHashMap.get(item.getId(), Double.NaN);
     if (activeFields.contains(ShoppingListViewModel.FIELD_AMOUNT)) {
       StringBuilder stringBuilderAmount = new StringBuilder();
-      if (product != null && amountInItemUnit != null) {
+      if (product != null && !Double.isNaN(amountInItemUnit)) {
         QuantityUnit quantityUnit = quantityUnitHashMap.get(item.getQuIdInt());
         String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, amountInItemUnit);
         if (quStr != null) {
@@ -537,8 +372,7 @@ public class ShoppingListItemAdapter extends
     double conversionFactor = 1.0;
     if ((activeFields.contains(ShoppingListViewModel.FIELD_PRICE_LAST_TOTAL)
         || activeFields.contains(ShoppingListViewModel.FIELD_PRICE_LAST_UNIT)) && product != null) {
-      QuantityUnitConversionResolved c = QuantityUnitConversionResolved.findConversion(
-          unitConversions,
+      QuantityUnitConversionResolved c = unitConversionIndex.findConversion(
           product.getId(),
           item.getQuIdInt(),
           product.getQuIdStockInt()
@@ -645,7 +479,7 @@ public class ShoppingListItemAdapter extends
       RowShoppingListItemBinding binding,
       HashMap<Integer, Product> productHashMap,
       HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      HashMap<Integer, Double> shoppingListItemAmountsHashMap,
+      IntDoubleMap shoppingListItemAmountsHashMap,
       int maxDecimalPlacesAmount,
       PluralUtil pluralUtil
   ) {
@@ -682,8 +516,8 @@ public class ShoppingListItemAdapter extends
     // AMOUNT
 
     StringBuilder stringBuilderAmount = new StringBuilder();
-    Double amountInQuUnit = shoppingListItemAmountsHashMap.get(item.getId());
-    if (product != null && amountInQuUnit != null) {
+    double amountInQuUnit = shoppingListItemAmountsHashMap.get(item.getId(), Double.NaN);
+    if (product != null && !Double.isNaN(amountInQuUnit)) {
       QuantityUnit quantityUnit = quantityUnitHashMap.get(item.getQuIdInt());
       String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, amountInQuUnit);
       if (quStr != null) {
@@ -761,109 +595,86 @@ public class ShoppingListItemAdapter extends
     }
   }
 
-  public void updateData(
-      Context context,
-      ArrayList<ShoppingListItem> shoppingListItems,
-      HashMap<Integer, Product> productHashMap,
-      HashMap<Integer, String> productNamesHashMap,
-      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
-      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      List<QuantityUnitConversionResolved> unitConversions,
-      HashMap<Integer, ProductGroup> productGroupHashMap,
-      HashMap<Integer, Store> storeHashMap,
-      HashMap<Integer, Double> shoppingListItemAmountsHashMap,
-      ArrayList<Integer> missingProductIds,
-      String shoppingListNotes,
-      String groupingMode,
-      List<String> activeFields,
-      Runnable onListFilled
-  ) {
-    ArrayList<GroupedListItem> newGroupedListItems = getGroupedListItems(context, shoppingListItems,
-        productGroupHashMap, productHashMap, productNamesHashMap, storeHashMap,
-        productLastPurchasedHashMap, shoppingListItemAmountsHashMap,
-        shoppingListNotes, groupingMode, priceTrackingEnabled, decimalPlacesPriceDisplay, currency);
-    ShoppingListItemAdapter.DiffCallback diffCallback = new ShoppingListItemAdapter.DiffCallback(
-        this.groupedListItems,
-        newGroupedListItems,
-        this.productHashMap,
-        productHashMap,
-        this.productLastPurchasedHashMap,
-        productLastPurchasedHashMap,
-        this.quantityUnitHashMap,
-        quantityUnitHashMap,
-        this.unitConversions,
-        unitConversions,
-        this.shoppingListItemAmountsHashMap,
-        shoppingListItemAmountsHashMap,
-        this.missingProductIds,
-        missingProductIds,
-        this.groupingMode,
-        groupingMode,
-        this.activeFields,
-        activeFields
-    );
+  public void updateData(Result result, Runnable onListFilled) {
+    Input input = result.getInput();
+    List<GroupedListItem> newGroupedListItems = result.getItems();
+    DiffUtil.DiffResult diffResult = result.getDiffResult();
+    if (diffResult == null || result.getPreviousItems() != groupedListItems) {
+      // the pipeline has diffed against other rows, e.g. after the adapter was recreated
+      diffResult = DiffUtil.calculateDiff(new DiffCallback(
+          this.groupedListItems,
+          newGroupedListItems,
+          this.productHashMap,
+          input.getProductHashMap(),
+          this.productLastPurchasedHashMap,
+          input.getProductLastPurchasedHashMap(),
+          this.quantityUnitHashMap,
+          input.getQuantityUnitHashMap(),
+          this.unitConversionIndex,
+          input.getUnitConversionIndex(),
+          this.shoppingListItemAmountsHashMap,
+          input.getShoppingListItemAmountsHashMap(),
+          this.missingProductIds,
+          input.getMissingProductIds(),
+          this.groupingMode,
+          input.getGroupingMode(),
+          this.activeFields,
+          input.getActiveFields()
+      ));
+    }
 
     if (onListFilled != null && !newGroupedListItems.isEmpty() && groupedListItems.isEmpty()) {
       onListFilled.run();
     }
 
-    DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(diffCallback);
-    this.groupedListItems.clear();
-    this.groupedListItems.addAll(newGroupedListItems);
-    this.productHashMap.clear();
-    this.productHashMap.putAll(productHashMap);
-    this.quantityUnitHashMap.clear();
-    this.quantityUnitHashMap.putAll(quantityUnitHashMap);
-    this.unitConversions.clear();
-    this.unitConversions.addAll(unitConversions);
-    this.productLastPurchasedHashMap.clear();
-    this.productLastPurchasedHashMap.putAll(productLastPurchasedHashMap);
-    this.shoppingListItemAmountsHashMap.clear();
-    this.shoppingListItemAmountsHashMap.putAll(shoppingListItemAmountsHashMap);
-    this.missingProductIds.clear();
-    this.missingProductIds.addAll(missingProductIds);
-    this.groupingMode = groupingMode;
-    this.activeFields.clear();
-    this.activeFields.addAll(activeFields);
+    this.groupedListItems = newGroupedListItems;
+    this.productHashMap = input.getProductHashMap();
+    this.quantityUnitHashMap = input.getQuantityUnitHashMap();
+    this.unitConversionIndex = input.getUnitConversionIndex();
+    this.productLastPurchasedHashMap = input.getProductLastPurchasedHashMap();
+    this.shoppingListItemAmountsHashMap = input.getShoppingListItemAmountsHashMap();
+    this.missingProductIds = input.getMissingProductIds();
+    this.groupingMode = input.getGroupingMode();
+    this.activeFields = input.getActiveFields();
     diffResult.dispatchUpdatesTo(this);
   }
 
-  static class DiffCallback extends DiffUtil.Callback {
+  public static class DiffCallback extends DiffUtil.Callback {
 
-    ArrayList<GroupedListItem> oldItems;
-    ArrayList<GroupedListItem> newItems;
+    List<GroupedListItem> oldItems;
+    List<GroupedListItem> newItems;
     HashMap<Integer, Product> productHashMapOld;
     HashMap<Integer, Product> productHashMapNew;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew;
+    IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapOld;
+    IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapNew;
     HashMap<Integer, QuantityUnit> quantityUnitHashMapOld;
     HashMap<Integer, QuantityUnit> quantityUnitHashMapNew;
-    List<QuantityUnitConversionResolved> unitConversionsOld;
-    List<QuantityUnitConversionResolved> unitConversionsNew;
-    HashMap<Integer, Double> shoppingListItemAmountsHashMapOld;
-    HashMap<Integer, Double> shoppingListItemAmountsHashMapNew;
-    ArrayList<Integer> missingProductIdsOld;
-    ArrayList<Integer> missingProductIdsNew;
+    QuantityUnitConversionIndex unitConversionIndexOld;
+    QuantityUnitConversionIndex unitConversionIndexNew;
+    IntDoubleMap shoppingListItemAmountsHashMapOld;
+    IntDoubleMap shoppingListItemAmountsHashMapNew;
+    IntSet missingProductIdsOld;
+    IntSet missingProductIdsNew;
     String groupingModeOld;
     String groupingModeNew;
     List<String> activeFieldsOld;
     List<String> activeFieldsNew;
 
     public DiffCallback(
-        ArrayList<GroupedListItem> oldItems,
-        ArrayList<GroupedListItem> newItems,
+        List<GroupedListItem> oldItems,
+        List<GroupedListItem> newItems,
         HashMap<Integer, Product> productHashMapOld,
         HashMap<Integer, Product> productHashMapNew,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew,
+        IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapOld,
+        IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapNew,
         HashMap<Integer, QuantityUnit> quantityUnitHashMapOld,
         HashMap<Integer, QuantityUnit> quantityUnitHashMapNew,
-        List<QuantityUnitConversionResolved> unitConversionsOld,
-        List<QuantityUnitConversionResolved> unitConversionsNew,
-        HashMap<Integer, Double> shoppingListItemAmountsHashMapOld,
-        HashMap<Integer, Double> shoppingListItemAmountsHashMapNew,
-        ArrayList<Integer> missingProductIdsOld,
-        ArrayList<Integer> missingProductIdsNew,
+        QuantityUnitConversionIndex unitConversionIndexOld,
+        QuantityUnitConversionIndex unitConversionIndexNew,
+        IntDoubleMap shoppingListItemAmountsHashMapOld,
+        IntDoubleMap shoppingListItemAmountsHashMapNew,
+        IntSet missingProductIdsOld,
+        IntSet missingProductIdsNew,
         String groupingModeOld,
         String groupingModeNew,
         List<String> activeFieldsOld,
@@ -877,8 +688,8 @@ public class ShoppingListItemAdapter extends
       this.productLastPurchasedHashMapNew = productLastPurchasedHashMapNew;
       this.quantityUnitHashMapOld = quantityUnitHashMapOld;
       this.quantityUnitHashMapNew = quantityUnitHashMapNew;
-      this.unitConversionsOld = unitConversionsOld;
-      this.unitConversionsNew = unitConversionsNew;
+      this.unitConversionIndexOld = unitConversionIndexOld;
+      this.unitConversionIndexNew = unitConversionIndexNew;
       this.shoppingListItemAmountsHashMapOld = shoppingListItemAmountsHashMapOld;
       this.shoppingListItemAmountsHashMapNew = shoppingListItemAmountsHashMapNew;
       this.missingProductIdsOld = missingProductIdsOld;
@@ -949,8 +760,8 @@ public class ShoppingListItemAdapter extends
             NumUtil.isStringInt(newItem.getQuId()) ? Integer.parseInt(newItem.getQuId()) : null;
         QuantityUnit quNew = quIdNew != null ? quantityUnitHashMapNew.get(quIdNew) : null;
 
-        Double amountOld = shoppingListItemAmountsHashMapOld.get(oldItem.getId());
-        Double amountNew = shoppingListItemAmountsHashMapNew.get(newItem.getId());
+        double amountOld = shoppingListItemAmountsHashMapOld.get(oldItem.getId(), Double.NaN);
+        double amountNew = shoppingListItemAmountsHashMapNew.get(newItem.getId(), Double.NaN);
 
         Boolean missingOld =
             productIdOld != null ? missingProductIdsOld.contains(productIdOld) : null;
@@ -969,14 +780,12 @@ public class ShoppingListItemAdapter extends
           }
 
           if (productOld != null && productNew != null) {
-            QuantityUnitConversionResolved oldCon = QuantityUnitConversionResolved.findConversion(
-                unitConversionsOld,
+            QuantityUnitConversionResolved oldCon = unitConversionIndexOld.findConversion(
                 productOld.getId(),
                 oldItem.getQuIdInt(),
                 productOld.getQuIdStockInt()
             );
-            QuantityUnitConversionResolved newCon = QuantityUnitConversionResolved.findConversion(
-                unitConversionsNew,
+            QuantityUnitConversionResolved newCon = unitConversionIndexNew.findConversion(
                 productNew.getId(),
                 newItem.getQuIdInt(),
                 productNew.getQuIdStockInt()
@@ -991,7 +800,7 @@ public class ShoppingListItemAdapter extends
             || productOld != null && productNew != null && productOld.getId() != productNew.getId()
             || quOld == null && quNew != null
             || quOld != null && quNew != null && quOld.getId() != quNew.getId()
-            || !Objects.equals(amountOld, amountNew)
+            || Double.compare(amountOld, amountNew) != 0
             || missingOld == null && missingNew != null
             || missingOld != null && missingNew != null && missingOld != missingNew
         ) {
@@ -54,22 +54,24 @@ import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingModeBottomNotesBinding;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingModeGroupBinding;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingModeItemBinding;
-import xyz.zedler.patrick.grocy.model.FilterChipLiveDataGroupingShoppingList;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Input;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Result;
 import xyz.zedler.patrick.grocy.model.GroupHeader;
 import xyz.zedler.patrick.grocy.model.GroupedListItem;
 import xyz.zedler.patrick.grocy.model.Product;
-import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListBottomNotes;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
-import xyz.zedler.patrick.grocy.model.Store;
+import xyz.zedler.patrick.grocy.util.IntDoubleMap;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
+import xyz.zedler.patrick.grocy.util.IntSet;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PictureUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.ResUtil;
-import xyz.zedler.patrick.grocy.util.SortUtil;
 import xyz.zedler.patrick.grocy.util.TextUtil;
 import xyz.zedler.patrick.grocy.util.UiUtil;
 import xyz.zedler.patrick.grocy.viewmodel.ShoppingListViewModel;
@@ -81,25 +83,23 @@ public class ShoppingModeItemAdapter extends
 
   private final Context context;
   private final LinearLayoutManager linearLayoutManager;
-  private final ArrayList<GroupedListItem> groupedListItems;
-  private final HashMap<Integer, Product> productHashMap;
-  private final HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
-  private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final List<QuantityUnitConversionResolved> unitConversions;
-  private final HashMap<Integer, Double> shoppingListItemAmountsHashMap;
-  private final ArrayList<Integer> missingProductIds;
+  private List<GroupedListItem> groupedListItems;
+  private HashMap<Integer, Product> productHashMap;
+  private IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
+  private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private IntDoubleMap shoppingListItemAmountsHashMap;
+  private IntSet missingProductIds;
   private final ShoppingModeItemClickListener listener;
   private final GrocyApi grocyApi;
   private final LazyHeaders grocyAuthHeaders;
   private final PluralUtil pluralUtil;
   private String groupingMode;
   private final boolean useSmallerFonts;
-  private final boolean showDoneItems;
-  private final List<String> activeFields;
+  private List<String> activeFields;
   private final int maxDecimalPlacesAmount;
   private final int decimalPlacesPriceDisplay;
   private final String currency;
-  private final boolean priceTrackingEnabled;
 
   public ShoppingModeItemAdapter(
       Context context,
@@ -110,11 +110,11 @@ public class ShoppingModeItemAdapter extends
     SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
     this.linearLayoutManager = linearLayoutManager;
     this.productHashMap = new HashMap<>();
-    this.productLastPurchasedHashMap = new HashMap<>();
+    this.productLastPurchasedHashMap = new IntObjectMap<>();
     this.quantityUnitHashMap = new HashMap<>();
-    this.unitConversions = new ArrayList<>();
-    this.shoppingListItemAmountsHashMap = new HashMap<>();
-    this.missingProductIds = new ArrayList<>();
+    this.unitConversionIndex = new QuantityUnitConversionIndex(null, null);
+    this.shoppingListItemAmountsHashMap = new IntDoubleMap();
+    this.missingProductIds = new IntSet();
     this.activeFields = new ArrayList<>();
     this.listener = listener;
     this.grocyApi = new GrocyApi((Application) context.getApplicationContext());
@@ -123,10 +123,6 @@ public class ShoppingModeItemAdapter extends
         SHOPPING_MODE.USE_SMALLER_FONT,
         SETTINGS_DEFAULT.SHOPPING_MODE.USE_SMALLER_FONT
     );
-    this.showDoneItems = sharedPrefs.getBoolean(
-        Constants.SETTINGS.SHOPPING_MODE.SHOW_DONE_ITEMS,
-        Constants.SETTINGS_DEFAULT.SHOPPING_MODE.SHOW_DONE_ITEMS
-    );
     this.maxDecimalPlacesAmount = sharedPrefs.getInt(
         STOCK.DECIMAL_PLACES_AMOUNT,
         SETTINGS_DEFAULT.STOCK.DECIMAL_PLACES_AMOUNT
@@ -136,107 +132,10 @@ public class ShoppingModeItemAdapter extends
         SETTINGS_DEFAULT.STOCK.DECIMAL_PLACES_PRICES_DISPLAY
     );
     this.currency = sharedPrefs.getString(PREF.CURRENCY, "");
-    this.priceTrackingEnabled = sharedPrefs
-        .getBoolean(PREF.FEATURE_STOCK_PRICE_TRACKING, true);
     this.pluralUtil = new PluralUtil(context);
     this.groupedListItems = new ArrayList<>();
   }
 
-  static ArrayList<GroupedListItem> getGroupedListItems(
-      Context context,
-      ArrayList<ShoppingListItem> shoppingListItems,
-      HashMap<Integer, ProductGroup> productGroupHashMap,
-      HashMap<Integer, Product> productHashMap,
-      HashMap<Integer, String> productNamesHashMap,
-      HashMap<Integer, Store> storeHashMap,
-      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
-      HashMap<Integer, Double> shoppingListItemAmountsHashMap,
-      String shoppingListNotes,
-      String groupingMode,
-      boolean priceTrackingEnabled,
-      int decimalPlacesPriceDisplay,
-      String currency,
-      boolean showDoneItems
-  ) {
-    if (groupingMode.equals(FilterChipLiveDataGroupingShoppingList.GROUPING_NONE)) {
-      SortUtil.sortShoppingListItemsByName(shoppingListItems, productNamesHashMap, true);
-      ArrayList<GroupedListItem> groupedListItems = new ArrayList<>();
-      ArrayList<ShoppingListItem> doneItems = new ArrayList<>();
-      for (ShoppingListItem shoppingListItem : shoppingListItems) {
-        if (shoppingListItem.getDoneInt() == 1) {
-          if (showDoneItems) doneItems.add(shoppingListItem);
-          continue;
-        }
-        groupedListItems.add(shoppingListItem);
-      }
-      if (showDoneItems && !doneItems.isEmpty()) {
-        groupedListItems.add(new GroupHeader(context.getString(R.string.subtitle_done)));
-        groupedListItems.addAll(doneItems);
-      }
-      ShoppingListItemAdapter.addBottomNotes(
-          context,
-          shoppingListNotes,
-          groupedListItems,
-          !shoppingListItems.isEmpty()
-      );
-      return groupedListItems;
-    }
-    HashMap<String, ArrayList<ShoppingListItem>> shoppingListItemsGroupedHashMap = new HashMap<>();
-    ArrayList<ShoppingListItem> ungroupedItems = new ArrayList<>();
-    ArrayList<ShoppingListItem> doneItems = new ArrayList<>();
-    for (ShoppingListItem shoppingListItem : shoppingListItems) {
-      if (shoppingListItem.getDoneInt() == 1) {
-        if (showDoneItems) doneItems.add(shoppingListItem);
-        continue;
-      }
-      String groupName = ShoppingListItemAdapter.getGroupName(shoppingListItem, productHashMap,
-          productGroupHashMap, storeHashMap, groupingMode);
-      if (groupName != null && !groupName.isEmpty()) {
-        ArrayList<ShoppingListItem> itemsFromGroup = shoppingListItemsGroupedHashMap.get(groupName);
-        if (itemsFromGroup == null) {
-          itemsFromGroup = new ArrayList<>();
-          shoppingListItemsGroupedHashMap.put(groupName, itemsFromGroup);
-        }
-        itemsFromGroup.add(shoppingListItem);
-      } else {
-        ungroupedItems.add(shoppingListItem);
-      }
-    }
-    ArrayList<GroupedListItem> groupedListItems = new ArrayList<>();
-    ArrayList<String> groupsSorted = new ArrayList<>(shoppingListItemsGroupedHashMap.keySet());
-    SortUtil.sortStringsByName(groupsSorted, true);
-    if (!ungroupedItems.isEmpty()) {
-      groupedListItems.add(new GroupHeader(context.getString(R.string.property_ungrouped)));
-      SortUtil.sortShoppingListItemsByName(ungroupedItems, productNamesHashMap, true);
-      groupedListItems.addAll(ungroupedItems);
-    }
-    for (String group : groupsSorted) {
-      ArrayList<ShoppingListItem> itemsFromGroup = shoppingListItemsGroupedHashMap.get(group);
-      if (itemsFromGroup == null) continue;
-      GroupHeader groupHeader = new GroupHeader(group);
-      groupHeader.setDisplayDivider(!ungroupedItems.isEmpty() || !groupsSorted.get(0).equals(group));
-      groupedListItems.add(groupHeader);
-      SortUtil.sortShoppingListItemsByName(itemsFromGroup, productNamesHashMap, true);
-      groupedListItems.addAll(itemsFromGroup);
-    }
-    ShoppingListItemAdapter.addBottomNotes(
-        context,
-        shoppingListNotes,
-        groupedListItems,
-        !ungroupedItems.isEmpty() || !groupsSorted.isEmpty()
-    );
-    if (showDoneItems && !doneItems.isEmpty()) {
-      groupedListItems.add(new GroupHeader(context.getString(R.string.subtitle_done)));
-      groupedListItems.addAll(doneItems);
-    }
-    if ((!ungroupedItems.isEmpty() || !groupsSorted.isEmpty()) && priceTrackingEnabled) {
-      ShoppingListItemAdapter.addTotalPrice(context, shoppingListItems, groupedListItems,
-          productLastPurchasedHashMap, shoppingListItemAmountsHashMap,
-          decimalPlacesPriceDisplay, currency);
-    }
-    return groupedListItems;
-  }
-
   public static class ViewHolder extends RecyclerView.ViewHolder {
 
     public ViewHolder(View view) {
@@ -405,10 +304,10 @@ public class ShoppingModeItemAdapter extends
 
     // AMOUNT
 
-    Double amountInItemUnit = shoppingListItemAmountsHashMap.get(item.getId());
+    double amountInItemUnit = shoppingListItemAmountsHashMap.get(item.getId(), Double.NaN);
     if (activeFields.contains(ShoppingListViewModel.FIELD_AMOUNT)) {
       StringBuilder stringBuilderAmount = new StringBuilder();
-      if (product != null && amountInItemUnit != null) {
+      if (product != null && !Double.isNaN(amountInItemUnit)) {
         QuantityUnit quantityUnit = quantityUnitHashMap.get(item.getQuIdInt());
         String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, amountInItemUnit);
         if (quStr != null) {
@@ -533,8 +432,7 @@ public class ShoppingModeItemAdapter extends
     double conversionFactor = 1.0;
     if ((activeFields.contains(ShoppingModeViewModel.FIELD_PRICE_LAST_TOTAL)
         || activeFields.contains(ShoppingModeViewModel.FIELD_PRICE_LAST_UNIT)) && product != null) {
-      QuantityUnitConversionResolved c = QuantityUnitConversionResolved.findConversion(
-          unitConversions,
+      QuantityUnitConversionResolved c = unitConversionIndex.findConversion(
           product.getId(),
           item.getQuIdInt(),
           product.getQuIdStockInt()
@@ -602,72 +500,47 @@ public class ShoppingModeItemAdapter extends
     return chip;
   }
 
-  public void updateData(
-      Context context,
-      ArrayList<ShoppingListItem> shoppingListItems,
-      HashMap<Integer, Product> productHashMap,
-      HashMap<Integer, String> productNamesHashMap,
-      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
-      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      List<QuantityUnitConversionResolved> unitConversions,
-      HashMap<Integer, ProductGroup> productGroupHashMap,
-      HashMap<Integer, Store> storeHashMap,
-      HashMap<Integer, Double> shoppingListItemAmountsHashMap,
-      ArrayList<Integer> missingProductIds,
-      String shoppingListNotes,
-      String groupingMode,
-      List<String> activeFields,
-      Runnable onListFilled
-  ) {
-    ArrayList<GroupedListItem> newGroupedListItems = getGroupedListItems(
-        context, shoppingListItems,
-        productGroupHashMap, productHashMap, productNamesHashMap, storeHashMap,
-        productLastPurchasedHashMap, shoppingListItemAmountsHashMap,
-        shoppingListNotes, groupingMode, priceTrackingEnabled, decimalPlacesPriceDisplay,
-        currency, showDoneItems);
-    ShoppingListItemAdapter.DiffCallback diffCallback = new ShoppingListItemAdapter.DiffCallback(
-        this.groupedListItems,
-        newGroupedListItems,
-        this.productHashMap,
-        productHashMap,
-        this.productLastPurchasedHashMap,
-        productLastPurchasedHashMap,
-        this.quantityUnitHashMap,
-        quantityUnitHashMap,
-        this.unitConversions,
-        unitConversions,
-        this.shoppingListItemAmountsHashMap,
-        shoppingListItemAmountsHashMap,
-        this.missingProductIds,
-        missingProductIds,
-        this.groupingMode,
-        groupingMode,
-        this.activeFields,
-        activeFields
-    );
+  public void updateData(Result result, Runnable onListFilled) {
+    Input input = result.getInput();
+    List<GroupedListItem> newGroupedListItems = result.getItems();
+    DiffUtil.DiffResult diffResult = result.getDiffResult();
+    if (diffResult == null || result.getPreviousItems() != groupedListItems) {
+      // the pipeline has diffed against other rows, e.g. after the adapter was recreated
+      diffResult = DiffUtil.calculateDiff(new ShoppingListItemAdapter.DiffCallback(
+          this.groupedListItems,
+          newGroupedListItems,
+          this.productHashMap,
+          input.getProductHashMap(),
+          this.productLastPurchasedHashMap,
+          input.getProductLastPurchasedHashMap(),
+          this.quantityUnitHashMap,
+          input.getQuantityUnitHashMap(),
+          this.unitConversionIndex,
+          input.getUnitConversionIndex(),
+          this.shoppingListItemAmountsHashMap,
+          input.getShoppingListItemAmountsHashMap(),
+          this.missingProductIds,
+          input.getMissingProductIds(),
+          this.groupingMode,
+          input.getGroupingMode(),
+          this.activeFields,
+          input.getActiveFields()
+      ));
+    }
 
     if (onListFilled != null && !newGroupedListItems.isEmpty() && groupedListItems.isEmpty()) {
       onListFilled.run();
     }
 
-    DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(diffCallback);
-    this.groupedListItems.clear();
-    this.groupedListItems.addAll(newGroupedListItems);
-    this.productHashMap.clear();
-    this.productHashMap.putAll(productHashMap);
-    this.quantityUnitHashMap.clear();
-    this.quantityUnitHashMap.putAll(quantityUnitHashMap);
-    this.unitConversions.clear();
-    this.unitConversions.addAll(unitConversions);
-    this.productLastPurchasedHashMap.clear();
-    this.productLastPurchasedHashMap.putAll(productLastPurchasedHashMap);
-    this.shoppingListItemAmountsHashMap.clear();
-    this.shoppingListItemAmountsHashMap.putAll(shoppingListItemAmountsHashMap);
-    this.missingProductIds.clear();
-    this.missingProductIds.addAll(missingProductIds);
-    this.groupingMode = groupingMode;
-    this.activeFields.clear();
-    this.activeFields.addAll(activeFields);
+    this.groupedListItems = newGroupedListItems;
+    this.productHashMap = input.getProductHashMap();
+    this.quantityUnitHashMap = input.getQuantityUnitHashMap();
+    this.unitConversionIndex = input.getUnitConversionIndex();
+    this.productLastPurchasedHashMap = input.getProductLastPurchasedHashMap();
+    this.shoppingListItemAmountsHashMap = input.getShoppingListItemAmountsHashMap();
+    this.missingProductIds = input.getMissingProductIds();
+    this.groupingMode = input.getGroupingMode();
+    this.activeFields = input.getActiveFields();
     diffResult.dispatchUpdatesTo(new AdapterListUpdateCallback(this, linearLayoutManager));
   }
 
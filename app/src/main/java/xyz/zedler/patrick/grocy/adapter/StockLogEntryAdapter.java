@@ -29,11 +29,13 @@ import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
@@ -54,10 +56,10 @@ public class StockLogEntryAdapter extends
   private final static String TAG = StockLogEntryAdapter.class.getSimpleName();
 
   private final ArrayList<StockLogEntry> stockLogEntries;
-  private final HashMap<Integer, Product> productHashMap;
-  private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final HashMap<Integer, Location> locationHashMap;
-  private final HashMap<Integer, User> userHashMap;
+  private HashMap<Integer, Product> productHashMap;
+  private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+  private HashMap<Integer, Location> locationHashMap;
+  private HashMap<Integer, User> userHashMap;
   private final PluralUtil pluralUtil;
   private final StockLogEntryAdapterListener listener;
   private final DateUtil dateUtil;
@@ -81,7 +83,7 @@ public class StockLogEntryAdapter extends
     } else {
       this.dueSoonDays = Integer.parseInt(SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS);
     }
-    this.stockLogEntries = stockLogEntries;
+    this.stockLogEntries = new ArrayList<>(stockLogEntries);
     this.productHashMap = new HashMap<>(productHashMap);
     this.quantityUnitHashMap = new HashMap<>(quantityUnitHashMap);
     this.locationHashMap = new HashMap<>(locationHashMap);
@@ -235,14 +237,58 @@ public class StockLogEntryAdapter extends
     );
   }
 
-  public void add(StockLogEntry stockLogEntry) {
-    stockLogEntries.add(stockLogEntry);
-    notifyItemInserted(stockLogEntries.size() - 1);
+  public void updateData(
+      List<StockLogEntry> newList,
+      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+      HashMap<Integer, Product> productHashMap,
+      HashMap<Integer, Location> locationHashMap,
+      HashMap<Integer, User> userHashMap
+  ) {
+    this.quantityUnitHashMap = new HashMap<>(quantityUnitHashMap);
+    this.productHashMap = new HashMap<>(productHashMap);
+    this.locationHashMap = new HashMap<>(locationHashMap);
+    this.userHashMap = new HashMap<>(userHashMap);
+
+    DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(
+        new DiffCallback(this.stockLogEntries, newList)
+    );
+    this.stockLogEntries.clear();
+    this.stockLogEntries.addAll(newList);
+    diffResult.dispatchUpdatesTo(this);
   }
 
-  public void addAll(List<StockLogEntry> results) {
-    for (StockLogEntry result : results) {
-      add(result);
+  static class DiffCallback extends DiffUtil.Callback {
+
+    private final List<StockLogEntry> oldItems;
+    private final List<StockLogEntry> newItems;
+
+    DiffCallback(List<StockLogEntry> oldItems, List<StockLogEntry> newItems) {
+      this.oldItems = oldItems;
+      this.newItems = newItems;
+    }
+
+    @Override
+    public int getOldListSize() {
+      return oldItems.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+      return newItems.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPos, int newItemPos) {
+      return oldItems.get(oldItemPos).getId() == newItems.get(newItemPos).getId();
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPos, int newItemPos) {
+      StockLogEntry oldItem = oldItems.get(oldItemPos);
+      StockLogEntry newItem = newItems.get(newItemPos);
+      // entries don't change after they have been logged, apart from being undone
+      return oldItem.getUndoneBoolean() == newItem.getUndoneBoolean()
+          && Objects.equals(oldItem.getUndoneTimestamp(), newItem.getUndoneTimestamp());
     }
   }
 
@@ -261,6 +307,9 @@ public class StockLogEntryAdapter extends
 
   public abstract static class PaginationScrollListener extends RecyclerView.OnScrollListener {
 
+    // next page is requested before the end is visible
+    private final static int PREFETCH_DISTANCE = 10;
+
     private final LinearLayoutManager layoutManager;
 
     public PaginationScrollListener(LinearLayoutManager layoutManager) {
@@ -276,7 +325,7 @@ public class StockLogEntryAdapter extends
       int firstVisibleItemPosition = layoutManager.findFirstVisibleItemPosition();
 
       if (!isLoading() && !isLastPage()) {
-        if ((visibleItemCount + firstVisibleItemPosition) >= totalItemCount
+        if ((visibleItemCount + firstVisibleItemPosition + PREFETCH_DISTANCE) >= totalItemCount
             && firstVisibleItemPosition >= 0) {
           loadMoreItems();
         }
@@ -29,6 +29,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
@@ -45,6 +46,7 @@ import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingListGroupBinding;
 import xyz.zedler.patrick.grocy.databinding.RowStockItemBinding;
+import xyz.zedler.patrick.grocy.helper.PicturePreloader.PictureUrlProvider;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataGroupingStock;
 import xyz.zedler.patrick.grocy.model.GroupHeader;
 import xyz.zedler.patrick.grocy.model.GroupedListItem;
@@ -59,27 +61,30 @@ import xyz.zedler.patrick.grocy.model.Userfield;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
+import xyz.zedler.patrick.grocy.util.IntSet;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PictureUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.ResUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 import xyz.zedler.patrick.grocy.viewmodel.StockOverviewViewModel;
 import xyz.zedler.patrick.grocy.web.RequestHeaders;
 
 public class StockOverviewItemAdapter extends
-    RecyclerView.Adapter<StockOverviewItemAdapter.ViewHolder> {
+    RecyclerView.Adapter<StockOverviewItemAdapter.ViewHolder> implements PictureUrlProvider {
 
   private final static String TAG = StockOverviewItemAdapter.class.getSimpleName();
 
   private final ArrayList<GroupedListItem> groupedListItems;
-  private final ArrayList<String> shoppingListItemsProductIds;
+  private final IntSet shoppingListItemsProductIds;
   private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final List<QuantityUnitConversionResolved> quantityUnitConversions;
-  private final HashMap<Integer, String> productAveragePriceHashMap;
-  private final HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private final IntObjectMap<String> productAveragePriceHashMap;
+  private final IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
   private final PluralUtil pluralUtil;
-  private final ArrayList<Integer> missingItemsProductIds;
+  private final IntSet missingItemsProductIds;
   private final HashMap<String, Userfield> userfieldHashMap;
   private final StockOverviewItemAdapterListener listener;
   private final GrocyApi grocyApi;
@@ -106,13 +111,13 @@ public class StockOverviewItemAdapter extends
       int daysExpiringSoon,
       String currency
   ) {
-    this.shoppingListItemsProductIds = new ArrayList<>();
+    this.shoppingListItemsProductIds = new IntSet();
     this.quantityUnitHashMap = new HashMap<>();
-    this.quantityUnitConversions = new ArrayList<>();
-    this.productAveragePriceHashMap = new HashMap<>();
-    this.productLastPurchasedHashMap = new HashMap<>();
+    this.unitConversionIndex = new QuantityUnitConversionIndex(null, null);
+    this.productAveragePriceHashMap = new IntObjectMap<>();
+    this.productLastPurchasedHashMap = new IntObjectMap<>();
     this.pluralUtil = new PluralUtil(context);
-    this.missingItemsProductIds = new ArrayList<>();
+    this.missingItemsProductIds = new IntSet();
     this.userfieldHashMap = new HashMap<>();
     this.listener = listener;
     this.grocyApi = new GrocyApi((Application) context.getApplicationContext());
@@ -357,7 +362,7 @@ public class StockOverviewItemAdapter extends
 
     // IS ON SHOPPING LIST
 
-    if (shoppingListItemsProductIds.contains(String.valueOf(stockItem.getProduct().getId()))
+    if (shoppingListItemsProductIds.contains(stockItem.getProduct().getId())
         && shoppingListFeatureEnabled) {
       holder.binding.viewOnShoppingList.setVisibility(View.VISIBLE);
       holder.binding.viewOnShoppingList.setBackgroundTintList(
@@ -405,7 +410,7 @@ public class StockOverviewItemAdapter extends
     String date = stockItem.getBestBeforeDate();
     String days = null;
     if (date != null) {
-      days = String.valueOf(DateUtil.getDaysFromNow(date));
+      days = String.valueOf(DateUtil.getDaysFromToday(stockItem.getBestBeforeEpochDay()));
     }
 
     if (activeFields.contains(StockOverviewViewModel.FIELD_DUE_DATE) && showDateTracking
@@ -466,8 +471,7 @@ public class StockOverviewItemAdapter extends
       holder.binding.flexboxLayout.addView(chipValue);
     }
     double factorPriceToStock = 1.0;
-    QuantityUnitConversionResolved c = QuantityUnitConversionResolved.findConversion(
-            quantityUnitConversions,
+    QuantityUnitConversionResolved c = unitConversionIndex.findConversion(
             stockItem.getProduct().getId(),
             stockItem.getProduct().getQuIdPriceInt(),
             stockItem.getProduct().getQuIdStockInt()
@@ -565,6 +569,17 @@ public class StockOverviewItemAdapter extends
     return groupedListItems.size();
   }
 
+  @Nullable
+  @Override
+  public String getPictureUrl(int position) {
+    if (!activeFields.contains(StockOverviewViewModel.FIELD_PICTURE)) return null;
+    GroupedListItem groupedListItem = getGroupedListItemForPos(position);
+    if (!(groupedListItem instanceof StockItem)) return null;
+    String pictureFileName = ((StockItem) groupedListItem).getProduct().getPictureFileName();
+    if (pictureFileName == null || pictureFileName.isEmpty()) return null;
+    return grocyApi.getProductPictureServeSmall(pictureFileName);
+  }
+
   public GroupedListItem getGroupedListItemForPos(int position) {
     if (groupedListItems == null || position < 0
         || position >= groupedListItems.size()) {
@@ -581,15 +596,15 @@ public class StockOverviewItemAdapter extends
   public void updateData(
       Context context,
       ArrayList<StockItem> newList,
-      ArrayList<String> shoppingListItemsProductIds,
+      IntSet shoppingListItemsProductIds,
       HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      List<QuantityUnitConversionResolved> quantityUnitConversions,
-      HashMap<Integer, String> productAveragePriceHashMap,
-      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
+      QuantityUnitConversionIndex unitConversionIndex,
+      IntObjectMap<String> productAveragePriceHashMap,
+      IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap,
       HashMap<Integer, ProductGroup> productGroupHashMap,
       HashMap<Integer, Product> productHashMap,
       HashMap<Integer, Location> locationHashMap,
-      ArrayList<Integer> missingItemsProductIds,
+      IntSet missingItemsProductIds,
       HashMap<String, Userfield> userfieldHashMap,
       String sortMode,
       boolean sortAscending,
@@ -608,8 +623,8 @@ public class StockOverviewItemAdapter extends
         shoppingListItemsProductIds,
         this.quantityUnitHashMap,
         quantityUnitHashMap,
-        this.quantityUnitConversions,
-        quantityUnitConversions,
+        this.unitConversionIndex,
+        unitConversionIndex,
         this.productAveragePriceHashMap,
         productAveragePriceHashMap,
         this.productLastPurchasedHashMap,
@@ -649,8 +664,7 @@ public class StockOverviewItemAdapter extends
     this.shoppingListItemsProductIds.addAll(shoppingListItemsProductIds);
     this.quantityUnitHashMap.clear();
     this.quantityUnitHashMap.putAll(quantityUnitHashMap);
-    this.quantityUnitConversions.clear();
-    this.quantityUnitConversions.addAll(quantityUnitConversions);
+    this.unitConversionIndex = unitConversionIndex;
     this.productAveragePriceHashMap.clear();
     this.productAveragePriceHashMap.putAll(productAveragePriceHashMap);
     this.productLastPurchasedHashMap.clear();
@@ -671,18 +685,18 @@ public class StockOverviewItemAdapter extends
 
     ArrayList<GroupedListItem> oldItems;
     ArrayList<GroupedListItem> newItems;
-    ArrayList<String> shoppingListItemsProductIdsOld;
-    ArrayList<String> shoppingListItemsProductIdsNew;
+    IntSet shoppingListItemsProductIdsOld;
+    IntSet shoppingListItemsProductIdsNew;
     HashMap<Integer, QuantityUnit> quantityUnitHashMapOld;
     HashMap<Integer, QuantityUnit> quantityUnitHashMapNew;
-    List<QuantityUnitConversionResolved> unitConversionsOld;
-    List<QuantityUnitConversionResolved> unitConversionsNew;
-    HashMap<Integer, String> productAveragePriceHashMapOld;
-    HashMap<Integer, String> productAveragePriceHashMapNew;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew;
-    ArrayList<Integer> missingProductIdsOld;
-    ArrayList<Integer> missingProductIdsNew;
+    QuantityUnitConversionIndex unitConversionIndexOld;
+    QuantityUnitConversionIndex unitConversionIndexNew;
+    IntObjectMap<String> productAveragePriceHashMapOld;
+    IntObjectMap<String> productAveragePriceHashMapNew;
+    IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapOld;
+    IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapNew;
+    IntSet missingProductIdsOld;
+    IntSet missingProductIdsNew;
     HashMap<String, Userfield> userfieldHashMapOld;
     HashMap<String, Userfield> userfieldHashMapNew;
     String sortModeOld;
@@ -697,18 +711,18 @@ public class StockOverviewItemAdapter extends
     public DiffCallback(
         ArrayList<GroupedListItem> oldItems,
         ArrayList<GroupedListItem> newItems,
-        ArrayList<String> shoppingListItemsProductIdsOld,
-        ArrayList<String> shoppingListItemsProductIdsNew,
+        IntSet shoppingListItemsProductIdsOld,
+        IntSet shoppingListItemsProductIdsNew,
         HashMap<Integer, QuantityUnit> quantityUnitHashMapOld,
         HashMap<Integer, QuantityUnit> quantityUnitHashMapNew,
-        List<QuantityUnitConversionResolved> unitConversionsOld,
-        List<QuantityUnitConversionResolved> unitConversionsNew,
-        HashMap<Integer, String> productAveragePriceHashMapOld,
-        HashMap<Integer, String> productAveragePriceHashMapNew,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew,
-        ArrayList<Integer> missingProductIdsOld,
-        ArrayList<Integer> missingProductIdsNew,
+        QuantityUnitConversionIndex unitConversionIndexOld,
+        QuantityUnitConversionIndex unitConversionIndexNew,
+        IntObjectMap<String> productAveragePriceHashMapOld,
+        IntObjectMap<String> productAveragePriceHashMapNew,
+        IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapOld,
+        IntObjectMap<ProductLastPurchased> productLastPurchasedHashMapNew,
+        IntSet missingProductIdsOld,
+        IntSet missingProductIdsNew,
         HashMap<String, Userfield> userfieldHashMapOld,
         HashMap<String, Userfield> userfieldHashMapNew,
         String sortModeOld,
@@ -726,8 +740,8 @@ public class StockOverviewItemAdapter extends
       this.shoppingListItemsProductIdsNew = shoppingListItemsProductIdsNew;
       this.quantityUnitHashMapOld = quantityUnitHashMapOld;
       this.quantityUnitHashMapNew = quantityUnitHashMapNew;
-      this.unitConversionsOld = unitConversionsOld;
-      this.unitConversionsNew = unitConversionsNew;
+      this.unitConversionIndexOld = unitConversionIndexOld;
+      this.unitConversionIndexNew = unitConversionIndexNew;
       this.productAveragePriceHashMapOld = productAveragePriceHashMapOld;
       this.productAveragePriceHashMapNew = productAveragePriceHashMapNew;
       this.productLastPurchasedHashMapOld = productLastPurchasedHashMapOld;
@@ -802,9 +816,9 @@ public class StockOverviewItemAdapter extends
         }
 
         boolean isOnShoppingListOld = shoppingListItemsProductIdsOld
-            .contains(String.valueOf(oldItem.getProduct().getId()));
+            .contains(oldItem.getProduct().getId());
         boolean isOnShoppingListNew = shoppingListItemsProductIdsNew
-            .contains(String.valueOf(newItem.getProduct().getId()));
+            .contains(newItem.getProduct().getId());
         if (isOnShoppingListNew != isOnShoppingListOld) {
           return false;
         }
@@ -834,14 +848,12 @@ public class StockOverviewItemAdapter extends
           return false;
         }
 
-        QuantityUnitConversionResolved oldCon = QuantityUnitConversionResolved.findConversion(
-                unitConversionsOld,
+        QuantityUnitConversionResolved oldCon = unitConversionIndexOld.findConversion(
                 oldItem.getProductId(),
                 oldItem.getProduct().getQuIdPriceInt(),
                 oldItem.getProduct().getQuIdStockInt()
         );
-        QuantityUnitConversionResolved newCon = QuantityUnitConversionResolved.findConversion(
-                unitConversionsNew,
+        QuantityUnitConversionResolved newCon = unitConversionIndexNew.findConversion(
                 newItem.getProductId(),
                 newItem.getProduct().getQuIdPriceInt(),
                 newItem.getProduct().getQuIdStockInt()
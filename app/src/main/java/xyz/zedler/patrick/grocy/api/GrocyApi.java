@@ -304,6 +304,17 @@ public class GrocyApi {
     }
   }
 
+  /**
+   * Returns all undone stock log entries with an id greater or equal to the given one
+   */
+  public String getUndoneStockLogEntries(int fromId) {
+    return getUrl(
+        "/objects/stock_log",
+        new COMPARISON("undone", COMPARISON_OPERATOR.EQUAL, "1"),
+        new COMPARISON("id", COMPARISON_OPERATOR.GREATER_OR_EQUAL, String.valueOf(fromId))
+    );
+  }
+
   /**
    * Returns all products which are currently in stock incl. the next due date per product
    */
@@ -0,0 +1,50 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import io.reactivex.rxjava3.core.Single;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.ExternalProductLookup;
+
+@Dao
+public interface ExternalProductLookupDao {
+
+  @Query("SELECT * FROM external_product_lookup_table "
+      + "WHERE source = :source AND barcode = :barcode")
+  Single<List<ExternalProductLookup>> getLookups(String source, String barcode);
+
+  @Insert(onConflict = OnConflictStrategy.REPLACE)
+  Single<Long> insertLookup(ExternalProductLookup lookup);
+
+  @Query("UPDATE external_product_lookup_table SET access_time = :accessTime "
+      + "WHERE source = :source AND barcode = :barcode")
+  Single<Integer> updateAccessTime(String source, String barcode, long accessTime);
+
+  @Query("DELETE FROM external_product_lookup_table WHERE rowid NOT IN ("
+      + "SELECT rowid FROM external_product_lookup_table "
+      + "ORDER BY access_time DESC LIMIT :maxCount)")
+  Single<Integer> deleteLeastRecentlyUsed(int maxCount);
+
+}
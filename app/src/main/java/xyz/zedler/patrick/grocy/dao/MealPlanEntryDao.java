@@ -34,10 +34,16 @@ public interface MealPlanEntryDao {
   @Query("SELECT * FROM meal_plan_entry_table")
   Single<List<MealPlanEntry>> getMealPlanEntries();
 
+  @Query("SELECT * FROM meal_plan_entry_table WHERE day >= :fromDay AND day <= :toDay")
+  Single<List<MealPlanEntry>> getMealPlanEntries(String fromDay, String toDay);
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertMealPlanEntries(List<MealPlanEntry> mealPlanEntries);
 
   @Query("DELETE FROM meal_plan_entry_table")
   Single<Integer> deleteMealPlanEntries();
 
+  @Query("DELETE FROM meal_plan_entry_table WHERE day >= :fromDay AND day <= :toDay")
+  Single<Integer> deleteMealPlanEntries(String fromDay, String toDay);
+
 }
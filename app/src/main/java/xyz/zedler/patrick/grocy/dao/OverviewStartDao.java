@@ -0,0 +1,91 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import io.reactivex.rxjava3.core.Single;
+import xyz.zedler.patrick.grocy.model.OverviewStartSummary;
+import xyz.zedler.patrick.grocy.model.VolatileItem;
+
+@Dao
+public interface OverviewStartDao {
+
+  // Status of stock items like StockStatusClassifier, items without valid due date get the
+  // status of their volatile item. Missing items which are not partly in stock are skipped.
+  String STOCK_STATUS = "stock_status AS (SELECT s.value AS value, "
+      + "IFNULL(p.hide_on_stock_overview = '1', 0) AS hidden, "
+      + "CASE WHEN p.no_own_stock = '1' THEN 0 "
+      + "WHEN julianday(substr(s.best_before_date, 1, 10)) IS NULL THEN "
+      + "IFNULL((SELECT v.volatile_type FROM volatile_item_table v "
+      + "WHERE v.product_id = s.product_id LIMIT 1), 0) "
+      + "WHEN julianday(substr(s.best_before_date, 1, 10)) < julianday(:today) THEN "
+      + "CASE WHEN s.due_type = '2' THEN " + VolatileItem.TYPE_EXPIRED
+      + " ELSE " + VolatileItem.TYPE_OVERDUE + " END "
+      + "WHEN julianday(substr(s.best_before_date, 1, 10)) - julianday(:today) "
+      + "<= :stockDueSoonDays THEN " + VolatileItem.TYPE_DUE + " "
+      + "ELSE 0 END AS status "
+      + "FROM stock_item_table s LEFT JOIN product_table p ON p.id = s.product_id "
+      + "WHERE NOT EXISTS (SELECT 1 FROM missing_item_table m WHERE m.id = s.product_id "
+      + "AND IFNULL(m.is_partly_in_stock, '0') != '1'))";
+
+  // Full days until the next chore execution, rounded towards zero like DateUtil.getDaysFromNow
+  String CHORE_DAYS = "CAST(julianday(next_estimated_execution_time) - julianday(:today) "
+      + "AS INTEGER)";
+
+  @Query("WITH " + STOCK_STATUS + " SELECT "
+      + "(SELECT COUNT(*) FROM stock_status WHERE NOT hidden) AS stock_items_count, "
+      + "(SELECT IFNULL(SUM(CAST(value AS REAL)), 0) FROM stock_status WHERE NOT hidden) "
+      + "AS stock_value, "
+      + "(SELECT COUNT(*) FROM stock_status WHERE status = " + VolatileItem.TYPE_DUE + ") "
+      + "AS stock_due_count, "
+      + "(SELECT COUNT(*) FROM stock_status WHERE status = " + VolatileItem.TYPE_OVERDUE + ") "
+      + "AS stock_overdue_count, "
+      + "(SELECT COUNT(*) FROM stock_status WHERE status = " + VolatileItem.TYPE_EXPIRED + ") "
+      + "AS stock_expired_count, "
+      + "(SELECT COUNT(*) FROM missing_item_table) AS stock_missing_count, "
+      + "(SELECT COUNT(*) FROM missing_item_table m WHERE EXISTS (SELECT 1 "
+      + "FROM shopping_list_item_table i WHERE i.product_id = m.id)) "
+      + "AS stock_missing_shopping_list_count, "
+      + "(SELECT COUNT(*) FROM shopping_list_item_table) AS shopping_list_items_count, "
+      + "(SELECT COUNT(*) FROM shopping_list_table) AS shopping_lists_count, "
+      + "(SELECT COUNT(*) FROM product_table) AS products_count, "
+      + "(SELECT COUNT(*) FROM recipe_table WHERE id >= 0) AS recipes_count, "
+      + "EXISTS (SELECT 1 FROM stored_purchase_table) AS stored_purchases_exist, "
+      + "(SELECT COUNT(*) FROM task_table WHERE IFNULL(done, 0) != 1) AS tasks_undone_count, "
+      + "(SELECT COUNT(*) FROM task_table WHERE IFNULL(done, 0) != 1 "
+      + "AND assigned_to_user_id = :userId) AS tasks_assigned_count, "
+      + "(SELECT COUNT(*) FROM chore_entry_table WHERE " + CHORE_DAYS + " = 0) "
+      + "AS chores_due_today_count, "
+      + "(SELECT COUNT(*) FROM chore_entry_table WHERE " + CHORE_DAYS + " >= 0 "
+      + "AND " + CHORE_DAYS + " <= :choreDueSoonDays) AS chores_due_soon_count, "
+      + "(SELECT COUNT(*) FROM chore_entry_table WHERE " + CHORE_DAYS + " < 0) "
+      + "AS chores_overdue_count, "
+      + "(SELECT COUNT(*) FROM chore_entry_table "
+      + "WHERE next_execution_assigned_to_user_id = :userId) AS chores_assigned_count")
+  Single<OverviewStartSummary> getSummary(
+      String today,
+      int stockDueSoonDays,
+      int choreDueSoonDays,
+      int userId
+  );
+
+}
@@ -21,6 +21,7 @@
 package xyz.zedler.patrick.grocy.dao;
 
 import androidx.room.Dao;
+import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
@@ -40,4 +41,9 @@ public interface QuantityUnitConversionResolvedDao {
   @Query("DELETE FROM quantity_unit_conversion_resolved_table")
   Single<Integer> deleteConversionsResolved();
 
+  @Delete
+  Single<Integer> deleteConversionsResolved(
+      List<QuantityUnitConversionResolved> quantityUnitConversionsResolved
+  );
+
 }
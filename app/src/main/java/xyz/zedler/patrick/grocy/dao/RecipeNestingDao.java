@@ -41,7 +41,16 @@ public interface RecipeNestingDao {
   @Query("DELETE FROM recipe_nesting_table")
   Single<Integer> deleteRecipeNestings();
 
-  @Query("SELECT * FROM RecipeNestingResolved")
+  @Query("SELECT * FROM recipe_nesting_resolved_table")
   Single<List<RecipeNestingResolved>> getRecipeNestingsResolved();
 
+  @Insert(onConflict = OnConflictStrategy.REPLACE)
+  Single<List<Long>> insertRecipeNestingsResolved(List<RecipeNestingResolved> nestingsResolved);
+
+  @Query("DELETE FROM recipe_nesting_resolved_table WHERE recipe_id IN (:recipeIds)")
+  Single<Integer> deleteRecipeNestingsResolved(List<Integer> recipeIds);
+
+  @Query("DELETE FROM recipe_nesting_resolved_table")
+  Single<Integer> deleteRecipeNestingsResolved();
+
 }
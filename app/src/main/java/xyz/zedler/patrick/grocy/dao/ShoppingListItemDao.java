@@ -49,4 +49,7 @@ public interface ShoppingListItemDao {
   @Query("DELETE FROM shopping_list_item_table")
   Single<Integer> deleteShoppingListItems();
 
+  @Query("DELETE FROM shopping_list_item_table WHERE id IN (:ids)")
+  Single<Integer> deleteShoppingListItems(List<Integer> ids);
+
 }
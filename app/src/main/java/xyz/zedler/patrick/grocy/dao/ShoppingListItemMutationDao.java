@@ -0,0 +1,52 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import io.reactivex.rxjava3.core.Single;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemMutation;
+
+@Dao
+public interface ShoppingListItemMutationDao {
+
+  @Query("SELECT * FROM shopping_list_item_mutation_table")
+  Single<List<ShoppingListItemMutation>> getMutations();
+
+  @Insert(onConflict = OnConflictStrategy.REPLACE)
+  Single<List<Long>> insertMutations(List<ShoppingListItemMutation> mutations);
+
+  @Query("DELETE FROM shopping_list_item_mutation_table "
+      + "WHERE item_id = :itemId AND revision = :revision")
+  Single<Integer> deleteMutation(int itemId, int revision);
+
+  @Query("UPDATE shopping_list_item_mutation_table "
+      + "SET failed_attempts = failed_attempts + 1, last_error = :error "
+      + "WHERE item_id = :itemId AND revision = :revision")
+  Single<Integer> setMutationFailed(int itemId, int revision, String error);
+
+  @Query("DELETE FROM shopping_list_item_mutation_table")
+  Single<Integer> deleteMutations();
+
+}
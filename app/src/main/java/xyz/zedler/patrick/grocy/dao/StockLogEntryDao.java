@@ -0,0 +1,60 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import io.reactivex.rxjava3.core.Single;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.StockLogEntry;
+
+@Dao
+public interface StockLogEntryDao {
+
+  @Query("SELECT * FROM stock_log_entry_table ORDER BY id DESC LIMIT :limit")
+  Single<List<StockLogEntry>> getStockLogEntries(int limit);
+
+  @Query("SELECT * FROM stock_log_entry_table WHERE product_id IN (:productIds) "
+      + "ORDER BY id DESC LIMIT :limit")
+  Single<List<StockLogEntry>> getStockLogEntriesOfProducts(List<Integer> productIds, int limit);
+
+  @Query("SELECT COUNT(*) FROM stock_log_entry_table")
+  Single<Integer> getStockLogEntryCount();
+
+  @Query("SELECT IFNULL(MAX(id), 0) FROM stock_log_entry_table")
+  Single<Integer> getNewestStockLogEntryId();
+
+  @Query("SELECT IFNULL(MIN(id), 0) FROM stock_log_entry_table")
+  Single<Integer> getOldestStockLogEntryId();
+
+  @Insert(onConflict = OnConflictStrategy.REPLACE)
+  Single<List<Long>> insertStockLogEntries(List<StockLogEntry> stockLogEntries);
+
+  @Query("UPDATE stock_log_entry_table SET undone = 1, undone_timestamp = :timestamp "
+      + "WHERE transaction_id = :transactionId")
+  Single<Integer> setTransactionUndone(String transactionId, String timestamp);
+
+  @Query("DELETE FROM stock_log_entry_table")
+  Single<Integer> deleteStockLogEntries();
+
+}
@@ -21,19 +21,24 @@
 package xyz.zedler.patrick.grocy.database;
 
 import android.content.Context;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import xyz.zedler.patrick.grocy.dao.ChoreDao;
 import xyz.zedler.patrick.grocy.dao.ChoreEntryDao;
+import xyz.zedler.patrick.grocy.dao.ExternalProductLookupDao;
 import xyz.zedler.patrick.grocy.dao.LocationDao;
 import xyz.zedler.patrick.grocy.dao.MealPlanEntryDao;
 import xyz.zedler.patrick.grocy.dao.MealPlanSectionDao;
 import xyz.zedler.patrick.grocy.dao.MissingItemDao;
+import xyz.zedler.patrick.grocy.dao.OverviewStartDao;
 import xyz.zedler.patrick.grocy.dao.PendingProductBarcodeDao;
 import xyz.zedler.patrick.grocy.dao.PendingProductDao;
 import xyz.zedler.patrick.grocy.dao.ProductAveragePriceDao;
@@ -52,9 +57,11 @@ import xyz.zedler.patrick.grocy.dao.RecipePositionResolvedDao;
 import xyz.zedler.patrick.grocy.dao.ServerDao;
 import xyz.zedler.patrick.grocy.dao.ShoppingListDao;
 import xyz.zedler.patrick.grocy.dao.ShoppingListItemDao;
+import xyz.zedler.patrick.grocy.dao.ShoppingListItemMutationDao;
 import xyz.zedler.patrick.grocy.dao.StockEntryDao;
 import xyz.zedler.patrick.grocy.dao.StockItemDao;
 import xyz.zedler.patrick.grocy.dao.StockLocationDao;
+import xyz.zedler.patrick.grocy.dao.StockLogEntryDao;
 import xyz.zedler.patrick.grocy.dao.StoreDao;
 import xyz.zedler.patrick.grocy.dao.StoredPurchaseDao;
 import xyz.zedler.patrick.grocy.dao.TaskCategoryDao;
@@ -64,6 +71,7 @@ import xyz.zedler.patrick.grocy.dao.UserfieldDao;
 import xyz.zedler.patrick.grocy.dao.VolatileItemDao;
 import xyz.zedler.patrick.grocy.model.Chore;
 import xyz.zedler.patrick.grocy.model.ChoreEntry;
+import xyz.zedler.patrick.grocy.model.ExternalProductLookup;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.MealPlanEntry;
 import xyz.zedler.patrick.grocy.model.MealPlanSection;
@@ -87,9 +95,11 @@ import xyz.zedler.patrick.grocy.model.RecipePositionResolved;
 import xyz.zedler.patrick.grocy.model.Server;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemMutation;
 import xyz.zedler.patrick.grocy.model.StockEntry;
 import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.StockLocation;
+import xyz.zedler.patrick.grocy.model.StockLogEntry;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.model.StoredPurchase;
 import xyz.zedler.patrick.grocy.model.Task;
@@ -103,6 +113,7 @@ import xyz.zedler.patrick.grocy.repository.MainRepository.OnVersionListener;
     entities = {
         ShoppingList.class,
         ShoppingListItem.class,
+        ShoppingListItemMutation.class,
         Product.class,
         ProductGroup.class,
         QuantityUnit.class,
@@ -126,30 +137,83 @@ import xyz.zedler.patrick.grocy.repository.MainRepository.OnVersionListener;
         Chore.class,
         ChoreEntry.class,
         StockEntry.class,
+        StockLogEntry.class,
         Server.class,
         Recipe.class,
         RecipeFulfillment.class,
         RecipePosition.class,
         RecipePositionResolved.class,
         RecipeNesting.class,
+        RecipeNestingResolved.class,
         MealPlanEntry.class,
         MealPlanSection.class,
-        Userfield.class
+        Userfield.class,
+        ExternalProductLookup.class
     },
-    views = {
-        RecipeNestingResolved.class
-    },
-    version = 54
+    version = 59
 )
 @TypeConverters({Converters.class})
 public abstract class AppDatabase extends RoomDatabase {
 
   private static AppDatabase INSTANCE;
 
+  /*
+   * Older versions only contain data from the server and are recreated on updates.
+   * From version 56 on, shopping_list_item_mutation_table holds changes which have not been
+   * sent yet, so these versions have to be migrated to keep them.
+   */
+  static final Migration MIGRATION_56_57 = new Migration(56, 57) {
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+      db.execSQL("CREATE TABLE IF NOT EXISTS `stock_log_entry_table` (`id` INTEGER NOT NULL, "
+          + "`product_id` INTEGER NOT NULL, `amount` TEXT, `best_before_date` TEXT, "
+          + "`purchased_date` TEXT, `used_date` TEXT, `spoiled` TEXT, `stock_id` TEXT, "
+          + "`transaction_type` TEXT, `price` TEXT, `undone` TEXT, `undone_timestamp` TEXT, "
+          + "`opened_date` TEXT, `location_id` TEXT, `recipe_id` TEXT, `correlation_id` TEXT, "
+          + "`transaction_id` TEXT, `stock_row_id` TEXT, `shopping_location_id` TEXT, "
+          + "`user_id` TEXT, `row_created_timestamp` TEXT, `note` TEXT, PRIMARY KEY(`id`))");
+      db.execSQL("CREATE INDEX IF NOT EXISTS `index_stock_log_entry_table_product_id` "
+          + "ON `stock_log_entry_table` (`product_id`)");
+      db.execSQL("CREATE INDEX IF NOT EXISTS `index_stock_log_entry_table_transaction_id` "
+          + "ON `stock_log_entry_table` (`transaction_id`)");
+    }
+  };
+
+  static final Migration MIGRATION_57_58 = new Migration(57, 58) {
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+      db.execSQL("CREATE TABLE IF NOT EXISTS `external_product_lookup_table` "
+          + "(`source` TEXT NOT NULL, `barcode` TEXT NOT NULL, `product_json` TEXT, "
+          + "`fetched_time` INTEGER NOT NULL, `access_time` INTEGER NOT NULL, "
+          + "PRIMARY KEY(`source`, `barcode`))");
+      db.execSQL("CREATE INDEX IF NOT EXISTS `index_external_product_lookup_table_access_time` "
+          + "ON `external_product_lookup_table` (`access_time`)");
+    }
+  };
+
+  static final Migration MIGRATION_58_59 = new Migration(58, 59) {
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+      // done_synced was replaced by the outbox, older SQLite versions can't drop columns
+      db.execSQL("CREATE TABLE IF NOT EXISTS `shopping_list_item_table_new` (`id` INTEGER "
+          + "NOT NULL, `note` TEXT, `amount` TEXT, `shopping_list_id` TEXT, `qu_id` TEXT, "
+          + "`done` TEXT, `product_id` TEXT, `row_created_timestamp` TEXT, PRIMARY KEY(`id`))");
+      db.execSQL("INSERT INTO `shopping_list_item_table_new` (`id`, `note`, `amount`, "
+          + "`shopping_list_id`, `qu_id`, `done`, `product_id`, `row_created_timestamp`) "
+          + "SELECT `id`, `note`, `amount`, `shopping_list_id`, `qu_id`, `done`, "
+          + "`product_id`, `row_created_timestamp` FROM `shopping_list_item_table`");
+      db.execSQL("DROP TABLE `shopping_list_item_table`");
+      db.execSQL("ALTER TABLE `shopping_list_item_table_new` "
+          + "RENAME TO `shopping_list_item_table`");
+    }
+  };
+
   public abstract ShoppingListDao shoppingListDao();
 
   public abstract ShoppingListItemDao shoppingListItemDao();
 
+  public abstract ShoppingListItemMutationDao shoppingListItemMutationDao();
+
   public abstract ProductDao productDao();
 
   public abstract ProductGroupDao productGroupDao();
@@ -210,17 +274,25 @@ public abstract class AppDatabase extends RoomDatabase {
 
   public abstract StockEntryDao stockEntryDao();
 
+  public abstract StockLogEntryDao stockLogEntryDao();
+
   public abstract UserfieldDao userfieldDao();
 
   public abstract ServerDao serverDao();
 
+  public abstract OverviewStartDao overviewStartDao();
+
+  public abstract ExternalProductLookupDao externalProductLookupDao();
+
   public static AppDatabase getAppDatabase(Context context) {
     if (INSTANCE == null) {
       INSTANCE = Room.databaseBuilder(
           context.getApplicationContext(),
           AppDatabase.class,
           "app_database"
-      ).fallbackToDestructiveMigration().build();
+      ).addMigrations(MIGRATION_56_57, MIGRATION_57_58, MIGRATION_58_59)
+          .fallbackToDestructiveMigration()
+          .build();
     }
     return INSTANCE;
   }
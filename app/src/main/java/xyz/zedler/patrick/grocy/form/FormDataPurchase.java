@@ -461,16 +461,28 @@ public class FormDataPurchase {
   }
 
   public String getTransactionSuccessMsg(double amountPurchased) {
-    QuantityUnit stock = quantityUnitStockLive.getValue();
     String productDetailsName = productDetailsLive.getValue() != null
         ? productDetailsLive.getValue().getProduct().getName() : "";
     String pendingProductName = pendingProductLive.getValue() != null
         ? pendingProductLive.getValue().getName() : null;
+    return getTransactionSuccessMsg(
+        amountPurchased,
+        quantityUnitStockLive.getValue(),
+        pendingProductName != null ? pendingProductName : productDetailsName
+    );
+  }
+
+  // for purchases which finish after the form has been filled with the next item
+  public String getTransactionSuccessMsg(
+      double amountPurchased,
+      @Nullable QuantityUnit stock,
+      String productName
+  ) {
     return application.getString(
         R.string.msg_purchased,
         NumUtil.trimAmount(amountPurchased, maxDecimalPlacesAmount),
         stock != null ? pluralUtil.getQuantityUnitPlural(stock, amountPurchased) : "",
-        pendingProductName != null ? pendingProductName : productDetailsName
+        productName
     );
   }
 
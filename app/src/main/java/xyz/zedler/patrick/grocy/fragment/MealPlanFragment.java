@@ -197,6 +197,7 @@ public class MealPlanFragment extends BaseFragment {
       int position = (int) ChronoUnit.DAYS.between(LocalDate.now(), date) + Integer.MAX_VALUE / 2;
       binding.viewPager.setCurrentItem(position, viewModel.isInitialScrollDone());
       if (!viewModel.isInitialScrollDone()) viewModel.setInitialScrollDone(true);
+      viewModel.onSelectedDateChanged();
       viewModel.getWeekCostsTextLive().setValue(viewModel.getWeekCostsText());
     });
 
@@ -29,10 +29,12 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.ItemTouchHelper;
+import com.bumptech.glide.Glide;
 import java.time.LocalDate;
 import xyz.zedler.patrick.grocy.adapter.MealPlanEntryAdapter;
 import xyz.zedler.patrick.grocy.adapter.MealPlanEntryAdapter.SimpleItemTouchHelperCallback;
 import xyz.zedler.patrick.grocy.databinding.FragmentMealPlanPagingBinding;
+import xyz.zedler.patrick.grocy.helper.PicturePreloader;
 import xyz.zedler.patrick.grocy.viewmodel.MealPlanViewModel;
 
 public class MealPlanPagingFragment extends Fragment {
@@ -82,6 +84,12 @@ public class MealPlanPagingFragment extends Fragment {
         date.format(viewModel.getDateFormatter())
     );
     binding.recycler.setAdapter(adapter);
+    new PicturePreloader(
+        Glide.with(this),
+        viewModel.getGrocyAuthHeaders(),
+        adapter,
+        false
+    ).attach(binding.recycler);
 
     ItemTouchHelper.Callback callback = new SimpleItemTouchHelperCallback(adapter, binding.recycler);
     ItemTouchHelper touchHelper = new ItemTouchHelper(callback);
@@ -97,7 +105,7 @@ public class MealPlanPagingFragment extends Fragment {
             viewModel.getProductHashMap(),
             viewModel.getQuantityUnitHashMap(),
             viewModel.getProductLastPurchasedHashMap(),
-            viewModel.getRecipeResolvedFulfillmentHashMap(),
+            viewModel.getRecipeResolvedFulfillments(dateFormatted),
             viewModel.getStockItemHashMap(),
             viewModel.getUserFieldHashMap(),
             viewModel.getFilterChipLiveDataEntriesFields().getActiveFields()
@@ -20,17 +20,36 @@
 
 package xyz.zedler.patrick.grocy.fragment;
 
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.media.ExifInterface;
 import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.LazyHeaders;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.io.File;
+import java.io.IOException;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.activity.MainActivity;
 import xyz.zedler.patrick.grocy.behavior.SystemBarBehavior;
 import xyz.zedler.patrick.grocy.databinding.FragmentPhotoViewerBinding;
 import xyz.zedler.patrick.grocy.util.PictureUtil;
+import xyz.zedler.patrick.grocy.util.PrefsUtil;
+import xyz.zedler.patrick.grocy.view.photoview.PhotoView;
+import xyz.zedler.patrick.grocy.view.photoview.TiledPictureDrawable;
 import xyz.zedler.patrick.grocy.web.RequestHeaders;
 
 public class PhotoViewerFragment extends BaseFragment {
@@ -39,6 +58,9 @@ public class PhotoViewerFragment extends BaseFragment {
 
   private FragmentPhotoViewerBinding binding;
   private MainActivity activity;
+  private TiledPictureDrawable tiledDrawable;
+  private Disposable disposable;
+  private boolean debug;
 
   @Override
   public View onCreateView(
@@ -53,12 +75,22 @@ public class PhotoViewerFragment extends BaseFragment {
   @Override
   public void onDestroyView() {
     super.onDestroyView();
+    if (disposable != null) {
+      disposable.dispose();
+      disposable = null;
+    }
+    if (tiledDrawable != null) {
+      binding.photoView.setImageDrawable(null);
+      tiledDrawable.recycle();
+      tiledDrawable = null;
+    }
     binding = null;
   }
 
   @Override
   public void onViewCreated(@Nullable View view, @Nullable Bundle savedInstanceState) {
     activity = (MainActivity) requireActivity();
+    debug = PrefsUtil.isDebuggingEnabled(activity);
     binding.setActivity(activity);
 
     PhotoViewerFragmentArgs args = PhotoViewerFragmentArgs.fromBundle(requireArguments());
@@ -73,15 +105,75 @@ public class PhotoViewerFragment extends BaseFragment {
     activity.getScrollBehavior().setBottomBarVisibility(false);
     activity.updateBottomAppBar(false, R.menu.menu_empty, null);
 
-    PictureUtil.loadPicture(
-        binding.photoView,
-        null,
-        null,
-        args.getUrl(),
-        args.getAddGrocyRequestHeaders()
-            ? RequestHeaders.getGlideGrocyAuthHeaders(requireContext())
-            : null,
-        true
-    );
+    LazyHeaders headers = args.getAddGrocyRequestHeaders()
+        ? RequestHeaders.getGlideGrocyAuthHeaders(requireContext())
+        : null;
+    // the original file is needed for region decoding, Glide only downloads and caches it
+    Glide.with(this)
+        .downloadOnly()
+        .load(headers != null ? new GlideUrl(args.getUrl(), headers) : args.getUrl())
+        .into(new CustomTarget<File>() {
+          @Override
+          public void onResourceReady(
+              @NonNull File resource,
+              @Nullable Transition<? super File> transition
+          ) {
+            loadTiledPicture(resource, args.getUrl(), headers);
+          }
+
+          @Override
+          public void onLoadFailed(@Nullable Drawable errorDrawable) {
+            loadPicture(args.getUrl(), headers);
+          }
+
+          @Override
+          public void onLoadCleared(@Nullable Drawable placeholder) {
+          }
+        });
+  }
+
+  private void loadTiledPicture(File file, String url, @Nullable LazyHeaders headers) {
+    if (binding == null) return;
+    // base layer is decoded at screen size, because the view may not be laid out yet
+    DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
+    int maxWidth = displayMetrics.widthPixels;
+    int maxHeight = displayMetrics.heightPixels;
+    disposable = Single.fromCallable(() -> {
+          ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+          if (PictureUtil.getRotationDegrees(exif) != 0) {
+            // tiles are decoded without rotation, Glide handles these pictures instead
+            throw new IOException("Rotated pictures are not decoded in tiles");
+          }
+          return TiledPictureDrawable.create(file, maxWidth, maxHeight);
+        })
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(drawable -> {
+          if (binding == null) {
+            drawable.recycle();
+            return;
+          }
+          tiledDrawable = drawable;
+          PhotoView photoView = binding.photoView;
+          photoView.setImageDrawable(drawable);
+          RectF displayRect = photoView.getDisplayRect();
+          if (displayRect != null && displayRect.width() > 0) {
+            // allow zooming in until picture pixels are twice as large as screen pixels
+            float fitScale = displayRect.width() / drawable.getIntrinsicWidth();
+            photoView.setMaximumScale(Math.max(photoView.getMaximumScale(), 2 / fitScale));
+          }
+          photoView.setOnMatrixChangeListener(rect -> drawable.setViewport(
+              rect, photoView.getWidth(), photoView.getHeight()
+          ));
+          drawable.setViewport(displayRect, photoView.getWidth(), photoView.getHeight());
+        }, throwable -> {
+          if (debug) Log.i(TAG, "loadTiledPicture: " + throwable.getMessage());
+          loadPicture(url, headers);
+        });
+  }
+
+  private void loadPicture(String url, @Nullable LazyHeaders headers) {
+    if (binding == null) return;
+    PictureUtil.loadPicture(binding.photoView, null, null, url, headers, true);
   }
 }
@@ -35,6 +35,8 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputLayout;
+import java.util.ArrayList;
+import java.util.List;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.ARGUMENT;
 import xyz.zedler.patrick.grocy.Constants.PREF;
@@ -45,6 +47,7 @@ import xyz.zedler.patrick.grocy.behavior.SystemBarBehavior;
 import xyz.zedler.patrick.grocy.databinding.FragmentPurchaseBinding;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheetArgs;
+import xyz.zedler.patrick.grocy.helper.BatchPurchasePipeline.Purchase;
 import xyz.zedler.patrick.grocy.helper.InfoFullscreenHelper;
 import xyz.zedler.patrick.grocy.model.BottomSheetEvent;
 import xyz.zedler.patrick.grocy.model.Event;
@@ -125,7 +128,7 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
     systemBarBehavior.setUp();
     activity.setSystemBarBehavior(systemBarBehavior);
 
-    binding.toolbar.setNavigationOnClickListener(v -> activity.navUtil.navigateUp());
+    binding.toolbar.setNavigationOnClickListener(v -> navigateUp());
 
     if (args.getStartWithScanner() && viewModel.isQuickModeReturnEnabled()
         && viewModel.isTurnOnQuickModeEnabled()) {
@@ -165,7 +168,7 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
           clearInputFocus();
           viewModel.getFormData().clearForm();
           boolean nextItemValid = viewModel.batchModeNextItem();
-          if (!nextItemValid) activity.navUtil.navigateUp();
+          if (!nextItemValid) viewModel.finishBatchMode();
         } else if (PurchaseFragmentArgs.fromBundle(getArguments()).getCloseWhenFinished()) {
           activity.navUtil.navigateUp();
         } else {
@@ -173,6 +176,10 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
           focusProductInputIfNecessary();
           embeddedFragmentScanner.startScannerIfVisible();
         }
+      } else if (event.getType() == Event.NAVIGATE_UP) {
+        activity.navUtil.navigateUp();
+      } else if (event.getType() == Event.SHOW_FAILED_PURCHASES) {
+        showFailedPurchasesDialog();
       } else if (event.getType() == Event.BOTTOM_SHEET) {
         BottomSheetEvent bottomSheetEvent = (BottomSheetEvent) event;
         activity.showBottomSheet(bottomSheetEvent.getBottomSheet(), event.getBundle());
@@ -350,6 +357,67 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
     super.onDestroy();
   }
 
+  @Override
+  public boolean onBackPressed() {
+    if (!viewModel.hasUnfinishedBatchPurchases()) return false;
+    showLeaveBatchModeDialog();
+    return true;
+  }
+
+  @Override
+  public void navigateUp() {
+    if (viewModel.hasUnfinishedBatchPurchases()) {
+      showLeaveBatchModeDialog();
+      return;
+    }
+    super.navigateUp();
+  }
+
+  public void showFailedPurchasesDialog() {
+    List<Purchase> failedPurchases = viewModel.getFailedPurchases();
+    if (failedPurchases.isEmpty()) return;
+    String[] productNames = new String[failedPurchases.size()];
+    boolean[] selected = new boolean[failedPurchases.size()];
+    for (int i = 0; i < failedPurchases.size(); i++) {
+      productNames[i] = failedPurchases.get(i).getProductName();
+      selected[i] = true;
+    }
+    new MaterialAlertDialogBuilder(activity, R.style.ThemeOverlay_Grocy_AlertDialog)
+        .setTitle(R.string.title_failed_purchases)
+        .setMultiChoiceItems(
+            productNames, selected, (dialog, which, isChecked) -> selected[which] = isChecked
+        ).setPositiveButton(R.string.action_retry, (dialog, which) -> {
+          performHapticClick();
+          viewModel.retryFailedPurchases(getSelectedPurchases(failedPurchases, selected));
+        }).setNegativeButton(R.string.action_discard, (dialog, which) -> {
+          performHapticClick();
+          viewModel.discardFailedPurchases(getSelectedPurchases(failedPurchases, selected));
+        }).setNeutralButton(R.string.action_close, (dialog, which) -> performHapticClick())
+        .setOnCancelListener(dialog -> performHapticClick()).create().show();
+  }
+
+  private static List<Purchase> getSelectedPurchases(
+      List<Purchase> purchases,
+      boolean[] selected
+  ) {
+    List<Purchase> selectedPurchases = new ArrayList<>();
+    for (int i = 0; i < purchases.size(); i++) {
+      if (selected[i]) selectedPurchases.add(purchases.get(i));
+    }
+    return selectedPurchases;
+  }
+
+  private void showLeaveBatchModeDialog() {
+    new MaterialAlertDialogBuilder(activity, R.style.ThemeOverlay_Grocy_AlertDialog_Caution)
+        .setTitle(R.string.title_confirmation)
+        .setMessage(viewModel.getLeaveBatchModeMessage())
+        .setPositiveButton(R.string.action_discard, (dialog, which) -> {
+          performHapticClick();
+          viewModel.leaveBatchMode();
+        }).setNegativeButton(R.string.action_cancel, (dialog, which) -> performHapticClick())
+        .setOnCancelListener(dialog -> performHapticClick()).create().show();
+  }
+
   @Override
   public boolean dispatchTouchEvent(MotionEvent event) {
     if (inactivityUtil != null && (event.getAction() == MotionEvent.ACTION_DOWN
@@ -564,7 +632,7 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
       clearInputFocus();
       viewModel.getFormData().clearForm();
       boolean nextItemValid = viewModel.batchModeNextItem();
-      if (!nextItemValid) activity.navUtil.navigateUp();
+      if (!nextItemValid) viewModel.finishBatchMode();
       return true;
     }
     return false;
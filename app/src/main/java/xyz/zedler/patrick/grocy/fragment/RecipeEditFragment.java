@@ -218,7 +218,7 @@ public class RecipeEditFragment extends BaseFragment implements EmbeddedFragment
         new ActivityResultContracts.StartActivityForResult(),
         result -> {
           if (result.getResultCode() == Activity.RESULT_OK) {
-            viewModel.scaleAndUploadBitmap(viewModel.getCurrentFilePath(), null);
+            viewModel.scaleAndUploadPicture(viewModel.getCurrentFilePath(), null);
           }
         });
 
@@ -140,7 +140,7 @@ public class RecipeEditIngredientListFragment extends BaseFragment
           items,
           viewModel.getProducts(),
           viewModel.getQuantityUnitHashMap(),
-          viewModel.getUnitConversions(),
+          viewModel.getUnitConversionIndex(),
           () -> binding.recycler.scheduleLayoutAnimation()
       );
     });
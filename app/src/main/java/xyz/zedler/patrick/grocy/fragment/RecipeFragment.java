@@ -169,7 +169,7 @@ public class RecipeFragment extends BaseFragment implements
         return;
       }
       Bundle argsPhotoViewer = new PhotoViewerFragmentArgs.Builder(
-          grocyApi.getRecipePictureServeLarge(recipe.getPictureFileName()),
+          grocyApi.getRecipePicture(recipe.getPictureFileName()),
           true
       ).build().toBundle();
       activity.navUtil.navigate(R.id.photoViewerFragment, argsPhotoViewer);
@@ -313,6 +313,7 @@ public class RecipeFragment extends BaseFragment implements
   @Override
   public void saveInput(String text, Bundle argsBundle) {
     viewModel.getServingsDesiredLive().setValue(text);
+    viewModel.onDesiredServingsChanged();
     viewModel.saveDesiredServings();
   }
 
@@ -389,7 +390,7 @@ public class RecipeFragment extends BaseFragment implements
             recipePositionsResolved,
             viewModel.getProducts(),
             viewModel.getQuantityUnits(),
-            viewModel.getQuantityUnitConversions(),
+            viewModel.getUnitConversionIndex(),
             viewModel.getFilterChipLiveDataIngredientFields().getActiveFields()
         );
       } else {
@@ -401,7 +402,7 @@ public class RecipeFragment extends BaseFragment implements
                 recipePositionsResolved,
                 viewModel.getProducts(),
                 viewModel.getQuantityUnits(),
-                viewModel.getQuantityUnitConversions(),
+                viewModel.getUnitConversionIndex(),
                 viewModel.getFilterChipLiveDataIngredientFields().getActiveFields(),
                 this
             )
@@ -415,7 +416,7 @@ public class RecipeFragment extends BaseFragment implements
             recipePositions,
             viewModel.getProducts(),
             viewModel.getQuantityUnits(),
-            viewModel.getQuantityUnitConversions(),
+            viewModel.getUnitConversionIndex(),
             viewModel.getStockItemHashMap(),
             viewModel.getShoppingListItems()
         );
@@ -428,7 +429,7 @@ public class RecipeFragment extends BaseFragment implements
                 recipePositions,
                 viewModel.getProducts(),
                 viewModel.getQuantityUnits(),
-                viewModel.getQuantityUnitConversions(),
+                viewModel.getUnitConversionIndex(),
                 viewModel.getStockItemHashMap(),
                 viewModel.getShoppingListItems(),
                 this
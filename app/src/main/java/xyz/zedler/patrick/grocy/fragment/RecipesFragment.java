@@ -33,6 +33,7 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import com.bumptech.glide.Glide;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.ACTION;
 import xyz.zedler.patrick.grocy.Constants.PREF;
@@ -43,6 +44,7 @@ import xyz.zedler.patrick.grocy.behavior.AppBarBehavior;
 import xyz.zedler.patrick.grocy.behavior.SystemBarBehavior;
 import xyz.zedler.patrick.grocy.databinding.FragmentRecipesBinding;
 import xyz.zedler.patrick.grocy.helper.InfoFullscreenHelper;
+import xyz.zedler.patrick.grocy.helper.PicturePreloader;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Recipe;
@@ -50,6 +52,7 @@ import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.util.ClickUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
 import xyz.zedler.patrick.grocy.viewmodel.RecipesViewModel;
+import xyz.zedler.patrick.grocy.web.RequestHeaders;
 
 public class RecipesFragment extends BaseFragment implements
         RecipeEntryAdapter.RecipesItemAdapterListener {
@@ -65,6 +68,7 @@ public class RecipesFragment extends BaseFragment implements
   private FragmentRecipesBinding binding;
   private InfoFullscreenHelper infoFullscreenHelper;
   private RecipeEntryAdapter adapter;
+  private PicturePreloader picturePreloader;
 
   @Override
   public View onCreateView(
@@ -84,6 +88,10 @@ public class RecipesFragment extends BaseFragment implements
       infoFullscreenHelper.destroyInstance();
       infoFullscreenHelper = null;
     }
+    if (picturePreloader != null) {
+      picturePreloader.detach();
+      picturePreloader = null;
+    }
     if (binding != null) {
       binding.recycler.animate().cancel();
       binding.recycler.setAdapter(null);
@@ -140,6 +148,7 @@ public class RecipesFragment extends BaseFragment implements
         this
     );
     binding.recycler.setAdapter(adapter);
+    setUpPicturePreloader();
 
     if (savedInstanceState == null) {
       viewModel.resetSearch();
@@ -229,11 +238,25 @@ public class RecipesFragment extends BaseFragment implements
           this
       );
       binding.recycler.setAdapter(adapter);
+      setUpPicturePreloader();
       viewModel.updateFilteredRecipes();
       fadeInRecyclerView();
     });
   }
 
+  private void setUpPicturePreloader() {
+    if (picturePreloader != null) {
+      picturePreloader.detach();
+    }
+    picturePreloader = new PicturePreloader(
+        Glide.with(this),
+        RequestHeaders.getGlideGrocyAuthHeaders(requireContext()),
+        adapter,
+        binding.recycler.getLayoutManager() instanceof StaggeredGridLayoutManager
+    );
+    picturePreloader.attach(binding.recycler);
+  }
+
   @Override
   public void onSaveInstanceState(@NonNull Bundle outState) {
     if (appBarBehavior != null) {
@@ -166,25 +166,9 @@ public class ShoppingListFragment extends BaseFragment implements
         getViewLifecycleOwner(), this::changeAppBarTitle
     );
 
-    viewModel.getFilteredShoppingListItemsLive().observe(getViewLifecycleOwner(), items -> {
-      if (items == null) return;
-      adapter.updateData(
-          requireContext(),
-          items,
-          viewModel.getProductHashMap(),
-          viewModel.getProductNamesHashMap(),
-          viewModel.getProductLastPurchasedHashMap(),
-          viewModel.getQuantityUnitHashMap(),
-          viewModel.getUnitConversions(),
-          viewModel.getProductGroupHashMap(),
-          viewModel.getStoreHashMap(),
-          viewModel.getShoppingListItemAmountsHashMap(),
-          viewModel.getMissingProductIds(),
-          viewModel.getShoppingListNotes(),
-          viewModel.getGroupingMode(),
-          viewModel.getActiveFields(),
-          () -> binding.recycler.scheduleLayoutAnimation()
-      );
+    viewModel.getGroupedListItemsLive().observe(getViewLifecycleOwner(), result -> {
+      if (result == null) return;
+      adapter.updateData(result, () -> binding.recycler.scheduleLayoutAnimation());
     });
 
     viewModel.getEventHandler().observeEvent(getViewLifecycleOwner(), event -> {
@@ -536,10 +520,11 @@ public class ShoppingListFragment extends BaseFragment implements
       return;
     }
     Bundle bundle = new Bundle();
-    Double amountInQuUnit = viewModel.getShoppingListItemAmountsHashMap().get(item.getId());
+    double amountInQuUnit = viewModel.getShoppingListItemAmountsHashMap()
+        .get(item.getId(), Double.NaN);
     Product product = viewModel.getProductHashMap().get(item.getProductIdInt());
     String amountStr;
-    if (product != null && amountInQuUnit != null) {
+    if (product != null && !Double.isNaN(amountInQuUnit)) {
       bundle.putString(Constants.ARGUMENT.PRODUCT_NAME, product.getName());
       QuantityUnit quantityUnit = viewModel.getQuantityUnitHashMap().get(item.getQuIdInt());
       String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, amountInQuUnit);
@@ -22,9 +22,7 @@ package xyz.zedler.patrick.grocy.fragment;
 
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.os.Handler;
 import android.text.Spanned;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
@@ -37,8 +35,6 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
-import java.util.Timer;
-import java.util.TimerTask;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.activity.MainActivity;
@@ -51,12 +47,10 @@ import xyz.zedler.patrick.grocy.helper.InfoFullscreenHelper;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveData;
 import xyz.zedler.patrick.grocy.model.GroupedListItem;
-import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.util.ClickUtil;
-import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.viewmodel.ShoppingModeViewModel;
 
 public class ShoppingModeFragment extends BaseFragment implements
@@ -70,11 +64,6 @@ public class ShoppingModeFragment extends BaseFragment implements
   private ClickUtil clickUtil;
   private FragmentShoppingModeBinding binding;
   private InfoFullscreenHelper infoFullscreenHelper;
-  private Timer timer;
-  private TimerTask timerTask;
-  private Handler handler;
-
-  private boolean debug = false;
 
   @Override
   public View onCreateView(
@@ -124,8 +113,6 @@ public class ShoppingModeFragment extends BaseFragment implements
     infoFullscreenHelper = new InfoFullscreenHelper(binding.frame);
     clickUtil = new ClickUtil();
     sharedPrefs = PreferenceManager.getDefaultSharedPreferences(activity);
-    debug = PrefsUtil.isDebuggingEnabled(sharedPrefs);
-    handler = new Handler();
 
     if (savedInstanceState == null) {
       binding.recycler.scrollTo(0, 0);
@@ -150,33 +137,9 @@ public class ShoppingModeFragment extends BaseFragment implements
         getViewLifecycleOwner(), this::changeAppBarTitle
     );
 
-    viewModel.getFilteredShoppingListItemsLive().observe(getViewLifecycleOwner(), items -> {
-      if (items == null) {
-        return;
-      }
-      if (items.isEmpty()) {
-        InfoFullscreen info = new InfoFullscreen(InfoFullscreen.INFO_EMPTY_SHOPPING_LIST);
-        viewModel.getInfoFullscreenLive().setValue(info);
-      } else {
-        viewModel.getInfoFullscreenLive().setValue(null);
-      }
-      adapter.updateData(
-          requireContext(),
-          items,
-          viewModel.getProductHashMap(),
-          viewModel.getProductNamesHashMap(),
-          viewModel.getProductLastPurchasedHashMap(),
-          viewModel.getQuantityUnitHashMap(),
-          viewModel.getUnitConversions(),
-          viewModel.getProductGroupHashMap(),
-          viewModel.getStoreHashMap(),
-          viewModel.getShoppingListItemAmountsHashMap(),
-          viewModel.getMissingProductIds(),
-          viewModel.getShoppingListNotes(),
-          viewModel.getGroupingMode(),
-          viewModel.getActiveFields(),
-          () -> binding.recycler.scheduleLayoutAnimation()
-      );
+    viewModel.getGroupedListItemsLive().observe(getViewLifecycleOwner(), result -> {
+      if (result == null) return;
+      adapter.updateData(result, () -> binding.recycler.scheduleLayoutAnimation());
     });
 
     viewModel.getEventHandler().observeEvent(getViewLifecycleOwner(), event -> {
@@ -219,24 +182,13 @@ public class ShoppingModeFragment extends BaseFragment implements
   @Override
   public void onPause() {
     super.onPause();
-    if (timer != null) {
-      timer.cancel();
-    }
+    viewModel.pauseAutoSync();
   }
 
   @Override
   public void onResume() {
     super.onResume();
-    int seconds = sharedPrefs.getInt(
-        Constants.SETTINGS.SHOPPING_MODE.UPDATE_INTERVAL,
-        Constants.SETTINGS_DEFAULT.SHOPPING_MODE.UPDATE_INTERVAL
-    );
-    if (seconds == 0 || !viewModel.getAutoSyncEnabled()) {
-      return;
-    }
-    timer = new Timer();
-    initTimerTask();
-    timer.schedule(timerTask, 2000, seconds * 1000L);
+    viewModel.resumeAutoSync();
   }
 
   @Override
@@ -308,6 +260,7 @@ public class ShoppingModeFragment extends BaseFragment implements
 
   @Override
   public void updateConnectivity(boolean isOnline) {
+    viewModel.setAutoSyncOnline(isOnline);
     if (!isOnline == viewModel.isOffline() || !viewModel.getAutoSyncEnabled()) {
       return;
     }
@@ -362,40 +315,12 @@ public class ShoppingModeFragment extends BaseFragment implements
         return true;
       } else if (item.getItemId() == R.id.action_sync) {
         viewModel.setAutoSyncEnabled(!viewModel.getAutoSyncEnabled());
-        if (timer != null) {
-          timer.cancel();
-        }
-        int seconds = sharedPrefs.getInt(
-            Constants.SETTINGS.SHOPPING_MODE.UPDATE_INTERVAL,
-            Constants.SETTINGS_DEFAULT.SHOPPING_MODE.UPDATE_INTERVAL
-        );
-        if (seconds == 0 || !viewModel.getAutoSyncEnabled()) {
-          return true;
-        }
-        timer = new Timer();
-        initTimerTask();
-        timer.schedule(timerTask, 2000, seconds * 1000L);
         return true;
       }
       return false;
     };
   }
 
-  private void initTimerTask() {
-    if (timerTask != null) {
-      timerTask.cancel();
-    }
-    timerTask = new TimerTask() {
-      @Override
-      public void run() {
-        if (debug) {
-          Log.i(TAG, "auto sync shopping list (but may skip download)");
-        }
-        handler.post(() -> viewModel.downloadData(false, false));
-      }
-    };
-  }
-
   private void keepScreenOnIfNecessary(boolean keepOn) {
     if (activity == null) {
       activity = (MainActivity) requireActivity();
@@ -138,16 +138,7 @@ public class StockJournalFragment extends BaseFragment implements StockLogEntryA
       @Override
       protected void loadMoreItems() {
         if (binding.recycler.getAdapter() instanceof StockLogPlaceholderAdapter) return;
-        viewModel.setCurrentPage(viewModel.getCurrentPage() + 1);
-        viewModel.loadNextPage(stockLogEntries -> {
-          if (stockLogEntries.size() == 0) {
-            viewModel.setLastPage(true);
-            return;
-          }
-          StockLogEntryAdapter adapter = (StockLogEntryAdapter) binding.recycler.getAdapter();
-          if (adapter == null) return;
-          adapter.addAll(stockLogEntries);
-        });
+        viewModel.loadNextPage();
       }
 
       @Override
@@ -157,8 +148,7 @@ public class StockJournalFragment extends BaseFragment implements StockLogEntryA
 
       @Override
       public boolean isLoading() {
-        return viewModel.getIsLoadingLive().getValue() != null
-            && viewModel.getIsLoadingLive().getValue();
+        return viewModel.isLoadingNextPage();
       }
     });
 
@@ -174,6 +164,16 @@ public class StockJournalFragment extends BaseFragment implements StockLogEntryA
 
     viewModel.getFilteredStockLogEntriesLive().observe(getViewLifecycleOwner(), items -> {
       if (items == null) return;
+      if (binding.recycler.getAdapter() instanceof StockLogEntryAdapter) {
+        ((StockLogEntryAdapter) binding.recycler.getAdapter()).updateData(
+            items,
+            viewModel.getQuantityUnitHashMap(),
+            viewModel.getProductHashMap(),
+            viewModel.getLocationHashMap(),
+            viewModel.getUserHashMap()
+        );
+        return;
+      }
       binding.recycler.setAdapter(
           new StockLogEntryAdapter(
               requireContext(),
@@ -186,8 +186,6 @@ public class StockJournalFragment extends BaseFragment implements StockLogEntryA
           )
       );
       binding.recycler.scheduleLayoutAnimation();
-      viewModel.setLastPage(false);
-      viewModel.setCurrentPage(0);
     });
 
     viewModel.getEventHandler().observeEvent(getViewLifecycleOwner(), event -> {
@@ -30,6 +30,7 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
 import java.util.List;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.PREF;
@@ -41,6 +42,7 @@ import xyz.zedler.patrick.grocy.behavior.SwipeBehavior;
 import xyz.zedler.patrick.grocy.behavior.SystemBarBehavior;
 import xyz.zedler.patrick.grocy.databinding.FragmentStockOverviewBinding;
 import xyz.zedler.patrick.grocy.helper.InfoFullscreenHelper;
+import xyz.zedler.patrick.grocy.helper.PicturePreloader;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.GroupedListItem;
 import xyz.zedler.patrick.grocy.model.Location;
@@ -53,6 +55,7 @@ import xyz.zedler.patrick.grocy.scanner.EmbeddedFragmentScannerBundle;
 import xyz.zedler.patrick.grocy.util.ClickUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
 import xyz.zedler.patrick.grocy.viewmodel.StockOverviewViewModel;
+import xyz.zedler.patrick.grocy.web.RequestHeaders;
 
 public class StockOverviewFragment extends BaseFragment implements
     StockOverviewItemAdapter.StockOverviewItemAdapterListener,
@@ -67,6 +70,7 @@ public class StockOverviewFragment extends BaseFragment implements
   private SwipeBehavior swipeBehavior;
   private FragmentStockOverviewBinding binding;
   private InfoFullscreenHelper infoFullscreenHelper;
+  private PicturePreloader picturePreloader;
   private EmbeddedFragmentScanner embeddedFragmentScanner;
 
   @Override
@@ -90,6 +94,10 @@ public class StockOverviewFragment extends BaseFragment implements
       infoFullscreenHelper.destroyInstance();
       infoFullscreenHelper = null;
     }
+    if (picturePreloader != null) {
+      picturePreloader.detach();
+      picturePreloader = null;
+    }
     if (binding != null) {
       binding.recycler.animate().cancel();
       binding.recycler.setAdapter(null);
@@ -146,6 +154,14 @@ public class StockOverviewFragment extends BaseFragment implements
     );
     binding.recycler.setAdapter(adapter);
 
+    picturePreloader = new PicturePreloader(
+        Glide.with(this),
+        RequestHeaders.getGlideGrocyAuthHeaders(requireContext()),
+        adapter,
+        false
+    );
+    picturePreloader.attach(binding.recycler);
+
     if (savedInstanceState == null) {
       binding.recycler.scrollToPosition(0);
       viewModel.resetSearch();
@@ -163,7 +179,7 @@ public class StockOverviewFragment extends BaseFragment implements
           items,
           viewModel.getShoppingListItemsProductIds(),
           viewModel.getQuantityUnitHashMap(),
-          viewModel.getQuantityUnitConversions(),
+          viewModel.getUnitConversionIndex(),
           viewModel.getProductAveragePriceHashMap(),
           viewModel.getProductLastPurchasedHashMap(),
           viewModel.getProductGroupHashMap(),
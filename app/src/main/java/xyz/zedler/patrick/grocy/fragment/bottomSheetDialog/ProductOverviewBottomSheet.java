@@ -38,12 +38,7 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.core.view.MenuCompat;
 import androidx.preference.PreferenceManager;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
@@ -57,14 +52,13 @@ import xyz.zedler.patrick.grocy.fragment.MasterProductFragmentArgs;
 import xyz.zedler.patrick.grocy.fragment.ShoppingListItemEditFragmentArgs;
 import xyz.zedler.patrick.grocy.fragment.StockEntriesFragmentArgs;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.PriceHistoryLoader;
 import xyz.zedler.patrick.grocy.model.Location;
-import xyz.zedler.patrick.grocy.model.PriceHistoryEntry;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductDetails;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.StockLocation;
-import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
@@ -74,7 +68,6 @@ import xyz.zedler.patrick.grocy.util.ResUtil;
 import xyz.zedler.patrick.grocy.util.TextUtil;
 import xyz.zedler.patrick.grocy.util.UiUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
-import xyz.zedler.patrick.grocy.view.BezierCurveChart;
 
 public class ProductOverviewBottomSheet extends BaseBottomSheetDialogFragment {
 
@@ -93,6 +86,7 @@ public class ProductOverviewBottomSheet extends BaseBottomSheetDialogFragment {
   private Location location;
   private AlertDialog dialogDelete;
   private DownloadHelper dlHelper;
+  private PriceHistoryLoader priceHistoryLoader;
   private int maxDecimalPlacesAmount;
   private int decimalPlacesPriceDisplay;
 
@@ -151,6 +145,7 @@ public class ProductOverviewBottomSheet extends BaseBottomSheetDialogFragment {
     // WEB REQUESTS
 
     dlHelper = new DownloadHelper(activity, TAG);
+    priceHistoryLoader = new PriceHistoryLoader(activity, dlHelper);
 
     // VIEWS
 
@@ -358,6 +353,7 @@ public class ProductOverviewBottomSheet extends BaseBottomSheetDialogFragment {
       dialogDelete.dismiss();
     }
     super.onDestroyView();
+    priceHistoryLoader.dispose();
     dlHelper.destroy();
     binding = null;
   }
@@ -575,54 +571,11 @@ public class ProductOverviewBottomSheet extends BaseBottomSheetDialogFragment {
     if (!isFeatureEnabled(Constants.PREF.FEATURE_STOCK_PRICE_TRACKING)) {
       return;
     }
-    dlHelper.get(
-        activity.getGrocyApi().getPriceHistory(product.getId()),
-        response -> {
-          Type listType = new TypeToken<ArrayList<PriceHistoryEntry>>() {
-          }.getType();
-          ArrayList<PriceHistoryEntry> priceHistoryEntries;
-          priceHistoryEntries = new Gson().fromJson(response, listType);
-          if (priceHistoryEntries.isEmpty()) {
-            return;
-          }
-
-          ArrayList<String> dates = new ArrayList<>();
-          Collections.reverse(priceHistoryEntries);
-
-          HashMap<String, ArrayList<BezierCurveChart.Point>> curveLists = new HashMap<>();
-
-          for (PriceHistoryEntry priceHistoryEntry : priceHistoryEntries) {
-            Store store = priceHistoryEntry.getStore();
-            String storeName;
-            if (store == null || store.getName().trim().isEmpty()) {
-              storeName = activity.getString(R.string.property_store_unknown);
-            } else {
-              storeName = store.getName().trim();
-            }
-            if (!curveLists.containsKey(storeName)) {
-              curveLists.put(storeName, new ArrayList<>());
-            }
-            ArrayList<BezierCurveChart.Point> curveList = curveLists.get(storeName);
-
-            String date = new DateUtil(activity).getLocalizedDate(
-                priceHistoryEntry.getDate(),
-                DateUtil.FORMAT_SHORT
-            );
-            if (!dates.contains(date)) {
-              dates.add(date);
-            }
-            assert curveList != null;
-            curveList.add(new BezierCurveChart.Point(
-                dates.indexOf(date),
-                (float) priceHistoryEntry.getPrice() * factorPurchaseToStock
-            ));
-          }
-          binding.itemPriceHistory.init(curveLists, dates);
-          animateLinearPriceHistory();
-        },
-        error -> {
-        }
-    );
+    priceHistoryLoader.load(product.getId(), factorPurchaseToStock, priceHistory -> {
+      if (binding == null) return;
+      binding.itemPriceHistory.init(priceHistory.getCurveLists(), priceHistory.getLabels());
+      animateLinearPriceHistory();
+    });
   }
 
   private void animateLinearPriceHistory() {
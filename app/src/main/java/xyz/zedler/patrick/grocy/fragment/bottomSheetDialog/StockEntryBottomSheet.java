@@ -116,7 +116,7 @@ public class StockEntryBottomSheet extends BaseBottomSheetDialogFragment {
     String date = stockEntry.getBestBeforeDate();
     String days = null;
     if (date != null) {
-      days = String.valueOf(DateUtil.getDaysFromNow(date));
+      days = String.valueOf(DateUtil.getDaysFromToday(stockEntry.getBestBeforeEpochDay()));
     }
     if (days != null) {
       binding.dueDate.setVisibility(View.VISIBLE);
@@ -0,0 +1,270 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.PendingProduct;
+import xyz.zedler.patrick.grocy.model.PendingProductBarcode;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductBarcode;
+import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
+import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+
+/**
+ * App-wide index for resolving scanned barcodes to products in constant time.
+ * It is kept current by the product and barcode downloads and by pending product creation,
+ * so the purchase, consume, inventory and transfer forms can share it instead of scanning
+ * their own barcode lists on every scan.
+ */
+public class BarcodeIndex {
+
+  private static BarcodeIndex instance;
+
+  private final HashMap<String, ProductBarcode> barcodeHashMap;
+  private final HashMap<String, PendingProductBarcode> pendingBarcodeHashMap;
+  private final HashMap<Integer, Product> productHashMap;
+  private final HashMap<String, Product> productNameHashMap;
+  private final HashMap<Integer, PendingProduct> pendingProductHashMap;
+
+  private boolean productsLoaded;
+  private boolean barcodesLoaded;
+  private boolean pendingProductsLoaded;
+  private boolean pendingBarcodesLoaded;
+  private int version;
+
+  private BarcodeIndex() {
+    barcodeHashMap = new HashMap<>();
+    pendingBarcodeHashMap = new HashMap<>();
+    productHashMap = new HashMap<>();
+    productNameHashMap = new HashMap<>();
+    pendingProductHashMap = new HashMap<>();
+  }
+
+  public static synchronized BarcodeIndex getInstance() {
+    if (instance == null) {
+      instance = new BarcodeIndex();
+    }
+    return instance;
+  }
+
+  @Nullable
+  public static String normalize(@Nullable String barcode) {
+    if (barcode == null) return null;
+    String normalized = barcode.trim();
+    return normalized.isEmpty() ? null : normalized;
+  }
+
+  public synchronized void setProducts(@NonNull List<Product> products) {
+    productHashMap.clear();
+    productNameHashMap.clear();
+    for (Product product : products) {
+      productHashMap.put(product.getId(), product);
+      if (product.getName() != null) {
+        productNameHashMap.putIfAbsent(product.getName(), product);
+      }
+    }
+    productsLoaded = true;
+    version++;
+  }
+
+  public synchronized void setProductBarcodes(@NonNull List<ProductBarcode> barcodes) {
+    barcodeHashMap.clear();
+    for (ProductBarcode barcode : barcodes) {
+      String key = normalize(barcode.getBarcode());
+      if (key != null) barcodeHashMap.putIfAbsent(key, barcode);
+    }
+    barcodesLoaded = true;
+    version++;
+  }
+
+  public synchronized void setPendingProducts(@NonNull List<PendingProduct> pendingProducts) {
+    pendingProductHashMap.clear();
+    for (PendingProduct pendingProduct : pendingProducts) {
+      pendingProductHashMap.put(pendingProduct.getId(), pendingProduct);
+    }
+    pendingProductsLoaded = true;
+    version++;
+  }
+
+  public synchronized void setPendingProductBarcodes(
+      @NonNull List<PendingProductBarcode> barcodes
+  ) {
+    pendingBarcodeHashMap.clear();
+    for (PendingProductBarcode barcode : barcodes) {
+      String key = normalize(barcode.getBarcode());
+      if (key != null) pendingBarcodeHashMap.putIfAbsent(key, barcode);
+    }
+    pendingBarcodesLoaded = true;
+    version++;
+  }
+
+  /**
+   * Fills all parts of the index which were not yet provided by a download or a previous
+   * call, e.g. after app start when the server data is unchanged and no download happens.
+   * Lists which are null are skipped.
+   */
+  public synchronized void loadIfNeeded(
+      @Nullable List<Product> products,
+      @Nullable List<ProductBarcode> barcodes,
+      @Nullable List<PendingProduct> pendingProducts,
+      @Nullable List<PendingProductBarcode> pendingBarcodes
+  ) {
+    if (!productsLoaded && products != null) setProducts(products);
+    if (!barcodesLoaded && barcodes != null) setProductBarcodes(barcodes);
+    if (!pendingProductsLoaded && pendingProducts != null) setPendingProducts(pendingProducts);
+    if (!pendingBarcodesLoaded && pendingBarcodes != null) {
+      setPendingProductBarcodes(pendingBarcodes);
+    }
+  }
+
+  public synchronized void putProductBarcode(@NonNull ProductBarcode barcode) {
+    String key = normalize(barcode.getBarcode());
+    if (key == null) return;
+    barcodeHashMap.put(key, barcode);
+    version++;
+  }
+
+  public synchronized void putPendingProduct(@NonNull PendingProduct pendingProduct) {
+    pendingProductHashMap.put(pendingProduct.getId(), pendingProduct);
+    version++;
+  }
+
+  public synchronized void putPendingProductBarcode(@NonNull PendingProductBarcode barcode) {
+    String key = normalize(barcode.getBarcode());
+    if (key == null) return;
+    pendingBarcodeHashMap.put(key, barcode);
+    version++;
+  }
+
+  public synchronized void clear() {
+    barcodeHashMap.clear();
+    pendingBarcodeHashMap.clear();
+    productHashMap.clear();
+    productNameHashMap.clear();
+    pendingProductHashMap.clear();
+    productsLoaded = false;
+    barcodesLoaded = false;
+    pendingProductsLoaded = false;
+    pendingBarcodesLoaded = false;
+    version++;
+  }
+
+  public synchronized int getVersion() {
+    return version;
+  }
+
+  @Nullable
+  public synchronized Product getProduct(int productId) {
+    return productHashMap.get(productId);
+  }
+
+  @Nullable
+  public synchronized Product getProductFromName(@Nullable String name) {
+    if (name == null || name.isEmpty()) return null;
+    return productNameHashMap.get(name);
+  }
+
+  @Nullable
+  public synchronized PendingProduct getPendingProduct(int pendingProductId) {
+    return pendingProductHashMap.get(pendingProductId);
+  }
+
+  /**
+   * Returns the barcode object of a product, or if includePending is true and no product
+   * has this barcode, the barcode object of a pending product.
+   */
+  @Nullable
+  public synchronized ProductBarcode getBarcode(@Nullable String barcode, boolean includePending) {
+    String key = normalize(barcode);
+    if (key == null) return null;
+    ProductBarcode productBarcode = barcodeHashMap.get(key);
+    if (productBarcode == null && includePending) {
+      productBarcode = pendingBarcodeHashMap.get(key);
+    }
+    return productBarcode;
+  }
+
+  @NonNull
+  public synchronized Match lookup(@Nullable String input, boolean includePending) {
+    String key = normalize(input);
+    if (key == null) return new Match(null, null, null);
+
+    Grocycode grocycode = GrocycodeUtil.getGrocycode(key);
+    if (grocycode != null) {
+      Product product = grocycode.isProduct()
+          ? productHashMap.get(grocycode.getObjectId()) : null;
+      return new Match(grocycode, null, product);
+    }
+
+    ProductBarcode barcode = getBarcode(key, includePending);
+    if (barcode == null) return new Match(null, null, null);
+    Product product;
+    if (barcode instanceof PendingProductBarcode) {
+      product = pendingProductHashMap.get(barcode.getProductIdInt());
+    } else {
+      product = productHashMap.get(barcode.getProductIdInt());
+    }
+    return new Match(null, barcode, product);
+  }
+
+  public static class Match {
+
+    private final Grocycode grocycode;
+    private final ProductBarcode barcode;
+    private final Product product;
+
+    private Match(Grocycode grocycode, ProductBarcode barcode, Product product) {
+      this.grocycode = grocycode;
+      this.barcode = barcode;
+      this.product = product;
+    }
+
+    @Nullable
+    public Grocycode getGrocycode() {
+      return grocycode;
+    }
+
+    public boolean isGrocycode() {
+      return grocycode != null;
+    }
+
+    public boolean isWrongGrocycodeType() {
+      return grocycode != null && !grocycode.isProduct();
+    }
+
+    @Nullable
+    public ProductBarcode getBarcode() {
+      return barcode;
+    }
+
+    public boolean isPendingBarcode() {
+      return barcode instanceof PendingProductBarcode;
+    }
+
+    @Nullable
+    public Product getProduct() {
+      return product;
+    }
+  }
+}
@@ -0,0 +1,338 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.android.volley.VolleyError;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectResponseListener;
+import xyz.zedler.patrick.grocy.model.ProductDetails;
+import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemMutation;
+
+/**
+ * Purchases shopping list items in batch mode without waiting for the server between items.
+ * Product details of the next items are loaded while the current item is edited, submitted
+ * purchases are sent in the background with a few requests in parallel and the purchased items
+ * are removed from the shopping list in batches through the ShoppingListOutbox. Failed
+ * purchases are kept until they are retried or discarded.
+ * All methods have to be called on the main thread and listeners are called on the main thread.
+ */
+public class BatchPurchasePipeline {
+
+  private final static String TAG = BatchPurchasePipeline.class.getSimpleName();
+
+  public final static int PREFETCH_AHEAD = 3;
+  private final static int MAX_PARALLEL_PURCHASES = 2;
+  private final static int REMOVAL_BATCH_SIZE = 5;
+
+  private final DownloadHelper dlHelper;
+  private final ShoppingListOutbox outbox;
+  private final PipelineListener listener;
+  private final HashMap<Integer, ProductDetails> productDetailsHashMap;
+  private final HashMap<Integer, ArrayList<DetailsCallback>> detailsRequests;
+  private final ArrayDeque<Purchase> pendingPurchases;
+  private final ArrayList<ShoppingListItemMutation> pendingRemovals;
+  private final ArrayList<Purchase> failedPurchases;
+  private int runningPurchases;
+  private int syncingRemovalBatches;
+
+  public BatchPurchasePipeline(@NonNull DownloadHelper dlHelper, PipelineListener listener) {
+    this.dlHelper = dlHelper;
+    this.listener = listener;
+    outbox = ShoppingListOutbox.getInstance(dlHelper.application);
+    productDetailsHashMap = new HashMap<>();
+    detailsRequests = new HashMap<>();
+    pendingPurchases = new ArrayDeque<>();
+    pendingRemovals = new ArrayList<>();
+    failedPurchases = new ArrayList<>();
+  }
+
+  /**
+   * Loads the product details of the products in the background, if they are not already
+   * loaded or being loaded.
+   */
+  public void prefetchProductDetails(@NonNull List<Integer> productIds) {
+    for (int productId : productIds) {
+      if (productDetailsHashMap.containsKey(productId)) continue;
+      if (detailsRequests.containsKey(productId)) continue;
+      requestProductDetails(productId);
+    }
+  }
+
+  /**
+   * Delivers prefetched product details right away, waits for a running prefetch or downloads
+   * them. Prefetched details are only used once, so a product which appears again later in the
+   * batch gets current details.
+   */
+  public void getProductDetails(
+      int productId,
+      @NonNull OnObjectResponseListener<ProductDetails> onResponse,
+      @NonNull OnErrorListener onError
+  ) {
+    ProductDetails productDetails = productDetailsHashMap.remove(productId);
+    if (productDetails != null) {
+      onResponse.onResponse(productDetails);
+      return;
+    }
+    if (!detailsRequests.containsKey(productId)) requestProductDetails(productId);
+    ArrayList<DetailsCallback> callbacks = detailsRequests.get(productId);
+    assert callbacks != null;
+    callbacks.add(new DetailsCallback(onResponse, onError));
+  }
+
+  private void requestProductDetails(int productId) {
+    detailsRequests.put(productId, new ArrayList<>());
+    ProductDetails.getProductDetails(
+        dlHelper,
+        productId,
+        productDetails -> {
+          ArrayList<DetailsCallback> callbacks = detailsRequests.remove(productId);
+          if (callbacks == null || callbacks.isEmpty()) {
+            productDetailsHashMap.put(productId, productDetails);
+            return;
+          }
+          for (DetailsCallback callback : callbacks) {
+            callback.onResponse.onResponse(productDetails);
+          }
+        },
+        error -> {
+          ArrayList<DetailsCallback> callbacks = detailsRequests.remove(productId);
+          if (callbacks == null) return;
+          for (DetailsCallback callback : callbacks) {
+            callback.onError.onError(error);
+          }
+        }
+    ).perform(dlHelper.getUuid());
+  }
+
+  public void enqueuePurchase(@NonNull Purchase purchase) {
+    pendingPurchases.add(purchase);
+    next();
+  }
+
+  /**
+   * Sends a failed purchase again, it no longer counts as failed. Does nothing if the purchase
+   * has already been retried or discarded.
+   */
+  public void retryPurchase(@NonNull Purchase purchase) {
+    if (!failedPurchases.remove(purchase)) return;
+    enqueuePurchase(purchase);
+  }
+
+  /**
+   * Forgets failed purchases, their shopping list items are kept.
+   */
+  public void discardFailedPurchases(@NonNull List<Purchase> purchases) {
+    if (!failedPurchases.removeAll(purchases)) return;
+    if (isIdle()) listener.onIdle(failedPurchases.size());
+  }
+
+  private void next() {
+    while (runningPurchases < MAX_PARALLEL_PURCHASES && !pendingPurchases.isEmpty()) {
+      runningPurchases++;
+      send(pendingPurchases.poll());
+    }
+    if (runningPurchases == 0) {
+      flushRemovals();
+    }
+  }
+
+  private void send(Purchase purchase) {
+    dlHelper.postWithArray(
+        dlHelper.grocyApi.purchaseProduct(purchase.productId),
+        purchase.body,
+        response -> {
+          runningPurchases--;
+          PriceHistoryLoader.invalidate(purchase.productId);
+          // stock amount and last price of prefetched details are outdated now
+          productDetailsHashMap.remove(purchase.productId);
+          if (purchase.shoppingListItem != null) {
+            pendingRemovals.add(ShoppingListItemMutation.delete(purchase.shoppingListItem.getId()));
+            if (pendingRemovals.size() >= REMOVAL_BATCH_SIZE) flushRemovals();
+          }
+          listener.onPurchased(purchase, response);
+          next();
+        },
+        error -> {
+          runningPurchases--;
+          failedPurchases.add(purchase);
+          if (dlHelper.debug) Log.e(TAG, "send: " + purchase + ": " + error);
+          listener.onPurchaseFailed(purchase, error);
+          next();
+        }
+    );
+  }
+
+  /**
+   * Drops the purchases which are waiting to be sent and forgets the failed ones, e.g. when
+   * the user leaves batch mode. Purchases which are already being sent are finished, because
+   * their requests may have reached the server already. onIdle is called afterwards.
+   */
+  public void discardUnsentPurchases() {
+    pendingPurchases.clear();
+    failedPurchases.clear();
+    if (runningPurchases == 0) flushRemovals();
+  }
+
+  /**
+   * Hands removals which have not been sent yet to the outbox, which stores them until the
+   * shopping list is synced the next time. Has to be called when the pipeline is not used
+   * anymore.
+   */
+  public void destroy() {
+    if (pendingRemovals.isEmpty()) return;
+    outbox.enqueue(new ArrayList<>(pendingRemovals), null);
+    pendingRemovals.clear();
+  }
+
+  /**
+   * Takes the shopping list item out of the next removal batch, e.g. when its purchase is
+   * undone. Returns false if the removal has already been handed to the outbox.
+   */
+  public boolean cancelRemoval(int shoppingListItemId) {
+    for (int i = 0; i < pendingRemovals.size(); i++) {
+      if (pendingRemovals.get(i).getItemId() == shoppingListItemId) {
+        pendingRemovals.remove(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void flushRemovals() {
+    if (pendingRemovals.isEmpty()) {
+      if (isIdle()) listener.onIdle(failedPurchases.size());
+      return;
+    }
+    List<ShoppingListItemMutation> mutations = new ArrayList<>(pendingRemovals);
+    pendingRemovals.clear();
+    syncingRemovalBatches++;
+    // removals are stored by the outbox, so they are not lost if the sync is interrupted
+    outbox.enqueue(mutations, () -> outbox.sync((succeeded, failed) -> {
+      if (dlHelper.debug) {
+        Log.i(TAG, "flushRemovals: removed " + succeeded + ", failed " + failed);
+      }
+      syncingRemovalBatches--;
+      if (isIdle()) listener.onIdle(failedPurchases.size());
+    }));
+  }
+
+  public boolean isIdle() {
+    return runningPurchases == 0 && pendingPurchases.isEmpty() && pendingRemovals.isEmpty()
+        && syncingRemovalBatches == 0;
+  }
+
+  /**
+   * Returns the purchases which have failed and were not retried or discarded yet, oldest
+   * first.
+   */
+  @NonNull
+  public List<Purchase> getFailedPurchases() {
+    return new ArrayList<>(failedPurchases);
+  }
+
+  /**
+   * Returns the number of purchases which are waiting or being sent.
+   */
+  public int getUnsentPurchases() {
+    return runningPurchases + pendingPurchases.size();
+  }
+
+  private static class DetailsCallback {
+
+    private final OnObjectResponseListener<ProductDetails> onResponse;
+    private final OnErrorListener onError;
+
+    DetailsCallback(
+        OnObjectResponseListener<ProductDetails> onResponse,
+        OnErrorListener onError
+    ) {
+      this.onResponse = onResponse;
+      this.onError = onError;
+    }
+  }
+
+  public static class Purchase {
+
+    private final int productId;
+    private final JSONObject body;
+    private final ShoppingListItem shoppingListItem;
+    private final String productName;
+    private final QuantityUnit quantityUnitStock;
+
+    public Purchase(
+        int productId,
+        @NonNull JSONObject body,
+        @Nullable ShoppingListItem shoppingListItem,
+        String productName,
+        @Nullable QuantityUnit quantityUnitStock
+    ) {
+      this.productId = productId;
+      this.body = body;
+      this.shoppingListItem = shoppingListItem;
+      this.productName = productName;
+      this.quantityUnitStock = quantityUnitStock;
+    }
+
+    public int getProductId() {
+      return productId;
+    }
+
+    @Nullable
+    public ShoppingListItem getShoppingListItem() {
+      return shoppingListItem;
+    }
+
+    public String getProductName() {
+      return productName;
+    }
+
+    @Nullable
+    public QuantityUnit getQuantityUnitStock() {
+      return quantityUnitStock;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+      return "Purchase(" + productName + ')';
+    }
+  }
+
+  public interface PipelineListener {
+
+    void onPurchased(Purchase purchase, JSONArray response);
+
+    void onPurchaseFailed(Purchase purchase, VolleyError error);
+
+    void onIdle(int failedPurchases);
+  }
+}
@@ -38,7 +38,9 @@ import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
+import java.io.File;
 import java.lang.reflect.Type;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -64,6 +66,7 @@ import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.Recipe;
 import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
+import xyz.zedler.patrick.grocy.model.RecipeNesting;
 import xyz.zedler.patrick.grocy.model.RecipePosition;
 import xyz.zedler.patrick.grocy.model.RecipePositionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
@@ -81,6 +84,7 @@ import xyz.zedler.patrick.grocy.model.VolatileItem;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.web.CustomByteArrayRequest;
+import xyz.zedler.patrick.grocy.web.CustomFileRequest;
 import xyz.zedler.patrick.grocy.web.CustomJsonArrayRequest;
 import xyz.zedler.patrick.grocy.web.CustomJsonObjectRequest;
 import xyz.zedler.patrick.grocy.web.CustomStringRequest;
@@ -109,6 +113,8 @@ public class DownloadHelper {
   public final boolean debug;
   private final int timeoutSeconds;
   private int loadingRequests;
+  private LocalDate mealPlanWindowStart;
+  private LocalDate mealPlanWindowEnd;
 
   public DownloadHelper(
       Application application,
@@ -367,6 +373,28 @@ public class DownloadHelper {
     requestQueue.add(request);
   }
 
+  public void putFile(
+      String url,
+      File file,
+      Runnable onSuccess,
+      OnErrorListener onError
+  ) {
+    String sessionKey = sharedPrefs
+        .getString(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY, null);
+    CustomFileRequest request = new CustomFileRequest(
+        Request.Method.PUT,
+        url,
+        apiKey,
+        sessionKey,
+        file,
+        onSuccess,
+        onError::onError,
+        timeoutSeconds,
+        uuidHelper
+    );
+    requestQueue.add(request);
+  }
+
   public void delete(
       String url,
       String tag,
@@ -421,6 +449,15 @@ public class DownloadHelper {
     );
   }
 
+  /**
+   * Sets the days of the meal plan entries which are downloaded with MealPlanEntry.class.
+   * Without a window the weeks around today are downloaded.
+   */
+  public void setMealPlanWindow(LocalDate windowStart, LocalDate windowEnd) {
+    mealPlanWindowStart = windowStart;
+    mealPlanWindowEnd = windowEnd;
+  }
+
   public NetworkQueue newQueue(
       OnQueueEmptyListener onQueueEmptyListener,
       OnMultiTypeErrorListener onErrorListener
@@ -557,10 +594,18 @@ public class DownloadHelper {
         queue.append(RecipePosition.updateRecipePositions(this, dbChangedTime, forceUpdate, null));
       } else if (type == RecipePositionResolved.class) {
         queue.append(RecipePositionResolved.updateRecipePositionsResolved(this, dbChangedTime, forceUpdate, null));
+      } else if (type == RecipeNesting.class) {
+        queue.append(RecipeNesting.updateRecipeNestings(this, dbChangedTime, forceUpdate, null));
       } else if (type == Userfield.class) {
         queue.append(Userfield.updateUserfields(this, dbChangedTime, forceUpdate, null));
       } else if (type == MealPlanEntry.class) {
-        queue.append(MealPlanEntry.updateMealPlanEntries(this, dbChangedTime, null));
+        if (mealPlanWindowStart != null && mealPlanWindowEnd != null) {
+          queue.append(MealPlanEntry.updateMealPlanEntries(this, dbChangedTime, forceUpdate,
+              mealPlanWindowStart, mealPlanWindowEnd, null));
+        } else {
+          queue.append(MealPlanEntry.updateMealPlanEntries(this, dbChangedTime, forceUpdate,
+              null));
+        }
       } else if (type == MealPlanSection.class) {
         queue.append(MealPlanSection.updateMealPlanSections(this, dbChangedTime, null));
       }
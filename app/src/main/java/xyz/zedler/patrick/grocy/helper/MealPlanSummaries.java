@@ -0,0 +1,176 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import xyz.zedler.patrick.grocy.model.Recipe;
+import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
+import xyz.zedler.patrick.grocy.util.ArrayUtil;
+
+/**
+ * Keeps the costs, calories and fulfillment of the meal plan days, weeks and recipe entries
+ * keyed by date. Grocy calculates them in shadow recipes with negative ids, which are named
+ * after the day ("yyyy-MM-dd"), the entry ("yyyy-MM-dd#entryId") or the week ("yyyy-ww").
+ * After a reload only the summaries whose fulfillment has changed are replaced, and the day
+ * and week summaries are looked up directly when the user pages.
+ */
+public class MealPlanSummaries {
+
+  private final static char ENTRY_SEPARATOR = '#';
+  private final static int DAY_LENGTH = 10;
+
+  private final HashMap<Integer, String> shadowRecipeNames;
+  private final HashMap<Integer, RecipeFulfillment> shadowRecipeFulfillments;
+  // day -> day key and entry keys of this day -> fulfillment
+  private final HashMap<String, HashMap<String, RecipeFulfillment>> dayHashMap;
+  private final HashMap<String, RecipeFulfillment> weekHashMap;
+
+  public MealPlanSummaries() {
+    shadowRecipeNames = new HashMap<>();
+    shadowRecipeFulfillments = new HashMap<>();
+    dayHashMap = new HashMap<>();
+    weekHashMap = new HashMap<>();
+  }
+
+  /**
+   * Replaces the summaries of all shadow recipes whose name or fulfillment has changed and
+   * removes those of deleted shadow recipes. Returns the days and weeks which have changed.
+   */
+  public Set<String> update(
+      List<Recipe> recipes,
+      List<RecipeFulfillment> recipeFulfillments
+  ) {
+    HashMap<Integer, RecipeFulfillment> fulfillmentHashMap
+        = ArrayUtil.getRecipeFulfillmentHashMap(recipeFulfillments);
+    HashSet<Integer> recipeIds = new HashSet<>();
+    HashSet<String> changed = new HashSet<>();
+
+    for (Recipe recipe : recipes) {
+      if (recipe.getId() >= 0 || recipe.getName() == null) continue;
+      int recipeId = recipe.getId();
+      recipeIds.add(recipeId);
+      String name = recipe.getName();
+      RecipeFulfillment fulfillment = fulfillmentHashMap.get(recipeId);
+      String oldName = shadowRecipeNames.get(recipeId);
+      if (name.equals(oldName)
+          && Objects.equals(fulfillment, shadowRecipeFulfillments.get(recipeId))) {
+        continue;
+      }
+      if (oldName != null && !oldName.equals(name)) {
+        changed.add(remove(oldName));
+      }
+      shadowRecipeNames.put(recipeId, name);
+      if (fulfillment != null) {
+        shadowRecipeFulfillments.put(recipeId, fulfillment);
+        changed.add(put(name, fulfillment));
+      } else {
+        shadowRecipeFulfillments.remove(recipeId);
+        changed.add(remove(name));
+      }
+    }
+
+    Iterator<Map.Entry<Integer, String>> iterator = shadowRecipeNames.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Integer, String> entry = iterator.next();
+      if (recipeIds.contains(entry.getKey())) continue;
+      changed.add(remove(entry.getValue()));
+      shadowRecipeFulfillments.remove(entry.getKey());
+      iterator.remove();
+    }
+    return changed;
+  }
+
+  private String put(String name, RecipeFulfillment fulfillment) {
+    String day = getDay(name);
+    if (day == null) {
+      weekHashMap.put(name, fulfillment);
+      return name;
+    }
+    HashMap<String, RecipeFulfillment> fulfillments = dayHashMap.get(day);
+    if (fulfillments == null) {
+      fulfillments = new HashMap<>();
+      dayHashMap.put(day, fulfillments);
+    }
+    fulfillments.put(name, fulfillment);
+    return day;
+  }
+
+  private String remove(String name) {
+    String day = getDay(name);
+    if (day == null) {
+      weekHashMap.remove(name);
+      return name;
+    }
+    HashMap<String, RecipeFulfillment> fulfillments = dayHashMap.get(day);
+    if (fulfillments != null) {
+      fulfillments.remove(name);
+      if (fulfillments.isEmpty()) dayHashMap.remove(day);
+    }
+    return day;
+  }
+
+  @Nullable
+  private static String getDay(String name) {
+    int separatorIndex = name.indexOf(ENTRY_SEPARATOR);
+    if (separatorIndex != -1) {
+      return name.substring(0, separatorIndex);
+    }
+    return name.length() == DAY_LENGTH ? name : null;
+  }
+
+  @Nullable
+  public RecipeFulfillment getDaySummary(String day) {
+    HashMap<String, RecipeFulfillment> fulfillments = dayHashMap.get(day);
+    return fulfillments != null ? fulfillments.get(day) : null;
+  }
+
+  @Nullable
+  public RecipeFulfillment getWeekSummary(String week) {
+    return weekHashMap.get(week);
+  }
+
+  /**
+   * Returns the summary of the given day under the day key and the fulfillments of its
+   * recipe entries under "day#entryId". The map must not be modified.
+   */
+  @NonNull
+  public Map<String, RecipeFulfillment> getFulfillmentsForDay(String day) {
+    HashMap<String, RecipeFulfillment> fulfillments = dayHashMap.get(day);
+    return fulfillments != null
+        ? Collections.unmodifiableMap(fulfillments) : Collections.emptyMap();
+  }
+
+  public void clear() {
+    shadowRecipeNames.clear();
+    shadowRecipeFulfillments.clear();
+    dayHashMap.clear();
+    weekHashMap.clear();
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.RecyclerView.LayoutManager;
+import androidx.recyclerview.widget.RecyclerView.OnChildAttachStateChangeListener;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.ListPreloader.PreloadModelProvider;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.model.Headers;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
+import java.util.Collections;
+import java.util.List;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.util.PictureUtil;
+
+/**
+ * Loads the pictures of the list items which are scrolled into view next, so they are already
+ * in the memory cache when they are bound. The preload size is taken from the first visible
+ * picture view of the list, which has to use the id "picture".
+ * Unlike Glide's RecyclerViewPreloader this also works with StaggeredGridLayoutManager.
+ */
+public class PicturePreloader extends RecyclerView.OnScrollListener
+    implements PreloadModelProvider<String>, OnChildAttachStateChangeListener {
+
+  private final static int MAX_PRELOAD = 10;
+
+  private final RequestManager requestManager;
+  private final Headers grocyAuthHeaders;
+  private final PictureUrlProvider urlProvider;
+  private final boolean keepAspectRatio;
+  private final ViewPreloadSizeProvider<String> sizeProvider;
+  private final ListPreloader<String> listPreloader;
+  private RecyclerView recyclerView;
+
+  public PicturePreloader(
+      @NonNull RequestManager requestManager,
+      @NonNull Headers grocyAuthHeaders,
+      @NonNull PictureUrlProvider urlProvider,
+      boolean keepAspectRatio
+  ) {
+    this.requestManager = requestManager;
+    this.grocyAuthHeaders = grocyAuthHeaders;
+    this.urlProvider = urlProvider;
+    this.keepAspectRatio = keepAspectRatio;
+    sizeProvider = new ViewPreloadSizeProvider<>();
+    listPreloader = new ListPreloader<>(requestManager, this, sizeProvider, MAX_PRELOAD);
+  }
+
+  public void attach(@NonNull RecyclerView recyclerView) {
+    detach();
+    this.recyclerView = recyclerView;
+    recyclerView.addOnScrollListener(this);
+    recyclerView.addOnChildAttachStateChangeListener(this);
+  }
+
+  public void detach() {
+    if (recyclerView == null) return;
+    recyclerView.removeOnScrollListener(this);
+    recyclerView.removeOnChildAttachStateChangeListener(this);
+    recyclerView = null;
+  }
+
+  @Override
+  public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+    LayoutManager layoutManager = recyclerView.getLayoutManager();
+    int firstVisible;
+    int lastVisible;
+    if (layoutManager instanceof LinearLayoutManager) {
+      firstVisible = ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+      lastVisible = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+    } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+      StaggeredGridLayoutManager gridLayoutManager = (StaggeredGridLayoutManager) layoutManager;
+      firstVisible = Integer.MAX_VALUE;
+      for (int position : gridLayoutManager.findFirstVisibleItemPositions(null)) {
+        if (position != RecyclerView.NO_POSITION) firstVisible = Math.min(firstVisible, position);
+      }
+      lastVisible = RecyclerView.NO_POSITION;
+      for (int position : gridLayoutManager.findLastVisibleItemPositions(null)) {
+        lastVisible = Math.max(lastVisible, position);
+      }
+    } else {
+      return;
+    }
+    if (firstVisible == Integer.MAX_VALUE || firstVisible == RecyclerView.NO_POSITION
+        || lastVisible == RecyclerView.NO_POSITION) {
+      return;
+    }
+    listPreloader.onScroll(
+        null, firstVisible, lastVisible - firstVisible + 1, layoutManager.getItemCount()
+    );
+  }
+
+  @Override
+  public void onChildViewAttachedToWindow(@NonNull View view) {
+    View picture = view.findViewById(R.id.picture);
+    // hidden pictures would never be laid out, so the size could never be determined
+    if (picture != null && picture.getVisibility() == View.VISIBLE) {
+      sizeProvider.setView(picture);
+    }
+  }
+
+  @Override
+  public void onChildViewDetachedFromWindow(@NonNull View view) {
+  }
+
+  @NonNull
+  @Override
+  public List<String> getPreloadItems(int position) {
+    String pictureUrl = urlProvider.getPictureUrl(position);
+    return pictureUrl != null ? Collections.singletonList(pictureUrl) : Collections.emptyList();
+  }
+
+  @Nullable
+  @Override
+  public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String pictureUrl) {
+    return PictureUtil.getPictureRequest(
+        requestManager, pictureUrl, grocyAuthHeaders, keepAspectRatio
+    );
+  }
+
+  public interface PictureUrlProvider {
+
+    /**
+     * Returns the url of the picture the item at this adapter position would show, or null.
+     */
+    @Nullable
+    String getPictureUrl(int position);
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.app.Application;
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.CompressFormat;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.android.volley.VolleyError;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import xyz.zedler.patrick.grocy.util.PictureUtil;
+import xyz.zedler.patrick.grocy.util.PictureUtil.InputStreamProvider;
+
+/**
+ * Scales, rotates and encodes a picture on a background thread and uploads it afterwards.
+ * Only the scaled bitmap is held in memory, it is encoded into a temporary file which is
+ * streamed to the server and deleted after the upload.
+ */
+public class PictureUploader {
+
+  private final static String TAG = PictureUploader.class.getSimpleName();
+
+  private final static int MAX_WIDTH = 1280;
+  private final static int MAX_HEIGHT = 800;
+  private final static int JPEG_QUALITY = 80;
+
+  private final Application application;
+  private final DownloadHelper dlHelper;
+  private Disposable disposable;
+
+  public PictureUploader(Application application, DownloadHelper dlHelper) {
+    this.application = application;
+    this.dlHelper = dlHelper;
+  }
+
+  public void uploadFile(String filePath, String url, OnUploadListener onUploadListener) {
+    upload(
+        () -> new FileInputStream(filePath),
+        () -> new ExifInterface(filePath),
+        url,
+        onUploadListener
+    );
+  }
+
+  public void uploadUri(Uri uri, String url, OnUploadListener onUploadListener) {
+    ContentResolver contentResolver = application.getContentResolver();
+    upload(
+        () -> contentResolver.openInputStream(uri),
+        () -> {
+          if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) return null;
+          try (InputStream inputStream = contentResolver.openInputStream(uri)) {
+            return inputStream != null ? new ExifInterface(inputStream) : null;
+          }
+        },
+        url,
+        onUploadListener
+    );
+  }
+
+  private void upload(
+      InputStreamProvider inputStreamProvider,
+      ExifProvider exifProvider,
+      String url,
+      OnUploadListener onUploadListener
+  ) {
+    dispose();
+    long startTime = SystemClock.elapsedRealtime();
+    disposable = Single.fromCallable(() -> encode(inputStreamProvider, exifProvider))
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(file -> dlHelper.putFile(
+            url,
+            file,
+            () -> {
+              if (dlHelper.debug) {
+                Log.i(TAG, "upload: " + file.length() / 1024 + " KB uploaded after "
+                    + (SystemClock.elapsedRealtime() - startTime) + " ms");
+              }
+              deleteFile(file);
+              onUploadListener.onUploaded();
+            },
+            error -> {
+              if (dlHelper.debug) {
+                Log.e(TAG, "upload: " + error + " after "
+                    + (SystemClock.elapsedRealtime() - startTime) + " ms");
+              }
+              deleteFile(file);
+              onUploadListener.onError(error);
+            }
+        ), throwable -> {
+          Log.e(TAG, "upload: " + throwable);
+          onUploadListener.onError(null);
+        });
+  }
+
+  private File encode(
+      InputStreamProvider inputStreamProvider,
+      ExifProvider exifProvider
+  ) throws IOException {
+    long startTime = SystemClock.elapsedRealtime();
+    int rotationDegrees;
+    try {
+      rotationDegrees = PictureUtil.getRotationDegrees(exifProvider.read());
+    } catch (IOException e) {
+      rotationDegrees = 0;
+    }
+    Bitmap bitmap = PictureUtil.decodeScaledBitmap(
+        inputStreamProvider, MAX_WIDTH, MAX_HEIGHT, rotationDegrees
+    );
+    if (bitmap == null) {
+      throw new IOException("picture could not be decoded");
+    }
+    bitmap = PictureUtil.rotateBitmap(bitmap, rotationDegrees);
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    int bitmapSize = bitmap.getByteCount();
+
+    File file = File.createTempFile("upload", ".jpg", application.getCacheDir());
+    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+      if (!bitmap.compress(CompressFormat.JPEG, JPEG_QUALITY, outputStream)) {
+        throw new IOException("picture could not be encoded");
+      }
+    } catch (IOException e) {
+      deleteFile(file);
+      throw e;
+    } finally {
+      bitmap.recycle();
+    }
+    if (dlHelper.debug) {
+      Log.i(TAG, "encode: " + width + "x" + height + " bitmap with " + bitmapSize / 1024
+          + " KB encoded to " + file.length() / 1024 + " KB in "
+          + (SystemClock.elapsedRealtime() - startTime) + " ms");
+    }
+    return file;
+  }
+
+  private void deleteFile(File file) {
+    if (!file.delete() && dlHelper.debug) {
+      Log.e(TAG, "deleteFile: could not delete " + file.getName());
+    }
+  }
+
+  public void dispose() {
+    if (disposable != null) {
+      disposable.dispose();
+      disposable = null;
+    }
+  }
+
+  private interface ExifProvider {
+
+    @Nullable
+    ExifInterface read() throws IOException;
+  }
+
+  public interface OnUploadListener {
+
+    void onUploaded();
+
+    /**
+     * Error is null if the picture could not be read or encoded.
+     */
+    void onError(@Nullable VolleyError error);
+  }
+}
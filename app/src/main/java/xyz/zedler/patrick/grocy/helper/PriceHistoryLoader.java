@@ -0,0 +1,219 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.google.gson.reflect.TypeToken;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.model.PriceHistoryEntry;
+import xyz.zedler.patrick.grocy.model.Store;
+import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.view.BezierCurveChart.Point;
+
+/**
+ * Loads the price history of a product and prepares it for BezierCurveChart on a background
+ * thread. Downloaded histories are kept for a few minutes, so opening the same product again
+ * doesn't download and parse the whole history again.
+ */
+public class PriceHistoryLoader {
+
+  private final static String TAG = PriceHistoryLoader.class.getSimpleName();
+
+  private final static long CACHE_TTL = 5 * 60 * 1000;
+  private final static int CACHE_SIZE = 20;
+
+  private static final LinkedHashMap<Integer, CacheEntry> cache = new LinkedHashMap<>(
+      CACHE_SIZE, 0.75f, true
+  ) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, CacheEntry> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  private final DownloadHelper dlHelper;
+  private final DateUtil dateUtil;
+  private final String storeUnknown;
+  private Disposable disposable;
+
+  public PriceHistoryLoader(@NonNull Context context, @NonNull DownloadHelper dlHelper) {
+    this.dlHelper = dlHelper;
+    dateUtil = new DateUtil(context);
+    storeUnknown = context.getString(R.string.property_store_unknown);
+  }
+
+  /**
+   * Prices are multiplied by the factor. The listener is not called if there is no history.
+   */
+  public void load(int productId, float factor, @NonNull OnLoadedListener onLoadedListener) {
+    List<PriceHistoryEntry> cachedEntries = getCached(productId);
+    if (cachedEntries != null) {
+      prepare(Single.just(cachedEntries), factor, onLoadedListener);
+      return;
+    }
+    dlHelper.get(
+        dlHelper.grocyApi.getPriceHistory(productId),
+        response -> prepare(Single.fromCallable(() -> {
+          Type listType = new TypeToken<ArrayList<PriceHistoryEntry>>() {
+          }.getType();
+          List<PriceHistoryEntry> entries = dlHelper.gson.fromJson(response, listType);
+          putCached(productId, entries);
+          return entries;
+        }), factor, onLoadedListener),
+        error -> {
+          if (dlHelper.debug) Log.e(TAG, "load: " + error);
+        }
+    );
+  }
+
+  private void prepare(
+      Single<List<PriceHistoryEntry>> entriesSingle,
+      float factor,
+      OnLoadedListener onLoadedListener
+  ) {
+    dispose();
+    disposable = entriesSingle
+        .map(entries -> prepare(entries, factor))
+        .subscribeOn(Schedulers.computation())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(priceHistory -> {
+          if (!priceHistory.labels.isEmpty()) onLoadedListener.onLoaded(priceHistory);
+        }, throwable -> Log.e(TAG, "prepare: " + throwable));
+  }
+
+  /**
+   * The server returns the newest entries first. Points get the index of their localized date
+   * in the label list as x coordinate, entries of the same day share one label.
+   */
+  private PriceHistory prepare(List<PriceHistoryEntry> entries, float factor) {
+    HashMap<String, ArrayList<Point>> curveLists = new HashMap<>();
+    ArrayList<String> labels = new ArrayList<>();
+    HashMap<String, Integer> labelIndices = new HashMap<>();
+
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      PriceHistoryEntry entry = entries.get(i);
+      Store store = entry.getStore();
+      String storeName;
+      if (store == null || store.getName().trim().isEmpty()) {
+        storeName = storeUnknown;
+      } else {
+        storeName = store.getName().trim();
+      }
+      ArrayList<Point> curveList = curveLists.get(storeName);
+      if (curveList == null) {
+        curveList = new ArrayList<>();
+        curveLists.put(storeName, curveList);
+      }
+
+      String date = dateUtil.getLocalizedDate(entry.getDate(), DateUtil.FORMAT_SHORT);
+      Integer labelIndex = labelIndices.get(date);
+      if (labelIndex == null) {
+        labelIndex = labels.size();
+        labelIndices.put(date, labelIndex);
+        labels.add(date);
+      }
+      curveList.add(new Point(labelIndex, (float) entry.getPrice() * factor));
+    }
+    return new PriceHistory(curveLists, labels);
+  }
+
+  public void dispose() {
+    if (disposable != null) {
+      disposable.dispose();
+      disposable = null;
+    }
+  }
+
+  private static List<PriceHistoryEntry> getCached(int productId) {
+    synchronized (cache) {
+      CacheEntry cacheEntry = cache.get(productId);
+      if (cacheEntry == null) return null;
+      if (SystemClock.elapsedRealtime() - cacheEntry.time > CACHE_TTL) {
+        cache.remove(productId);
+        return null;
+      }
+      return cacheEntry.entries;
+    }
+  }
+
+  private static void putCached(int productId, List<PriceHistoryEntry> entries) {
+    synchronized (cache) {
+      cache.put(productId, new CacheEntry(SystemClock.elapsedRealtime(), entries));
+    }
+  }
+
+  /**
+   * Has to be called after a price of the product has changed, e.g. after a purchase.
+   */
+  public static void invalidate(int productId) {
+    synchronized (cache) {
+      cache.remove(productId);
+    }
+  }
+
+  private static class CacheEntry {
+
+    private final long time;
+    private final List<PriceHistoryEntry> entries;
+
+    CacheEntry(long time, List<PriceHistoryEntry> entries) {
+      this.time = time;
+      this.entries = entries;
+    }
+  }
+
+  public static class PriceHistory {
+
+    private final HashMap<String, ArrayList<Point>> curveLists;
+    private final ArrayList<String> labels;
+
+    PriceHistory(HashMap<String, ArrayList<Point>> curveLists, ArrayList<String> labels) {
+      this.curveLists = curveLists;
+      this.labels = labels;
+    }
+
+    public HashMap<String, ArrayList<Point>> getCurveLists() {
+      return curveLists;
+    }
+
+    public ArrayList<String> getLabels() {
+      return labels;
+    }
+  }
+
+  public interface OnLoadedListener {
+
+    void onLoaded(PriceHistory priceHistory);
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.annotation.SuppressLint;
+import android.app.Application;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.android.volley.VolleyError;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.api.OpenBeautyFactsApi;
+import xyz.zedler.patrick.grocy.api.OpenFoodFactsApi;
+import xyz.zedler.patrick.grocy.dao.ExternalProductLookupDao;
+import xyz.zedler.patrick.grocy.model.ExternalProductLookup;
+
+/**
+ * App-wide cache for product lookups in Open Food Facts and Open Beauty Facts.
+ * Found and not found products are stored in the database with separate lifetimes, the number
+ * of stored lookups is limited and the least recently used ones are removed first.
+ * Concurrent lookups of the same barcode share one request.
+ * All methods have to be called on the main thread and listeners are called on the main thread.
+ */
+public class ProductLookupCache {
+
+  private final static String TAG = ProductLookupCache.class.getSimpleName();
+
+  public final static String SOURCE_OPEN_FOOD_FACTS = "off";
+  public final static String SOURCE_OPEN_BEAUTY_FACTS = "obf";
+
+  private final static long FOUND_TTL = TimeUnit.DAYS.toMillis(30);
+  private final static long NOT_FOUND_TTL = TimeUnit.DAYS.toMillis(1);
+  private final static int MAX_ENTRIES = 1000;
+  private final static int MAX_PREFETCH_COUNT = 50;
+
+  private static ProductLookupCache instance;
+
+  // own helper, so a screen which is closed can't cancel lookups other screens are waiting for
+  private final DownloadHelper dlHelper;
+  private final ExternalProductLookupDao dao;
+  private final HashMap<String, ArrayList<OnLookupListener>> pendingLookups;
+  private final LinkedHashSet<String> prefetchQueue;
+  private boolean isPrefetching;
+
+  private ProductLookupCache(Application application) {
+    dlHelper = new DownloadHelper(application, TAG, null, null);
+    dao = dlHelper.appDatabase.externalProductLookupDao();
+    pendingLookups = new HashMap<>();
+    prefetchQueue = new LinkedHashSet<>();
+  }
+
+  public static synchronized ProductLookupCache getInstance(Application application) {
+    if (instance == null) {
+      instance = new ProductLookupCache(application);
+    }
+    return instance;
+  }
+
+  /**
+   * Delivers the product json of the source or null if the product is unknown to the source.
+   * If the source can't be reached, an outdated found product is delivered if one is stored,
+   * otherwise the error.
+   */
+  @SuppressLint("CheckResult")
+  public void lookup(
+      @NonNull String source,
+      @NonNull String barcode,
+      @NonNull OnLookupListener listener
+  ) {
+    String key = source + ":" + barcode;
+    ArrayList<OnLookupListener> listeners = pendingLookups.get(key);
+    if (listeners != null) {
+      listeners.add(listener);
+      return;
+    }
+    listeners = new ArrayList<>();
+    listeners.add(listener);
+    pendingLookups.put(key, listeners);
+
+    dao.getLookups(source, barcode)
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            lookups -> {
+              ExternalProductLookup stored = lookups.isEmpty() ? null : lookups.get(0);
+              long now = System.currentTimeMillis();
+              if (stored != null && !stored.isExpired(now, FOUND_TTL, NOT_FOUND_TTL)) {
+                if (dlHelper.debug) Log.i(TAG, "lookup: cached " + stored);
+                updateAccessTime(source, barcode, now);
+                deliver(key, stored.getProductJsonObject(), null);
+              } else {
+                download(key, source, barcode, stored);
+              }
+            },
+            throwable -> {
+              if (dlHelper.debug) Log.e(TAG, "lookup: " + throwable);
+              download(key, source, barcode, null);
+            }
+        );
+  }
+
+  /**
+   * Looks up the barcodes in the background one after another, so that scanning them later
+   * doesn't have to wait for the network. Barcodes unknown to Open Food Facts are looked up
+   * in Open Beauty Facts, like the product chooser does. Stops at the first network error.
+   */
+  public void prefetch(@NonNull List<String> barcodes) {
+    for (String barcode : barcodes) {
+      String normalized = BarcodeIndex.normalize(barcode);
+      if (normalized == null) continue;
+      if (prefetchQueue.size() >= MAX_PREFETCH_COUNT) break;
+      prefetchQueue.add(normalized);
+    }
+    if (!isPrefetching) prefetchNext();
+  }
+
+  private void prefetchNext() {
+    Iterator<String> iterator = prefetchQueue.iterator();
+    if (!iterator.hasNext()) {
+      isPrefetching = false;
+      return;
+    }
+    isPrefetching = true;
+    String barcode = iterator.next();
+    iterator.remove();
+    lookup(SOURCE_OPEN_FOOD_FACTS, barcode, (productJson, error) -> {
+      if (error != null) {
+        stopPrefetching();
+      } else if (productJson != null) {
+        prefetchNext();
+      } else {
+        lookup(SOURCE_OPEN_BEAUTY_FACTS, barcode, (beautyJson, beautyError) -> {
+          if (beautyError != null) {
+            stopPrefetching();
+          } else {
+            prefetchNext();
+          }
+        });
+      }
+    });
+  }
+
+  private void stopPrefetching() {
+    if (dlHelper.debug) Log.i(TAG, "prefetch: stopped after network error");
+    prefetchQueue.clear();
+    isPrefetching = false;
+  }
+
+  private void download(
+      String key,
+      String source,
+      String barcode,
+      @Nullable ExternalProductLookup stored
+  ) {
+    boolean isBeautyFacts = source.equals(SOURCE_OPEN_BEAUTY_FACTS);
+    dlHelper.get(
+        isBeautyFacts
+            ? OpenBeautyFactsApi.getProduct(barcode)
+            : OpenFoodFactsApi.getProduct(barcode),
+        response -> {
+          JSONObject productJson;
+          try {
+            JSONObject jsonObject = new JSONObject(response);
+            JSONObject jsonProduct = jsonObject.optJSONObject("product");
+            productJson = jsonProduct != null ? reduceProductJson(jsonProduct) : null;
+          } catch (JSONException e) {
+            if (dlHelper.debug) Log.e(TAG, "download: " + source + ", " + barcode + ": " + e);
+            deliver(key, null, null);
+            return;
+          }
+          store(source, barcode, productJson);
+          deliver(key, productJson, null);
+        },
+        error -> {
+          if (error.networkResponse != null && error.networkResponse.statusCode == 404) {
+            store(source, barcode, null);
+            deliver(key, null, null);
+            return;
+          }
+          if (dlHelper.debug) Log.e(TAG, "download: " + source + ", " + barcode + ": " + error);
+          if (stored != null && stored.isFound()) {
+            deliver(key, stored.getProductJsonObject(), null);
+          } else {
+            deliver(key, null, error);
+          }
+        },
+        isBeautyFacts
+            ? OpenBeautyFactsApi.getUserAgent(dlHelper.application)
+            : OpenFoodFactsApi.getUserAgent(dlHelper.application)
+    );
+  }
+
+  private void deliver(String key, @Nullable JSONObject productJson, @Nullable VolleyError error) {
+    ArrayList<OnLookupListener> listeners = pendingLookups.remove(key);
+    if (listeners == null) return;
+    for (OnLookupListener listener : listeners) {
+      listener.onLookup(productJson, error);
+    }
+  }
+
+  @SuppressLint("CheckResult")
+  private void store(String source, String barcode, @Nullable JSONObject productJson) {
+    ExternalProductLookup lookup = new ExternalProductLookup(
+        source,
+        barcode,
+        productJson != null ? productJson.toString() : null,
+        System.currentTimeMillis()
+    );
+    dao.insertLookup(lookup)
+        .flatMap(id -> dao.deleteLeastRecentlyUsed(MAX_ENTRIES))
+        .subscribeOn(Schedulers.io())
+        .subscribe(
+            deleted -> {
+              if (dlHelper.debug) Log.i(TAG, "store: " + lookup + ", evicted: " + deleted);
+            },
+            throwable -> {
+              if (dlHelper.debug) Log.e(TAG, "store: " + throwable);
+            }
+        );
+  }
+
+  @SuppressLint("CheckResult")
+  private void updateAccessTime(String source, String barcode, long time) {
+    dao.updateAccessTime(source, barcode, time)
+        .subscribeOn(Schedulers.io())
+        .subscribe(count -> {}, throwable -> {});
+  }
+
+  /**
+   * The product json of the sources contains hundreds of fields, but only the id, the names
+   * and the nutriments are used, so only these are stored.
+   */
+  private static JSONObject reduceProductJson(JSONObject jsonProduct) throws JSONException {
+    JSONObject reduced = new JSONObject();
+    Iterator<String> keys = jsonProduct.keys();
+    while (keys.hasNext()) {
+      String key = keys.next();
+      if (key.equals("_id") || key.equals("nutriments") || key.startsWith("product_name")) {
+        reduced.put(key, jsonProduct.get(key));
+      }
+    }
+    return reduced;
+  }
+
+  public interface OnLookupListener {
+
+    void onLookup(@Nullable JSONObject productJson, @Nullable VolleyError error);
+  }
+}
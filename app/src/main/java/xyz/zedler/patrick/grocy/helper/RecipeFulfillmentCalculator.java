@@ -0,0 +1,290 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
+import xyz.zedler.patrick.grocy.model.Recipe;
+import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
+import xyz.zedler.patrick.grocy.model.RecipeNestingResolved;
+import xyz.zedler.patrick.grocy.model.RecipePosition;
+import xyz.zedler.patrick.grocy.model.RecipePositionResolved;
+import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.StockItem;
+import xyz.zedler.patrick.grocy.util.IntDoubleMap;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+
+/**
+ * Calculates the fulfillment of a recipe from the local data like the server does in its
+ * recipes_pos_resolved and recipes_resolved views: needed amounts of all positions including
+ * those of nested recipes, stock coverage, missing amounts, costs and calories. This makes it
+ * possible to show the effect of other servings immediately and without connection.
+ * All amounts are in the stock unit of the products, prices are the last purchase prices.
+ */
+public class RecipeFulfillmentCalculator {
+
+  private final static double EPSILON = 0.0001;
+
+  private final HashMap<Integer, Recipe> recipeHashMap;
+  private final HashMap<Integer, List<RecipePosition>> recipePositionsHashMap;
+  private final HashMap<Integer, List<RecipeNestingResolved>> nestingsHashMap;
+  private final HashMap<Integer, Product> productHashMap;
+  private final HashMap<Integer, StockItem> stockItemHashMap;
+  private final IntDoubleMap priceHashMap;
+  private final IntDoubleMap shoppingListAmountHashMap;
+
+  public RecipeFulfillmentCalculator(
+      List<Recipe> recipes,
+      List<RecipePosition> recipePositions,
+      @Nullable List<RecipeNestingResolved> recipeNestingsResolved,
+      HashMap<Integer, Product> productHashMap,
+      HashMap<Integer, StockItem> stockItemHashMap,
+      @Nullable List<ProductLastPurchased> productsLastPurchased,
+      @Nullable List<ShoppingListItem> shoppingListItems
+  ) {
+    this.productHashMap = productHashMap;
+    this.stockItemHashMap = stockItemHashMap;
+
+    recipeHashMap = new HashMap<>();
+    for (Recipe recipe : recipes) {
+      recipeHashMap.put(recipe.getId(), recipe);
+    }
+    recipePositionsHashMap = new HashMap<>();
+    for (RecipePosition recipePosition : recipePositions) {
+      List<RecipePosition> positions = recipePositionsHashMap.get(recipePosition.getRecipeId());
+      if (positions == null) {
+        positions = new ArrayList<>();
+        recipePositionsHashMap.put(recipePosition.getRecipeId(), positions);
+      }
+      positions.add(recipePosition);
+    }
+    nestingsHashMap = new HashMap<>();
+    if (recipeNestingsResolved != null) {
+      for (RecipeNestingResolved nesting : recipeNestingsResolved) {
+        List<RecipeNestingResolved> nestings = nestingsHashMap.get(nesting.getRecipeId());
+        if (nestings == null) {
+          nestings = new ArrayList<>();
+          nestingsHashMap.put(nesting.getRecipeId(), nestings);
+        }
+        nestings.add(nesting);
+      }
+    }
+    priceHashMap = new IntDoubleMap();
+    if (productsLastPurchased != null) {
+      for (ProductLastPurchased lastPurchased : productsLastPurchased) {
+        if (!NumUtil.isStringDouble(lastPurchased.getPrice())) continue;
+        priceHashMap.put(lastPurchased.getProductId(), NumUtil.toDouble(lastPurchased.getPrice()));
+      }
+    }
+    shoppingListAmountHashMap = new IntDoubleMap();
+    if (shoppingListItems != null) {
+      for (ShoppingListItem item : shoppingListItems) {
+        if (!item.hasProduct()) continue;
+        int productId = item.getProductIdInt();
+        shoppingListAmountHashMap.put(
+            productId,
+            shoppingListAmountHashMap.get(productId, 0) + item.getAmountDouble()
+        );
+      }
+    }
+  }
+
+  /**
+   * Calculates the positions and the fulfillment of the recipe for the given servings.
+   * Fields which can't be calculated locally (product group, due score, checked state) are
+   * taken from the positions of the server if given. Returns null if the recipe is unknown.
+   */
+  @Nullable
+  public Result calculate(
+      int recipeId,
+      double desiredServings,
+      @Nullable List<RecipePositionResolved> serverPositions
+  ) {
+    Recipe recipe = recipeHashMap.get(recipeId);
+    if (recipe == null) return null;
+    if (desiredServings <= 0) desiredServings = 1;
+
+    HashMap<Integer, RecipePositionResolved> serverPositionHashMap = new HashMap<>();
+    if (serverPositions != null) {
+      for (RecipePositionResolved position : serverPositions) {
+        serverPositionHashMap.put(position.getRecipePosId(), position);
+      }
+    }
+
+    double servingsFactor = desiredServings / getServings(recipe.getBaseServings());
+    List<RecipePositionResolved> positions = new ArrayList<>();
+    addPositions(positions, recipe, recipe, servingsFactor, serverPositionHashMap);
+    List<RecipeNestingResolved> nestings = nestingsHashMap.get(recipeId);
+    if (nestings != null) {
+      for (RecipeNestingResolved nesting : nestings) {
+        Recipe includedRecipe = recipeHashMap.get(nesting.getIncludesRecipeId());
+        if (includedRecipe == null || includedRecipe.getId() == recipeId) continue;
+        double factor = servingsFactor * nesting.getIncludesServings()
+            / getServings(includedRecipe.getBaseServings());
+        addPositions(positions, recipe, includedRecipe, factor, serverPositionHashMap);
+      }
+    }
+
+    RecipeFulfillment fulfillment = new RecipeFulfillment();
+    fulfillment.setRecipeId(recipeId);
+    boolean needFulfilled = true;
+    boolean needFulfilledWithShoppingList = true;
+    int missingProductsCount = 0;
+    double costs = 0;
+    double calories = 0;
+    int dueScore = 0;
+    StringBuilder missingProductNames = new StringBuilder();
+    for (RecipePositionResolved position : positions) {
+      costs += position.getCosts();
+      calories += position.getCalories();
+      dueScore += position.getDueScore();
+      if (!position.getNeedFulfilledWithShoppingListBoolean()) {
+        needFulfilledWithShoppingList = false;
+      }
+      if (position.getNeedFulfilledBoolean()) continue;
+      needFulfilled = false;
+      missingProductsCount++;
+      if (position.getProductName() != null) {
+        if (missingProductNames.length() > 0) missingProductNames.append(", ");
+        missingProductNames.append(position.getProductName());
+      }
+    }
+    fulfillment.setNeedFulfilled(needFulfilled);
+    fulfillment.setNeedFulfilledWithShoppingList(needFulfilledWithShoppingList);
+    fulfillment.setMissingProductsCount(missingProductsCount);
+    fulfillment.setCosts(costs);
+    fulfillment.setCostsPerServing(costs / desiredServings);
+    fulfillment.setCalories(calories / desiredServings);
+    fulfillment.setDueScore(dueScore);
+    fulfillment.setProductNamesCommaSeparated(missingProductNames.toString());
+    return new Result(positions, fulfillment);
+  }
+
+  private void addPositions(
+      List<RecipePositionResolved> positions,
+      Recipe recipe,
+      Recipe includedRecipe,
+      double factor,
+      HashMap<Integer, RecipePositionResolved> serverPositionHashMap
+  ) {
+    List<RecipePosition> recipePositions = recipePositionsHashMap.get(includedRecipe.getId());
+    if (recipePositions == null) return;
+    for (RecipePosition recipePosition : recipePositions) {
+      positions.add(getPosition(
+          recipe,
+          includedRecipe,
+          recipePosition,
+          factor,
+          serverPositionHashMap.get(recipePosition.getId())
+      ));
+    }
+  }
+
+  private RecipePositionResolved getPosition(
+      Recipe recipe,
+      Recipe includedRecipe,
+      RecipePosition recipePosition,
+      double factor,
+      @Nullable RecipePositionResolved serverPosition
+  ) {
+    int productId = recipePosition.getProductId();
+    Product product = productHashMap.get(productId);
+    StockItem stockItem = stockItemHashMap.get(productId);
+
+    double recipeAmount = recipePosition.getAmount() * factor;
+    double stockAmount = stockItem != null ? stockItem.getAmountAggregatedDouble() : 0;
+    double neededAmount = recipePosition.isOnlyCheckSingleUnitInStock() ? 1 : recipeAmount;
+    double shoppingListAmount = shoppingListAmountHashMap.get(productId, 0);
+    boolean notCheckStock = recipePosition.isNotCheckStockFulfillment();
+    boolean needFulfilled = notCheckStock || stockAmount >= neededAmount - EPSILON;
+    boolean needFulfilledWithShoppingList = needFulfilled
+        || !recipe.isNotCheckShoppingList()
+        && stockAmount + shoppingListAmount >= neededAmount - EPSILON;
+
+    RecipePositionResolved position = new RecipePositionResolved();
+    position.setRecipeId(recipe.getId());
+    position.setRecipePosId(recipePosition.getId());
+    position.setProductId(productId);
+    position.setRecipeAmount(recipeAmount);
+    position.setStockAmount(stockAmount);
+    position.setNeedFulfilled(needFulfilled ? 1 : 0);
+    position.setMissingAmount(needFulfilled ? 0 : neededAmount - stockAmount);
+    position.setAmountOnShoppingList(shoppingListAmount);
+    position.setNeedFulfilledWithShoppingList(needFulfilledWithShoppingList ? 1 : 0);
+    position.setQuId(recipePosition.getQuantityUnitId());
+    position.setCosts(recipeAmount * priceHashMap.get(productId, 0)
+        * recipePosition.getPriceFactor());
+    position.setCalories(product != null ? recipeAmount * product.getCaloriesDouble() : 0);
+    position.setIsNestedRecipePos(includedRecipe.getId() != recipe.getId() ? 1 : 0);
+    position.setChildRecipeId(includedRecipe.getId());
+    position.setIngredientGroup(recipePosition.getIngredientGroup());
+    position.setNote(recipePosition.getNote());
+    position.setRecipeVariableAmount(recipePosition.getVariableAmount());
+    position.setOnlyCheckSingleUnitInStock(recipePosition.getOnlyCheckSingleUnitInStock());
+    position.setNotCheckStockFulfillment(recipePosition.getNotCheckStockFulfillment());
+    position.setProductIdEffective(productId);
+    if (product != null) {
+      position.setProductName(product.getName());
+      position.setProductActive(product.isActive() ? 1 : 0);
+    }
+    if (serverPosition != null) {
+      position.setId(serverPosition.getId());
+      position.setProductGroup(serverPosition.getProductGroup());
+      position.setRecipeType(serverPosition.getRecipeType());
+      position.setDueScore(serverPosition.getDueScore());
+      position.setProductIdEffective(serverPosition.getProductIdEffective());
+      position.setChecked(serverPosition.isChecked());
+    } else {
+      position.setId(recipePosition.getId());
+    }
+    return position;
+  }
+
+  private static double getServings(@Nullable Double servings) {
+    return servings != null && servings > 0 ? servings : 1;
+  }
+
+  public static class Result {
+
+    private final List<RecipePositionResolved> recipePositions;
+    private final RecipeFulfillment recipeFulfillment;
+
+    private Result(
+        List<RecipePositionResolved> recipePositions,
+        RecipeFulfillment recipeFulfillment
+    ) {
+      this.recipePositions = recipePositions;
+      this.recipeFulfillment = recipeFulfillment;
+    }
+
+    public List<RecipePositionResolved> getRecipePositions() {
+      return recipePositions;
+    }
+
+    public RecipeFulfillment getRecipeFulfillment() {
+      return recipeFulfillment;
+    }
+  }
+}
@@ -0,0 +1,546 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.Html;
+import android.text.Spanned;
+import android.text.SpannedString;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.DiffUtil;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import xyz.zedler.patrick.grocy.Constants.PREF;
+import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
+import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.adapter.ShoppingListItemAdapter;
+import xyz.zedler.patrick.grocy.model.FilterChipLiveDataGroupingShoppingList;
+import xyz.zedler.patrick.grocy.model.GroupHeader;
+import xyz.zedler.patrick.grocy.model.GroupedListItem;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductGroup;
+import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
+import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.model.ShoppingListBottomNotes;
+import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.Store;
+import xyz.zedler.patrick.grocy.util.IntDoubleMap;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
+import xyz.zedler.patrick.grocy.util.IntSet;
+import xyz.zedler.patrick.grocy.util.LocaleUtil;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
+import xyz.zedler.patrick.grocy.util.SortUtil;
+import xyz.zedler.patrick.grocy.util.TextUtil;
+
+/**
+ * Builds the grouped rows of the shopping list and shopping mode on a worker thread.
+ * Group name, sort key and price of every item are cached, so after an update only new and
+ * changed items are grouped and sorted into their group again and the total price is adjusted
+ * by their difference. Everything is calculated again if the grouping mode or the data used
+ * for grouping has changed. The diff to the previous rows is also calculated on the worker.
+ */
+public class ShoppingListGroupingPipeline {
+
+  private final static String TAG = ShoppingListGroupingPipeline.class.getSimpleName();
+
+  private final static Comparator<Entry> ENTRY_COMPARATOR = (entry1, entry2) -> {
+    // items with product first, then items with note only, sorted by name
+    if (entry1.hasProduct != entry2.hasProduct) {
+      return entry1.hasProduct ? -1 : 1;
+    }
+    if (entry1.sortKey == null || entry2.sortKey == null) {
+      if (entry1.sortKey != entry2.sortKey) {
+        return entry1.sortKey == null ? -1 : 1;
+      }
+    } else {
+      int result = entry1.sortKey.compareTo(entry2.sortKey);
+      if (result != 0) return result;
+    }
+    return Integer.compare(entry1.item.getId(), entry2.item.getId());
+  };
+
+  private final Context context;
+  private final boolean shoppingMode;
+  private final boolean priceTrackingEnabled;
+  private final int decimalPlacesPriceDisplay;
+  private final String currency;
+  private final ExecutorService executor;
+  private final Scheduler scheduler;
+  private final CompositeDisposable disposables;
+  private final AtomicInteger generation;
+
+  // only accessed on the worker thread
+  private final HashMap<Integer, Entry> entryHashMap;
+  private final HashMap<String, ArrayList<Entry>> groupHashMap;
+  private final ArrayList<Entry> ungroupedEntries;
+  private final ArrayList<Entry> doneEntries;
+  private Collator collator;
+  private Input lastInput;
+  private List<GroupedListItem> lastItems;
+  private double priceTotal;
+
+  /**
+   * @param shoppingMode if true, done items are listed in an own section at the end, like the
+   *                     shopping mode does it, if the input enables showing them
+   */
+  public ShoppingListGroupingPipeline(Context context, boolean shoppingMode) {
+    this.context = context.getApplicationContext();
+    this.shoppingMode = shoppingMode;
+    SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+    priceTrackingEnabled = sharedPrefs.getBoolean(PREF.FEATURE_STOCK_PRICE_TRACKING, true);
+    decimalPlacesPriceDisplay = sharedPrefs.getInt(
+        STOCK.DECIMAL_PLACES_PRICES_DISPLAY,
+        SETTINGS_DEFAULT.STOCK.DECIMAL_PLACES_PRICES_DISPLAY
+    );
+    currency = sharedPrefs.getString(PREF.CURRENCY, "");
+    executor = Executors.newSingleThreadExecutor();
+    scheduler = Schedulers.from(executor);
+    disposables = new CompositeDisposable();
+    generation = new AtomicInteger();
+    entryHashMap = new HashMap<>();
+    groupHashMap = new HashMap<>();
+    ungroupedEntries = new ArrayList<>();
+    doneEntries = new ArrayList<>();
+  }
+
+  public interface ResultListener {
+    void onResult(Result result);
+  }
+
+  /**
+   * Builds the rows for the given input on the worker and delivers them on the main thread.
+   * Input which is replaced by newer input before its processing has started is skipped.
+   */
+  public void submit(Input input, ResultListener listener) {
+    int inputGeneration = generation.incrementAndGet();
+    disposables.add(Maybe
+        .fromCallable(() -> inputGeneration == generation.get() ? process(input) : null)
+        .subscribeOn(scheduler)
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(listener::onResult, throwable -> Log.e(TAG, "submit: ", throwable)));
+  }
+
+  public void destroy() {
+    disposables.dispose();
+    executor.shutdown();
+  }
+
+  private Result process(Input input) {
+    boolean regroupAll = lastInput == null
+        || !input.groupingMode.equals(lastInput.groupingMode)
+        || input.showDoneItems != lastInput.showDoneItems
+        || input.productHashMap != lastInput.productHashMap
+        || !Objects.equals(input.productNamesHashMap, lastInput.productNamesHashMap)
+        || !Objects.equals(input.productGroupHashMap, lastInput.productGroupHashMap)
+        || !Objects.equals(input.storeHashMap, lastInput.storeHashMap);
+    boolean repriceAll = !regroupAll && !Objects.equals(
+        input.productLastPurchasedHashMap, lastInput.productLastPurchasedHashMap
+    );
+
+    if (regroupAll) {
+      collator = Collator.getInstance(LocaleUtil.getLocale());
+      entryHashMap.clear();
+      groupHashMap.clear();
+      ungroupedEntries.clear();
+      doneEntries.clear();
+      priceTotal = 0;
+    } else if (repriceAll) {
+      priceTotal = 0;
+      for (Entry entry : entryHashMap.values()) {
+        entry.price = getPrice(entry.item, input);
+        priceTotal += entry.price;
+      }
+    }
+
+    IntSet itemIds = new IntSet(input.items.size());
+    for (ShoppingListItem item : input.items) {
+      itemIds.add(item.getId());
+      Entry entry = entryHashMap.get(item.getId());
+      if (entry != null && entry.item.equals(item)) {
+        entry.item = item;
+        continue;
+      }
+      if (entry != null) removeEntry(entry);
+      addEntry(createEntry(item, input));
+    }
+    Iterator<Entry> iterator = entryHashMap.values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (itemIds.contains(entry.item.getId())) continue;
+      iterator.remove();
+      removeEntryFromBucket(entry);
+    }
+
+    List<GroupedListItem> items = Collections.unmodifiableList(buildItems(input));
+    DiffUtil.DiffResult diffResult = null;
+    if (lastInput != null) {
+      diffResult = DiffUtil.calculateDiff(new ShoppingListItemAdapter.DiffCallback(
+          lastItems,
+          items,
+          lastInput.productHashMap,
+          input.productHashMap,
+          lastInput.productLastPurchasedHashMap,
+          input.productLastPurchasedHashMap,
+          lastInput.quantityUnitHashMap,
+          input.quantityUnitHashMap,
+          lastInput.unitConversionIndex,
+          input.unitConversionIndex,
+          lastInput.shoppingListItemAmountsHashMap,
+          input.shoppingListItemAmountsHashMap,
+          lastInput.missingProductIds,
+          input.missingProductIds,
+          lastInput.groupingMode,
+          input.groupingMode,
+          lastInput.activeFields,
+          input.activeFields
+      ));
+    }
+    Result result = new Result(input, items, lastItems, diffResult);
+    lastInput = input;
+    lastItems = items;
+    return result;
+  }
+
+  private Entry createEntry(ShoppingListItem item, Input input) {
+    Entry entry = new Entry();
+    entry.item = item;
+    entry.hasProduct = item.hasProduct();
+    entry.done = shoppingMode && item.getDoneInt() == 1;
+    if (!entry.done) {
+      String groupName = getGroupName(item, input);
+      entry.groupName = groupName != null && !groupName.isEmpty() ? groupName : null;
+    }
+    String name = entry.hasProduct
+        ? input.productNamesHashMap.get(item.getProductIdInt())
+        : item.getNote();
+    entry.sortKey = name != null ? collator.getCollationKey(name) : null;
+    entry.price = getPrice(item, input);
+    return entry;
+  }
+
+  private void addEntry(Entry entry) {
+    entryHashMap.put(entry.item.getId(), entry);
+    ArrayList<Entry> bucket = getBucket(entry, true);
+    int index = Collections.binarySearch(bucket, entry, ENTRY_COMPARATOR);
+    bucket.add(index < 0 ? -(index + 1) : index, entry);
+    priceTotal += entry.price;
+  }
+
+  private void removeEntry(Entry entry) {
+    entryHashMap.remove(entry.item.getId());
+    removeEntryFromBucket(entry);
+  }
+
+  private void removeEntryFromBucket(Entry entry) {
+    priceTotal -= entry.price;
+    ArrayList<Entry> bucket = getBucket(entry, false);
+    if (bucket == null) return;
+    int index = Collections.binarySearch(bucket, entry, ENTRY_COMPARATOR);
+    if (index >= 0) bucket.remove(index);
+    if (bucket.isEmpty() && entry.groupName != null && !entry.done) {
+      groupHashMap.remove(entry.groupName);
+    }
+  }
+
+  @Nullable
+  private ArrayList<Entry> getBucket(Entry entry, boolean create) {
+    if (entry.done) return doneEntries;
+    if (entry.groupName == null) return ungroupedEntries;
+    ArrayList<Entry> bucket = groupHashMap.get(entry.groupName);
+    if (bucket == null && create) {
+      bucket = new ArrayList<>();
+      groupHashMap.put(entry.groupName, bucket);
+    }
+    return bucket;
+  }
+
+  private ArrayList<GroupedListItem> buildItems(Input input) {
+    ArrayList<GroupedListItem> items = new ArrayList<>();
+    boolean groupingNone = input.groupingMode
+        .equals(FilterChipLiveDataGroupingShoppingList.GROUPING_NONE);
+    boolean hasUndoneItems = !ungroupedEntries.isEmpty() || !groupHashMap.isEmpty();
+
+    if (groupingNone) {
+      addEntries(items, ungroupedEntries);
+    } else {
+      if (!ungroupedEntries.isEmpty()) {
+        items.add(new GroupHeader(context.getString(R.string.property_ungrouped)));
+        addEntries(items, ungroupedEntries);
+      }
+      ArrayList<String> groupsSorted = new ArrayList<>(groupHashMap.keySet());
+      SortUtil.sortStringsByName(groupsSorted, true);
+      for (String group : groupsSorted) {
+        GroupHeader groupHeader = new GroupHeader(group);
+        groupHeader.setDisplayDivider(
+            !ungroupedEntries.isEmpty() || !groupsSorted.get(0).equals(group)
+        );
+        items.add(groupHeader);
+        addEntries(items, groupHashMap.get(group));
+      }
+    }
+
+    if (shoppingMode && groupingNone) {
+      addDoneItems(items, input);
+      addBottomNotes(items, input.shoppingListNotes, !input.items.isEmpty());
+      return items;
+    }
+    addBottomNotes(items, input.shoppingListNotes, hasUndoneItems);
+    addDoneItems(items, input);
+    if (hasUndoneItems && priceTrackingEnabled) {
+      addTotalPrice(items);
+    }
+    return items;
+  }
+
+  private void addEntries(ArrayList<GroupedListItem> items, List<Entry> entries) {
+    for (Entry entry : entries) {
+      items.add(entry.item);
+    }
+  }
+
+  private void addDoneItems(ArrayList<GroupedListItem> items, Input input) {
+    if (!input.showDoneItems || doneEntries.isEmpty()) return;
+    items.add(new GroupHeader(context.getString(R.string.subtitle_done)));
+    addEntries(items, doneEntries);
+  }
+
+  private void addBottomNotes(
+      ArrayList<GroupedListItem> items,
+      String shoppingListNotes,
+      boolean displayDivider
+  ) {
+    if (shoppingListNotes == null) {
+      return;
+    }
+    Spanned spanned = Html.fromHtml(shoppingListNotes.trim());
+    Spanned notes = (Spanned) TextUtil.trimCharSequence(spanned);
+    if (notes != null && !notes.toString().trim().isEmpty()) {
+      GroupHeader h = new GroupHeader(context.getString(R.string.property_notes));
+      h.setDisplayDivider(displayDivider);
+      items.add(h);
+      items.add(new ShoppingListBottomNotes(notes));
+    }
+  }
+
+  private void addTotalPrice(ArrayList<GroupedListItem> items) {
+    GroupHeader h = new GroupHeader();
+    h.setDisplayDivider(true);
+    items.add(h);
+    ShoppingListBottomNotes priceText = new ShoppingListBottomNotes(
+        new SpannedString(context.getString(
+            R.string.subtitle_total_price,
+            NumUtil.trimPrice(priceTotal, decimalPlacesPriceDisplay),
+            currency
+        ))
+    );
+    priceText.setClickable(false);
+    items.add(priceText);
+  }
+
+  private static double getPrice(ShoppingListItem item, Input input) {
+    ProductLastPurchased p = item.hasProduct()
+        ? input.productLastPurchasedHashMap.get(item.getProductIdInt()) : null;
+    if (p == null || p.getPrice() == null || !NumUtil.isStringDouble(p.getPrice())) return 0;
+    return NumUtil.toDouble(p.getPrice()) * item.getAmountDouble();
+  }
+
+  @Nullable
+  private static String getGroupName(ShoppingListItem item, Input input) {
+    if (!item.hasProduct()) return null;
+    Product product = input.productHashMap.get(item.getProductIdInt());
+    if (product == null) return null;
+    if (input.groupingMode.equals(FilterChipLiveDataGroupingShoppingList.GROUPING_PRODUCT_GROUP)
+        && NumUtil.isStringInt(product.getProductGroupId())) {
+      ProductGroup productGroup = input.productGroupHashMap
+          .get(Integer.parseInt(product.getProductGroupId()));
+      return productGroup != null ? productGroup.getName() : null;
+    } else if (input.groupingMode.equals(FilterChipLiveDataGroupingShoppingList.GROUPING_STORE)
+        && NumUtil.isStringInt(product.getStoreId())) {
+      Store store = input.storeHashMap.get(Integer.parseInt(product.getStoreId()));
+      return store != null ? store.getName() : null;
+    }
+    return null;
+  }
+
+  private static class Entry {
+
+    ShoppingListItem item;
+    boolean hasProduct;
+    boolean done;
+    String groupName;
+    CollationKey sortKey;
+    double price;
+  }
+
+  /**
+   * Data for one update. The maps are read on the worker thread, so they must not be modified
+   * after they have been passed, only be replaced by new ones.
+   */
+  public static class Input {
+
+    private final List<ShoppingListItem> items;
+    private final HashMap<Integer, Product> productHashMap;
+    private final HashMap<Integer, String> productNamesHashMap;
+    private final IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
+    private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+    private final QuantityUnitConversionIndex unitConversionIndex;
+    private final HashMap<Integer, ProductGroup> productGroupHashMap;
+    private final HashMap<Integer, Store> storeHashMap;
+    private final IntDoubleMap shoppingListItemAmountsHashMap;
+    private final IntSet missingProductIds;
+    private final String shoppingListNotes;
+    private final String groupingMode;
+    private final List<String> activeFields;
+    private final boolean showDoneItems;
+
+    /**
+     * @param showDoneItems if done items are listed in their section at the end, only used
+     *                      in shopping mode
+     */
+    public Input(
+        List<ShoppingListItem> items,
+        HashMap<Integer, Product> productHashMap,
+        HashMap<Integer, String> productNamesHashMap,
+        IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap,
+        HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+        QuantityUnitConversionIndex unitConversionIndex,
+        HashMap<Integer, ProductGroup> productGroupHashMap,
+        HashMap<Integer, Store> storeHashMap,
+        IntDoubleMap shoppingListItemAmountsHashMap,
+        IntSet missingProductIds,
+        String shoppingListNotes,
+        String groupingMode,
+        List<String> activeFields,
+        boolean showDoneItems
+    ) {
+      this.items = new ArrayList<>(items);
+      this.productHashMap = productHashMap;
+      this.productNamesHashMap = productNamesHashMap;
+      this.productLastPurchasedHashMap = productLastPurchasedHashMap;
+      this.quantityUnitHashMap = quantityUnitHashMap;
+      this.unitConversionIndex = unitConversionIndex;
+      this.productGroupHashMap = productGroupHashMap;
+      this.storeHashMap = storeHashMap;
+      this.shoppingListItemAmountsHashMap = shoppingListItemAmountsHashMap;
+      this.missingProductIds = missingProductIds;
+      this.shoppingListNotes = shoppingListNotes;
+      this.groupingMode = groupingMode;
+      this.activeFields = new ArrayList<>(activeFields);
+      this.showDoneItems = showDoneItems;
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return productHashMap;
+    }
+
+    public IntObjectMap<ProductLastPurchased> getProductLastPurchasedHashMap() {
+      return productLastPurchasedHashMap;
+    }
+
+    public HashMap<Integer, QuantityUnit> getQuantityUnitHashMap() {
+      return quantityUnitHashMap;
+    }
+
+    public QuantityUnitConversionIndex getUnitConversionIndex() {
+      return unitConversionIndex;
+    }
+
+    public IntDoubleMap getShoppingListItemAmountsHashMap() {
+      return shoppingListItemAmountsHashMap;
+    }
+
+    public IntSet getMissingProductIds() {
+      return missingProductIds;
+    }
+
+    public String getGroupingMode() {
+      return groupingMode;
+    }
+
+    public List<String> getActiveFields() {
+      return activeFields;
+    }
+  }
+
+  /**
+   * Rows built for one input. The diff result describes the changes from the previous rows
+   * and can only be used if those are still shown. The row list must not be modified.
+   */
+  public static class Result {
+
+    private final Input input;
+    private final List<GroupedListItem> items;
+    private final List<GroupedListItem> previousItems;
+    private final DiffUtil.DiffResult diffResult;
+
+    private Result(
+        Input input,
+        List<GroupedListItem> items,
+        @Nullable List<GroupedListItem> previousItems,
+        @Nullable DiffUtil.DiffResult diffResult
+    ) {
+      this.input = input;
+      this.items = items;
+      this.previousItems = previousItems;
+      this.diffResult = diffResult;
+    }
+
+    public Input getInput() {
+      return input;
+    }
+
+    @NonNull
+    public List<GroupedListItem> getItems() {
+      return items;
+    }
+
+    @Nullable
+    public List<GroupedListItem> getPreviousItems() {
+      return previousItems;
+    }
+
+    @Nullable
+    public DiffUtil.DiffResult getDiffResult() {
+      return diffResult;
+    }
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.android.volley.VolleyError;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.json.JSONException;
+import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.dao.ShoppingListItemDao;
+import xyz.zedler.patrick.grocy.dao.ShoppingListItemMutationDao;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemMutation;
+
+/**
+ * Persistent queue of shopping list item changes. Changes are applied to the local items and
+ * stored in shopping_list_item_mutation_table right away, so the list updates immediately and
+ * nothing is lost if the app is closed without connection. sync() sends the stored changes
+ * with a few requests in parallel. Every item is retried on its own and removed from the
+ * queue as soon as its request has succeeded, so single failures don't send the whole batch
+ * again.
+ * The outbox is app-wide, so an item which is being sent from one screen isn't sent again
+ * from another one.
+ * All methods have to be called on the main thread.
+ */
+public class ShoppingListOutbox {
+
+  private final static String TAG = ShoppingListOutbox.class.getSimpleName();
+
+  private final static int MAX_PARALLEL_REQUESTS = 4;
+  private final static int MAX_TRIES = 3;
+  private final static long RETRY_DELAY = 1000;
+
+  private static ShoppingListOutbox instance;
+
+  private final Application application;
+  private final ShoppingListItemMutationDao mutationDao;
+  private final ShoppingListItemDao itemDao;
+  private final Handler handler;
+  private final HashSet<Integer> itemIdsInFlight;
+
+  private ShoppingListOutbox(Application application) {
+    this.application = application;
+    AppDatabase appDatabase = AppDatabase.getAppDatabase(application);
+    mutationDao = appDatabase.shoppingListItemMutationDao();
+    itemDao = appDatabase.shoppingListItemDao();
+    handler = new Handler(Looper.getMainLooper());
+    itemIdsInFlight = new HashSet<>();
+  }
+
+  public static synchronized ShoppingListOutbox getInstance(Application application) {
+    if (instance == null) {
+      instance = new ShoppingListOutbox(application);
+    }
+    return instance;
+  }
+
+  /**
+   * Stores the mutations and applies them to the local items. Mutations of items which
+   * already have unsynced changes are merged into those.
+   * Writes are serialized on the single scheduler, so concurrent calls can't overwrite merged
+   * changes.
+   */
+  public void enqueue(@NonNull List<ShoppingListItemMutation> mutations, Runnable onApplied) {
+    Single.fromCallable(() -> {
+          HashMap<Integer, ShoppingListItemMutation> storedHashMap = new HashMap<>();
+          for (ShoppingListItemMutation stored : mutationDao.getMutations().blockingGet()) {
+            storedHashMap.put(stored.getItemId(), stored);
+          }
+          LinkedHashMap<Integer, ShoppingListItemMutation> changedHashMap
+              = new LinkedHashMap<>();
+          for (ShoppingListItemMutation mutation : mutations) {
+            ShoppingListItemMutation merged = changedHashMap.get(mutation.getItemId());
+            if (merged == null) merged = storedHashMap.get(mutation.getItemId());
+            if (merged == null) {
+              merged = mutation;
+            } else {
+              merged.merge(mutation);
+            }
+            changedHashMap.put(merged.getItemId(), merged);
+          }
+          mutationDao.insertMutations(new ArrayList<>(changedHashMap.values())).blockingGet();
+          applyMutations(itemDao.getShoppingListItems().blockingGet(), changedHashMap);
+          return true;
+        })
+        .subscribeOn(Schedulers.single())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doFinally(() -> {
+          if (onApplied != null) onApplied.run();
+        })
+        .subscribe(ignored -> {}, throwable -> Log.e(TAG, "enqueue: " + throwable));
+  }
+
+  public void enqueue(@NonNull ShoppingListItemMutation mutation, Runnable onApplied) {
+    List<ShoppingListItemMutation> mutations = new ArrayList<>();
+    mutations.add(mutation);
+    enqueue(mutations, onApplied);
+  }
+
+  private void applyMutations(
+      List<ShoppingListItem> items,
+      HashMap<Integer, ShoppingListItemMutation> mutationHashMap
+  ) {
+    List<ShoppingListItem> changedItems = new ArrayList<>();
+    List<Integer> deletedItemIds = new ArrayList<>();
+    for (ShoppingListItem item : items) {
+      ShoppingListItemMutation mutation = mutationHashMap.get(item.getId());
+      if (mutation == null) continue;
+      if (mutation.isDeleted()) {
+        deletedItemIds.add(item.getId());
+      } else {
+        mutation.applyTo(item);
+        changedItems.add(item);
+      }
+    }
+    if (!deletedItemIds.isEmpty()) {
+      itemDao.deleteShoppingListItems(deletedItemIds).blockingGet();
+    }
+    if (!changedItems.isEmpty()) {
+      itemDao.insertShoppingListItems(changedItems).blockingGet();
+    }
+  }
+
+  /**
+   * Applies the unsynced changes to freshly downloaded items and removes deleted items from
+   * the list, so a download doesn't revert changes which have not reached the server yet.
+   * Has to be called on a background thread.
+   */
+  public static void applyUnsyncedMutations(
+      ShoppingListItemMutationDao mutationDao,
+      List<ShoppingListItem> items
+  ) {
+    List<ShoppingListItemMutation> mutations = mutationDao.getMutations().blockingGet();
+    if (mutations.isEmpty()) return;
+    HashMap<Integer, ShoppingListItemMutation> mutationHashMap = new HashMap<>();
+    for (ShoppingListItemMutation mutation : mutations) {
+      mutationHashMap.put(mutation.getItemId(), mutation);
+    }
+    for (int i = items.size() - 1; i >= 0; i--) {
+      ShoppingListItemMutation mutation = mutationHashMap.get(items.get(i).getId());
+      if (mutation == null) continue;
+      if (mutation.isDeleted()) {
+        items.remove(i);
+      } else {
+        mutation.applyTo(items.get(i));
+      }
+    }
+  }
+
+  /**
+   * Sends all stored mutations which are not already being sent. The listener gets the number
+   * of items which could and could not be synced, failed mutations stay in the queue unless
+   * the server has rejected them.
+   */
+  public void sync(@Nullable OnSyncedListener onSyncedListener) {
+    mutationDao.getMutations()
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            mutations -> new SyncRun(mutations, onSyncedListener).next(),
+            throwable -> {
+              Log.e(TAG, "sync: " + throwable);
+              if (onSyncedListener != null) onSyncedListener.onSynced(0, 0);
+            }
+        );
+  }
+
+  public void clear(Runnable onCleared) {
+    mutationDao.deleteMutations()
+        .subscribeOn(Schedulers.single())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doFinally(onCleared::run)
+        .subscribe(ignored -> {}, throwable -> Log.e(TAG, "clear: " + throwable));
+  }
+
+  private class SyncRun {
+
+    // own helper for every run, so closing a screen doesn't cancel the requests and the
+    // current server and API key are used
+    private final DownloadHelper dlHelper;
+    private final ArrayDeque<ShoppingListItemMutation> pending;
+    private final OnSyncedListener onSyncedListener;
+    private int running;
+    private int succeeded;
+    private int failed;
+
+    SyncRun(List<ShoppingListItemMutation> mutations, OnSyncedListener onSyncedListener) {
+      this.onSyncedListener = onSyncedListener;
+      dlHelper = new DownloadHelper(application, TAG, null, null);
+      pending = new ArrayDeque<>();
+      for (ShoppingListItemMutation mutation : mutations) {
+        if (itemIdsInFlight.add(mutation.getItemId())) {
+          pending.add(mutation);
+        }
+      }
+    }
+
+    void next() {
+      while (running < MAX_PARALLEL_REQUESTS && !pending.isEmpty()) {
+        running++;
+        send(pending.poll(), 1);
+      }
+      if (running == 0 && onSyncedListener != null) {
+        onSyncedListener.onSynced(succeeded, failed);
+      }
+    }
+
+    private void send(ShoppingListItemMutation mutation, int tries) {
+      String url = dlHelper.grocyApi.getObject(GrocyApi.ENTITY.SHOPPING_LIST, mutation.getItemId());
+      if (mutation.isDeleted()) {
+        dlHelper.delete(
+            url,
+            response -> onSucceeded(mutation),
+            error -> onFailed(mutation, tries, error)
+        );
+        return;
+      }
+      JSONObject body;
+      try {
+        body = mutation.getBody();
+      } catch (JSONException e) {
+        Log.e(TAG, "send: " + e);
+        onFinished(mutation, false, e.toString());
+        return;
+      }
+      dlHelper.put(
+          url,
+          body,
+          response -> onSucceeded(mutation),
+          error -> onFailed(mutation, tries, error)
+      );
+    }
+
+    private void onSucceeded(ShoppingListItemMutation mutation) {
+      succeeded++;
+      onFinished(mutation, true, null);
+    }
+
+    private void onFailed(ShoppingListItemMutation mutation, int tries, VolleyError error) {
+      int statusCode = error.networkResponse != null ? error.networkResponse.statusCode : 0;
+      if (statusCode == 404 || statusCode == 410) {
+        // item has been deleted on the server, nothing left to change
+        succeeded++;
+        onFinished(mutation, true, null);
+      } else if (statusCode == 400 || statusCode == 422) {
+        // server has rejected the change as invalid, sending it again won't help
+        failed++;
+        onFinished(mutation, true, error.toString());
+      } else if (statusCode >= 400 && statusCode < 500
+          && statusCode != 408 && statusCode != 429) {
+        // e.g. 401 or 403, kept for the next sync after the user has fixed the access
+        failed++;
+        onFinished(mutation, false, error.toString());
+      } else if (tries < MAX_TRIES) {
+        handler.postDelayed(() -> send(mutation, tries + 1), RETRY_DELAY * tries);
+      } else {
+        failed++;
+        onFinished(mutation, false, error.toString());
+      }
+    }
+
+    private void onFinished(ShoppingListItemMutation mutation, boolean remove, String error) {
+      if (dlHelper.debug && error != null) {
+        Log.e(TAG, "sync: item " + mutation.getItemId() + ": " + error);
+      }
+      // only removed or marked if the item has not been changed again in the meantime
+      (remove
+          ? mutationDao.deleteMutation(mutation.getItemId(), mutation.getRevision())
+          : mutationDao.setMutationFailed(mutation.getItemId(), mutation.getRevision(), error))
+          .subscribeOn(Schedulers.single())
+          .observeOn(AndroidSchedulers.mainThread())
+          .doFinally(() -> {
+            itemIdsInFlight.remove(mutation.getItemId());
+            running--;
+            next();
+          })
+          .subscribe(ignored -> {}, throwable -> Log.e(TAG, "sync: " + throwable));
+    }
+  }
+
+  public interface OnSyncedListener {
+
+    void onSynced(int succeeded, int failed);
+  }
+}
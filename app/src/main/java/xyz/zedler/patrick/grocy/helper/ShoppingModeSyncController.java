@@ -0,0 +1,192 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import xyz.zedler.patrick.grocy.Constants;
+
+/**
+ * Keeps the shopping mode up to date while it is visible. Only the db-changed-time of the
+ * server is polled, the shopping list is downloaded only after it has moved. The polling
+ * interval starts at the configured update interval, doubles every time nothing has changed
+ * and is reset after local edits and changes on the server, so edits of other people still
+ * appear quickly while the list is not touched for a long time. Polling stops while the screen
+ * is paused or offline and starts again immediately on resume or reconnect.
+ * All methods have to be called on the main thread.
+ */
+public class ShoppingModeSyncController {
+
+  private final static String TAG = ShoppingModeSyncController.class.getSimpleName();
+
+  private final static long FIRST_PROBE_DELAY = 2000;
+  private final static long LOCAL_CHANGE_PROBE_DELAY = 2000;
+  private final static int MAX_INTERVAL_FACTOR = 8;
+
+  private final DownloadHelper dlHelper;
+  private final SharedPreferences sharedPrefs;
+  private final OnDbChangedListener onDbChangedListener;
+  private final Handler handler;
+  private final Runnable probeRunnable;
+  private final boolean debug;
+
+  private String lastDbChangedTime;
+  private long interval;
+  private int generation;
+  private boolean enabled;
+  private boolean resumed;
+  private boolean online = true;
+  private boolean probing;
+
+  public ShoppingModeSyncController(
+      @NonNull DownloadHelper dlHelper,
+      @NonNull SharedPreferences sharedPrefs,
+      boolean debug,
+      @NonNull OnDbChangedListener onDbChangedListener
+  ) {
+    this.dlHelper = dlHelper;
+    this.sharedPrefs = sharedPrefs;
+    this.debug = debug;
+    this.onDbChangedListener = onDbChangedListener;
+    handler = new Handler(Looper.getMainLooper());
+    probeRunnable = this::probe;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    restart(FIRST_PROBE_DELAY);
+  }
+
+  public void resume() {
+    resumed = true;
+    restart(FIRST_PROBE_DELAY);
+  }
+
+  public void pause() {
+    resumed = false;
+    stop();
+  }
+
+  public void setOnline(boolean online) {
+    if (this.online == online) return;
+    this.online = online;
+    restart(FIRST_PROBE_DELAY);
+  }
+
+  /**
+   * Has to be called after something was changed on the server by this device, so the change
+   * and edits of others which were made at the same time are fetched soon.
+   */
+  public void onLocalChange() {
+    restart(LOCAL_CHANGE_PROBE_DELAY);
+  }
+
+  public void destroy() {
+    resumed = false;
+    stop();
+  }
+
+  private void restart(long delay) {
+    stop();
+    interval = getBaseInterval();
+    if (isActive()) {
+      handler.postDelayed(probeRunnable, delay);
+    }
+  }
+
+  private void stop() {
+    handler.removeCallbacks(probeRunnable);
+    // responses of probes which are still running are ignored
+    generation++;
+    probing = false;
+  }
+
+  private boolean isActive() {
+    return enabled && resumed && online && getBaseInterval() > 0;
+  }
+
+  private long getBaseInterval() {
+    return sharedPrefs.getInt(
+        Constants.SETTINGS.SHOPPING_MODE.UPDATE_INTERVAL,
+        Constants.SETTINGS_DEFAULT.SHOPPING_MODE.UPDATE_INTERVAL
+    ) * 1000L;
+  }
+
+  private void probe() {
+    if (!isActive() || probing) return;
+    probing = true;
+    int probeGeneration = generation;
+    dlHelper.getTimeDbChanged(
+        time -> {
+          if (probeGeneration != generation) return;
+          if (time.equals(lastDbChangedTime)) {
+            probing = false;
+            if (debug) Log.i(TAG, "probe: nothing changed");
+            scheduleNext(false);
+            return;
+          }
+          if (debug) Log.i(TAG, "probe: db changed at " + time);
+          onDbChangedListener.onDbChanged(time, success -> {
+            if (probeGeneration != generation) return;
+            // after a failed download the same time has to be handled again on the next probe
+            if (success) lastDbChangedTime = time;
+            probing = false;
+            scheduleNext(success);
+          });
+        },
+        error -> {
+          if (probeGeneration != generation) return;
+          probing = false;
+          if (debug) Log.e(TAG, "probe: " + error);
+          scheduleNext(false);
+        }
+    );
+  }
+
+  private void scheduleNext(boolean changed) {
+    long baseInterval = getBaseInterval();
+    if (changed) {
+      interval = baseInterval;
+    } else {
+      interval = Math.min(interval * 2, baseInterval * MAX_INTERVAL_FACTOR);
+    }
+    if (isActive()) {
+      handler.postDelayed(probeRunnable, interval);
+    }
+  }
+
+  public interface OnDbChangedListener {
+
+    /**
+     * Downloads the changes for the given db-changed-time. The listener has to be called when
+     * the download is done, also if it failed.
+     */
+    void onDbChanged(String dbChangedTime, OnFinishedListener onFinishedListener);
+  }
+
+  public interface OnFinishedListener {
+
+    void onFinished(boolean success);
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.List;
+import xyz.zedler.patrick.grocy.dao.StockLogEntryDao;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
+import xyz.zedler.patrick.grocy.model.StockLogEntry;
+import xyz.zedler.patrick.grocy.web.NetworkQueue;
+
+/**
+ * Keeps the newest part of the stock journal in stock_log_entry_table, so the journal can be
+ * shown and searched without downloading it again every time.
+ * The cache always holds a gapless range of entries starting at the newest one. refreshHead()
+ * only downloads pages until they reach the newest cached entry, if they don't reach it after
+ * a few pages, the cache is replaced. Afterwards, the undone entries in the range of the cache
+ * are downloaded again, because older entries can be undone elsewhere at any time.
+ * prefetch() downloads the page after the cached entries, so the journal can be extended
+ * while scrolling. While searching, downloadNextPage() is used instead, because the matching
+ * entries can be spread over the whole journal.
+ * All methods have to be called on the main thread.
+ */
+public class StockJournalPager {
+
+  private final static String TAG = StockJournalPager.class.getSimpleName();
+
+  public final static int PAGE_SIZE = 20;
+  private final static int MAX_HEAD_PAGES = 5;
+
+  private final DownloadHelper dlHelper;
+  private final StockLogEntryDao stockLogEntryDao;
+  private boolean headRefreshed;
+  private boolean endReached;
+  private boolean loading;
+
+  public StockJournalPager(@NonNull DownloadHelper dlHelper) {
+    this.dlHelper = dlHelper;
+    this.stockLogEntryDao = dlHelper.appDatabase.stockLogEntryDao();
+  }
+
+  /**
+   * Loads the newest cached entries, only of the given products if productIds is not null.
+   */
+  public void loadCached(
+      @Nullable List<Integer> productIds,
+      int limit,
+      OnObjectsResponseListener<StockLogEntry> onLoaded
+  ) {
+    Single<List<StockLogEntry>> single;
+    if (productIds == null) {
+      single = stockLogEntryDao.getStockLogEntries(limit);
+    } else if (productIds.isEmpty()) {
+      single = Single.just(new ArrayList<>());
+    } else {
+      single = stockLogEntryDao.getStockLogEntriesOfProducts(productIds, limit);
+    }
+    single.subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(onLoaded::onResponse, throwable -> Log.e(TAG, "loadCached: " + throwable));
+  }
+
+  /**
+   * Downloads the entries which have been added since the last refresh and updates the cached
+   * entries which have been undone since then.
+   */
+  public void refreshHead(Runnable onFinished, OnMultiTypeErrorListener onError) {
+    if (loading) return;
+    loading = true;
+    stockLogEntryDao.getNewestStockLogEntryId()
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            newestCachedId -> downloadHeadPage(
+                0, newestCachedId, new ArrayList<>(), onFinished, onError
+            ),
+            throwable -> {
+              loading = false;
+              onError.onError(throwable);
+            }
+        );
+  }
+
+  private void downloadHeadPage(
+      int page,
+      int newestCachedId,
+      List<StockLogEntry> downloaded,
+      Runnable onFinished,
+      OnMultiTypeErrorListener onError
+  ) {
+    downloadPage(page * PAGE_SIZE, entries -> {
+      downloaded.addAll(entries);
+      boolean isLastPage = entries.size() < PAGE_SIZE;
+      boolean reachesCache = newestCachedId == 0 || isLastPage
+          || entries.get(entries.size() - 1).getId() <= newestCachedId;
+      if (!reachesCache && page + 1 < MAX_HEAD_PAGES) {
+        downloadHeadPage(page + 1, newestCachedId, downloaded, onFinished, onError);
+        return;
+      }
+      if (isLastPage) endReached = true;
+      // too many new entries, the cache would have a gap
+      boolean replaceCache = !reachesCache;
+      if (replaceCache) endReached = false;
+      store(downloaded, replaceCache, () -> {
+        headRefreshed = true;
+        if (replaceCache) {
+          onFinished.run();
+        } else {
+          refreshUndone(onFinished, onError);
+        }
+      });
+    }, onError);
+  }
+
+  private void refreshUndone(Runnable onFinished, OnMultiTypeErrorListener onError) {
+    loading = true;
+    stockLogEntryDao.getOldestStockLogEntryId()
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            oldestCachedId -> {
+              if (oldestCachedId == 0) {
+                loading = false;
+                onFinished.run();
+                return;
+              }
+              NetworkQueue queue = dlHelper.newQueue(updated -> {}, error -> {
+                loading = false;
+                onError.onError(error);
+              });
+              // undoing can't be reverted, so the new state just replaces the cached one
+              queue.append(StockLogEntry.getUndoneStockLogEntries(
+                  dlHelper, oldestCachedId, entries -> store(entries, false, onFinished)
+              ));
+              queue.start();
+            },
+            throwable -> {
+              loading = false;
+              onError.onError(throwable);
+            }
+        );
+  }
+
+  /**
+   * Downloads the next page after the cached entries if fewer than a page of entries is cached
+   * beyond the given number of shown entries. Does nothing before the first head refresh,
+   * because the offsets could point to other entries if new ones have been added.
+   */
+  public void prefetch(int shownCount, Runnable onLoaded, OnMultiTypeErrorListener onError) {
+    downloadNextPage(shownCount + PAGE_SIZE, onLoaded, onError);
+  }
+
+  /**
+   * Downloads the next page after the cached entries regardless of how many are cached.
+   */
+  public void downloadNextPage(Runnable onLoaded, OnMultiTypeErrorListener onError) {
+    downloadNextPage(Integer.MAX_VALUE, onLoaded, onError);
+  }
+
+  private void downloadNextPage(
+      int wantedCount,
+      Runnable onLoaded,
+      OnMultiTypeErrorListener onError
+  ) {
+    if (loading || endReached || !headRefreshed) return;
+    loading = true;
+    stockLogEntryDao.getStockLogEntryCount()
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            cachedCount -> {
+              if (cachedCount >= wantedCount) {
+                loading = false;
+                return;
+              }
+              downloadPage(cachedCount, entries -> {
+                if (entries.size() < PAGE_SIZE) endReached = true;
+                store(entries, false, onLoaded);
+              }, onError);
+            },
+            throwable -> {
+              loading = false;
+              onError.onError(throwable);
+            }
+        );
+  }
+
+  public void markTransactionUndone(String transactionId, String timestamp, Runnable onDone) {
+    stockLogEntryDao.setTransactionUndone(transactionId, timestamp)
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doFinally(onDone::run)
+        .subscribe(ignored -> {}, throwable -> Log.e(TAG, "markUndone: " + throwable));
+  }
+
+  private void downloadPage(
+      int offset,
+      OnObjectsResponseListener<StockLogEntry> onResponse,
+      OnMultiTypeErrorListener onError
+  ) {
+    NetworkQueue queue = dlHelper.newQueue(updated -> {}, error -> {
+      loading = false;
+      onError.onError(error);
+    });
+    queue.append(StockLogEntry.getStockLogEntries(dlHelper, PAGE_SIZE, offset, onResponse));
+    queue.start();
+  }
+
+  private void store(List<StockLogEntry> entries, boolean replaceCache, Runnable onStored) {
+    Single.fromCallable(() -> {
+          if (replaceCache) {
+            stockLogEntryDao.deleteStockLogEntries().blockingGet();
+          }
+          if (!entries.isEmpty()) {
+            stockLogEntryDao.insertStockLogEntries(entries).blockingGet();
+          }
+          return true;
+        })
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doFinally(() -> {
+          loading = false;
+          onStored.run();
+        })
+        .subscribe(ignored -> {}, throwable -> Log.e(TAG, "store: " + throwable));
+  }
+
+  public boolean isLoading() {
+    return loading;
+  }
+
+  public boolean isEndReached() {
+    return endReached;
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.content.SharedPreferences;
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
+import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.StockItem;
+import xyz.zedler.patrick.grocy.model.VolatileItem;
+import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+
+/**
+ * Classifies stock items as due soon, overdue or expired once per data load, so filters,
+ * filter chip counts, badges and notifications don't have to do it on their own.
+ * The classification is based on the due date of the items like the volatile stock of the
+ * server, so it stays correct after midnight without new data. Items without valid due date
+ * use the volatile items from the server.
+ */
+public class StockStatusClassifier {
+
+  public final static int STATUS_NONE = 0;
+  public final static int STATUS_DUE = VolatileItem.TYPE_DUE;
+  public final static int STATUS_OVERDUE = VolatileItem.TYPE_OVERDUE;
+  public final static int STATUS_EXPIRED = VolatileItem.TYPE_EXPIRED;
+
+  private final static int DUE_TYPE_BEST_BEFORE = 1;
+
+  private final int dueSoonDays;
+  private final HashMap<Integer, Integer> statusHashMap;
+  private List<StockItem> stockItems;
+  private List<VolatileItem> volatileItems;
+  private HashMap<Integer, Product> productHashMap;
+  private int classifiedEpochDay = DateUtil.NO_EPOCH_DAY;
+  private int dueCount;
+  private int overdueCount;
+  private int expiredCount;
+
+  public StockStatusClassifier(int dueSoonDays) {
+    this.dueSoonDays = dueSoonDays;
+    this.statusHashMap = new HashMap<>();
+  }
+
+  public StockStatusClassifier(SharedPreferences sharedPrefs) {
+    this(getDueSoonDays(sharedPrefs));
+  }
+
+  public static int getDueSoonDays(SharedPreferences sharedPrefs) {
+    String days = sharedPrefs.getString(STOCK.DUE_SOON_DAYS, SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS);
+    return NumUtil.isStringInt(days) ? Integer.parseInt(days) : 5;
+  }
+
+  /**
+   * Classifies the items and sets their due, overdue and expired flags.
+   * Items of products without own stock are not classified if productHashMap is given.
+   */
+  public void classify(
+      List<StockItem> stockItems,
+      @Nullable List<VolatileItem> volatileItems,
+      @Nullable HashMap<Integer, Product> productHashMap
+  ) {
+    this.stockItems = stockItems;
+    this.volatileItems = volatileItems;
+    this.productHashMap = productHashMap;
+    classify();
+  }
+
+  /**
+   * Classifies the items of the last classify call again if the date has changed since.
+   * Returns true if the status of the items could have changed.
+   */
+  public boolean reclassifyIfDateChanged() {
+    if (stockItems == null || classifiedEpochDay == DateUtil.getTodayEpochDay()) {
+      return false;
+    }
+    classify();
+    return true;
+  }
+
+  private void classify() {
+    statusHashMap.clear();
+    dueCount = 0;
+    overdueCount = 0;
+    expiredCount = 0;
+    classifiedEpochDay = DateUtil.getTodayEpochDay();
+
+    HashMap<Integer, Integer> volatileStatusHashMap = new HashMap<>();
+    if (volatileItems != null) {
+      for (VolatileItem volatileItem : volatileItems) {
+        volatileStatusHashMap.put(volatileItem.getProductId(), volatileItem.getVolatileType());
+      }
+    }
+
+    for (StockItem stockItem : stockItems) {
+      int status;
+      if (stockItem.isItemMissing() && !stockItem.isItemMissingAndPartlyInStock()) {
+        status = STATUS_NONE;
+      } else if (hasNoOwnStock(stockItem)) {
+        status = STATUS_NONE;
+      } else if (stockItem.getBestBeforeEpochDay() != DateUtil.NO_EPOCH_DAY) {
+        status = getStatus(
+            stockItem.getBestBeforeEpochDay() - classifiedEpochDay,
+            stockItem.getDueTypeInt(),
+            dueSoonDays
+        );
+      } else {
+        Integer volatileStatus = volatileStatusHashMap.get(stockItem.getProductId());
+        status = volatileStatus != null ? volatileStatus : STATUS_NONE;
+      }
+      stockItem.setItemDue(status == STATUS_DUE);
+      stockItem.setItemOverdue(status == STATUS_OVERDUE);
+      stockItem.setItemExpired(status == STATUS_EXPIRED);
+      if (status == STATUS_NONE) continue;
+      statusHashMap.put(stockItem.getProductId(), status);
+      if (status == STATUS_DUE) {
+        dueCount++;
+      } else if (status == STATUS_OVERDUE) {
+        overdueCount++;
+      } else if (status == STATUS_EXPIRED) {
+        expiredCount++;
+      }
+    }
+  }
+
+  public static int getStatus(int daysFromToday, int dueType, int dueSoonDays) {
+    if (daysFromToday < 0) {
+      return dueType == DUE_TYPE_BEST_BEFORE ? STATUS_OVERDUE : STATUS_EXPIRED;
+    } else if (daysFromToday <= dueSoonDays) {
+      return STATUS_DUE;
+    }
+    return STATUS_NONE;
+  }
+
+  private boolean hasNoOwnStock(StockItem stockItem) {
+    if (productHashMap == null) return false;
+    Product product = productHashMap.get(stockItem.getProductId());
+    return product != null && product.getNoOwnStockBoolean();
+  }
+
+  public int getStatus(int productId) {
+    Integer status = statusHashMap.get(productId);
+    return status != null ? status : STATUS_NONE;
+  }
+
+  public boolean isNotFresh(int productId) {
+    return statusHashMap.containsKey(productId);
+  }
+
+  public int getDueCount() {
+    return dueCount;
+  }
+
+  public int getOverdueCount() {
+    return overdueCount;
+  }
+
+  public int getExpiredCount() {
+    return expiredCount;
+  }
+
+  public int getNotFreshCount() {
+    return dueCount + overdueCount + expiredCount;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Cached result of a product lookup in Open Food Facts or Open Beauty Facts.
+ * Products which are unknown to the source are also stored, with productJson null, so
+ * repeated scans of the same barcode don't query the source again.
+ */
+@Entity(
+    tableName = "external_product_lookup_table",
+    primaryKeys = {"source", "barcode"},
+    indices = {@Index(value = "access_time")}
+)
+public class ExternalProductLookup {
+
+  @NonNull
+  @ColumnInfo(name = "source")
+  private String source = "";
+
+  @NonNull
+  @ColumnInfo(name = "barcode")
+  private String barcode = "";
+
+  @ColumnInfo(name = "product_json")
+  private String productJson;
+
+  @ColumnInfo(name = "fetched_time")
+  private long fetchedTime;
+
+  // used to evict the least recently used lookups
+  @ColumnInfo(name = "access_time")
+  private long accessTime;
+
+  public ExternalProductLookup() {
+  }  // for Room
+
+  @Ignore
+  public ExternalProductLookup(
+      @NonNull String source,
+      @NonNull String barcode,
+      @Nullable String productJson,
+      long fetchedTime
+  ) {
+    this.source = source;
+    this.barcode = barcode;
+    this.productJson = productJson;
+    this.fetchedTime = fetchedTime;
+    this.accessTime = fetchedTime;
+  }
+
+  @NonNull
+  public String getSource() {
+    return source;
+  }
+
+  public void setSource(@NonNull String source) {
+    this.source = source;
+  }
+
+  @NonNull
+  public String getBarcode() {
+    return barcode;
+  }
+
+  public void setBarcode(@NonNull String barcode) {
+    this.barcode = barcode;
+  }
+
+  public String getProductJson() {
+    return productJson;
+  }
+
+  public void setProductJson(String productJson) {
+    this.productJson = productJson;
+  }
+
+  @Nullable
+  public JSONObject getProductJsonObject() {
+    if (productJson == null) return null;
+    try {
+      return new JSONObject(productJson);
+    } catch (JSONException e) {
+      return null;
+    }
+  }
+
+  public boolean isFound() {
+    return productJson != null;
+  }
+
+  public long getFetchedTime() {
+    return fetchedTime;
+  }
+
+  public void setFetchedTime(long fetchedTime) {
+    this.fetchedTime = fetchedTime;
+  }
+
+  public long getAccessTime() {
+    return accessTime;
+  }
+
+  public void setAccessTime(long accessTime) {
+    this.accessTime = accessTime;
+  }
+
+  public boolean isExpired(long now, long foundTtl, long notFoundTtl) {
+    return now - fetchedTime > (isFound() ? foundTtl : notFoundTtl);
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "ExternalProductLookup(" + source + ", " + barcode + ", found: " + isFound() + ')';
+  }
+}
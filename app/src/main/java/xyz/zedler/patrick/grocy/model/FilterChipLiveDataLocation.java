@@ -63,6 +63,7 @@ public class FilterChipLiveDataLocation extends FilterChipLiveData {
   }
 
   public void setLocations(List<Location> locations) {
+    locations = new ArrayList<>(locations);
     SortUtil.sortLocationsByName(locations, true);
     ArrayList<MenuItemData> menuItemDataList = new ArrayList<>();
     menuItemDataList.add(new MenuItemData(
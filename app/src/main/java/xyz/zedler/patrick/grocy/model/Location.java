@@ -48,6 +48,7 @@ import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.repository.EntityCache;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
 @Entity(tableName = "location_table")
@@ -283,6 +284,7 @@ public class Location implements Parcelable {
                       .deleteLocations().blockingSubscribe();
                   dlHelper.appDatabase.locationDao()
                       .insertLocations(locations).blockingSubscribe();
+                  EntityCache.getInstance().setLocations(locations);
                   dlHelper.sharedPrefs.edit()
                       .putString(PREF.DB_LAST_TIME_LOCATIONS, dbChangedTime).apply();
                   return true;
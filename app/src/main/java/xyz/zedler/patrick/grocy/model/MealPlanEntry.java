@@ -20,6 +20,7 @@
 
 package xyz.zedler.patrick.grocy.model;
 
+import android.content.SharedPreferences;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.Log;
@@ -35,16 +36,21 @@ import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.lang.reflect.Type;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.api.GrocyApi.COMPARISON;
+import xyz.zedler.patrick.grocy.api.GrocyApi.COMPARISON_OPERATOR;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
 @Entity(tableName = "meal_plan_entry_table")
@@ -291,15 +297,52 @@ public class MealPlanEntry extends GroupedListItem implements Parcelable {
     return "MealPlanEntry(" + id + ')';
   }
 
+  /**
+   * Returns the first day of the entries which are synced and loaded around the given date:
+   * the week of the date and the weeks before and after it, so the user can page to the
+   * adjacent weeks without waiting.
+   */
+  public static LocalDate getWindowStart(LocalDate date, DayOfWeek firstDayOfWeek) {
+    return date.with(TemporalAdjusters.previousOrSame(firstDayOfWeek)).minusWeeks(1);
+  }
+
+  public static LocalDate getWindowEnd(LocalDate date, DayOfWeek firstDayOfWeek) {
+    return getWindowStart(date, firstDayOfWeek).plusWeeks(3).minusDays(1);
+  }
+
   public static QueueItem updateMealPlanEntries(
       DownloadHelper dlHelper,
       String dbChangedTime,
+      boolean forceUpdate,
       OnObjectsResponseListener<MealPlanEntry> onResponseListener
   ) {
-    String lastTime = dlHelper.sharedPrefs.getString(  // get last offline db-changed-time value
-        Constants.PREF.DB_LAST_TIME_MEAL_PLAN_ENTRIES, null
+    DayOfWeek firstDayOfWeek = DateUtil.getMealPlanFirstDayOfWeek(dlHelper.sharedPrefs);
+    LocalDate today = LocalDate.now();
+    return updateMealPlanEntries(
+        dlHelper,
+        dbChangedTime,
+        forceUpdate,
+        getWindowStart(today, firstDayOfWeek),
+        getWindowEnd(today, firstDayOfWeek),
+        onResponseListener
     );
-    if (lastTime == null || !lastTime.equals(dbChangedTime)) {
+  }
+
+  /**
+   * Downloads only the entries between fromDay and toDay (both inclusive) and replaces them in
+   * the database. The days which are in sync with the server are stored together with the
+   * db-changed time, so windows which were already downloaded are not downloaded again until
+   * something changes on the server.
+   */
+  public static QueueItem updateMealPlanEntries(
+      DownloadHelper dlHelper,
+      String dbChangedTime,
+      boolean forceUpdate,
+      LocalDate fromDay,
+      LocalDate toDay,
+      OnObjectsResponseListener<MealPlanEntry> onResponseListener
+  ) {
+    if (forceUpdate || !isWindowSynced(dlHelper.sharedPrefs, dbChangedTime, fromDay, toDay)) {
       return new QueueItem() {
         @Override
         public void perform(
@@ -308,22 +351,27 @@ public class MealPlanEntry extends GroupedListItem implements Parcelable {
             @Nullable String uuid
         ) {
           dlHelper.get(
-              dlHelper.grocyApi.getObjects(GrocyApi.ENTITY.MEAL_PLAN),
+              dlHelper.grocyApi.getObjects(
+                  GrocyApi.ENTITY.MEAL_PLAN,
+                  new COMPARISON("day", COMPARISON_OPERATOR.GREATER_OR_EQUAL, fromDay.toString()),
+                  new COMPARISON("day", COMPARISON_OPERATOR.LESS_OR_EQUAL, toDay.toString())
+              ),
               uuid,
               response -> {
                 Type type = new TypeToken<List<MealPlanEntry>>() {
                 }.getType();
                 ArrayList<MealPlanEntry> mealPlanEntries = dlHelper.gson.fromJson(response, type);
                 if (dlHelper.debug) {
-                  Log.i(dlHelper.tag, "download MealPlanEntries: " + mealPlanEntries);
+                  Log.i(dlHelper.tag, "download MealPlanEntries from " + fromDay
+                      + " to " + toDay + ": " + mealPlanEntries);
                 }
                 Single.fromCallable(() -> {
-                      dlHelper.appDatabase.mealPlanEntryDao()
-                          .deleteMealPlanEntries().blockingSubscribe();
+                      dlHelper.appDatabase.mealPlanEntryDao().deleteMealPlanEntries(
+                          fromDay.toString(), toDay.toString()
+                      ).blockingSubscribe();
                       dlHelper.appDatabase.mealPlanEntryDao()
                           .insertMealPlanEntries(mealPlanEntries).blockingSubscribe();
-                      dlHelper.sharedPrefs.edit()
-                          .putString(PREF.DB_LAST_TIME_MEAL_PLAN_ENTRIES, dbChangedTime).apply();
+                      putSyncedWindow(dlHelper.sharedPrefs, dbChangedTime, fromDay, toDay);
                       return true;
                     })
                     .subscribeOn(Schedulers.io())
@@ -358,4 +406,54 @@ public class MealPlanEntry extends GroupedListItem implements Parcelable {
       return null;
     }
   }
+
+  private static boolean isWindowSynced(
+      SharedPreferences sharedPrefs,
+      String dbChangedTime,
+      LocalDate fromDay,
+      LocalDate toDay
+  ) {
+    String lastTime = sharedPrefs.getString(PREF.DB_LAST_TIME_MEAL_PLAN_ENTRIES, null);
+    String syncedFrom = sharedPrefs.getString(PREF.DB_MEAL_PLAN_ENTRIES_FROM, null);
+    String syncedTo = sharedPrefs.getString(PREF.DB_MEAL_PLAN_ENTRIES_TO, null);
+    if (lastTime == null || !lastTime.equals(dbChangedTime)
+        || syncedFrom == null || syncedTo == null) {
+      return false;
+    }
+    // ISO dates can be compared as strings
+    return syncedFrom.compareTo(fromDay.toString()) <= 0
+        && syncedTo.compareTo(toDay.toString()) >= 0;
+  }
+
+  /**
+   * Extends the synced days by the downloaded window if nothing has changed on the server
+   * since the last download and the window overlaps or touches the synced days. Otherwise the
+   * synced days are reset to the window, the other stored entries may be outdated then.
+   */
+  private static synchronized void putSyncedWindow(
+      SharedPreferences sharedPrefs,
+      String dbChangedTime,
+      LocalDate fromDay,
+      LocalDate toDay
+  ) {
+    String lastTime = sharedPrefs.getString(PREF.DB_LAST_TIME_MEAL_PLAN_ENTRIES, null);
+    String syncedFrom = sharedPrefs.getString(PREF.DB_MEAL_PLAN_ENTRIES_FROM, null);
+    String syncedTo = sharedPrefs.getString(PREF.DB_MEAL_PLAN_ENTRIES_TO, null);
+    LocalDate newFrom = fromDay;
+    LocalDate newTo = toDay;
+    if (lastTime != null && lastTime.equals(dbChangedTime)
+        && syncedFrom != null && syncedTo != null) {
+      LocalDate oldFrom = LocalDate.parse(syncedFrom);
+      LocalDate oldTo = LocalDate.parse(syncedTo);
+      if (!oldFrom.minusDays(1).isAfter(toDay) && !oldTo.plusDays(1).isBefore(fromDay)) {
+        if (oldFrom.isBefore(newFrom)) newFrom = oldFrom;
+        if (oldTo.isAfter(newTo)) newTo = oldTo;
+      }
+    }
+    sharedPrefs.edit()
+        .putString(PREF.DB_LAST_TIME_MEAL_PLAN_ENTRIES, dbChangedTime)
+        .putString(PREF.DB_MEAL_PLAN_ENTRIES_FROM, newFrom.toString())
+        .putString(PREF.DB_MEAL_PLAN_ENTRIES_TO, newTo.toString())
+        .apply();
+  }
 }
@@ -26,13 +26,11 @@ import androidx.annotation.NonNull;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
-import org.json.JSONException;
 import org.json.JSONObject;
-import xyz.zedler.patrick.grocy.api.OpenBeautyFactsApi;
-import xyz.zedler.patrick.grocy.api.OpenFoodFactsApi;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectResponseListener;
+import xyz.zedler.patrick.grocy.helper.ProductLookupCache;
 
 public class OpenBeautyFactsProduct {
 
@@ -88,28 +86,22 @@ public class OpenBeautyFactsProduct {
       OnObjectResponseListener<OpenBeautyFactsProduct> successListener,
       OnErrorListener errorListener
   ) {
-    dlHelper.get(
-        OpenBeautyFactsApi.getProduct(barcode),
-        response -> {
-          try {
-            JSONObject jsonObject = new JSONObject(response);
-            JSONObject jsonProduct = jsonObject.getJSONObject("product");
+    ProductLookupCache.getInstance(dlHelper.application).lookup(
+        ProductLookupCache.SOURCE_OPEN_BEAUTY_FACTS,
+        barcode,
+        (jsonProduct, error) -> {
+          if (jsonProduct != null) {
             Type type = new TypeToken<OpenBeautyFactsProduct>(){}.getType();
             OpenBeautyFactsProduct product = dlHelper.gson.fromJson(jsonProduct.toString(), type);
             product.setProductJson(jsonProduct);
             successListener.onResponse(product);
             if(dlHelper.debug) Log.i(dlHelper.tag, "getOpenBeautyFactsProduct: " + product);
-          } catch (JSONException e) {
-            if(dlHelper.debug) Log.e(dlHelper.tag, "getOpenBeautyFactsProduct: " + e);
-            errorListener.onError(null);
+          } else {
+            if(dlHelper.debug) Log.e(dlHelper.tag, "getOpenBeautyFactsProduct: "
+                + "can't get OpenBeautyFacts product");
+            errorListener.onError(error);
           }
-        },
-        error -> {
-          if(dlHelper.debug) Log.e(dlHelper.tag, "getOpenBeautyFactsProduct: "
-              + "can't get OpenBeautyFacts product");
-          errorListener.onError(error);
-        },
-        OpenFoodFactsApi.getUserAgent(dlHelper.application)
+        }
     );
   }
 }
@@ -27,12 +27,11 @@ import androidx.annotation.Nullable;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
-import org.json.JSONException;
 import org.json.JSONObject;
-import xyz.zedler.patrick.grocy.api.OpenFoodFactsApi;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectResponseListener;
+import xyz.zedler.patrick.grocy.helper.ProductLookupCache;
 
 public class OpenFoodFactsProduct {
 
@@ -139,28 +138,22 @@ public class OpenFoodFactsProduct {
       OnObjectResponseListener<OpenFoodFactsProduct> successListener,
       OnErrorListener errorListener
   ) {
-    dlHelper.get(
-        OpenFoodFactsApi.getProduct(barcode),
-        response -> {
-          try {
-            JSONObject jsonObject = new JSONObject(response);
-            JSONObject jsonProduct = jsonObject.getJSONObject("product");
+    ProductLookupCache.getInstance(dlHelper.application).lookup(
+        ProductLookupCache.SOURCE_OPEN_FOOD_FACTS,
+        barcode,
+        (jsonProduct, error) -> {
+          if (jsonProduct != null) {
             Type type = new TypeToken<OpenFoodFactsProduct>(){}.getType();
             OpenFoodFactsProduct product = dlHelper.gson.fromJson(jsonProduct.toString(), type);
             product.setProductJson(jsonProduct);
             successListener.onResponse(product);
             if(dlHelper.debug) Log.i(dlHelper.tag, "getOpenFoodFactsProduct: " + product);
-          } catch (JSONException e) {
-            if(dlHelper.debug) Log.e(dlHelper.tag, "getOpenFoodFactsProduct: " + e);
-            errorListener.onError(null);
+          } else {
+            if(dlHelper.debug) Log.e(dlHelper.tag, "getOpenFoodFactsProduct: "
+                + "can't get OpenFoodFacts product");
+            errorListener.onError(error);
           }
-        },
-        error -> {
-          if(dlHelper.debug) Log.e(dlHelper.tag, "getOpenFoodFactsProduct: "
-              + "can't get OpenFoodFacts product");
-          errorListener.onError(error);
-        },
-        OpenFoodFactsApi.getUserAgent(dlHelper.application)
+        }
     );
   }
 }
@@ -0,0 +1,234 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+
+/**
+ * Counts shown on the start screen, calculated by the database with OverviewStartDao.
+ */
+public class OverviewStartSummary {
+
+  @ColumnInfo(name = "stock_items_count")
+  private int stockItemsCount;
+
+  @ColumnInfo(name = "stock_value")
+  private double stockValue;
+
+  @ColumnInfo(name = "stock_due_count")
+  private int stockDueCount;
+
+  @ColumnInfo(name = "stock_overdue_count")
+  private int stockOverdueCount;
+
+  @ColumnInfo(name = "stock_expired_count")
+  private int stockExpiredCount;
+
+  @ColumnInfo(name = "stock_missing_count")
+  private int stockMissingCount;
+
+  @ColumnInfo(name = "stock_missing_shopping_list_count")
+  private int stockMissingShoppingListCount;
+
+  @ColumnInfo(name = "shopping_list_items_count")
+  private int shoppingListItemsCount;
+
+  @ColumnInfo(name = "shopping_lists_count")
+  private int shoppingListsCount;
+
+  @ColumnInfo(name = "products_count")
+  private int productsCount;
+
+  @ColumnInfo(name = "recipes_count")
+  private int recipesCount;
+
+  @ColumnInfo(name = "stored_purchases_exist")
+  private boolean storedPurchasesExist;
+
+  @ColumnInfo(name = "tasks_undone_count")
+  private int tasksUndoneCount;
+
+  @ColumnInfo(name = "tasks_assigned_count")
+  private int tasksAssignedCount;
+
+  @ColumnInfo(name = "chores_due_today_count")
+  private int choresDueTodayCount;
+
+  @ColumnInfo(name = "chores_due_soon_count")
+  private int choresDueSoonCount;
+
+  @ColumnInfo(name = "chores_overdue_count")
+  private int choresOverdueCount;
+
+  @ColumnInfo(name = "chores_assigned_count")
+  private int choresAssignedCount;
+
+  public int getStockItemsCount() {
+    return stockItemsCount;
+  }
+
+  public void setStockItemsCount(int stockItemsCount) {
+    this.stockItemsCount = stockItemsCount;
+  }
+
+  public double getStockValue() {
+    return stockValue;
+  }
+
+  public void setStockValue(double stockValue) {
+    this.stockValue = stockValue;
+  }
+
+  public int getStockDueCount() {
+    return stockDueCount;
+  }
+
+  public void setStockDueCount(int stockDueCount) {
+    this.stockDueCount = stockDueCount;
+  }
+
+  public int getStockOverdueCount() {
+    return stockOverdueCount;
+  }
+
+  public void setStockOverdueCount(int stockOverdueCount) {
+    this.stockOverdueCount = stockOverdueCount;
+  }
+
+  public int getStockExpiredCount() {
+    return stockExpiredCount;
+  }
+
+  public void setStockExpiredCount(int stockExpiredCount) {
+    this.stockExpiredCount = stockExpiredCount;
+  }
+
+  public int getStockMissingCount() {
+    return stockMissingCount;
+  }
+
+  public void setStockMissingCount(int stockMissingCount) {
+    this.stockMissingCount = stockMissingCount;
+  }
+
+  public int getStockMissingShoppingListCount() {
+    return stockMissingShoppingListCount;
+  }
+
+  public void setStockMissingShoppingListCount(int stockMissingShoppingListCount) {
+    this.stockMissingShoppingListCount = stockMissingShoppingListCount;
+  }
+
+  public int getShoppingListItemsCount() {
+    return shoppingListItemsCount;
+  }
+
+  public void setShoppingListItemsCount(int shoppingListItemsCount) {
+    this.shoppingListItemsCount = shoppingListItemsCount;
+  }
+
+  public int getShoppingListsCount() {
+    return shoppingListsCount;
+  }
+
+  public void setShoppingListsCount(int shoppingListsCount) {
+    this.shoppingListsCount = shoppingListsCount;
+  }
+
+  public int getProductsCount() {
+    return productsCount;
+  }
+
+  public void setProductsCount(int productsCount) {
+    this.productsCount = productsCount;
+  }
+
+  public int getRecipesCount() {
+    return recipesCount;
+  }
+
+  public void setRecipesCount(int recipesCount) {
+    this.recipesCount = recipesCount;
+  }
+
+  public boolean getStoredPurchasesExist() {
+    return storedPurchasesExist;
+  }
+
+  public void setStoredPurchasesExist(boolean storedPurchasesExist) {
+    this.storedPurchasesExist = storedPurchasesExist;
+  }
+
+  public int getTasksUndoneCount() {
+    return tasksUndoneCount;
+  }
+
+  public void setTasksUndoneCount(int tasksUndoneCount) {
+    this.tasksUndoneCount = tasksUndoneCount;
+  }
+
+  public int getTasksAssignedCount() {
+    return tasksAssignedCount;
+  }
+
+  public void setTasksAssignedCount(int tasksAssignedCount) {
+    this.tasksAssignedCount = tasksAssignedCount;
+  }
+
+  public int getChoresDueTodayCount() {
+    return choresDueTodayCount;
+  }
+
+  public void setChoresDueTodayCount(int choresDueTodayCount) {
+    this.choresDueTodayCount = choresDueTodayCount;
+  }
+
+  public int getChoresDueSoonCount() {
+    return choresDueSoonCount;
+  }
+
+  public void setChoresDueSoonCount(int choresDueSoonCount) {
+    this.choresDueSoonCount = choresDueSoonCount;
+  }
+
+  public int getChoresOverdueCount() {
+    return choresOverdueCount;
+  }
+
+  public void setChoresOverdueCount(int choresOverdueCount) {
+    this.choresOverdueCount = choresOverdueCount;
+  }
+
+  public int getChoresAssignedCount() {
+    return choresAssignedCount;
+  }
+
+  public void setChoresAssignedCount(int choresAssignedCount) {
+    this.choresAssignedCount = choresAssignedCount;
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "OverviewStartSummary(" + stockItemsCount + ", " + shoppingListItemsCount + ")";
+  }
+}
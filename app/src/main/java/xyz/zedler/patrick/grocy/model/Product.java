@@ -49,10 +49,12 @@ import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.database.Converters;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndex;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.repository.EntityCache;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.VersionUtil;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
@@ -1123,6 +1125,17 @@ public class Product extends GroupedListItem implements Parcelable {
                       .deleteProducts().blockingSubscribe();
                   dlHelper.appDatabase.productDao()
                       .insertProducts(products).blockingSubscribe();
+                  BarcodeIndex.getInstance().setProducts(products);
+                  EntityCache.getInstance().setProducts(products);
+                  if (!VersionUtil.isGrocyServerMin400(dlHelper.sharedPrefs)) {
+                    // purchase to stock factors are part of the locally resolved conversions
+                    QuantityUnitConversionResolved.resolveConversions(
+                        dlHelper.appDatabase,
+                        dlHelper.appDatabase.quantityUnitConversionDao()
+                            .getConversions().blockingGet(),
+                        products
+                    );
+                  }
                   dlHelper.sharedPrefs.edit()
                       .putString(PREF.DB_LAST_TIME_PRODUCTS, dbChangedTime).apply();
                   return true;
@@ -44,6 +44,7 @@ import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndex;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
@@ -365,6 +366,7 @@ public class ProductBarcode implements Parcelable {
                       .deleteProductBarcodes().blockingSubscribe();
                   dlHelper.appDatabase.productBarcodeDao()
                       .insertProductBarcodes(barcodes).blockingSubscribe();
+                  BarcodeIndex.getInstance().setProductBarcodes(barcodes);
                   dlHelper.sharedPrefs.edit()
                       .putString(PREF.DB_LAST_TIME_PRODUCT_BARCODES, dbChangedTime).apply();
                   return true;
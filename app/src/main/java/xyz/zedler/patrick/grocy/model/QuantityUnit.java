@@ -49,6 +49,7 @@ import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.repository.EntityCache;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
 @Entity(tableName = "quantity_unit_table")
@@ -317,6 +318,7 @@ public class QuantityUnit implements Parcelable {
                   dlHelper.appDatabase.quantityUnitDao().deleteQuantityUnits().blockingSubscribe();
                   dlHelper.appDatabase.quantityUnitDao()
                       .insertQuantityUnits(quantityUnits).blockingSubscribe();
+                  EntityCache.getInstance().setQuantityUnits(quantityUnits);
                   dlHelper.sharedPrefs.edit()
                       .putString(PREF.DB_LAST_TIME_QUANTITY_UNITS, dbChangedTime).apply();
                   return true;
@@ -30,13 +30,20 @@ import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
+import xyz.zedler.patrick.grocy.dao.QuantityUnitConversionResolvedDao;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.repository.EntityCache;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionResolver;
 import xyz.zedler.patrick.grocy.util.VersionUtil;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
@@ -55,23 +62,6 @@ public class QuantityUnitConversionResolved extends QuantityUnitConversion {
     setRowCreatedTimestamp(conversion.getRowCreatedTimestamp());
   }
 
-  public static QuantityUnitConversionResolved findConversion(
-      List<QuantityUnitConversionResolved> conversionsResolved,
-      int productId,
-      int fromQuId,
-      int toQuId
-  ) {
-    String productIdStr = String.valueOf(productId);
-    for (QuantityUnitConversionResolved tmpConversion : conversionsResolved) {
-      if (productIdStr.equals(tmpConversion.getProductId())
-          && tmpConversion.getFromQuId() == fromQuId
-          && tmpConversion.getToQuId() == toQuId) {
-        return tmpConversion;
-      }
-    }
-    return null;
-  }
-
   @SuppressLint("CheckResult")
   public static QueueItem updateQuantityUnitConversions(
       DownloadHelper dlHelper,
@@ -97,10 +87,10 @@ public class QuantityUnitConversionResolved extends QuantityUnitConversion {
                   ? ENTITY.QUANTITY_UNIT_CONVERSIONS_RESOLVED : ENTITY.QUANTITY_UNIT_CONVERSIONS),
               uuid,
               response -> Single.fromCallable(() -> {
-                    Type type = new TypeToken<List<QuantityUnitConversionResolved>>() {
-                    }.getType();
                     List<QuantityUnitConversionResolved> conversionsResolved;
                     if (isServerVersion4) {
+                      Type type = new TypeToken<List<QuantityUnitConversionResolved>>() {
+                      }.getType();
                       List<QuantityUnitConversionResolved> conversionsResolvedNotForDb = dlHelper.gson
                           .fromJson(response, type);
                       if (dlHelper.debug) {
@@ -114,20 +104,33 @@ public class QuantityUnitConversionResolved extends QuantityUnitConversion {
                         conversionsResolved.add(conversion);
                         id++;
                       }
+                      dlHelper.appDatabase.quantityUnitConversionResolvedDao()
+                          .deleteConversionsResolved().blockingSubscribe();
+                      dlHelper.appDatabase.quantityUnitConversionResolvedDao()
+                          .insertConversionsResolved(conversionsResolved).blockingSubscribe();
+                      EntityCache.getInstance().setUnitConversions(conversionsResolved);
+                      // stored rows are no longer the locally resolved ones
+                      clearResolvedKeys();
                     } else {
-                      // Below server version 4.0.0, transitive conversions are not
-                      // working and thus disallowed.
-                      conversionsResolved = dlHelper.gson
-                          .fromJson(response, type);
+                      // Below server version 4.0.0, the server doesn't resolve transitive
+                      // conversions, so this is done here with the normal conversions.
+                      List<QuantityUnitConversion> conversions = dlHelper.gson
+                          .fromJson(response, new TypeToken<List<QuantityUnitConversion>>() {
+                          }.getType());
                       if (dlHelper.debug) {
                         Log.i(dlHelper.tag, "download QuantityUnitConversions: "
-                            + conversionsResolved);
+                            + conversions);
                       }
+                      dlHelper.appDatabase.quantityUnitConversionDao()
+                          .deleteConversions().blockingSubscribe();
+                      dlHelper.appDatabase.quantityUnitConversionDao()
+                          .insertConversions(conversions).blockingSubscribe();
+                      conversionsResolved = resolveConversions(
+                          dlHelper.appDatabase,
+                          conversions,
+                          dlHelper.appDatabase.productDao().getProducts().blockingGet()
+                      );
                     }
-                dlHelper.appDatabase.quantityUnitConversionResolvedDao()
-                    .deleteConversionsResolved().blockingSubscribe();
-                dlHelper.appDatabase.quantityUnitConversionResolvedDao()
-                    .insertConversionsResolved(conversionsResolved).blockingSubscribe();
                 dlHelper.sharedPrefs.edit()
                     .putString(PREF.DB_LAST_TIME_QUANTITY_UNIT_CONVERSIONS_RESOLVED, dbChangedTime).apply();
                 return conversionsResolved;
@@ -161,4 +164,95 @@ public class QuantityUnitConversionResolved extends QuantityUnitConversion {
       return null;
     }
   }
+
+  // keys of the inputs the stored locally resolved conversions were calculated from
+  private static String resolvedDefaultKey;
+  private static final HashMap<Integer, String> resolvedProductKeys = new HashMap<>();
+
+  /**
+   * Calculates the resolved conversions for servers below version 4.0.0 and writes them into
+   * the database. Only products whose conversions, stock or purchase unit or purchase to stock
+   * factor have changed since the last call are resolved again, the stored rows of the other
+   * products are kept. If the default conversions have changed, all products are resolved.
+   * Only rows which were added, removed or changed are written, unchanged rows keep their id.
+   * Has to be called again if the conversions or the products have changed.
+   */
+  public static synchronized List<QuantityUnitConversionResolved> resolveConversions(
+      AppDatabase appDatabase,
+      List<? extends QuantityUnitConversion> conversions,
+      List<Product> products
+  ) {
+    QuantityUnitConversionResolver resolver = new QuantityUnitConversionResolver(conversions);
+    List<QuantityUnitConversionResolved> storedConversions = appDatabase
+        .quantityUnitConversionResolvedDao().getConversionsResolved().blockingGet();
+    HashSet<Integer> storedProductIds = new HashSet<>();
+    for (QuantityUnitConversionResolved conversion : storedConversions) {
+      if (NumUtil.isStringInt(conversion.getProductId())) {
+        storedProductIds.add(conversion.getProductIdInt());
+      }
+    }
+
+    String defaultKey = resolver.getDefaultKey();
+    boolean defaultsChanged = !defaultKey.equals(resolvedDefaultKey);
+    HashMap<Integer, String> productKeys = new HashMap<>();
+    HashSet<Integer> unchangedProductIds = new HashSet<>();
+    List<QuantityUnitConversionPath> paths = new ArrayList<>(resolver.resolveDefault());
+    for (Product product : products) {
+      String productKey = resolver.getProductKey(product);
+      productKeys.put(product.getId(), productKey);
+      if (!defaultsChanged && productKey.equals(resolvedProductKeys.get(product.getId()))
+          && storedProductIds.contains(product.getId())) {
+        unchangedProductIds.add(product.getId());
+        continue;
+      }
+      paths.addAll(resolver.resolveProduct(product));
+    }
+
+    QuantityUnitConversionResolvedDao dao = appDatabase.quantityUnitConversionResolvedDao();
+    HashMap<QuantityUnitConversionPath, QuantityUnitConversionResolved> oldConversionsHashMap
+        = new HashMap<>();
+    List<QuantityUnitConversionResolved> conversionsResolved = new ArrayList<>();
+    int nextId = 0;
+    for (QuantityUnitConversionResolved conversion : storedConversions) {
+      nextId = Math.max(nextId, conversion.getId() + 1);
+      if (NumUtil.isStringInt(conversion.getProductId())
+          && unchangedProductIds.contains(conversion.getProductIdInt())) {
+        conversionsResolved.add(conversion);
+      } else {
+        oldConversionsHashMap.put(new QuantityUnitConversionPath(conversion), conversion);
+      }
+    }
+
+    List<QuantityUnitConversionResolved> changedConversions = new ArrayList<>();
+    for (QuantityUnitConversionPath path : paths) {
+      QuantityUnitConversionResolved oldConversion = oldConversionsHashMap.remove(path);
+      if (oldConversion != null
+          && Double.compare(oldConversion.getFactor(), path.getFactor()) == 0) {
+        conversionsResolved.add(oldConversion);
+        continue;
+      }
+      QuantityUnitConversionResolved conversion = path.toConversion(
+          oldConversion != null ? oldConversion.getId() : nextId++
+      );
+      conversionsResolved.add(conversion);
+      changedConversions.add(conversion);
+    }
+    if (!oldConversionsHashMap.isEmpty()) {
+      dao.deleteConversionsResolved(new ArrayList<>(oldConversionsHashMap.values()))
+          .blockingSubscribe();
+    }
+    if (!changedConversions.isEmpty()) {
+      dao.insertConversionsResolved(changedConversions).blockingSubscribe();
+    }
+    resolvedDefaultKey = defaultKey;
+    resolvedProductKeys.clear();
+    resolvedProductKeys.putAll(productKeys);
+    EntityCache.getInstance().setUnitConversions(conversionsResolved);
+    return conversionsResolved;
+  }
+
+  private static synchronized void clearResolvedKeys() {
+    resolvedDefaultKey = null;
+    resolvedProductKeys.clear();
+  }
 }
@@ -331,6 +331,22 @@ public class Recipe implements Parcelable {
     return "Recipe(" + name + ")";
   }
 
+  @NonNull
+  public Recipe getClone() {
+    Recipe recipe = new Recipe();
+    recipe.id = id;
+    recipe.name = name;
+    recipe.description = description;
+    recipe.productId = productId;
+    recipe.type = type;
+    recipe.pictureFileName = pictureFileName;
+    recipe.baseServings = baseServings;
+    recipe.desiredServings = desiredServings;
+    recipe.notCheckShoppingList = notCheckShoppingList;
+    recipe.userfields = userfields;
+    return recipe;
+  }
+
   @SuppressLint("CheckResult")
   public static QueueItem updateRecipes(
       DownloadHelper dlHelper,
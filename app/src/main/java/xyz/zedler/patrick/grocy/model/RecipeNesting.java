@@ -39,16 +39,22 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import xyz.zedler.patrick.grocy.Constants.PREF;
+import xyz.zedler.patrick.grocy.dao.RecipeNestingDao;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.util.RecipeNestingResolver;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
 @Entity(tableName = "recipe_nesting_table")
 public class RecipeNesting implements Parcelable {
 
+  // SQLite allows up to 999 variables per statement
+  private static final int MAX_INCREMENTAL_RECIPE_IDS = 900;
+
   @PrimaryKey
   @ColumnInfo(name = "id")
   @SerializedName("id")
@@ -191,10 +197,11 @@ public class RecipeNesting implements Parcelable {
                   Log.i(dlHelper.tag, "download RecipeNestings: " + recipeNestings);
                 }
                 Single.fromCallable(() -> {
-                  dlHelper.appDatabase.recipeNestingDao()
-                      .deleteRecipeNestings().blockingSubscribe();
-                  dlHelper.appDatabase.recipeNestingDao()
-                      .insertRecipeNestings(recipeNestings).blockingSubscribe();
+                  RecipeNestingDao dao = dlHelper.appDatabase.recipeNestingDao();
+                  List<RecipeNesting> oldNestings = dao.getRecipeNestings().blockingGet();
+                  dao.deleteRecipeNestings().blockingSubscribe();
+                  dao.insertRecipeNestings(recipeNestings).blockingSubscribe();
+                  updateRecipeNestingsResolved(dao, oldNestings, recipeNestings);
                   dlHelper.sharedPrefs.edit()
                       .putString(PREF.DB_LAST_TIME_RECIPE_NESTINGS, dbChangedTime).apply();
                   return true;
@@ -230,4 +237,29 @@ public class RecipeNesting implements Parcelable {
       return null;
     }
   }
+
+  /**
+   * Recalculates the resolved nestings of the recipes affected by the nesting changes.
+   * Has to be called after the new nestings have been written to the database.
+   */
+  public static void updateRecipeNestingsResolved(
+      RecipeNestingDao dao,
+      List<RecipeNesting> oldNestings,
+      List<RecipeNesting> newNestings
+  ) {
+    RecipeNestingResolver resolver = new RecipeNestingResolver(newNestings);
+    boolean resolvedEmpty = dao.getRecipeNestingsResolved().blockingGet().isEmpty();
+    Set<Integer> affectedRecipeIds = RecipeNestingResolver
+        .getAffectedRecipeIds(resolvedEmpty ? null : oldNestings, newNestings);
+    if (affectedRecipeIds.isEmpty()) return;
+    List<RecipeNestingResolved> nestingsResolved;
+    if (affectedRecipeIds.size() > MAX_INCREMENTAL_RECIPE_IDS) {
+      dao.deleteRecipeNestingsResolved().blockingSubscribe();
+      nestingsResolved = resolver.resolveAll();
+    } else {
+      dao.deleteRecipeNestingsResolved(new ArrayList<>(affectedRecipeIds)).blockingSubscribe();
+      nestingsResolved = resolver.resolve(affectedRecipeIds);
+    }
+    dao.insertRecipeNestingsResolved(nestingsResolved).blockingSubscribe();
+  }
 }
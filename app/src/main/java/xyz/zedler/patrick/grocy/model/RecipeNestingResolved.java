@@ -22,36 +22,26 @@ package xyz.zedler.patrick.grocy.model;
 
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
-import androidx.room.DatabaseView;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import com.google.gson.annotations.SerializedName;
 
-@DatabaseView("WITH RECURSIVE r1(recipe_id, includes_recipe_id, includes_servings, level)\n"
-    + "AS ( "
-    + " SELECT "
-    + "  id AS recipe_id, "
-    + "  id AS includes_recipe_id, "
-    + "  1 AS includes_servings, "
-    + "  0 AS level "
-    + " FROM recipe_table "
-    + " "
-    + " UNION ALL "
-    + " "
-    + " SELECT "
-    + "  rn.recipe_id, "
-    + "  r1.includes_recipe_id, "
-    + "  CASE WHEN r1.level = 0 THEN rn.servings ELSE (SELECT servings FROM recipe_nesting_table WHERE recipe_id = r1.recipe_id AND includes_recipe_id = r1.includes_recipe_id) END AS includes_servings, "
-    + "  r1.level + 1 AS level "
-    + " FROM recipe_nesting_table rn, r1 r1 "
-    + " WHERE rn.includes_recipe_id = r1.recipe_id "
-    + ") "
-    + "SELECT "
-    + " *, "
-    + " 1 AS id "
-    + "FROM r1;")
+/**
+ * Recipe which is included in another recipe, directly or through other nested recipes.
+ * The rows are calculated with RecipeNestingResolver from recipe_nesting_table whenever the
+ * nestings change, so they don't have to be resolved on every query.
+ * Unlike the recipes_nestings_resolved view of the server, there are no rows for recipes
+ * including themselves.
+ */
+@Entity(
+    tableName = "recipe_nesting_resolved_table",
+    indices = {@Index(value = "recipe_id")}
+)
 public class RecipeNestingResolved {
 
-  @PrimaryKey
+  @PrimaryKey(autoGenerate = true)
   @ColumnInfo(name = "id")
   @SerializedName("id")
   private int id;
@@ -72,6 +62,22 @@ public class RecipeNestingResolved {
   @SerializedName("level")
   private int level;
 
+  public RecipeNestingResolved() {
+  }  // for Room
+
+  @Ignore
+  public RecipeNestingResolved(
+      int recipeId,
+      int includesRecipeId,
+      double includesServings,
+      int level
+  ) {
+    this.recipeId = recipeId;
+    this.includesRecipeId = includesRecipeId;
+    this.includesServings = includesServings;
+    this.level = level;
+  }
+
   public int getId() {
     return id;
   }
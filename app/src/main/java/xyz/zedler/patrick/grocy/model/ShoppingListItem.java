@@ -50,6 +50,7 @@ import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnJSONResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.helper.ShoppingListOutbox;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
@@ -81,10 +82,6 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
   @SerializedName("done")
   private String done;
 
-  @ColumnInfo(name = "done_synced")
-  private int doneSynced = -1;  // state of param "done" on server during time of last sync
-  // -1 means that the "done" was not edited since sync
-
   @ColumnInfo(name = "product_id")
   @SerializedName("product_id")
   private String productId;
@@ -103,8 +100,7 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
       String amount,
       String shoppingListId,
       String quId,
-      String done,
-      int doneSynced
+      String done
   ) {
     this.id = id;
     this.productId = productId;
@@ -113,7 +109,6 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
     this.shoppingListId = shoppingListId;
     this.quId = quId;
     this.done = done;
-    this.doneSynced = doneSynced;
   }
 
   private ShoppingListItem(Parcel parcel) {
@@ -124,7 +119,6 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
     shoppingListId = parcel.readString();
     quId = parcel.readString();
     done = parcel.readString();
-    doneSynced = parcel.readInt();
   }
 
   @Override
@@ -136,7 +130,6 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
     dest.writeString(shoppingListId);
     dest.writeString(quId);
     dest.writeString(done);
-    dest.writeInt(doneSynced);
   }
 
   public static final Creator<ShoppingListItem> CREATOR = new Creator<>() {
@@ -238,14 +231,6 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
     this.done = String.valueOf(done);
   }
 
-  public int getDoneSynced() {
-    return doneSynced;
-  }
-
-  public void setDoneSynced(int doneSynced) {
-    this.doneSynced = doneSynced;
-  }
-
   public boolean hasProduct() {
     return NumUtil.isStringInt(productId);
   }
@@ -289,7 +274,6 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
     }
     ShoppingListItem that = (ShoppingListItem) o;
     return id == that.id &&
-        doneSynced == that.doneSynced &&
         Objects.equals(note, that.note) &&
         Objects.equals(amount, that.amount) &&
         Objects.equals(shoppingListId, that.shoppingListId) &&
@@ -301,7 +285,7 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, note, amount, shoppingListId, quId, done, doneSynced, productId,
+    return Objects.hash(id, note, amount, shoppingListId, quId, done, productId,
         rowCreatedTimestamp);
   }
 
@@ -320,8 +304,7 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
         this.amount,
         this.shoppingListId,
         this.quId,
-        this.done,
-        this.doneSynced
+        this.done
     );
   }
 
@@ -451,29 +434,15 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
                   Log.i(dlHelper.tag, "download ShoppingListItems: " + shoppingListItems);
                 }
 
-                dlHelper.appDatabase.shoppingListItemDao().getShoppingListItems()
-                    .doOnSuccess(offlineItems -> {
-                      HashMap<Integer, ShoppingListItem> offlineItemsHashMap = new HashMap<>();
-                      for (ShoppingListItem s : offlineItems) {
-                        offlineItemsHashMap.put(s.getId(), s);
-                      }
-                      for (ShoppingListItem serverItem : shoppingListItems) {
-                        ShoppingListItem offlineItem = offlineItemsHashMap.get(serverItem.getId());
-                        if (offlineItem == null) continue;
-                        if (offlineItem.getDoneSynced() != -1
-                            && offlineItem.getDoneInt() != serverItem.getDoneInt()
-                        ) {
-                          serverItem.setDone(offlineItem.getDone());
-                          serverItem.setDoneSynced(offlineItem.getDoneSynced());
-                        }
-                      }
-                    })
-                    .flatMap(completeItems -> {
+                Single.fromCallable(() -> {
+                      ShoppingListOutbox.applyUnsyncedMutations(
+                          dlHelper.appDatabase.shoppingListItemMutationDao(), shoppingListItems
+                      );
                       dlHelper.appDatabase.shoppingListItemDao().deleteAll();
                       dlHelper.appDatabase.shoppingListItemDao().insertAll(shoppingListItems);
                       dlHelper.sharedPrefs.edit()
                           .putString(PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, dbChangedTime).apply();
-                      return Single.just(shoppingListItems);
+                      return shoppingListItems;
                     })
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
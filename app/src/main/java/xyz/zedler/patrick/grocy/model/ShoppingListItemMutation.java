@@ -0,0 +1,212 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Change of a shopping list item which has been applied locally but not yet on the server.
+ * There is at most one mutation per item, later changes are merged into it, so toggling an
+ * item several times while offline results in only one request.
+ * Fields which are null have not been changed.
+ */
+@Entity(tableName = "shopping_list_item_mutation_table")
+public class ShoppingListItemMutation {
+
+  @PrimaryKey
+  @ColumnInfo(name = "item_id")
+  private int itemId;
+
+  @ColumnInfo(name = "done")
+  private Integer done;
+
+  @ColumnInfo(name = "amount")
+  private String amount;
+
+  @ColumnInfo(name = "note")
+  private String note;
+
+  @ColumnInfo(name = "deleted")
+  private boolean deleted;
+
+  // increased on every change, the mutation is only removed if it didn't change during sync
+  @ColumnInfo(name = "revision")
+  private int revision;
+
+  @ColumnInfo(name = "failed_attempts")
+  private int failedAttempts;
+
+  @ColumnInfo(name = "last_error")
+  private String lastError;
+
+  public ShoppingListItemMutation() {
+  }  // for Room
+
+  @Ignore
+  public ShoppingListItemMutation(int itemId) {
+    this.itemId = itemId;
+  }
+
+  public static ShoppingListItemMutation done(int itemId, int done) {
+    ShoppingListItemMutation mutation = new ShoppingListItemMutation(itemId);
+    mutation.setDone(done);
+    return mutation;
+  }
+
+  public static ShoppingListItemMutation amount(int itemId, String amount) {
+    ShoppingListItemMutation mutation = new ShoppingListItemMutation(itemId);
+    mutation.setAmount(amount);
+    return mutation;
+  }
+
+  public static ShoppingListItemMutation note(int itemId, String note) {
+    ShoppingListItemMutation mutation = new ShoppingListItemMutation(itemId);
+    mutation.setNote(note);
+    return mutation;
+  }
+
+  public static ShoppingListItemMutation delete(int itemId) {
+    ShoppingListItemMutation mutation = new ShoppingListItemMutation(itemId);
+    mutation.setDeleted(true);
+    return mutation;
+  }
+
+  /**
+   * Merges a newer change of the same item into this one. A deletion replaces all other
+   * changes because they don't have to be sent anymore.
+   */
+  public void merge(@NonNull ShoppingListItemMutation newer) {
+    if (newer.deleted) {
+      done = null;
+      amount = null;
+      note = null;
+      deleted = true;
+    } else if (!deleted) {
+      if (newer.done != null) done = newer.done;
+      if (newer.amount != null) amount = newer.amount;
+      if (newer.note != null) note = newer.note;
+    }
+    revision++;
+    failedAttempts = 0;
+    lastError = null;
+  }
+
+  /**
+   * Applies the changes to a local item. Has no effect for deletions, those items have to be
+   * removed by the caller.
+   */
+  public void applyTo(@NonNull ShoppingListItem item) {
+    if (deleted) return;
+    if (done != null) item.setDone(done);
+    if (amount != null) item.setAmount(amount);
+    if (note != null) item.setNote(note);
+  }
+
+  @NonNull
+  public JSONObject getBody() throws JSONException {
+    JSONObject body = new JSONObject();
+    if (done != null) body.put("done", done);
+    if (amount != null) body.put("amount", amount);
+    if (note != null) body.put("note", note);
+    return body;
+  }
+
+  public int getItemId() {
+    return itemId;
+  }
+
+  public void setItemId(int itemId) {
+    this.itemId = itemId;
+  }
+
+  @Nullable
+  public Integer getDone() {
+    return done;
+  }
+
+  public void setDone(@Nullable Integer done) {
+    this.done = done;
+  }
+
+  @Nullable
+  public String getAmount() {
+    return amount;
+  }
+
+  public void setAmount(@Nullable String amount) {
+    this.amount = amount;
+  }
+
+  @Nullable
+  public String getNote() {
+    return note;
+  }
+
+  public void setNote(@Nullable String note) {
+    this.note = note;
+  }
+
+  public boolean isDeleted() {
+    return deleted;
+  }
+
+  public void setDeleted(boolean deleted) {
+    this.deleted = deleted;
+  }
+
+  public int getRevision() {
+    return revision;
+  }
+
+  public void setRevision(int revision) {
+    this.revision = revision;
+  }
+
+  public int getFailedAttempts() {
+    return failedAttempts;
+  }
+
+  public void setFailedAttempts(int failedAttempts) {
+    this.failedAttempts = failedAttempts;
+  }
+
+  @Nullable
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(@Nullable String lastError) {
+    this.lastError = lastError;
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "ShoppingListItemMutation(" + itemId + ")";
+  }
+}
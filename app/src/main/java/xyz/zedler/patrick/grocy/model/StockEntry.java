@@ -46,6 +46,7 @@ import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
@@ -105,6 +106,9 @@ public class StockEntry extends GroupedListItem implements Parcelable {
   @SerializedName("note")
   private String note;
 
+  @Ignore
+  private transient Integer bestBeforeEpochDay;
+
   public StockEntry() {
   }
 
@@ -188,8 +192,20 @@ public class StockEntry extends GroupedListItem implements Parcelable {
     return bestBeforeDate;
   }
 
+  /**
+   * Epoch day of the due date, parsed only once and then cached.
+   * DateUtil.NO_EPOCH_DAY if there is no valid due date.
+   */
+  public int getBestBeforeEpochDay() {
+    if (bestBeforeEpochDay == null) {
+      bestBeforeEpochDay = DateUtil.getEpochDay(bestBeforeDate);
+    }
+    return bestBeforeEpochDay;
+  }
+
   public void setBestBeforeDate(String bestBeforeDate) {
     this.bestBeforeDate = bestBeforeDate;
+    this.bestBeforeEpochDay = null;
   }
 
   public String getPurchasedDate() {
@@ -45,6 +45,7 @@ import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnMultiTypeErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.web.NetworkQueue.QueueItem;
 
@@ -110,6 +111,9 @@ public class StockItem extends GroupedListItem implements Parcelable {
   @ColumnInfo(name = "item_missing_partly_in_stock")
   private boolean itemMissingAndPartlyInStock = false;
 
+  @Ignore
+  private transient Integer bestBeforeEpochDay;
+
   public StockItem() {
   }
 
@@ -195,6 +199,17 @@ public class StockItem extends GroupedListItem implements Parcelable {
     return bestBeforeDate;
   }
 
+  /**
+   * Epoch day of the due date, parsed only once and then cached.
+   * DateUtil.NO_EPOCH_DAY if there is no valid due date.
+   */
+  public int getBestBeforeEpochDay() {
+    if (bestBeforeEpochDay == null) {
+      bestBeforeEpochDay = DateUtil.getEpochDay(bestBeforeDate);
+    }
+    return bestBeforeEpochDay;
+  }
+
   public double getAmountOpenedAggregatedDouble() {
     if (amountOpenedAggregated == null || amountOpenedAggregated.isEmpty()) {
       return 0;
@@ -249,6 +264,7 @@ public class StockItem extends GroupedListItem implements Parcelable {
 
   public void setBestBeforeDate(String bestBeforeDate) {
     this.bestBeforeDate = bestBeforeDate;
+    this.bestBeforeEpochDay = null;
   }
 
   public void setAmountOpened(String amountOpened) {
@@ -0,0 +1,340 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.notification;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.preference.PreferenceManager;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import xyz.zedler.patrick.grocy.Constants;
+import xyz.zedler.patrick.grocy.Constants.SETTINGS.NOTIFICATIONS;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.activity.MainActivity;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.fragment.ChoresFragmentArgs;
+import xyz.zedler.patrick.grocy.fragment.StockOverviewFragmentArgs;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusClassifier;
+import xyz.zedler.patrick.grocy.model.ChoreEntry;
+import xyz.zedler.patrick.grocy.model.FilterChipLiveDataStatusChores;
+import xyz.zedler.patrick.grocy.model.FilterChipLiveDataStatusStock;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.StockItem;
+import xyz.zedler.patrick.grocy.model.VolatileItem;
+import xyz.zedler.patrick.grocy.repository.EntityCache;
+import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.NavUtil;
+import xyz.zedler.patrick.grocy.util.PrefsUtil;
+import xyz.zedler.patrick.grocy.util.ReminderUtil;
+
+/**
+ * Computes the stock and chores notifications from the local database, so they are also
+ * shown if the server can't be reached. If a network is available, the needed tables are
+ * refreshed first. Without network, the notification is shown from the local data and a
+ * refresh run is enqueued which waits for a network and only updates the notification if
+ * the count has changed.
+ */
+public class NotificationWorker extends Worker {
+
+  private final static String TAG = NotificationWorker.class.getSimpleName();
+
+  private final static String KEY_TYPE = "type";
+  private final static String KEY_NOTIFIED_COUNT = "notified_count";
+  private final static int NOT_NOTIFIED = -1;
+
+  private final SharedPreferences sharedPrefs;
+  private final boolean debug;
+
+  public NotificationWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+    super(context, workerParams);
+    sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+    debug = PrefsUtil.isDebuggingEnabled(sharedPrefs);
+  }
+
+  /**
+   * Enqueues the computation of the notification of the given reminder type.
+   * A computation of the same type which has not finished yet is replaced.
+   */
+  public static void enqueue(Context context, String reminderType) {
+    OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(NotificationWorker.class)
+        .setInputData(new Data.Builder()
+            .putString(KEY_TYPE, reminderType)
+            .putInt(KEY_NOTIFIED_COUNT, NOT_NOTIFIED)
+            .build())
+        .build();
+    WorkManager.getInstance(context).enqueueUniqueWork(
+        getWorkName(reminderType), ExistingWorkPolicy.REPLACE, workRequest
+    );
+  }
+
+  private static void enqueueRefresh(Context context, String reminderType, int notifiedCount) {
+    OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(NotificationWorker.class)
+        .setConstraints(new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .build())
+        .setInputData(new Data.Builder()
+            .putString(KEY_TYPE, reminderType)
+            .putInt(KEY_NOTIFIED_COUNT, notifiedCount)
+            .build())
+        .build();
+    // append, so the refresh doesn't cancel the running computation which enqueues it
+    WorkManager.getInstance(context).enqueueUniqueWork(
+        getWorkName(reminderType), ExistingWorkPolicy.APPEND_OR_REPLACE, workRequest
+    );
+  }
+
+  private static String getWorkName(String reminderType) {
+    return "notification_" + reminderType;
+  }
+
+  @NonNull
+  @Override
+  public Result doWork() {
+    Context context = getApplicationContext();
+    NotificationManager notificationManager = (NotificationManager) context.getSystemService(
+        Context.NOTIFICATION_SERVICE
+    );
+    if (notificationManager == null) {
+      return Result.failure();
+    }
+    String reminderType = getInputData().getString(KEY_TYPE);
+    if (reminderType == null) {
+      return Result.failure();
+    }
+    int notifiedCount = getInputData().getInt(KEY_NOTIFIED_COUNT, NOT_NOTIFIED);
+    boolean isRefreshRun = notifiedCount != NOT_NOTIFIED;
+
+    boolean isOnline = isOnline(context);
+    if (isOnline) {
+      refreshData(reminderType);
+    }
+    int count;
+    switch (reminderType) {
+      case ReminderUtil.STOCK_TYPE:
+        count = getNotFreshStockCount();
+        break;
+      case ReminderUtil.CHORES_TYPE:
+        count = getDueChoresCount();
+        break;
+      default:
+        return Result.failure();
+    }
+    if (debug) {
+      Log.i(TAG, "doWork: type = " + reminderType + ", count = " + count
+          + ", online = " + isOnline + ", refresh run = " + isRefreshRun);
+    }
+
+    if (isRefreshRun && count == notifiedCount) {
+      return Result.success();
+    }
+    if (count > 0) {
+      createNotificationChannel(context, notificationManager, reminderType);
+      notify(context, notificationManager, reminderType, count);
+    } else if (isRefreshRun) {
+      notificationManager.cancel(getNotificationId(reminderType));
+    }
+    if (!isOnline) {
+      enqueueRefresh(context, reminderType, count);
+    }
+    return Result.success();
+  }
+
+  private int getNotFreshStockCount() {
+    AppDatabase appDatabase = AppDatabase.getAppDatabase(getApplicationContext());
+    List<StockItem> stockItems = appDatabase.stockItemDao().getStockItems().blockingGet();
+    List<VolatileItem> volatileItems = appDatabase.volatileItemDao()
+        .getVolatileItems().blockingGet();
+    EntityCache.Snapshot snapshot = EntityCache.getInstance()
+        .getSnapshot(appDatabase).blockingGet();
+    StockStatusClassifier statusClassifier = new StockStatusClassifier(sharedPrefs);
+    statusClassifier.classify(stockItems, volatileItems, snapshot.getProductHashMap());
+    return statusClassifier.getNotFreshCount();
+  }
+
+  private int getDueChoresCount() {
+    AppDatabase appDatabase = AppDatabase.getAppDatabase(getApplicationContext());
+    List<ChoreEntry> choreEntries = appDatabase.choreEntryDao().getChoreEntries().blockingGet();
+    int choresDueCount = 0;
+    for (ChoreEntry choreEntry : choreEntries) {
+      if (choreEntry.getNextEstimatedExecutionTime() == null
+          || choreEntry.getNextEstimatedExecutionTime().isEmpty()) {
+        continue;
+      }
+      if (DateUtil.getDaysFromNow(choreEntry.getNextEstimatedExecutionTime()) <= 0) {
+        choresDueCount++;
+      }
+    }
+    return choresDueCount;
+  }
+
+  /**
+   * Downloads the tables needed for the notification into the database and blocks until
+   * they are written or the loading timeout has passed. Errors are ignored, the local data
+   * is used in this case.
+   */
+  private void refreshData(String reminderType) {
+    Class<?>[] types = reminderType.equals(ReminderUtil.STOCK_TYPE)
+        ? new Class<?>[]{StockItem.class, VolatileItem.class, Product.class}
+        : new Class<?>[]{ChoreEntry.class};
+    int timeoutSeconds = sharedPrefs.getInt(
+        Constants.SETTINGS.NETWORK.LOADING_TIMEOUT,
+        Constants.SETTINGS_DEFAULT.NETWORK.LOADING_TIMEOUT
+    );
+    CountDownLatch latch = new CountDownLatch(1);
+    Handler handler = new Handler(Looper.getMainLooper());
+    DownloadHelper[] dlHelper = new DownloadHelper[1];
+    // Volley responses and the database writes of the downloads are delivered on main thread
+    handler.post(() -> {
+      dlHelper[0] = new DownloadHelper(getApplicationContext(), TAG);
+      dlHelper[0].updateData(
+          updated -> latch.countDown(),
+          error -> {
+            if (debug) Log.e(TAG, "refreshData: " + error);
+            latch.countDown();
+          },
+          false,
+          false,
+          types
+      );
+    });
+    try {
+      // one timeout for the db-changed-time request and one for the tables
+      if (!latch.await(timeoutSeconds * 2L, TimeUnit.SECONDS) && debug) {
+        Log.i(TAG, "refreshData: timeout, using local data");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    handler.post(() -> {
+      if (dlHelper[0] != null) dlHelper[0].destroy();
+    });
+  }
+
+  private static boolean isOnline(Context context) {
+    ConnectivityManager cm = (ConnectivityManager) context.getSystemService(
+        Context.CONNECTIVITY_SERVICE
+    );
+    if (cm == null) {
+      return false;
+    }
+    NetworkInfo networkInfo = cm.getActiveNetworkInfo();
+    return networkInfo != null && networkInfo.isConnectedOrConnecting();
+  }
+
+  private static int getNotificationId(String reminderType) {
+    return reminderType.equals(ReminderUtil.STOCK_TYPE)
+        ? NOTIFICATIONS.STOCK_ID
+        : NOTIFICATIONS.CHORES_ID;
+  }
+
+  private static void createNotificationChannel(
+      Context context,
+      NotificationManager notificationManager,
+      String reminderType
+  ) {
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+      return;
+    }
+    NotificationChannel channel;
+    if (reminderType.equals(ReminderUtil.STOCK_TYPE)) {
+      channel = new NotificationChannel(
+          NOTIFICATIONS.STOCK_CHANNEL,
+          context.getString(R.string.category_stock),
+          NotificationManager.IMPORTANCE_HIGH
+      );
+      channel.setDescription(context.getString(R.string.setting_notifications_stock_description));
+    } else {
+      channel = new NotificationChannel(
+          NOTIFICATIONS.CHORES_CHANNEL,
+          context.getString(R.string.title_chores),
+          NotificationManager.IMPORTANCE_HIGH
+      );
+      channel.setDescription(context.getString(R.string.setting_notifications_chores_description));
+    }
+    notificationManager.createNotificationChannel(channel);
+  }
+
+  private static void notify(
+      Context context,
+      NotificationManager notificationManager,
+      String reminderType,
+      int count
+  ) {
+    String titleText;
+    String contentText;
+    String channelId;
+    Uri uri;
+    if (reminderType.equals(ReminderUtil.STOCK_TYPE)) {
+      titleText = context.getResources().getQuantityString(
+          R.plurals.notification_stock_not_fresh_title, count, count
+      );
+      contentText = context.getString(R.string.notification_stock_content);
+      channelId = NOTIFICATIONS.STOCK_CHANNEL;
+      uri = NavUtil.getUriWithArgs(
+          context.getString(R.string.deep_link_stockOverviewFragment),
+          new StockOverviewFragmentArgs.Builder()
+              .setStatusFilterId(String.valueOf(FilterChipLiveDataStatusStock.STATUS_NOT_FRESH))
+              .build().toBundle()
+      );
+    } else {
+      titleText = context.getResources().getQuantityString(
+          R.plurals.notification_chores_due_title, count, count
+      );
+      contentText = context.getString(R.string.notification_chores_content);
+      channelId = NOTIFICATIONS.CHORES_CHANNEL;
+      uri = NavUtil.getUriWithArgs(
+          context.getString(R.string.deep_link_choresFragment),
+          new ChoresFragmentArgs.Builder()
+              .setStatusFilterId(String.valueOf(FilterChipLiveDataStatusChores.STATUS_DUE))
+              .build().toBundle()
+      );
+    }
+    Intent notificationIntent = new Intent(Intent.ACTION_VIEW, uri);
+    notificationIntent.setClass(context, MainActivity.class);
+    notificationIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+
+    int notificationId = getNotificationId(reminderType);
+    notificationManager.notify(notificationId, ReminderUtil.getNotification(
+        context, titleText, contentText, notificationId, channelId, notificationIntent
+    ));
+  }
+}
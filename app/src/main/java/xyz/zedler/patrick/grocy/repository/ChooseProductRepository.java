@@ -27,6 +27,7 @@ import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndex;
 import xyz.zedler.patrick.grocy.model.PendingProduct;
 import xyz.zedler.patrick.grocy.model.Product;
 
@@ -84,6 +85,10 @@ public class ChooseProductRepository {
       Consumer<Throwable> onError
   ) {
     appDatabase.pendingProductDao().insertPendingProduct(pendingProduct)
+        .doOnSuccess(id -> {
+          pendingProduct.setId(id.intValue());
+          BarcodeIndex.getInstance().putPendingProduct(pendingProduct);
+        })
         .subscribeOn(Schedulers.io())
         .observeOn(AndroidSchedulers.mainThread())
         .doOnSuccess(successListener::onSuccess)
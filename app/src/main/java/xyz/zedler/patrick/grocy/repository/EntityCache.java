@@ -0,0 +1,257 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.repository;
+
+import androidx.annotation.NonNull;
+import io.reactivex.rxjava3.core.Single;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.model.Location;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
+import xyz.zedler.patrick.grocy.util.ArrayUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
+
+/**
+ * App-wide in-memory copy of the master data most screens need: products, quantity units,
+ * locations and resolved unit conversions. Every table is read from the database only once,
+ * after that it is replaced by the downloads which write it. Repositories hand out immutable
+ * snapshots with prebuilt id indices, so opening a screen doesn't query and hash these tables
+ * again. A new snapshot is only built after something has changed, and only the indices of
+ * the changed tables are rebuilt.
+ */
+public class EntityCache {
+
+  private static EntityCache instance;
+
+  private List<Product> products;
+  private HashMap<Integer, Product> productHashMap;
+  private List<QuantityUnit> quantityUnits;
+  private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+  private List<Location> locations;
+  private HashMap<Integer, Location> locationHashMap;
+  private List<QuantityUnitConversionResolved> unitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private Snapshot snapshot;
+  private int version;
+
+  private EntityCache() {
+  }
+
+  public static synchronized EntityCache getInstance() {
+    if (instance == null) {
+      instance = new EntityCache();
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the current snapshot. Tables which have not been loaded yet are read from the
+   * database, so the returned Single has to be subscribed on a background thread.
+   */
+  public Single<Snapshot> getSnapshot(AppDatabase appDatabase) {
+    return Single.fromCallable(() -> loadSnapshot(appDatabase));
+  }
+
+  private synchronized Snapshot loadSnapshot(AppDatabase appDatabase) {
+    if (snapshot != null) return snapshot;
+    if (products == null) {
+      putProducts(appDatabase.productDao().getProducts().blockingGet());
+    }
+    if (quantityUnits == null) {
+      putQuantityUnits(appDatabase.quantityUnitDao().getQuantityUnits().blockingGet());
+    }
+    if (locations == null) {
+      putLocations(appDatabase.locationDao().getLocations().blockingGet());
+    }
+    if (unitConversions == null) {
+      putUnitConversions(appDatabase.quantityUnitConversionResolvedDao()
+          .getConversionsResolved().blockingGet());
+    }
+    if (unitConversionIndex == null) {
+      unitConversionIndex = new QuantityUnitConversionIndex(unitConversions, quantityUnitHashMap);
+    }
+    snapshot = new Snapshot(
+        version,
+        products,
+        productHashMap,
+        quantityUnits,
+        quantityUnitHashMap,
+        locations,
+        locationHashMap,
+        unitConversions,
+        unitConversionIndex
+    );
+    return snapshot;
+  }
+
+  /**
+   * Has to be called after the products in the database have been replaced.
+   */
+  public synchronized void setProducts(@NonNull List<Product> products) {
+    putProducts(products);
+    onChanged();
+  }
+
+  /**
+   * Has to be called after the quantity units in the database have been replaced.
+   */
+  public synchronized void setQuantityUnits(@NonNull List<QuantityUnit> quantityUnits) {
+    putQuantityUnits(quantityUnits);
+    onChanged();
+  }
+
+  /**
+   * Has to be called after the locations in the database have been replaced.
+   */
+  public synchronized void setLocations(@NonNull List<Location> locations) {
+    putLocations(locations);
+    onChanged();
+  }
+
+  /**
+   * Has to be called after the resolved conversions in the database have been replaced.
+   */
+  public synchronized void setUnitConversions(
+      @NonNull List<QuantityUnitConversionResolved> unitConversions
+  ) {
+    putUnitConversions(unitConversions);
+    onChanged();
+  }
+
+  public synchronized void clear() {
+    products = null;
+    productHashMap = null;
+    quantityUnits = null;
+    quantityUnitHashMap = null;
+    locations = null;
+    locationHashMap = null;
+    unitConversions = null;
+    unitConversionIndex = null;
+    onChanged();
+  }
+
+  private void putProducts(List<Product> products) {
+    this.products = Collections.unmodifiableList(new ArrayList<>(products));
+    productHashMap = ArrayUtil.getProductsHashMap(products);
+  }
+
+  private void putQuantityUnits(List<QuantityUnit> quantityUnits) {
+    this.quantityUnits = Collections.unmodifiableList(new ArrayList<>(quantityUnits));
+    quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(quantityUnits);
+    unitConversionIndex = null;
+  }
+
+  private void putLocations(List<Location> locations) {
+    this.locations = Collections.unmodifiableList(new ArrayList<>(locations));
+    locationHashMap = ArrayUtil.getLocationsHashMap(locations);
+  }
+
+  private void putUnitConversions(List<QuantityUnitConversionResolved> unitConversions) {
+    this.unitConversions = Collections.unmodifiableList(new ArrayList<>(unitConversions));
+    unitConversionIndex = null;
+  }
+
+  private void onChanged() {
+    version++;
+    snapshot = null;
+  }
+
+  /**
+   * Immutable state of the cache at one version. The lists can't be modified, the hash maps
+   * and the conversion index are shared by all users of the snapshot and must not be modified
+   * either.
+   */
+  public static class Snapshot {
+
+    private final int version;
+    private final List<Product> products;
+    private final HashMap<Integer, Product> productHashMap;
+    private final List<QuantityUnit> quantityUnits;
+    private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+    private final List<Location> locations;
+    private final HashMap<Integer, Location> locationHashMap;
+    private final List<QuantityUnitConversionResolved> unitConversions;
+    private final QuantityUnitConversionIndex unitConversionIndex;
+
+    private Snapshot(
+        int version,
+        List<Product> products,
+        HashMap<Integer, Product> productHashMap,
+        List<QuantityUnit> quantityUnits,
+        HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+        List<Location> locations,
+        HashMap<Integer, Location> locationHashMap,
+        List<QuantityUnitConversionResolved> unitConversions,
+        QuantityUnitConversionIndex unitConversionIndex
+    ) {
+      this.version = version;
+      this.products = products;
+      this.productHashMap = productHashMap;
+      this.quantityUnits = quantityUnits;
+      this.quantityUnitHashMap = quantityUnitHashMap;
+      this.locations = locations;
+      this.locationHashMap = locationHashMap;
+      this.unitConversions = unitConversions;
+      this.unitConversionIndex = unitConversionIndex;
+    }
+
+    public int getVersion() {
+      return version;
+    }
+
+    public List<Product> getProducts() {
+      return products;
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return productHashMap;
+    }
+
+    public List<QuantityUnit> getQuantityUnits() {
+      return quantityUnits;
+    }
+
+    public HashMap<Integer, QuantityUnit> getQuantityUnitHashMap() {
+      return quantityUnitHashMap;
+    }
+
+    public List<Location> getLocations() {
+      return locations;
+    }
+
+    public HashMap<Integer, Location> getLocationHashMap() {
+      return locationHashMap;
+    }
+
+    public List<QuantityUnitConversionResolved> getUnitConversions() {
+      return unitConversions;
+    }
+
+    public QuantityUnitConversionIndex getUnitConversionIndex() {
+      return unitConversionIndex;
+    }
+  }
+}
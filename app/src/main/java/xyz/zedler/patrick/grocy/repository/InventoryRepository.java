@@ -25,14 +25,16 @@ import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.Store;
+import xyz.zedler.patrick.grocy.repository.EntityCache.Snapshot;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class InventoryRepository {
 
@@ -49,31 +51,26 @@ public class InventoryRepository {
 
   public static class InventoryData {
 
-    private final List<Product> products;
+    private final Snapshot snapshot;
     private final List<ProductBarcode> barcodes;
-    private final List<QuantityUnit> quantityUnits;
-    private final List<QuantityUnitConversionResolved> quantityUnitConversions;
     private final List<Store> stores;
-    private final List<Location> locations;
 
     public InventoryData(
-        List<Product> products,
+        Snapshot snapshot,
         List<ProductBarcode> barcodes,
-        List<QuantityUnit> quantityUnits,
-        List<QuantityUnitConversionResolved> quantityUnitConversions,
-        List<Store> stores,
-        List<Location> locations
+        List<Store> stores
     ) {
-      this.products = products;
+      this.snapshot = snapshot;
       this.barcodes = barcodes;
-      this.quantityUnits = quantityUnits;
-      this.quantityUnitConversions = quantityUnitConversions;
       this.stores = stores;
-      this.locations = locations;
     }
 
     public List<Product> getProducts() {
-      return products;
+      return snapshot.getProducts();
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return snapshot.getProductHashMap();
     }
 
     public List<ProductBarcode> getBarcodes() {
@@ -81,11 +78,15 @@ public class InventoryRepository {
     }
 
     public List<QuantityUnit> getQuantityUnits() {
-      return quantityUnits;
+      return snapshot.getQuantityUnits();
+    }
+
+    public HashMap<Integer, QuantityUnit> getQuantityUnitHashMap() {
+      return snapshot.getQuantityUnitHashMap();
     }
 
-    public List<QuantityUnitConversionResolved> getQuantityUnitConversionsResolved() {
-      return quantityUnitConversions;
+    public QuantityUnitConversionIndex getUnitConversionIndex() {
+      return snapshot.getUnitConversionIndex();
     }
 
     public List<Store> getStores() {
@@ -93,19 +94,16 @@ public class InventoryRepository {
     }
 
     public List<Location> getLocations() {
-      return locations;
+      return snapshot.getLocations();
     }
   }
 
   public void loadFromDatabase(DataListener onSuccess, Consumer<Throwable> onError) {
     Single
         .zip(
-            appDatabase.productDao().getProducts(),
+            EntityCache.getInstance().getSnapshot(appDatabase),
             appDatabase.productBarcodeDao().getProductBarcodes(),
-            appDatabase.quantityUnitDao().getQuantityUnits(),
-            appDatabase.quantityUnitConversionResolvedDao().getConversionsResolved(),
             appDatabase.storeDao().getStores(),
-            appDatabase.locationDao().getLocations(),
             InventoryData::new
         )
         .subscribeOn(Schedulers.io())
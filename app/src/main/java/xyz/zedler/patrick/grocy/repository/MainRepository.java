@@ -24,6 +24,7 @@ import android.app.Application;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndex;
 
 public class MainRepository {
 
@@ -34,9 +35,13 @@ public class MainRepository {
   }
 
   public void clearAllTables() {
+    BarcodeIndex.getInstance().clear();
     Single
         .just(0)
-        .doFinally(appDatabase::clearAllTables)
+        .doFinally(() -> {
+          appDatabase.clearAllTables();
+          EntityCache.getInstance().clear();
+        })
         .subscribeOn(Schedulers.io())
         .subscribe();
   }
@@ -22,8 +22,11 @@ package xyz.zedler.patrick.grocy.repository;
 
 import android.app.Application;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
 import xyz.zedler.patrick.grocy.model.MealPlanEntry;
@@ -36,7 +39,7 @@ import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
 import xyz.zedler.patrick.grocy.model.RecipePosition;
 import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.Userfield;
-import xyz.zedler.patrick.grocy.util.RxJavaUtil;
+import xyz.zedler.patrick.grocy.repository.EntityCache.Snapshot;
 
 public class MealPlanRepository {
 
@@ -51,13 +54,17 @@ public class MealPlanRepository {
     void actionFinished(MealPlanData data);
   }
 
+  public interface MealPlanEntriesListener {
+
+    void actionFinished(List<MealPlanEntry> mealPlanEntries);
+  }
+
   public static class MealPlanData {
 
     private final List<Recipe> recipes;
     private final List<RecipeFulfillment> recipeFulfillments;
     private final List<RecipePosition> recipePositions;
-    private final List<Product> products;
-    private final List<QuantityUnit> quantityUnits;
+    private final Snapshot snapshot;
     private final List<ProductLastPurchased> productsLastPurchased;
     private final List<MealPlanEntry> mealPlanEntries;
     private final List<MealPlanSection> mealPlanSections;
@@ -68,8 +75,7 @@ public class MealPlanRepository {
         List<Recipe> recipes,
         List<RecipeFulfillment> recipeFulfillments,
         List<RecipePosition> recipePositions,
-        List<Product> products,
-        List<QuantityUnit> quantityUnits,
+        Snapshot snapshot,
         List<ProductLastPurchased> productsLastPurchased,
         List<MealPlanEntry> mealPlanEntries,
         List<MealPlanSection> mealPlanSections,
@@ -79,8 +85,7 @@ public class MealPlanRepository {
       this.recipes = recipes;
       this.recipeFulfillments = recipeFulfillments;
       this.recipePositions = recipePositions;
-      this.products = products;
-      this.quantityUnits = quantityUnits;
+      this.snapshot = snapshot;
       this.productsLastPurchased = productsLastPurchased;
       this.mealPlanEntries = mealPlanEntries;
       this.mealPlanSections = mealPlanSections;
@@ -101,11 +106,19 @@ public class MealPlanRepository {
     }
 
     public List<Product> getProducts() {
-      return products;
+      return snapshot.getProducts();
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return snapshot.getProductHashMap();
     }
 
     public List<QuantityUnit> getQuantityUnits() {
-      return quantityUnits;
+      return snapshot.getQuantityUnits();
+    }
+
+    public HashMap<Integer, QuantityUnit> getQuantityUnitHashMap() {
+      return snapshot.getQuantityUnitHashMap();
     }
 
     public List<ProductLastPurchased> getProductsLastPurchased() {
@@ -129,16 +142,25 @@ public class MealPlanRepository {
     }
   }
 
-  public void loadFromDatabase(MealPlanDataListener onSuccess, Consumer<Throwable> onError) {
-    RxJavaUtil
+  /**
+   * Loads everything the meal plan needs, but only the entries between windowStart and
+   * windowEnd (both inclusive).
+   */
+  public void loadFromDatabase(
+      LocalDate windowStart,
+      LocalDate windowEnd,
+      MealPlanDataListener onSuccess,
+      Consumer<Throwable> onError
+  ) {
+    Single
         .zip(
             appDatabase.recipeDao().getRecipes(),
             appDatabase.recipeFulfillmentDao().getRecipeFulfillments(),
             appDatabase.recipePositionDao().getRecipePositions(),
-            appDatabase.productDao().getProducts(),
-            appDatabase.quantityUnitDao().getQuantityUnits(),
+            EntityCache.getInstance().getSnapshot(appDatabase),
             appDatabase.productLastPurchasedDao().getProductsLastPurchased(),
-            appDatabase.mealPlanEntryDao().getMealPlanEntries(),
+            appDatabase.mealPlanEntryDao()
+                .getMealPlanEntries(windowStart.toString(), windowEnd.toString()),
             appDatabase.mealPlanSectionDao().getMealPlanSections(),
             appDatabase.stockItemDao().getStockItems(),
             appDatabase.userfieldDao().getUserfields(),
@@ -151,4 +173,20 @@ public class MealPlanRepository {
         .onErrorComplete()
         .subscribe();
   }
+
+  public void loadMealPlanEntries(
+      LocalDate windowStart,
+      LocalDate windowEnd,
+      MealPlanEntriesListener onSuccess,
+      Consumer<Throwable> onError
+  ) {
+    appDatabase.mealPlanEntryDao()
+        .getMealPlanEntries(windowStart.toString(), windowEnd.toString())
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doOnSuccess(onSuccess::actionFinished)
+        .doOnError(onError)
+        .onErrorComplete()
+        .subscribe();
+  }
 }
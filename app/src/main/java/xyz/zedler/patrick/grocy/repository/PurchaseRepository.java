@@ -22,21 +22,24 @@ package xyz.zedler.patrick.grocy.repository;
 
 import android.app.Application;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndex;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.PendingProduct;
 import xyz.zedler.patrick.grocy.model.PendingProductBarcode;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.model.StoredPurchase;
-import xyz.zedler.patrick.grocy.util.RxJavaUtil;
+import xyz.zedler.patrick.grocy.repository.EntityCache.Snapshot;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class PurchaseRepository {
 
@@ -52,43 +55,38 @@ public class PurchaseRepository {
 
   public static class PurchaseData {
 
-    private final List<Product> products;
+    private final Snapshot snapshot;
     private final List<PendingProduct> pendingProducts;
     private final List<ProductBarcode> barcodes;
     private final List<PendingProductBarcode> pendingProductBarcodes;
-    private final List<QuantityUnit> quantityUnits;
-    private final List<QuantityUnitConversionResolved> quantityUnitConversions;
     private final List<Store> stores;
-    private final List<Location> locations;
     private final List<ShoppingListItem> shoppingListItems;
     private final List<StoredPurchase> storedPurchases;
 
     public PurchaseData(
-        List<Product> products,
+        Snapshot snapshot,
         List<PendingProduct> pendingProducts,
         List<ProductBarcode> barcodes,
         List<PendingProductBarcode> pendingProductBarcodes,
-        List<QuantityUnit> quantityUnits,
-        List<QuantityUnitConversionResolved> quantityUnitConversions,
         List<Store> stores,
-        List<Location> locations,
         List<ShoppingListItem> shoppingListItems,
         List<StoredPurchase> storedPurchases
     ) {
-      this.products = products;
+      this.snapshot = snapshot;
       this.pendingProducts = pendingProducts;
       this.barcodes = barcodes;
       this.pendingProductBarcodes = pendingProductBarcodes;
-      this.quantityUnits = quantityUnits;
-      this.quantityUnitConversions = quantityUnitConversions;
       this.stores = stores;
-      this.locations = locations;
       this.shoppingListItems = shoppingListItems;
       this.storedPurchases = storedPurchases;
     }
 
     public List<Product> getProducts() {
-      return products;
+      return snapshot.getProducts();
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return snapshot.getProductHashMap();
     }
 
     public List<PendingProduct> getPendingProducts() {
@@ -104,11 +102,15 @@ public class PurchaseRepository {
     }
 
     public List<QuantityUnit> getQuantityUnits() {
-      return quantityUnits;
+      return snapshot.getQuantityUnits();
+    }
+
+    public HashMap<Integer, QuantityUnit> getQuantityUnitHashMap() {
+      return snapshot.getQuantityUnitHashMap();
     }
 
-    public List<QuantityUnitConversionResolved> getQuantityUnitConversionsResolved() {
-      return quantityUnitConversions;
+    public QuantityUnitConversionIndex getUnitConversionIndex() {
+      return snapshot.getUnitConversionIndex();
     }
 
     public List<Store> getStores() {
@@ -116,7 +118,7 @@ public class PurchaseRepository {
     }
 
     public List<Location> getLocations() {
-      return locations;
+      return snapshot.getLocations();
     }
 
     public List<ShoppingListItem> getShoppingListItems() {
@@ -129,16 +131,13 @@ public class PurchaseRepository {
   }
 
   public void loadFromDatabase(DataListener onSuccess, Consumer<Throwable> onError) {
-    RxJavaUtil
+    Single
         .zip(
-            appDatabase.productDao().getProducts(),
+            EntityCache.getInstance().getSnapshot(appDatabase),
             appDatabase.pendingProductDao().getPendingProducts(),
             appDatabase.productBarcodeDao().getProductBarcodes(),
             appDatabase.pendingProductBarcodeDao().getProductBarcodes(),
-            appDatabase.quantityUnitDao().getQuantityUnits(),
-            appDatabase.quantityUnitConversionResolvedDao().getConversionsResolved(),
             appDatabase.storeDao().getStores(),
-            appDatabase.locationDao().getLocations(),
             appDatabase.shoppingListItemDao().getShoppingListItems(),
             appDatabase.storedPurchaseDao().getStoredPurchases(),
             PurchaseData::new
@@ -153,6 +152,10 @@ public class PurchaseRepository {
 
   public void insertPendingProduct(PendingProduct pendingProduct) {
     appDatabase.pendingProductDao().insertPendingProduct(pendingProduct)
+        .doOnSuccess(id -> {
+          pendingProduct.setId(id.intValue());
+          BarcodeIndex.getInstance().putPendingProduct(pendingProduct);
+        })
         .subscribeOn(Schedulers.io()).subscribe();
   }
 
@@ -179,6 +182,7 @@ public class PurchaseRepository {
   }
 
   public void insertPendingProductBarcode(PendingProductBarcode barcode, Runnable onFinished) {
+    BarcodeIndex.getInstance().putPendingProductBarcode(barcode);
     appDatabase.pendingProductBarcodeDao()
         .insertProductBarcode(barcode)
         .subscribeOn(Schedulers.io())
@@ -24,18 +24,22 @@ import android.app.Application;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
 import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.Recipe;
 import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
+import xyz.zedler.patrick.grocy.model.RecipeNestingResolved;
 import xyz.zedler.patrick.grocy.model.RecipePosition;
 import xyz.zedler.patrick.grocy.model.RecipePositionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.Userfield;
+import xyz.zedler.patrick.grocy.repository.EntityCache.Snapshot;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.RxJavaUtil;
 
 public class RecipesRepository {
@@ -57,11 +61,11 @@ public class RecipesRepository {
     private final List<RecipeFulfillment> recipeFulfillments;
     private final List<RecipePosition> recipePositions;
     private final List<RecipePositionResolved> recipePositionsResolved;
-    private final List<Product> products;
-    private final List<QuantityUnit> quantityUnits;
-    private final List<QuantityUnitConversionResolved> quantityUnitConversions;
+    private final List<RecipeNestingResolved> recipeNestingsResolved;
+    private final Snapshot snapshot;
     private final List<StockItem> stockItems;
     private final List<ShoppingListItem> shoppingListItems;
+    private final List<ProductLastPurchased> productsLastPurchased;
     private final List<Userfield> userfields;
 
     public RecipesData(
@@ -69,22 +73,22 @@ public class RecipesRepository {
         List<RecipeFulfillment> recipeFulfillments,
         List<RecipePosition> recipePositions,
         List<RecipePositionResolved> recipePositionsResolved,
-        List<Product> products,
-        List<QuantityUnit> quantityUnits,
-        List<QuantityUnitConversionResolved> quantityUnitConversions,
+        List<RecipeNestingResolved> recipeNestingsResolved,
+        Snapshot snapshot,
         List<StockItem> stockItems,
         List<ShoppingListItem> shoppingListItems,
+        List<ProductLastPurchased> productsLastPurchased,
         List<Userfield> userfields
     ) {
       this.recipes = recipes;
       this.recipeFulfillments = recipeFulfillments;
       this.recipePositions = recipePositions;
       this.recipePositionsResolved = recipePositionsResolved;
-      this.products = products;
-      this.quantityUnits = quantityUnits;
-      this.quantityUnitConversions = quantityUnitConversions;
+      this.recipeNestingsResolved = recipeNestingsResolved;
+      this.snapshot = snapshot;
       this.stockItems = stockItems;
       this.shoppingListItems = shoppingListItems;
+      this.productsLastPurchased = productsLastPurchased;
       this.userfields = userfields;
     }
 
@@ -104,16 +108,24 @@ public class RecipesRepository {
       return recipePositionsResolved;
     }
 
+    public List<RecipeNestingResolved> getRecipeNestingsResolved() {
+      return recipeNestingsResolved;
+    }
+
     public List<Product> getProducts() {
-      return products;
+      return snapshot.getProducts();
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return snapshot.getProductHashMap();
     }
 
     public List<QuantityUnit> getQuantityUnits() {
-      return quantityUnits;
+      return snapshot.getQuantityUnits();
     }
 
-    public List<QuantityUnitConversionResolved> getQuantityUnitConversionsResolved() {
-      return quantityUnitConversions;
+    public QuantityUnitConversionIndex getUnitConversionIndex() {
+      return snapshot.getUnitConversionIndex();
     }
 
     public List<StockItem> getStockItems() {
@@ -124,6 +136,10 @@ public class RecipesRepository {
       return shoppingListItems;
     }
 
+    public List<ProductLastPurchased> getProductsLastPurchased() {
+      return productsLastPurchased;
+    }
+
     public List<Userfield> getUserfields() {
       return userfields;
     }
@@ -136,11 +152,11 @@ public class RecipesRepository {
             appDatabase.recipeFulfillmentDao().getRecipeFulfillments(),
             appDatabase.recipePositionDao().getRecipePositions(),
             appDatabase.recipePositionResolvedDao().getRecipePositionsResolved(),
-            appDatabase.productDao().getProducts(),
-            appDatabase.quantityUnitDao().getQuantityUnits(),
-            appDatabase.quantityUnitConversionResolvedDao().getConversionsResolved(),
+            appDatabase.recipeNestingDao().getRecipeNestingsResolved(),
+            EntityCache.getInstance().getSnapshot(appDatabase),
             appDatabase.stockItemDao().getStockItems(),
             appDatabase.shoppingListItemDao().getShoppingListItems(),
+            appDatabase.productLastPurchasedDao().getProductsLastPurchased(),
             appDatabase.userfieldDao().getUserfields(),
             RecipesData::new
         )
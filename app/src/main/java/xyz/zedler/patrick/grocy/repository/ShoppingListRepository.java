@@ -26,6 +26,7 @@ import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
 import xyz.zedler.patrick.grocy.model.MissingItem;
@@ -33,10 +34,11 @@ import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.Store;
+import xyz.zedler.patrick.grocy.repository.EntityCache.Snapshot;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class ShoppingListRepository {
 
@@ -56,9 +58,7 @@ public class ShoppingListRepository {
     private final List<ShoppingListItem> shoppingListItems;
     private final List<ShoppingList> shoppingLists;
     private final List<ProductGroup> productGroups;
-    private final List<QuantityUnit> quantityUnits;
-    private final List<QuantityUnitConversionResolved> unitConversions;
-    private final List<Product> products;
+    private final Snapshot snapshot;
     private final List<ProductLastPurchased> productsLastPurchased;
     private final List<Store> stores;
     private final List<MissingItem> missingItems;
@@ -67,9 +67,7 @@ public class ShoppingListRepository {
         List<ShoppingListItem> shoppingListItems,
         List<ShoppingList> shoppingLists,
         List<ProductGroup> productGroups,
-        List<QuantityUnit> quantityUnits,
-        List<QuantityUnitConversionResolved> unitConversions,
-        List<Product> products,
+        Snapshot snapshot,
         List<ProductLastPurchased> productsLastPurchased,
         List<Store> stores,
         List<MissingItem> missingItems
@@ -77,9 +75,7 @@ public class ShoppingListRepository {
       this.shoppingListItems = shoppingListItems;
       this.shoppingLists = shoppingLists;
       this.productGroups = productGroups;
-      this.quantityUnits = quantityUnits;
-      this.unitConversions = unitConversions;
-      this.products = products;
+      this.snapshot = snapshot;
       this.productsLastPurchased = productsLastPurchased;
       this.stores = stores;
       this.missingItems = missingItems;
@@ -98,15 +94,23 @@ public class ShoppingListRepository {
     }
 
     public List<QuantityUnit> getQuantityUnits() {
-      return quantityUnits;
+      return snapshot.getQuantityUnits();
     }
 
-    public List<QuantityUnitConversionResolved> getUnitConversionsResolved() {
-      return unitConversions;
+    public HashMap<Integer, QuantityUnit> getQuantityUnitHashMap() {
+      return snapshot.getQuantityUnitHashMap();
+    }
+
+    public QuantityUnitConversionIndex getUnitConversionIndex() {
+      return snapshot.getUnitConversionIndex();
     }
 
     public List<Product> getProducts() {
-      return products;
+      return snapshot.getProducts();
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return snapshot.getProductHashMap();
     }
 
     public List<ProductLastPurchased> getProductsLastPurchased() {
@@ -128,9 +132,7 @@ public class ShoppingListRepository {
             appDatabase.shoppingListItemDao().getShoppingListItems(),
             appDatabase.shoppingListDao().getShoppingLists(),
             appDatabase.productGroupDao().getProductGroups(),
-            appDatabase.quantityUnitDao().getQuantityUnits(),
-            appDatabase.quantityUnitConversionResolvedDao().getConversionsResolved(),
-            appDatabase.productDao().getProducts(),
+            EntityCache.getInstance().getSnapshot(appDatabase),
             appDatabase.productLastPurchasedDao().getProductsLastPurchased(),
             appDatabase.storeDao().getStores(),
             appDatabase.missingItemDao().getMissingItems(),
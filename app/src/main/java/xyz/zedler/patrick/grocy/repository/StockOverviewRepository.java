@@ -24,6 +24,7 @@ import android.app.Application;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
 import xyz.zedler.patrick.grocy.model.Location;
@@ -34,12 +35,13 @@ import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.StockLocation;
 import xyz.zedler.patrick.grocy.model.Userfield;
 import xyz.zedler.patrick.grocy.model.VolatileItem;
+import xyz.zedler.patrick.grocy.repository.EntityCache.Snapshot;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.RxJavaUtil;
 
 public class StockOverviewRepository {
@@ -56,47 +58,38 @@ public class StockOverviewRepository {
 
   public static class StockOverviewData {
 
-    private final List<QuantityUnit> quantityUnits;
-    private final List<QuantityUnitConversionResolved> quantityUnitConversions;
+    private final Snapshot snapshot;
     private final List<ProductGroup> productGroups;
     private final List<StockItem> stockItems;
-    private final List<Product> products;
     private final List<ProductAveragePrice> productsAveragePrice;
     private final List<ProductLastPurchased> productsLastPurchased;
     private final List<ProductBarcode> productBarcodes;
     private final List<ShoppingListItem> shoppingListItems;
-    private final List<Location> locations;
     private final List<StockLocation> stockCurrentLocations;
     private final List<VolatileItem> volatileItems;
     private final List<MissingItem> missingItems;
     private final List<Userfield> userfields;
 
     public StockOverviewData(
-        List<QuantityUnit> quantityUnits,
-        List<QuantityUnitConversionResolved> quantityUnitConversions,
+        Snapshot snapshot,
         List<ProductGroup> productGroups,
         List<StockItem> stockItems,
-        List<Product> products,
         List<ProductAveragePrice> productsAveragePrice,
         List<ProductLastPurchased> productsLastPurchased,
         List<ProductBarcode> productBarcodes,
         List<ShoppingListItem> shoppingListItems,
-        List<Location> locations,
         List<StockLocation> stockCurrentLocations,
         List<VolatileItem> volatileItems,
         List<MissingItem> missingItems,
         List<Userfield> userfields
     ) {
-      this.quantityUnits = quantityUnits;
-      this.quantityUnitConversions = quantityUnitConversions;
+      this.snapshot = snapshot;
       this.productGroups = productGroups;
       this.stockItems = stockItems;
-      this.products = products;
       this.productsAveragePrice = productsAveragePrice;
       this.productsLastPurchased = productsLastPurchased;
       this.productBarcodes = productBarcodes;
       this.shoppingListItems = shoppingListItems;
-      this.locations = locations;
       this.stockCurrentLocations = stockCurrentLocations;
       this.volatileItems = volatileItems;
       this.missingItems = missingItems;
@@ -104,11 +97,15 @@ public class StockOverviewRepository {
     }
 
     public List<QuantityUnit> getQuantityUnits() {
-      return quantityUnits;
+      return snapshot.getQuantityUnits();
     }
 
-    public List<QuantityUnitConversionResolved> getQuantityUnitConversions() {
-      return quantityUnitConversions;
+    public HashMap<Integer, QuantityUnit> getQuantityUnitHashMap() {
+      return snapshot.getQuantityUnitHashMap();
+    }
+
+    public QuantityUnitConversionIndex getUnitConversionIndex() {
+      return snapshot.getUnitConversionIndex();
     }
 
     public List<ProductGroup> getProductGroups() {
@@ -120,7 +117,11 @@ public class StockOverviewRepository {
     }
 
     public List<Product> getProducts() {
-      return products;
+      return snapshot.getProducts();
+    }
+
+    public HashMap<Integer, Product> getProductHashMap() {
+      return snapshot.getProductHashMap();
     }
 
     public List<ProductAveragePrice> getProductsAveragePrice() {
@@ -140,7 +141,11 @@ public class StockOverviewRepository {
     }
 
     public List<Location> getLocations() {
-      return locations;
+      return snapshot.getLocations();
+    }
+
+    public HashMap<Integer, Location> getLocationHashMap() {
+      return snapshot.getLocationHashMap();
     }
 
     public List<StockLocation> getStockCurrentLocations() {
@@ -163,16 +168,13 @@ public class StockOverviewRepository {
   public void loadFromDatabase(StockOverviewDataListener onSuccess, Consumer<Throwable> onError) {
     RxJavaUtil
         .zip(
-            appDatabase.quantityUnitDao().getQuantityUnits(),
-            appDatabase.quantityUnitConversionResolvedDao().getConversionsResolved(),
+            EntityCache.getInstance().getSnapshot(appDatabase),
             appDatabase.productGroupDao().getProductGroups(),
             appDatabase.stockItemDao().getStockItems(),
-            appDatabase.productDao().getProducts(),
             appDatabase.productAveragePriceDao().getProductsAveragePrice(),
             appDatabase.productLastPurchasedDao().getProductsLastPurchased(),
             appDatabase.productBarcodeDao().getProductBarcodes(),
             appDatabase.shoppingListItemDao().getShoppingListItems(),
-            appDatabase.locationDao().getLocations(),
             appDatabase.stockLocationDao().getStockLocations(),
             appDatabase.volatileItemDao().getVolatileItems(),
             appDatabase.missingItemDao().getMissingItems(),
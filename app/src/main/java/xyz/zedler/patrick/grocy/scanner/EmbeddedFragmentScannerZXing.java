@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.scanner;
 
 import android.content.SharedPreferences;
 import android.graphics.Color;
-import android.os.Handler;
 import android.preference.PreferenceManager;
 import android.view.Gravity;
 import android.view.ViewGroup;
@@ -33,8 +32,8 @@ import androidx.coordinatorlayout.widget.CoordinatorLayout;
 import androidx.coordinatorlayout.widget.CoordinatorLayout.LayoutParams;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.LiveData;
+import com.google.zxing.Result;
 import com.google.zxing.integration.android.IntentIntegrator;
-import com.journeyapps.barcodescanner.BarcodeResult;
 import com.journeyapps.barcodescanner.DecoratedBarcodeView;
 import com.journeyapps.barcodescanner.DecoratedBarcodeView.TorchListener;
 import com.journeyapps.barcodescanner.camera.CameraSettings;
@@ -46,6 +45,7 @@ import xyz.zedler.patrick.grocy.Constants.SETTINGS.SCANNER;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.scanner.ZXingScanCaptureManager.BarcodeListener;
+import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.UiUtil;
 
 public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implements
@@ -140,15 +140,18 @@ public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implem
     cameraSettings.setRequestedCameraId(useFrontCam ? 1 : 0);
     cameraSettings.setFocusMode(FocusMode.CONTINUOUS);
 
+    String[] enabledBarcodeFormats = getEnabledBarcodeFormats();
     IntentIntegrator integrator = new IntentIntegrator(fragment.requireActivity());
-    integrator.setDesiredBarcodeFormats(getEnabledBarcodeFormats());
+    integrator.setDesiredBarcodeFormats(enabledBarcodeFormats);
     barcodeView.initializeFromIntent(integrator.createScanIntent());
 
     barcodeView.getBarcodeView().setCameraSettings(cameraSettings);
     capture = new ZXingScanCaptureManager(
         fragment.requireActivity(),
         barcodeView,
-        this
+        this,
+        ZXingFrameDecoder.getBarcodeFormats(enabledBarcodeFormats),
+        PrefsUtil.isDebuggingEnabled(sharedPreferences)
     );
   }
 
@@ -204,7 +207,16 @@ public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implem
   public void startScannerIfVisible() {
     if (!isScannerVisible) return;
     capture.onResume();
-    new Handler().postDelayed(capture::decode, 500);
+    // decoding starts with the first preview frame, so no delay is needed
+    capture.decode();
+  }
+
+  /**
+   * Time in ms from the arrival of the frame with the last result until the result was
+   * delivered, or -1 if nothing was scanned yet.
+   */
+  public long getLastDecodeLatencyMillis() {
+    return capture.getLastLatencyMillis();
   }
 
   public void toggleTorch() {
@@ -216,7 +228,7 @@ public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implem
   }
 
   @Override
-  public void onBarcodeResult(BarcodeResult result) {
+  public void onBarcodeResult(Result result) {
     if (result.getText().isEmpty()) {
       startScannerIfVisible();
       return;
@@ -0,0 +1,206 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.scanner;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.Result;
+import com.journeyapps.barcodescanner.Decoder;
+import com.journeyapps.barcodescanner.DecoderFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decoder for the camera frames of the embedded ZXing scanner. The decoder thread of the
+ * barcode view only prepares the frames with ZXingFrameReader and hands them to a small pool
+ * of workers, frames which arrive while all workers are busy are dropped instead of queued.
+ * Every start and stop begins a new generation. Frames are tagged with the generation they
+ * arrived in, so late results of a previous scan are dropped instead of delivered.
+ */
+public class ZXingFrameDecoder implements DecoderFactory {
+
+  private final static String TAG = ZXingFrameDecoder.class.getSimpleName();
+
+  private final List<BarcodeFormat> formats;
+  private final ResultListener resultListener;
+  private final int poolSize;
+  private volatile ExecutorService executor;
+  private final Handler handler;
+  private final AtomicInteger busyWorkers;
+  private final AtomicInteger generation;
+  // generation in which a result was delivered last, at most one result per generation
+  private final AtomicInteger deliveredGeneration;
+  private final boolean debug;
+  private volatile ZXingFrameReader frameReader;
+  private volatile long lastLatencyMillis = -1;
+  private volatile long startTime;
+  private volatile int droppedFrames;
+
+  public interface ResultListener {
+
+    void onResult(Result result);
+  }
+
+  public ZXingFrameDecoder(
+      @NonNull Collection<BarcodeFormat> formats,
+      @NonNull ResultListener resultListener,
+      boolean debug
+  ) {
+    this.formats = new ArrayList<>(formats);
+    this.resultListener = resultListener;
+    this.debug = debug;
+    poolSize = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() / 2));
+    handler = new Handler(Looper.getMainLooper());
+    busyWorkers = new AtomicInteger();
+    generation = new AtomicInteger();
+    deliveredGeneration = new AtomicInteger();
+  }
+
+  /**
+   * Converts the format names used by IntentIntegrator to barcode formats.
+   */
+  public static List<BarcodeFormat> getBarcodeFormats(String[] formatNames) {
+    List<BarcodeFormat> barcodeFormats = new ArrayList<>();
+    for (String formatName : formatNames) {
+      try {
+        barcodeFormats.add(BarcodeFormat.valueOf(formatName));
+      } catch (IllegalArgumentException ignored) {
+      }
+    }
+    return barcodeFormats;
+  }
+
+  @Override
+  public Decoder createDecoder(Map<DecodeHintType, ?> baseHints) {
+    frameReader = new ZXingFrameReader(formats, baseHints);
+    return new FrameDecoder(new MultiFormatReader());
+  }
+
+  /**
+   * Has to be called when decoding starts, results are only delivered once per start.
+   */
+  public void start() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(poolSize);
+    }
+    startTime = SystemClock.elapsedRealtime();
+    droppedFrames = 0;
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Stops the workers, pending results are not delivered anymore.
+   */
+  public void stop() {
+    generation.incrementAndGet();
+    handler.removeCallbacksAndMessages(null);
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Time in ms from the arrival of the frame with the last result until the result was
+   * delivered, or -1 if nothing was scanned yet.
+   */
+  public long getLastLatencyMillis() {
+    return lastLatencyMillis;
+  }
+
+  private void onFrame(LuminanceSource source) {
+    long frameTime = SystemClock.elapsedRealtime();
+    int frameGeneration = generation.get();
+    ExecutorService executor = this.executor;
+    if (executor == null || deliveredGeneration.get() == frameGeneration) return;
+    if (busyWorkers.get() >= poolSize) {
+      droppedFrames++;
+      return;
+    }
+    ZXingFrameReader frameReader = this.frameReader;
+    LuminanceSource preparedSource = frameReader.prepare(source);
+    busyWorkers.incrementAndGet();
+    try {
+      executor.execute(() -> {
+        try {
+          Result result = frameReader.decode(preparedSource);
+          if (result == null || !acceptResult(frameGeneration)) return;
+          handler.post(() -> {
+            // stop or start could have been called after the result was accepted
+            if (frameGeneration != generation.get()) return;
+            lastLatencyMillis = SystemClock.elapsedRealtime() - frameTime;
+            if (debug) {
+              Log.i(TAG, "onFrame: " + result.getBarcodeFormat() + " decoded in "
+                  + lastLatencyMillis + " ms after frame, "
+                  + (SystemClock.elapsedRealtime() - startTime) + " ms after start, "
+                  + droppedFrames + " frames dropped");
+            }
+            resultListener.onResult(result);
+          });
+        } finally {
+          busyWorkers.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // executor has been shut down in the meantime
+      busyWorkers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns true for the first result of the current generation only.
+   */
+  private boolean acceptResult(int frameGeneration) {
+    int delivered = deliveredGeneration.get();
+    return delivered != frameGeneration && frameGeneration == generation.get()
+        && deliveredGeneration.compareAndSet(delivered, frameGeneration);
+  }
+
+  private class FrameDecoder extends Decoder {
+
+    FrameDecoder(MultiFormatReader reader) {
+      super(reader);
+    }
+
+    /**
+     * Called on the decoder thread of the barcode view. Returns null in any case, so the
+     * next frame is requested immediately while the workers decode this one.
+     */
+    @Override
+    public Result decode(LuminanceSource source) {
+      onFrame(source);
+      return null;
+    }
+  }
+}
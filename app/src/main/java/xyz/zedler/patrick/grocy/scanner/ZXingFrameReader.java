@@ -0,0 +1,212 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.scanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decode path of the embedded ZXing scanner for single frames, without any Android classes,
+ * so it can also be tested on a plain JVM with recorded frames (see ZXingFrameReaderTest).
+ * Frames are cropped to the band around the scan line if only 1D formats are enabled and the
+ * luminance is downscaled if it is larger than needed. The format of the last successful scan
+ * is tried first, because the same kind of barcodes are usually scanned in a row.
+ * One instance can be used by multiple threads, every thread gets its own readers.
+ */
+public class ZXingFrameReader {
+
+  public final static int MAX_FRAME_SIZE = 1024;
+  public final static float ONE_D_BAND_FRACTION = 0.5f;
+
+  private final static String KEY_ALL = "all";
+  private final static String KEY_ONLY = "only_";
+  private final static String KEY_EXCEPT = "except_";
+
+  public final static EnumSet<BarcodeFormat> ONE_D_FORMATS = EnumSet.of(
+      BarcodeFormat.CODABAR,
+      BarcodeFormat.CODE_39,
+      BarcodeFormat.CODE_93,
+      BarcodeFormat.CODE_128,
+      BarcodeFormat.EAN_8,
+      BarcodeFormat.EAN_13,
+      BarcodeFormat.ITF,
+      BarcodeFormat.RSS_14,
+      BarcodeFormat.RSS_EXPANDED,
+      BarcodeFormat.UPC_A,
+      BarcodeFormat.UPC_E
+  );
+
+  // shared between scanner instances, so it is still known in the next scanning screen
+  private static volatile BarcodeFormat lastFormat;
+
+  private final EnumSet<BarcodeFormat> formats;
+  private final Map<DecodeHintType, ?> baseHints;
+  private final boolean cropToScanLine;
+  private final ThreadLocal<HashMap<String, MultiFormatReader>> readers;
+
+  public ZXingFrameReader(
+      Collection<BarcodeFormat> formats,
+      Map<DecodeHintType, ?> baseHints
+  ) {
+    this.formats = formats.isEmpty()
+        ? EnumSet.allOf(BarcodeFormat.class)
+        : EnumSet.copyOf(formats);
+    this.baseHints = baseHints;
+    cropToScanLine = ONE_D_FORMATS.containsAll(this.formats);
+    readers = new ThreadLocal<HashMap<String, MultiFormatReader>>() {
+      @Override
+      protected HashMap<String, MultiFormatReader> initialValue() {
+        return new HashMap<>();
+      }
+    };
+  }
+
+  public static void clearLastFormat() {
+    lastFormat = null;
+  }
+
+  public boolean isCroppingToScanLine() {
+    return cropToScanLine;
+  }
+
+  /**
+   * Crops the frame to the band around the scan line and downscales it to at most
+   * MAX_FRAME_SIZE. Always returns a copy, so the frame can be decoded asynchronously.
+   */
+  public LuminanceSource prepare(LuminanceSource source) {
+    if (cropToScanLine && source.isCropSupported()) {
+      int bandHeight = Math.max(1, Math.round(source.getHeight() * ONE_D_BAND_FRACTION));
+      source = source.crop(
+          0, (source.getHeight() - bandHeight) / 2, source.getWidth(), bandHeight
+      );
+    }
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminance = source.getMatrix();
+    int factor = 1;
+    while (Math.max(width, height) / factor > MAX_FRAME_SIZE) {
+      factor *= 2;
+    }
+    if (factor > 1) {
+      int scaledWidth = width / factor;
+      int scaledHeight = height / factor;
+      luminance = downscale(luminance, width, scaledWidth, scaledHeight, factor);
+      width = scaledWidth;
+      height = scaledHeight;
+    }
+    return new PlanarYUVLuminanceSource(
+        luminance, width, height, 0, 0, width, height, false
+    );
+  }
+
+  private static byte[] downscale(
+      byte[] luminance,
+      int width,
+      int scaledWidth,
+      int scaledHeight,
+      int factor
+  ) {
+    byte[] scaled = new byte[scaledWidth * scaledHeight];
+    int area = factor * factor;
+    for (int y = 0; y < scaledHeight; y++) {
+      for (int x = 0; x < scaledWidth; x++) {
+        int sum = 0;
+        for (int dy = 0; dy < factor; dy++) {
+          int offset = (y * factor + dy) * width + x * factor;
+          for (int dx = 0; dx < factor; dx++) {
+            sum += luminance[offset + dx] & 0xff;
+          }
+        }
+        scaled[y * scaledWidth + x] = (byte) (sum / area);
+      }
+    }
+    return scaled;
+  }
+
+  /**
+   * Decodes a frame returned by prepare. Returns null if no barcode was found.
+   */
+  public Result decode(LuminanceSource preparedSource) {
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(preparedSource));
+    BarcodeFormat preferredFormat = lastFormat;
+    Result result;
+    if (preferredFormat == null || formats.size() == 1 || !formats.contains(preferredFormat)) {
+      result = decode(getReader(KEY_ALL, formats), bitmap);
+    } else {
+      result = decode(
+          getReader(KEY_ONLY + preferredFormat, EnumSet.of(preferredFormat)), bitmap
+      );
+      if (result == null) {
+        EnumSet<BarcodeFormat> otherFormats = EnumSet.copyOf(formats);
+        otherFormats.remove(preferredFormat);
+        result = decode(getReader(KEY_EXCEPT + preferredFormat, otherFormats), bitmap);
+      }
+    }
+    if (result != null) {
+      lastFormat = result.getBarcodeFormat();
+    }
+    return result;
+  }
+
+  private static Result decode(MultiFormatReader reader, BinaryBitmap bitmap) {
+    try {
+      return reader.decodeWithState(bitmap);
+    } catch (ReaderException e) {
+      return null;
+    } finally {
+      reader.reset();
+    }
+  }
+
+  /**
+   * Readers are not thread-safe, so every thread has its own ones.
+   */
+  private MultiFormatReader getReader(String key, EnumSet<BarcodeFormat> readerFormats) {
+    HashMap<String, MultiFormatReader> threadReaders = readers.get();
+    MultiFormatReader reader = threadReaders.get(key);
+    if (reader == null) {
+      Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+      if (baseHints != null) {
+        hints.putAll(baseHints);
+      }
+      // result points would be delivered to the view from a worker thread
+      hints.remove(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+      hints.put(DecodeHintType.POSSIBLE_FORMATS, new ArrayList<>(readerFormats));
+      reader = new MultiFormatReader();
+      reader.setHints(hints);
+      threadReaders.put(key, reader);
+    }
+    return reader;
+  }
+}
@@ -32,12 +32,14 @@ import android.util.Log;
 import android.view.WindowManager;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Result;
 import com.google.zxing.client.android.InactivityTimer;
 import com.google.zxing.client.android.Intents;
 import com.journeyapps.barcodescanner.BarcodeCallback;
-import com.journeyapps.barcodescanner.BarcodeResult;
 import com.journeyapps.barcodescanner.CameraPreview;
 import com.journeyapps.barcodescanner.DecoratedBarcodeView;
+import java.util.Collection;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.util.HapticUtil;
 
@@ -63,29 +65,28 @@ public class ZXingScanCaptureManager {
 
   private final BarcodeListener barcodeListener;
 
-  public final BarcodeCallback callback = new BarcodeCallback() {
-    @Override
-    public void barcodeResult(final BarcodeResult result) {
-      new HapticUtil(activity).tick();
-      barcodeView.pause();
-      inactivityTimer.cancel();
-      barcodeListener.onBarcodeResult(result);
-    }
-  };
+  private final ZXingFrameDecoder frameDecoder;
+
+  // results are delivered by the frame decoder, the decoder thread itself never finds one
+  public final BarcodeCallback callback = result -> onResult(result.getResult());
 
   public interface BarcodeListener {
 
-    void onBarcodeResult(BarcodeResult result);
+    void onBarcodeResult(Result result);
   }
 
   public ZXingScanCaptureManager(
       Activity activity,
       DecoratedBarcodeView barcodeView,
-      BarcodeListener barcodeListener
+      BarcodeListener barcodeListener,
+      Collection<BarcodeFormat> barcodeFormats,
+      boolean debug
   ) {
     this.activity = activity;
     this.barcodeView = barcodeView;
     this.barcodeListener = barcodeListener;
+    frameDecoder = new ZXingFrameDecoder(barcodeFormats, this::onResult, debug);
+    barcodeView.getBarcodeView().setDecoderFactory(frameDecoder);
     barcodeView.getBarcodeView().addStateListener(
         new CameraPreview.StateListener() {
           @Override
@@ -125,13 +126,29 @@ public class ZXingScanCaptureManager {
     });
   }
 
+  private void onResult(Result result) {
+    new HapticUtil(activity).tick();
+    barcodeView.pause();
+    inactivityTimer.cancel();
+    barcodeListener.onBarcodeResult(result);
+  }
+
   /**
    * Start decoding.
    */
   public void decode() {
+    frameDecoder.start();
     barcodeView.decodeSingle(callback);
   }
 
+  /**
+   * Time in ms from the arrival of the frame with the last result until the result was
+   * delivered, or -1 if nothing was scanned yet.
+   */
+  public long getLastLatencyMillis() {
+    return frameDecoder.getLastLatencyMillis();
+  }
+
   /**
    * Call from Activity#onResume().
    */
@@ -204,6 +221,7 @@ public class ZXingScanCaptureManager {
     destroyed = true;
     inactivityTimer.cancel();
     handler.removeCallbacksAndMessages(null);
+    frameDecoder.stop();
   }
 
   private void finish() {
@@ -24,12 +24,10 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import java.util.HashMap;
-import java.util.List;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductDetails;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.StockEntry;
 import xyz.zedler.patrick.grocy.model.StockItem;
@@ -40,8 +38,7 @@ public class AmountUtil {
       ShoppingListItem item,
       HashMap<Integer, Product> productHashMap,
       HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      List<QuantityUnitConversionResolved> unitConversions,
-      boolean isServerVersionMin400
+      QuantityUnitConversionIndex unitConversionIndex
   ) {
     if (!item.hasProduct()) {
       return null;
@@ -54,8 +51,7 @@ public class AmountUtil {
     if (stock == null || purchase == null) {
       return null;
     }
-    HashMap<QuantityUnit, Double> unitFactors = QuantityUnitConversionUtil
-        .getUnitFactors(quantityUnitHashMap, unitConversions, product, isServerVersionMin400);
+    HashMap<QuantityUnit, Double> unitFactors = unitConversionIndex.getUnitFactors(product);
     Double factor = unitFactors.get(quantityUnitHashMap.get(item.getQuIdInt()));
     return factor != null ? item.getAmountDouble() * factor : item.getAmountDouble();
   }
@@ -67,30 +67,30 @@ public class ArrayUtil {
     return productNamesHashMap;
   }
 
-  public static HashMap<Integer, ProductLastPurchased> getProductLastPurchasedHashMap(
+  public static IntObjectMap<ProductLastPurchased> getProductLastPurchasedHashMap(
       List<ProductLastPurchased> productsLastPurchased
   ) {
-    HashMap<Integer, ProductLastPurchased> hashMap = new HashMap<>();
-    if (productsLastPurchased == null) return hashMap;
+    if (productsLastPurchased == null) return new IntObjectMap<>();
+    IntObjectMap<ProductLastPurchased> hashMap = new IntObjectMap<>(productsLastPurchased.size());
     for (ProductLastPurchased p : productsLastPurchased) {
       hashMap.put(p.getProductId(), p);
     }
     return hashMap;
   }
 
-  public static HashMap<Integer, String> getProductAveragePriceHashMap(
+  public static IntObjectMap<String> getProductAveragePriceHashMap(
       List<ProductAveragePrice> productsAveragePrice
   ) {
-    HashMap<Integer, String> hashMap = new HashMap<>();
-    if (productsAveragePrice == null) return hashMap;
+    if (productsAveragePrice == null) return new IntObjectMap<>();
+    IntObjectMap<String> hashMap = new IntObjectMap<>(productsAveragePrice.size());
     for (ProductAveragePrice p : productsAveragePrice) {
-      hashMap.put(p.getProductId(), p.getPrice());
+      if (p.getPrice() != null) hashMap.put(p.getProductId(), p.getPrice());
     }
     return hashMap;
   }
 
-  public static ArrayList<Integer> getMissingProductsIds(List<MissingItem> missingItems) {
-    ArrayList<Integer> missingProductIds = new ArrayList<>();
+  public static IntSet getMissingProductsIds(List<MissingItem> missingItems) {
+    IntSet missingProductIds = new IntSet(missingItems.size());
     for (MissingItem missingItem : missingItems) {
       missingProductIds.add(missingItem.getId());
     }
@@ -246,21 +246,6 @@ public class ArrayUtil {
     return recipeFulfillmentHashMap;
   }
 
-  public static HashMap<String, RecipeFulfillment> getRecipeResolvedFulfillmentForMealplanHashMap(
-      HashMap<Integer, RecipeFulfillment> recipeFulfillmentHashMap,
-      List<Recipe> recipes
-  ) {
-    HashMap<String, RecipeFulfillment> resolvedFulfillments = new HashMap<>();
-    for (Recipe recipe : recipes) {
-      if (recipe.getId() >= 0) {
-        continue;
-      }
-      RecipeFulfillment recipeFulfillment = recipeFulfillmentHashMap.get(recipe.getId());
-      resolvedFulfillments.put(recipe.getName(), recipeFulfillment);
-    }
-    return resolvedFulfillments;
-  }
-
   public static HashMap<String, List<MealPlanEntry>> getMealPlanEntriesForDayHashMap(
       List<MealPlanEntry> mealPlanEntries
   ) {
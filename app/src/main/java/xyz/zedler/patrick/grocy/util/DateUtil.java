@@ -23,15 +23,18 @@ package xyz.zedler.patrick.grocy.util;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import androidx.annotation.Nullable;
+import java.text.ParsePosition;
 import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.WeekFields;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.DATE;
 import xyz.zedler.patrick.grocy.Constants.PREF;
@@ -46,15 +49,24 @@ public class DateUtil {
   public static final int FORMAT_SHORT = 0;
   public static final int FORMAT_SHORT_WITH_TIME = 3;
 
-  public static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat(
+  // returned for dates which are empty or can't be parsed
+  public static final int NO_EPOCH_DAY = Integer.MIN_VALUE;
+
+  // DateTimeFormatter is immutable and can be shared between threads
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(
       "yyyy-MM-dd", Locale.ENGLISH
   );
-  private static final SimpleDateFormat DATE_FORMAT_WITH_TIME = new SimpleDateFormat(
+  private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(
       "yyyy-MM-dd HH:mm:ss", Locale.ENGLISH
   );
-  private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat(
+  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(
       "HH:mm:ss", Locale.ENGLISH
   );
+
+  private static final Object TODAY_LOCK = new Object();
+  private static volatile int todayEpochDay;
+  private static volatile long nextMidnightMillis;
+
   private final Context context;
 
   public DateUtil(Context context) {
@@ -65,87 +77,118 @@ public class DateUtil {
     if (dateString == null || dateString.isEmpty()) {
       return null;
     }
-    Date date = null;
     try {
-      date = dateString.split(" ").length == 2
-          ? DATE_FORMAT_WITH_TIME.parse(dateString)
-          : DATE_FORMAT.parse(dateString);
-    } catch (ParseException e) {
-      Log.e(TAG, "getDate: ");
+      LocalDateTime dateTime = isDateWithTime(dateString)
+          ? LocalDateTime.from(DATE_TIME_FORMATTER.parse(dateString, new ParsePosition(0)))
+          : LocalDate.from(DATE_FORMATTER.parse(dateString, new ParsePosition(0)))
+              .atStartOfDay();
+      return new Date(dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    } catch (RuntimeException e) {
+      Log.e(TAG, "getDate: " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the day of the given date (yyyy-MM-dd, time is ignored) counted from 1970-01-01,
+   * or NO_EPOCH_DAY if the date is empty or invalid. The digits are read directly without
+   * splitting or formatter, because this is called for every item of long lists.
+   */
+  public static int getEpochDay(@Nullable String dateString) {
+    if (dateString == null || dateString.length() < 10
+        || dateString.charAt(4) != '-' || dateString.charAt(7) != '-') {
+      return NO_EPOCH_DAY;
+    }
+    int year = parseDigits(dateString, 0, 4);
+    int month = parseDigits(dateString, 5, 7);
+    int day = parseDigits(dateString, 8, 10);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+      return NO_EPOCH_DAY;
+    }
+    try {
+      return (int) LocalDate.of(year, month, day).toEpochDay();
+    } catch (RuntimeException e) {
+      return NO_EPOCH_DAY;
     }
-    return date;
+  }
+
+  /**
+   * Returns the epoch day of today. The value is cached and only calculated again after
+   * midnight, so it can be used in loops over many items.
+   */
+  public static int getTodayEpochDay() {
+    if (System.currentTimeMillis() >= nextMidnightMillis) {
+      synchronized (TODAY_LOCK) {
+        if (System.currentTimeMillis() >= nextMidnightMillis) {
+          LocalDate today = LocalDate.now();
+          todayEpochDay = (int) today.toEpochDay();
+          nextMidnightMillis = today.plusDays(1).atStartOfDay(ZoneId.systemDefault())
+              .toInstant().toEpochMilli();
+        }
+      }
+    }
+    return todayEpochDay;
+  }
+
+  public static int getDaysFromToday(int epochDay) {
+    return epochDay != NO_EPOCH_DAY ? epochDay - getTodayEpochDay() : 0;
   }
 
   public static String getDateStringToday() {
-    return DATE_FORMAT.format(getCurrentDate());
+    return LocalDate.now().format(DATE_FORMATTER);
+  }
+
+  public static String getDateString(long epochMillis) {
+    return Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault())
+        .toLocalDate().format(DATE_FORMATTER);
   }
 
   public static int getDaysFromNow(String dateString) {
+    if (dateString == null || dateString.isEmpty()) return 0;
+    if (!isDateWithTime(dateString)) {
+      return getDaysFromToday(getEpochDay(dateString));
+    }
+    // with time, only full days are counted (rounded towards zero)
     Date date = getDate(dateString);
     if (date == null) return 0;
-    long diff = date.getTime() - getCurrentDate().getTime();
-    return (int) TimeUnit.DAYS.convert(diff, TimeUnit.MILLISECONDS);
+    long todayMillis = LocalDate.now().atStartOfDay(ZoneId.systemDefault())
+        .toInstant().toEpochMilli();
+    return (int) ((date.getTime() - todayMillis) / (24 * 60 * 60 * 1000L));
   }
 
   public static String getTodayWithDaysAdded(int daysToAdd) {
-    Calendar calendar = Calendar.getInstance();
-    calendar.add(Calendar.DAY_OF_MONTH, daysToAdd);
-    return DATE_FORMAT.format(calendar.getTime());
+    return LocalDate.now().plusDays(daysToAdd).format(DATE_FORMATTER);
   }
 
   public static String getDateWithDaysAdded(String dateString, int daysToAdd) {
-    Date date = getDate(dateString);
-    if (date == null) return dateString;
-    Calendar calendar = Calendar.getInstance();
-    calendar.setTime(date);
-    calendar.add(Calendar.DAY_OF_MONTH, daysToAdd);
-    return DATE_FORMAT.format(calendar.getTime());
-  }
-
-  private static Date getCurrentDate() {
-    Calendar cal = Calendar.getInstance();
-    cal.set(Calendar.HOUR_OF_DAY, 0);
-    cal.set(Calendar.MINUTE, 0);
-    cal.set(Calendar.SECOND, 0);
-    cal.set(Calendar.MILLISECOND, 0);
-    return cal.getTime();
+    int epochDay = getEpochDay(dateString);
+    if (epochDay == NO_EPOCH_DAY) return dateString;
+    return LocalDate.ofEpochDay((long) epochDay + daysToAdd).format(DATE_FORMATTER);
   }
 
   public static Date getCurrentDateWithTime() {
-    Calendar cal = Calendar.getInstance();
-    cal.set(Calendar.MILLISECOND, 0);
-    return cal.getTime();
+    return new Date(System.currentTimeMillis() / 1000 * 1000);
   }
 
   public String getCurrentDateWithTimeStr() {
-    Calendar cal = Calendar.getInstance();
-    cal.set(Calendar.MILLISECOND, 0);
-    return DATE_FORMAT_WITH_TIME.format(cal.getTime());
+    return LocalDateTime.now().format(DATE_TIME_FORMATTER);
   }
 
   public String getCurrentDateWithoutTimeStr() {
-    Calendar cal = Calendar.getInstance();
-    cal.set(Calendar.MILLISECOND, 0);
-    return DATE_FORMAT.format(cal.getTime());
+    return LocalDate.now().format(DATE_FORMATTER);
   }
 
   public boolean isTimeLessThanOneMinuteAway(String dateWithTimeStr) {
     if (dateWithTimeStr == null) {
       return true;
     }
-    Date currentDateWithTime = getCurrentDateWithTime();
-    Date askedDateWithTime = null;
-    try {
-      askedDateWithTime = DATE_FORMAT_WITH_TIME.parse(dateWithTimeStr);
-    } catch (ParseException e) {
-      Log.e(TAG, "isTimeMoreThanOneMinuteAway: " + e);
-    }
+    Date askedDateWithTime = isDateWithTime(dateWithTimeStr) ? getDate(dateWithTimeStr) : null;
     if (askedDateWithTime == null) {
+      Log.e(TAG, "isTimeMoreThanOneMinuteAway: could not parse " + dateWithTimeStr);
       return true;
     }
-    long diff = currentDateWithTime.getTime() - askedDateWithTime.getTime();
-    long secondsDiff = TimeUnit.SECONDS.convert(diff, TimeUnit.MILLISECONDS);
-    return Math.abs(secondsDiff) < 60;
+    long diff = getCurrentDateWithTime().getTime() - askedDateWithTime.getTime();
+    return Math.abs(diff / 1000) < 60;
   }
 
   public String getLocalizedDate(String dateString, int format) {
@@ -155,14 +198,7 @@ public class DateUtil {
     if (dateString.equals(DATE.NEVER_OVERDUE)) {
       return context.getString(R.string.subtitle_never_overdue);
     }
-    Date date = null;
-    try {
-      date = dateString.split(" ").length == 2
-          ? DATE_FORMAT_WITH_TIME.parse(dateString)
-          : DATE_FORMAT.parse(dateString);
-    } catch (ParseException e) {
-      Log.e(TAG, "getLocalizedDate: " + e);
-    }
+    Date date = getDate(dateString);
     if (date == null) {
       return "";
     }
@@ -188,13 +224,13 @@ public class DateUtil {
     if (timeString == null || timeString.isEmpty()) {
       return context.getString(R.string.date_unknown);
     }
-    Date date = null;
+    Date date;
     try {
-      date = TIME_FORMAT.parse(timeString);
-    } catch (ParseException e) {
+      LocalTime time = LocalTime.from(TIME_FORMATTER.parse(timeString, new ParsePosition(0)));
+      date = new Date(time.atDate(LocalDate.ofEpochDay(0)).atZone(ZoneId.systemDefault())
+          .toInstant().toEpochMilli());
+    } catch (RuntimeException e) {
       Log.e(TAG, "getLocalizedTime: " + e);
-    }
-    if (date == null) {
       return "";
     }
     return android.text.format.DateFormat.getTimeFormat(context).format(date);
@@ -203,7 +239,7 @@ public class DateUtil {
   public String getHumanForDaysFromNow(String dateString) {
     if (dateString == null || dateString.isEmpty()) {
       return context.getString(R.string.date_unknown);
-    } else if (dateString.split(" ").length == 2
+    } else if (isDateWithTime(dateString)
         ? dateString.equals(DATE.NEVER_OVERDUE_WITH_TIME)
         : dateString.equals(Constants.DATE.NEVER_OVERDUE)
     ) {
@@ -268,17 +304,7 @@ public class DateUtil {
         );
       } else {
         // Check if days are about the same as to the never expiring date
-        Calendar calendarNever = Calendar.getInstance();
-        try {
-          Date dateNever = DATE_FORMAT.parse(Constants.DATE.NEVER_OVERDUE);
-          if (dateNever != null) {
-            calendarNever.setTime(dateNever);
-          }
-        } catch (ParseException e) {
-          Log.i(TAG, "getHumanDuration: " + e);
-        }
-        long msDiff = calendarNever.getTime().getTime() - getCurrentDate().getTime();
-        long daysToNever = TimeUnit.DAYS.convert(msDiff, TimeUnit.MILLISECONDS);
+        int daysToNever = getDaysFromToday(getEpochDay(Constants.DATE.NEVER_OVERDUE));
         if (days >= daysToNever - 100) {
           // deviation in server calculation possible
           return context.getString(R.string.date_unlimited);
@@ -315,4 +341,18 @@ public class DateUtil {
       return getCalendarFirstDayOfWeek(sharedPrefs);
     }
   }
+
+  private static boolean isDateWithTime(String dateString) {
+    return dateString.indexOf(' ') != -1;
+  }
+
+  private static int parseDigits(String string, int start, int end) {
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      char c = string.charAt(i);
+      if (c < '0' || c > '9') return -1;
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
 }
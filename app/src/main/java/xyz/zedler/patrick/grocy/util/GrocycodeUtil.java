@@ -25,11 +25,14 @@ import java.util.regex.Pattern;
 
 public class GrocycodeUtil {
 
+  private static final Pattern GROCYCODE_PATTERN = Pattern.compile("grcy:([a-z]+):([0-9]+)(:.+)*");
+
   private static Matcher getMatcher(String barcode) {
-    return Pattern.compile("grcy:([a-z]+):([0-9]+)(:.+)*").matcher(barcode);
+    return GROCYCODE_PATTERN.matcher(barcode);
   }
 
   public static Grocycode getGrocycode(String barcode) {
+    if (barcode == null || !barcode.startsWith("grcy:")) return null;
     Matcher matcher = getMatcher(barcode);
     if (!matcher.matches()) return null;
     return new Grocycode(matcher);
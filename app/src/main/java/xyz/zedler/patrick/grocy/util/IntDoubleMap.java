@@ -0,0 +1,128 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive ints to primitive doubles for amounts and factors keyed by id,
+ * without boxing keys or values. Open addressing with linear probing. Not thread-safe.
+ */
+public class IntDoubleMap {
+
+  private int[] keys;
+  private double[] values;
+  private boolean[] used;
+  private int size;
+  private int mask;
+  private int resizeThreshold;
+
+  public IntDoubleMap() {
+    this(16);
+  }
+
+  public IntDoubleMap(int expectedSize) {
+    allocate(IntHashing.getCapacity(expectedSize));
+  }
+
+  /**
+   * Returns the value of the key or the default value if the key has no value.
+   */
+  public double get(int key, double defaultValue) {
+    int slot = IntHashing.hash(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) return values[slot];
+      slot = (slot + 1) & mask;
+    }
+    return defaultValue;
+  }
+
+  public boolean containsKey(int key) {
+    int slot = IntHashing.hash(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) return true;
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  public void put(int key, double value) {
+    int slot = IntHashing.hash(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    used[slot] = true;
+    if (++size > resizeThreshold) {
+      resize(used.length * 2);
+    }
+  }
+
+  public void putAll(@NonNull IntDoubleMap map) {
+    for (int slot = 0; slot < map.used.length; slot++) {
+      if (map.used[slot]) put(map.keys[slot], map.values[slot]);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(used, false);
+    size = 0;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new double[capacity];
+    used = new boolean[capacity];
+    mask = capacity - 1;
+    resizeThreshold = IntHashing.getResizeThreshold(capacity);
+  }
+
+  private void resize(int capacity) {
+    int[] oldKeys = keys;
+    double[] oldValues = values;
+    boolean[] oldUsed = used;
+    allocate(capacity);
+    for (int oldSlot = 0; oldSlot < oldUsed.length; oldSlot++) {
+      if (!oldUsed[oldSlot]) continue;
+      int slot = IntHashing.hash(oldKeys[oldSlot]) & mask;
+      while (used[slot]) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = oldKeys[oldSlot];
+      values[slot] = oldValues[oldSlot];
+      used[slot] = true;
+    }
+  }
+}
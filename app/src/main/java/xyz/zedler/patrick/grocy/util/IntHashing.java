@@ -0,0 +1,56 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+/**
+ * Shared hashing and sizing for the primitive int collections.
+ */
+final class IntHashing {
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private IntHashing() {
+  }
+
+  /**
+   * Spreads consecutive ids over the table, so that linear probing doesn't build long runs.
+   */
+  static int hash(int key) {
+    int hash = key * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Smallest power of two capacity which holds the expected size without resizing.
+   */
+  static int getCapacity(int expectedSize) {
+    int minCapacity = Math.max(4, (int) Math.min(MAX_CAPACITY, expectedSize * 4L / 3 + 1));
+    int capacity = Integer.highestOneBit(minCapacity);
+    return capacity < minCapacity ? capacity << 1 : capacity;
+  }
+
+  /**
+   * Tables are resized when they are filled to three quarters.
+   */
+  static int getResizeThreshold(int capacity) {
+    return capacity / 4 * 3;
+  }
+}
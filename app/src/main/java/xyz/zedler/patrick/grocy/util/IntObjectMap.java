@@ -0,0 +1,181 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Hash map with primitive int keys for id lookups, which doesn't box its keys and doesn't
+ * allocate an entry object per mapping like HashMap<Integer, V> does. Open addressing with
+ * linear probing, null values are not supported. Not thread-safe.
+ */
+public class IntObjectMap<V> {
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+  private int mask;
+  private int resizeThreshold;
+
+  public IntObjectMap() {
+    this(16);
+  }
+
+  public IntObjectMap(int expectedSize) {
+    allocate(IntHashing.getCapacity(expectedSize));
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    int slot = IntHashing.hash(key) & mask;
+    Object value;
+    while ((value = values[slot]) != null) {
+      if (keys[slot] == key) return (V) value;
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public boolean containsKey(int key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Returns the previous value of the key or null if there was none.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V put(int key, @NonNull V value) {
+    int slot = IntHashing.hash(key) & mask;
+    Object oldValue;
+    while ((oldValue = values[slot]) != null) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return (V) oldValue;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > resizeThreshold) {
+      resize(values.length * 2);
+    }
+    return null;
+  }
+
+  /**
+   * Puts the value only if the key has no value yet. Returns the value which is now mapped.
+   */
+  @NonNull
+  public V putIfAbsent(int key, @NonNull V value) {
+    V oldValue = get(key);
+    if (oldValue != null) return oldValue;
+    put(key, value);
+    return value;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  public void putAll(@NonNull IntObjectMap<V> map) {
+    for (int slot = 0; slot < map.values.length; slot++) {
+      @SuppressWarnings("unchecked")
+      V value = (V) map.values[slot];
+      if (value != null) put(map.keys[slot], value);
+    }
+  }
+
+  @NonNull
+  public IntSet keySet() {
+    IntSet keySet = new IntSet(size);
+    for (int slot = 0; slot < values.length; slot++) {
+      if (values[slot] != null) keySet.add(keys[slot]);
+    }
+    return keySet;
+  }
+
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public ArrayList<V> values() {
+    ArrayList<V> valueList = new ArrayList<>(size);
+    for (Object value : values) {
+      if (value != null) valueList.add((V) value);
+    }
+    return valueList;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof IntObjectMap)) return false;
+    IntObjectMap<?> map = (IntObjectMap<?>) o;
+    if (size != map.size) return false;
+    for (int slot = 0; slot < values.length; slot++) {
+      if (values[slot] != null && !values[slot].equals(map.get(keys[slot]))) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int slot = 0; slot < values.length; slot++) {
+      if (values[slot] != null) hashCode += keys[slot] ^ values[slot].hashCode();
+    }
+    return hashCode;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    resizeThreshold = IntHashing.getResizeThreshold(capacity);
+  }
+
+  private void resize(int capacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+      if (oldValues[oldSlot] == null) continue;
+      int slot = IntHashing.hash(oldKeys[oldSlot]) & mask;
+      while (values[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = oldKeys[oldSlot];
+      values[slot] = oldValues[oldSlot];
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Set of primitive ints, used for membership checks of ids in bound lists instead of
+ * ArrayList<Integer>.contains(), which boxes and scans the whole list on every call.
+ * Open addressing with linear probing. Not thread-safe.
+ */
+public class IntSet {
+
+  private int[] keys;
+  private boolean[] used;
+  private int size;
+  private int mask;
+  private int resizeThreshold;
+
+  public IntSet() {
+    this(16);
+  }
+
+  public IntSet(int expectedSize) {
+    allocate(IntHashing.getCapacity(expectedSize));
+  }
+
+  public boolean contains(int key) {
+    int slot = IntHashing.hash(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) return true;
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if the key was not in the set before.
+   */
+  public boolean add(int key) {
+    int slot = IntHashing.hash(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) return false;
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    used[slot] = true;
+    if (++size > resizeThreshold) {
+      resize(used.length * 2);
+    }
+    return true;
+  }
+
+  public void addAll(@NonNull IntSet set) {
+    for (int slot = 0; slot < set.used.length; slot++) {
+      if (set.used[slot]) add(set.keys[slot]);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(used, false);
+    size = 0;
+  }
+
+  @NonNull
+  public int[] toArray() {
+    int[] array = new int[size];
+    int index = 0;
+    for (int slot = 0; slot < used.length; slot++) {
+      if (used[slot]) array[index++] = keys[slot];
+    }
+    return array;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    used = new boolean[capacity];
+    mask = capacity - 1;
+    resizeThreshold = IntHashing.getResizeThreshold(capacity);
+  }
+
+  private void resize(int capacity) {
+    int[] oldKeys = keys;
+    boolean[] oldUsed = used;
+    allocate(capacity);
+    for (int oldSlot = 0; oldSlot < oldUsed.length; oldSlot++) {
+      if (!oldUsed[oldSlot]) continue;
+      int slot = IntHashing.hash(oldKeys[oldSlot]) & mask;
+      while (used[slot]) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = oldKeys[oldSlot];
+      used[slot] = true;
+    }
+  }
+}
@@ -20,30 +20,43 @@
 
 package xyz.zedler.patrick.grocy.util;
 
+import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
 import android.graphics.drawable.Drawable;
+import android.media.ExifInterface;
 import android.view.View;
 import android.widget.ImageView;
 import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
 import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.Headers;
 import com.bumptech.glide.load.resource.bitmap.CenterCrop;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
 import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.target.Target;
-import java.io.ByteArrayOutputStream;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import xyz.zedler.patrick.grocy.web.RequestHeaders;
 
 public class PictureUtil {
 
+  private final static String DISK_CACHE_DIRECTORY = "pictures";
+  private final static long DISK_CACHE_SIZE = 100 * 1024 * 1024;
+
+  private static boolean isGlideInitialized = false;
+
   public static void loadPicture(ImageView imageView, @Nullable CardView frame, String pictureUrl) {
     Glide.with(imageView.getContext())
         .load(new GlideUrl(
@@ -74,14 +87,9 @@ public class PictureUtil {
       Headers grocyAuthHeaders,
       boolean keepAspectRatio
   ) {
-    RequestBuilder<Drawable> requestBuilder = Glide.with(picture.getContext())
-        .load(new GlideUrl(pictureUrl, grocyAuthHeaders));
-    requestBuilder = requestBuilder
-        .transform(new CenterCrop())
-        .transition(DrawableTransitionOptions.withCrossFade());
-    if (keepAspectRatio) {
-      requestBuilder = requestBuilder.override(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL);
-    }
+    RequestBuilder<Drawable> requestBuilder = getPictureRequest(
+        Glide.with(picture.getContext()), pictureUrl, grocyAuthHeaders, keepAspectRatio
+    ).transition(DrawableTransitionOptions.withCrossFade());
     requestBuilder.listener(new RequestListener<>() {
       @Override
       public boolean onLoadFailed(@Nullable GlideException e, Object model,
@@ -106,37 +114,140 @@ public class PictureUtil {
     }).into(picture);
   }
 
-  public static Bitmap scaleBitmap(String imagePath) {
-    int maxWidth = 1280;
-    int maxHeight = 800;
+  /**
+   * Request for pictures shown in a view, which is also used by PicturePreloader, so preloaded
+   * pictures are taken from the memory cache. Glide decodes the picture to the size of the
+   * target view. With keepAspectRatio it is scaled down until it fits, but never scaled up.
+   */
+  public static RequestBuilder<Drawable> getPictureRequest(
+      RequestManager requestManager,
+      String pictureUrl,
+      Headers grocyAuthHeaders,
+      boolean keepAspectRatio
+  ) {
+    RequestBuilder<Drawable> requestBuilder = requestManager
+        .load(new GlideUrl(pictureUrl, grocyAuthHeaders));
+    if (keepAspectRatio) {
+      return requestBuilder.centerInside();
+    } else {
+      return requestBuilder.transform(new CenterCrop());
+    }
+  }
+
+  /**
+   * Has to be called before Glide is used for the first time. Pictures are kept in an own disk
+   * cache directory with a fixed budget, which is mostly filled by the small list pictures.
+   */
+  public static synchronized void initGlide(Context context) {
+    if (isGlideInitialized) return;
+    Glide.init(context, new GlideBuilder().setDiskCache(new InternalCacheDiskCacheFactory(
+        context, DISK_CACHE_DIRECTORY, DISK_CACHE_SIZE
+    )));
+    isGlideInitialized = true;
+
+    // default cache of older versions, it is not used anymore and would keep its 250 MB
+    File oldCacheDirectory = new File(
+        context.getCacheDir(), DiskCache.Factory.DEFAULT_DISK_CACHE_DIR
+    );
+    if (oldCacheDirectory.exists()) {
+      Schedulers.io().scheduleDirect(() -> deleteRecursively(oldCacheDirectory));
+    }
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * Decodes the picture so that it fits into the given size after it has been rotated by the
+   * given degrees. Pictures are only scaled down. The decoder skips pixels with the largest
+   * power of two sample size which keeps the picture larger than the target size and scales
+   * the rest down in the same pass, so the full size picture is never held in memory.
+   * The returned bitmap is not rotated yet.
+   */
+  @Nullable
+  public static Bitmap decodeScaledBitmap(
+      InputStreamProvider inputStreamProvider,
+      int maxWidth,
+      int maxHeight,
+      int rotationDegrees
+  ) throws IOException {
     BitmapFactory.Options options = new BitmapFactory.Options();
     options.inJustDecodeBounds = true;
-    BitmapFactory.decodeFile(imagePath, options);
-    int imageHeight = options.outHeight;
-    int imageWidth = options.outWidth;
-    int scaleFactor = Math.min(imageWidth / maxWidth, imageHeight / maxHeight);
+    try (InputStream inputStream = inputStreamProvider.open()) {
+      BitmapFactory.decodeStream(inputStream, null, options);
+    }
+    int width = options.outWidth;
+    int height = options.outHeight;
+    if (width <= 0 || height <= 0) return null;
+
+    boolean isRotated = rotationDegrees == 90 || rotationDegrees == 270;
+    float scale = Math.min(1, Math.min(
+        (float) maxWidth / (isRotated ? height : width),
+        (float) maxHeight / (isRotated ? width : height)
+    ));
+    int targetWidth = Math.max(1, Math.round(width * scale));
+    int targetHeight = Math.max(1, Math.round(height * scale));
+
     options.inJustDecodeBounds = false;
-    options.inSampleSize = scaleFactor;
-    return BitmapFactory.decodeFile(imagePath, options);
+    options.inSampleSize = calculateInSampleSize(width, height, targetWidth, targetHeight);
+    int sampledWidth = width / options.inSampleSize;
+    if (sampledWidth > targetWidth) {
+      options.inScaled = true;
+      options.inDensity = sampledWidth;
+      options.inTargetDensity = targetWidth;
+    }
+    try (InputStream inputStream = inputStreamProvider.open()) {
+      return BitmapFactory.decodeStream(inputStream, null, options);
+    }
   }
 
-  public static Bitmap scaleBitmap(Bitmap bitmap) {
-    int maxWidth = 1280;
-    int maxHeight = 800;
-    float scale = Math.min(
-        ((float)maxWidth / bitmap.getWidth()),
-        ((float)maxHeight / bitmap.getHeight())
+  public static int calculateInSampleSize(
+      int width,
+      int height,
+      int targetWidth,
+      int targetHeight
+  ) {
+    int inSampleSize = 1;
+    while (width / (inSampleSize * 2) >= targetWidth
+        && height / (inSampleSize * 2) >= targetHeight) {
+      inSampleSize *= 2;
+    }
+    return inSampleSize;
+  }
+
+  public static int getRotationDegrees(@Nullable ExifInterface exif) {
+    if (exif == null) return 0;
+    int orientation = exif.getAttributeInt(
+        ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL
     );
-    int newWidth = Math.round(bitmap.getWidth() * scale);
-    int newHeight = Math.round(bitmap.getHeight() * scale);
-    return Bitmap.createScaledBitmap(bitmap, newWidth, newHeight, true);
+    switch (orientation) {
+      case ExifInterface.ORIENTATION_ROTATE_90:
+        return 90;
+      case ExifInterface.ORIENTATION_ROTATE_180:
+        return 180;
+      case ExifInterface.ORIENTATION_ROTATE_270:
+        return 270;
+      default:
+        return 0;
+    }
   }
 
-  public static byte[] convertBitmapToByteArray(Bitmap bitmap) {
-    if (bitmap == null) return null;
-    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-    bitmap.compress(Bitmap.CompressFormat.JPEG, 80, stream);
-    return stream.toByteArray();
+  public static Bitmap rotateBitmap(Bitmap bitmap, int rotationDegrees) {
+    if (rotationDegrees == 0) return bitmap;
+    Matrix matrix = new Matrix();
+    matrix.postRotate(rotationDegrees);
+    Bitmap rotated = Bitmap.createBitmap(
+        bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true
+    );
+    if (rotated != bitmap) bitmap.recycle();
+    return rotated;
   }
 
   public static File createImageFile(File storageDir) throws IOException {
@@ -150,4 +261,9 @@ public class PictureUtil {
   public static String createImageFilename() {
     return System.currentTimeMillis() + ".jpg";
   }
+
+  public interface InputStreamProvider {
+
+    InputStream open() throws IOException;
+  }
 }
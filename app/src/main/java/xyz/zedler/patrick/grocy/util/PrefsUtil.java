@@ -246,6 +246,8 @@ public class PrefsUtil {
     editPrefs.remove(PREF.DB_LAST_TIME_USERFIELDS);
     editPrefs.remove(PREF.DB_LAST_TIME_MEAL_PLAN_ENTRIES);
     editPrefs.remove(PREF.DB_LAST_TIME_MEAL_PLAN_SECTIONS);
+    editPrefs.remove(PREF.DB_MEAL_PLAN_ENTRIES_FROM);
+    editPrefs.remove(PREF.DB_MEAL_PLAN_ENTRIES_TO);
     editPrefs.apply();
   }
 
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
+
+/**
+ * Lookup structure over the resolved unit conversions, keyed by product id, "from" unit id and
+ * "to" unit id. It should be built once per database load and then be passed to everything
+ * that needs conversions of single products, instead of walking the whole conversion list.
+ * Unit factors are cached per product, the returned maps must not be modified.
+ */
+public class QuantityUnitConversionIndex {
+
+  private static final int NO_PRODUCT = -1;
+
+  // product id -> from unit id -> to unit id -> conversion
+  private final HashMap<Integer, HashMap<Integer, LinkedHashMap<Integer,
+      QuantityUnitConversionResolved>>> conversionsHashMap;
+  private final HashMap<Integer, HashMap<QuantityUnit, Double>> unitFactorsHashMap;
+  private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+
+  public QuantityUnitConversionIndex(
+      @Nullable List<QuantityUnitConversionResolved> unitConversions,
+      @Nullable HashMap<Integer, QuantityUnit> quantityUnitHashMap
+  ) {
+    this.quantityUnitHashMap = quantityUnitHashMap != null
+        ? quantityUnitHashMap : new HashMap<>();
+    conversionsHashMap = new HashMap<>();
+    unitFactorsHashMap = new HashMap<>();
+    if (unitConversions == null) return;
+
+    for (QuantityUnitConversionResolved conversion : unitConversions) {
+      int productId = NumUtil.isStringInt(conversion.getProductId())
+          ? Integer.parseInt(conversion.getProductId()) : NO_PRODUCT;
+
+      HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionResolved>> fromHashMap
+          = conversionsHashMap.get(productId);
+      if (fromHashMap == null) {
+        fromHashMap = new HashMap<>();
+        conversionsHashMap.put(productId, fromHashMap);
+      }
+      LinkedHashMap<Integer, QuantityUnitConversionResolved> toHashMap
+          = fromHashMap.get(conversion.getFromQuId());
+      if (toHashMap == null) {
+        toHashMap = new LinkedHashMap<>();
+        fromHashMap.put(conversion.getFromQuId(), toHashMap);
+      }
+      // first conversion in list wins if there are duplicates
+      toHashMap.putIfAbsent(conversion.getToQuId(), conversion);
+    }
+  }
+
+  @Nullable
+  public QuantityUnitConversionResolved findConversion(int productId, int fromQuId, int toQuId) {
+    HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionResolved>> fromHashMap
+        = conversionsHashMap.get(productId);
+    if (fromHashMap == null) return null;
+    LinkedHashMap<Integer, QuantityUnitConversionResolved> toHashMap = fromHashMap.get(fromQuId);
+    if (toHashMap == null) return null;
+    return toHashMap.get(toQuId);
+  }
+
+  /**
+   * Returns the factors of all units the given product can be converted to from its stock
+   * unit. The map is cached per product and must not be modified.
+   */
+  @NonNull
+  public synchronized HashMap<QuantityUnit, Double> getUnitFactors(@NonNull Product product) {
+    HashMap<QuantityUnit, Double> unitFactors = unitFactorsHashMap.get(product.getId());
+    if (unitFactors != null) return unitFactors;
+    // Only conversions from the stock unit are used because the resolved conversions
+    // can contain multiple entries for the same "to" QU.
+    //
+    // Example:
+    // Bottle -> mL | 100.0
+    // mL -> Bottle | 0.01
+    // Bottle -> Bottle | 1.0
+    //
+    // Without this restriction the output map would contain 0.01 for Bottle key
+    unitFactors = new HashMap<>();
+    putUnitFactors(unitFactors, getConversionsFrom(product.getId(), product.getQuIdStockInt()));
+    unitFactorsHashMap.put(product.getId(), unitFactors);
+    return unitFactors;
+  }
+
+  @Nullable
+  private Map<Integer, QuantityUnitConversionResolved> getConversionsFrom(
+      int productId,
+      int fromQuId
+  ) {
+    HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionResolved>> fromHashMap
+        = conversionsHashMap.get(productId);
+    return fromHashMap != null ? fromHashMap.get(fromQuId) : null;
+  }
+
+  private void putUnitFactors(
+      HashMap<QuantityUnit, Double> unitFactors,
+      @Nullable Map<Integer, QuantityUnitConversionResolved> conversions
+  ) {
+    if (conversions == null) return;
+    for (QuantityUnitConversionResolved conversion : conversions.values()) {
+      QuantityUnit unit = quantityUnitHashMap.get(conversion.getToQuId());
+      if (unit == null || unitFactors.containsKey(unit)) continue;
+      unitFactors.put(unit, conversion.getFactor());
+    }
+  }
+
+  public boolean isEmpty() {
+    return conversionsHashMap.isEmpty();
+  }
+}
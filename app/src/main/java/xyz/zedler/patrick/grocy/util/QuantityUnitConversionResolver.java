@@ -0,0 +1,311 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
+import xyz.zedler.patrick.grocy.model.QuantityUnitConversionPath;
+
+/**
+ * Calculates transitive unit conversions like the quantity_unit_conversions_resolved view of
+ * Grocy server 4.0 does, for servers which don't provide resolved conversions.
+ * The conversions which are not specific to a product are resolved only once per resolver and
+ * shared by all products. For a product only its own conversions and purchase to stock factor
+ * are laid over this default graph, and only the units connected with its stock unit are
+ * resolved, so the work per product is bounded by the size of this group of units and
+ * MAX_DEPTH. Products without own conversions reuse the resolved default paths directly.
+ */
+public class QuantityUnitConversionResolver {
+
+  public static final int MAX_DEPTH = 10;
+
+  private final HashMap<Integer, List<QuantityUnitConversion>> productConversionsHashMap;
+  private final List<QuantityUnitConversion> defaultConversions;
+  private final HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionPath>> defaultEdges;
+  private final HashMap<Integer, List<QuantityUnitConversionPath>> defaultPathsHashMap;
+
+  public QuantityUnitConversionResolver(
+      @Nullable List<? extends QuantityUnitConversion> conversions
+  ) {
+    productConversionsHashMap = new HashMap<>();
+    defaultConversions = new ArrayList<>();
+    if (conversions != null) {
+      for (QuantityUnitConversion conversion : conversions) {
+        if (NumUtil.isStringInt(conversion.getProductId())) {
+          int productId = conversion.getProductIdInt();
+          List<QuantityUnitConversion> productConversions
+              = productConversionsHashMap.get(productId);
+          if (productConversions == null) {
+            productConversions = new ArrayList<>();
+            productConversionsHashMap.put(productId, productConversions);
+          }
+          productConversions.add(conversion);
+        } else {
+          defaultConversions.add(conversion);
+        }
+      }
+    }
+    defaultEdges = new HashMap<>();
+    putEdges(defaultEdges, defaultConversions, null, false);
+    putEdges(defaultEdges, defaultConversions, null, true);
+    defaultPathsHashMap = new HashMap<>();
+  }
+
+  /**
+   * Resolves the conversions which are not specific to a product.
+   */
+  @NonNull
+  public List<QuantityUnitConversionPath> resolveDefault() {
+    List<QuantityUnitConversionPath> paths = new ArrayList<>();
+    for (int fromQuId : defaultEdges.keySet()) {
+      paths.addAll(getDefaultPathsFrom(fromQuId));
+    }
+    return paths;
+  }
+
+  /**
+   * Returns a key which changes whenever the default conversions change, so callers can tell
+   * whether previously resolved paths are still valid.
+   */
+  @NonNull
+  public String getDefaultKey() {
+    StringBuilder key = new StringBuilder();
+    appendConversions(key, defaultConversions);
+    return key.toString();
+  }
+
+  /**
+   * Returns a key which changes whenever the conversions of the product, its stock or purchase
+   * unit or its purchase to stock factor change. Together with the default key it determines
+   * the paths resolveProduct returns.
+   */
+  @NonNull
+  public String getProductKey(@NonNull Product product) {
+    StringBuilder key = new StringBuilder();
+    key.append(product.getQuIdStockInt()).append('/')
+        .append(product.getQuIdPurchaseInt()).append('/')
+        .append(product.getQuFactorPurchaseToStockDouble()).append(';');
+    List<QuantityUnitConversion> productConversions
+        = productConversionsHashMap.get(product.getId());
+    if (productConversions != null) appendConversions(key, productConversions);
+    return key.toString();
+  }
+
+  /**
+   * Resolves all conversions between the units connected with the stock unit of the product.
+   * Product specific conversions and the purchase to stock factor are preferred over the
+   * default conversions, direct conversions are preferred over inverted ones and shorter paths
+   * are preferred over longer ones.
+   */
+  @NonNull
+  public List<QuantityUnitConversionPath> resolveProduct(@NonNull Product product) {
+    String productId = String.valueOf(product.getId());
+    List<QuantityUnitConversion> productConversions
+        = productConversionsHashMap.get(product.getId());
+    if (productConversions == null) productConversions = new ArrayList<>();
+
+    // only the edges of the product, the default edges are not copied
+    HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionPath>> productEdges
+        = new HashMap<>();
+    putEdges(productEdges, productConversions, productId, false);
+    int quIdStock = product.getQuIdStockInt();
+    int quIdPurchase = product.getQuIdPurchaseInt();
+    double factor = product.getQuFactorPurchaseToStockDouble();
+    if (quIdPurchase != quIdStock && factor > 0) {
+      putEdge(productEdges, new QuantityUnitConversionPath(
+          1, productId, quIdPurchase, quIdStock, factor, getPath(quIdPurchase, quIdStock)
+      ));
+      putEdge(productEdges, new QuantityUnitConversionPath(
+          1, productId, quIdStock, quIdPurchase, 1 / factor, getPath(quIdStock, quIdPurchase)
+      ));
+    }
+    putEdges(productEdges, productConversions, productId, true);
+
+    List<QuantityUnitConversionPath> pathsFromStock = new ArrayList<>();
+    if (productEdges.isEmpty()) {
+      copyPaths(getDefaultPathsFrom(quIdStock), productId, pathsFromStock);
+    } else {
+      resolveFrom(productEdges, defaultEdges, quIdStock, productId, pathsFromStock);
+    }
+    List<QuantityUnitConversionPath> paths = new ArrayList<>(pathsFromStock);
+    for (QuantityUnitConversionPath pathFromStock : pathsFromStock) {
+      if (pathFromStock.getToQuId() == quIdStock) continue;
+      if (productEdges.isEmpty()) {
+        copyPaths(getDefaultPathsFrom(pathFromStock.getToQuId()), productId, paths);
+      } else {
+        resolveFrom(productEdges, defaultEdges, pathFromStock.getToQuId(), productId, paths);
+      }
+    }
+    return paths;
+  }
+
+  private List<QuantityUnitConversionPath> getDefaultPathsFrom(int fromQuId) {
+    List<QuantityUnitConversionPath> paths = defaultPathsHashMap.get(fromQuId);
+    if (paths == null) {
+      paths = new ArrayList<>();
+      resolveFrom(null, defaultEdges, fromQuId, null, paths);
+      defaultPathsHashMap.put(fromQuId, paths);
+    }
+    return paths;
+  }
+
+  private static void copyPaths(
+      List<QuantityUnitConversionPath> defaultPaths,
+      String productId,
+      List<QuantityUnitConversionPath> paths
+  ) {
+    for (QuantityUnitConversionPath path : defaultPaths) {
+      paths.add(new QuantityUnitConversionPath(
+          path.getDepth(),
+          productId,
+          path.getFromQuId(),
+          path.getToQuId(),
+          path.getFactor(),
+          path.getPath()
+      ));
+    }
+  }
+
+  /**
+   * Breadth-first search from one unit. Units which are already part of a path are not visited
+   * again through this path, and only the first (shortest) path to every unit is kept.
+   * Edges of the product are visited before the default edges, default edges to units which
+   * the product has an own edge to are skipped.
+   */
+  private static void resolveFrom(
+      @Nullable HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionPath>> productEdges,
+      HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionPath>> defaultEdges,
+      int fromQuId,
+      @Nullable String productId,
+      List<QuantityUnitConversionPath> paths
+  ) {
+    HashSet<Integer> resolvedQuIds = new HashSet<>();
+    resolvedQuIds.add(fromQuId);
+    paths.add(new QuantityUnitConversionPath(
+        0, productId, fromQuId, fromQuId, 1, "/" + fromQuId + "/"
+    ));
+
+    ArrayDeque<QuantityUnitConversionPath> queue = new ArrayDeque<>();
+    queue.add(paths.get(paths.size() - 1));
+    while (!queue.isEmpty()) {
+      QuantityUnitConversionPath current = queue.poll();
+      if (current.getDepth() >= MAX_DEPTH) continue;
+      LinkedHashMap<Integer, QuantityUnitConversionPath> nextProductEdges
+          = productEdges != null ? productEdges.get(current.getToQuId()) : null;
+      if (nextProductEdges != null) {
+        for (QuantityUnitConversionPath edge : nextProductEdges.values()) {
+          visitEdge(current, edge, fromQuId, productId, resolvedQuIds, paths, queue);
+        }
+      }
+      LinkedHashMap<Integer, QuantityUnitConversionPath> nextDefaultEdges
+          = defaultEdges.get(current.getToQuId());
+      if (nextDefaultEdges == null) continue;
+      for (QuantityUnitConversionPath edge : nextDefaultEdges.values()) {
+        if (nextProductEdges != null && nextProductEdges.containsKey(edge.getToQuId())) continue;
+        visitEdge(current, edge, fromQuId, productId, resolvedQuIds, paths, queue);
+      }
+    }
+  }
+
+  private static void visitEdge(
+      QuantityUnitConversionPath current,
+      QuantityUnitConversionPath edge,
+      int fromQuId,
+      @Nullable String productId,
+      HashSet<Integer> resolvedQuIds,
+      List<QuantityUnitConversionPath> paths,
+      ArrayDeque<QuantityUnitConversionPath> queue
+  ) {
+    int toQuId = edge.getToQuId();
+    if (current.getPath().contains("/" + toQuId + "/") || resolvedQuIds.contains(toQuId)) {
+      return;
+    }
+    QuantityUnitConversionPath path = new QuantityUnitConversionPath(
+        current.getDepth() + 1,
+        productId,
+        fromQuId,
+        toQuId,
+        current.getFactor() * edge.getFactor(),
+        current.getPath() + toQuId + "/"
+    );
+    resolvedQuIds.add(toQuId);
+    paths.add(path);
+    queue.add(path);
+  }
+
+  private static void appendConversions(
+      StringBuilder key,
+      List<QuantityUnitConversion> conversions
+  ) {
+    for (QuantityUnitConversion conversion : conversions) {
+      key.append(conversion.getFromQuId()).append('>')
+          .append(conversion.getToQuId()).append('=')
+          .append(conversion.getFactor()).append(';');
+    }
+  }
+
+  private static void putEdges(
+      HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionPath>> edges,
+      List<QuantityUnitConversion> conversions,
+      @Nullable String productId,
+      boolean inverted
+  ) {
+    for (QuantityUnitConversion conversion : conversions) {
+      int fromQuId = conversion.getFromQuId();
+      int toQuId = conversion.getToQuId();
+      if (fromQuId == toQuId || conversion.getFactor() <= 0) continue;
+      if (inverted) {
+        putEdge(edges, new QuantityUnitConversionPath(
+            1, productId, toQuId, fromQuId, 1 / conversion.getFactor(), getPath(toQuId, fromQuId)
+        ));
+      } else {
+        putEdge(edges, new QuantityUnitConversionPath(
+            1, productId, fromQuId, toQuId, conversion.getFactor(), getPath(fromQuId, toQuId)
+        ));
+      }
+    }
+  }
+
+  private static void putEdge(
+      HashMap<Integer, LinkedHashMap<Integer, QuantityUnitConversionPath>> edges,
+      QuantityUnitConversionPath edge
+  ) {
+    LinkedHashMap<Integer, QuantityUnitConversionPath> toHashMap = edges.get(edge.getFromQuId());
+    if (toHashMap == null) {
+      toHashMap = new LinkedHashMap<>();
+      edges.put(edge.getFromQuId(), toHashMap);
+    }
+    // edges added first have priority
+    toHashMap.putIfAbsent(edge.getToQuId(), edge);
+  }
+
+  private static String getPath(int fromQuId, int toQuId) {
+    return "/" + fromQuId + "/" + toQuId + "/";
+  }
+}
@@ -21,93 +21,9 @@
 package xyz.zedler.patrick.grocy.util;
 
 import java.util.HashMap;
-import java.util.List;
-import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 
 public class QuantityUnitConversionUtil {
-  public static HashMap<QuantityUnit, Double> getUnitFactors(
-      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      List<QuantityUnitConversionResolved> unitConversions,
-      Product product,
-      boolean useResolvedConversions
-  ) {
-    // useResolvedConversions is always the VersionUtil.isGrocyServerMin400() value because
-    // starting with this version, transitive conversions are
-    // calculated (see QuantityUnitConversionResolved class). For easier version compatibility
-    // changes of this app in future versions, the QuantityUnitConversionsResolved table of this app
-    // contains with earlier server versions just the simple conversions from the Grocy
-    // server (not resolved). If 4.0.0 is the min. server version requirement, this behavior
-    // can simply be removed and not all pages have to be edited.
-    if (!useResolvedConversions) {
-      return getUnitFactors(quantityUnitHashMap, unitConversions, product);
-    }
-    HashMap<QuantityUnit, Double> unitFactors = new HashMap<>();
-    for (QuantityUnitConversion conversion : unitConversions) {
-      if (conversion.getProductIdInt() != product.getId()) continue;
-
-      // We need this check because unitConversions list can contain multiple entry for the same "to" QU.
-      //
-      // Example:
-      // Bottle -> mL | 100.0
-      // mL -> Bottle | 0.01
-      // Bottle -> Bottle | 1.0
-      //
-      // Without this check the output map will contain 0.01 for Bottle key
-      if (conversion.getFromQuId() != product.getQuIdStockInt()) continue;
-
-      QuantityUnit unit = quantityUnitHashMap.get(conversion.getToQuId());
-      if (unit == null || unitFactors.containsKey(unit)) continue;
-      unitFactors.put(unit, conversion.getFactor());
-    }
-    return unitFactors;
-  }
-
-  private static HashMap<QuantityUnit, Double> getUnitFactors(
-      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
-      List<QuantityUnitConversionResolved> unitConversions,
-      Product product
-  ) {
-    QuantityUnit stockUnit = quantityUnitHashMap.get(product.getQuIdStockInt());
-    QuantityUnit purchaseUnit = quantityUnitHashMap.get(product.getQuIdPurchaseInt());
-
-    HashMap<QuantityUnit, Double> unitFactors = new HashMap<>();
-    if (stockUnit == null || purchaseUnit == null) {
-      return unitFactors;
-    }
-    unitFactors.put(stockUnit, (double) 1);
-    if (!unitFactors.containsKey(purchaseUnit)) {
-      unitFactors.put(purchaseUnit, 1 / product.getQuFactorPurchaseToStockDouble());
-    }
-    for (QuantityUnitConversion conversion : unitConversions) {
-      if (!NumUtil.isStringInt(conversion.getProductId())
-          || product.getId() != conversion.getProductIdInt()) {
-        continue;
-      }
-      // Only add product specific conversions
-      // ("overriding" standard conversions which are added in the next step)
-      QuantityUnit unit = quantityUnitHashMap.get(conversion.getToQuId());
-      if (unit == null || unitFactors.containsKey(unit)) {
-        continue;
-      }
-      unitFactors.put(unit, conversion.getFactor());
-    }
-    for (QuantityUnitConversion conversion : unitConversions) {
-      if (NumUtil.isStringInt(conversion.getProductId())
-          || stockUnit.getId() != conversion.getFromQuId()) {
-        continue;
-      }
-      // Only add standard unit conversions
-      QuantityUnit unit = quantityUnitHashMap.get(conversion.getToQuId());
-      if (unit == null || unitFactors.containsKey(unit)) {
-        continue;
-      }
-      unitFactors.put(unit, conversion.getFactor());
-    }
-    return unitFactors;
-  }
 
   public static String getAmountStock(
       QuantityUnit stock,
@@ -0,0 +1,171 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import xyz.zedler.patrick.grocy.model.RecipeNesting;
+import xyz.zedler.patrick.grocy.model.RecipeNestingResolved;
+
+/**
+ * Resolves which recipes are included in a recipe, directly or through other nested recipes,
+ * like the recursive recipes_nestings_resolved view of Grocy server does. The servings of a
+ * row are those of the last nesting on the path, as on the server.
+ * A recipe is never resolved again on the same path, so nesting cycles can't cause endless
+ * recursion.
+ */
+public class RecipeNestingResolver {
+
+  // recipe id -> nestings of recipes it includes directly
+  private final HashMap<Integer, List<RecipeNesting>> nestingsHashMap;
+
+  public RecipeNestingResolver(@Nullable List<RecipeNesting> recipeNestings) {
+    nestingsHashMap = new HashMap<>();
+    if (recipeNestings == null) return;
+    for (RecipeNesting nesting : recipeNestings) {
+      List<RecipeNesting> nestings = nestingsHashMap.get(nesting.getRecipeId());
+      if (nestings == null) {
+        nestings = new ArrayList<>();
+        nestingsHashMap.put(nesting.getRecipeId(), nestings);
+      }
+      nestings.add(nesting);
+    }
+  }
+
+  @NonNull
+  public List<RecipeNestingResolved> resolveAll() {
+    return resolve(nestingsHashMap.keySet());
+  }
+
+  /**
+   * Resolves the included recipes of the given recipes.
+   */
+  @NonNull
+  public List<RecipeNestingResolved> resolve(Collection<Integer> recipeIds) {
+    List<RecipeNestingResolved> resolved = new ArrayList<>();
+    HashSet<Integer> path = new HashSet<>();
+    for (int recipeId : recipeIds) {
+      path.add(recipeId);
+      resolve(recipeId, recipeId, 1, path, resolved);
+      path.clear();
+    }
+    return resolved;
+  }
+
+  private void resolve(
+      int rootRecipeId,
+      int recipeId,
+      int level,
+      HashSet<Integer> path,
+      List<RecipeNestingResolved> resolved
+  ) {
+    List<RecipeNesting> nestings = nestingsHashMap.get(recipeId);
+    if (nestings == null) return;
+    for (RecipeNesting nesting : nestings) {
+      int includedRecipeId = nesting.getIncludesRecipeId();
+      if (!path.add(includedRecipeId)) continue; // cycle
+      resolved.add(new RecipeNestingResolved(
+          rootRecipeId, includedRecipeId, nesting.getServings(), level
+      ));
+      resolve(rootRecipeId, includedRecipeId, level + 1, path, resolved);
+      path.remove(includedRecipeId);
+    }
+  }
+
+  /**
+   * Returns the recipes whose resolved nestings change if the nestings are replaced: recipes
+   * whose direct nestings have changed and all recipes which include them, before or after.
+   */
+  @NonNull
+  public static Set<Integer> getAffectedRecipeIds(
+      @Nullable List<RecipeNesting> oldNestings,
+      @Nullable List<RecipeNesting> newNestings
+  ) {
+    HashMap<Integer, HashMap<Integer, Double>> oldEdges = getEdges(oldNestings);
+    HashMap<Integer, HashMap<Integer, Double>> newEdges = getEdges(newNestings);
+
+    HashSet<Integer> changedRecipeIds = new HashSet<>();
+    for (Integer recipeId : oldEdges.keySet()) {
+      if (!Objects.equals(oldEdges.get(recipeId), newEdges.get(recipeId))) {
+        changedRecipeIds.add(recipeId);
+      }
+    }
+    for (Integer recipeId : newEdges.keySet()) {
+      if (!oldEdges.containsKey(recipeId)) changedRecipeIds.add(recipeId);
+    }
+    if (changedRecipeIds.isEmpty()) return changedRecipeIds;
+
+    // included recipe id -> recipes including it directly, in the old or new nestings
+    HashMap<Integer, HashSet<Integer>> parentsHashMap = new HashMap<>();
+    putParents(parentsHashMap, oldNestings);
+    putParents(parentsHashMap, newNestings);
+
+    HashSet<Integer> affectedRecipeIds = new HashSet<>(changedRecipeIds);
+    ArrayDeque<Integer> queue = new ArrayDeque<>(changedRecipeIds);
+    while (!queue.isEmpty()) {
+      HashSet<Integer> parents = parentsHashMap.get(queue.poll());
+      if (parents == null) continue;
+      for (int parentId : parents) {
+        if (affectedRecipeIds.add(parentId)) queue.add(parentId);
+      }
+    }
+    return affectedRecipeIds;
+  }
+
+  private static HashMap<Integer, HashMap<Integer, Double>> getEdges(
+      @Nullable List<RecipeNesting> nestings
+  ) {
+    HashMap<Integer, HashMap<Integer, Double>> edges = new HashMap<>();
+    if (nestings == null) return edges;
+    for (RecipeNesting nesting : nestings) {
+      HashMap<Integer, Double> includedRecipes = edges.get(nesting.getRecipeId());
+      if (includedRecipes == null) {
+        includedRecipes = new HashMap<>();
+        edges.put(nesting.getRecipeId(), includedRecipes);
+      }
+      includedRecipes.put(nesting.getIncludesRecipeId(), nesting.getServings());
+    }
+    return edges;
+  }
+
+  private static void putParents(
+      HashMap<Integer, HashSet<Integer>> parentsHashMap,
+      @Nullable List<RecipeNesting> nestings
+  ) {
+    if (nestings == null) return;
+    for (RecipeNesting nesting : nestings) {
+      HashSet<Integer> parents = parentsHashMap.get(nesting.getIncludesRecipeId());
+      if (parents == null) {
+        parents = new HashSet<>();
+        parentsHashMap.put(nesting.getIncludesRecipeId(), parents);
+      }
+      parents.add(nesting.getRecipeId());
+    }
+  }
+}
@@ -84,16 +84,16 @@ public class SortUtil {
     Collections.sort(
         stockItems,
         (item1, item2) -> {
-          String bbd1 = (ascending ? item1 : item2).getBestBeforeDate();
-          String bbd2 = (ascending ? item2 : item1).getBestBeforeDate();
-          if (bbd1 == null && bbd2 == null) {
+          StockItem first = ascending ? item1 : item2;
+          StockItem second = ascending ? item2 : item1;
+          if (first.getBestBeforeDate() == null && second.getBestBeforeDate() == null) {
             return 0;
-          } else if (bbd1 == null) {
+          } else if (first.getBestBeforeDate() == null) {
             return -1; // or 1 when items without BBD should be last
-          } else if (bbd2 == null) {
+          } else if (second.getBestBeforeDate() == null) {
             return 1; // or -1 when items without BBD should be last
           }
-          return DateUtil.getDate(bbd1).compareTo(DateUtil.getDate(bbd2));
+          return Integer.compare(first.getBestBeforeEpochDay(), second.getBestBeforeEpochDay());
         }
     );
   }
@@ -168,16 +168,16 @@ public class SortUtil {
     Collections.sort(
         stockEntries,
         (item1, item2) -> {
-          String bbd1 = (ascending ? item1 : item2).getBestBeforeDate();
-          String bbd2 = (ascending ? item2 : item1).getBestBeforeDate();
-          if (bbd1 == null && bbd2 == null) {
+          StockEntry first = ascending ? item1 : item2;
+          StockEntry second = ascending ? item2 : item1;
+          if (first.getBestBeforeDate() == null && second.getBestBeforeDate() == null) {
             return 0;
-          } else if (bbd1 == null) {
+          } else if (first.getBestBeforeDate() == null) {
             return -1; // or 1 when items without BBD should be last
-          } else if (bbd2 == null) {
+          } else if (second.getBestBeforeDate() == null) {
             return 1; // or -1 when items without BBD should be last
           }
-          return DateUtil.getDate(bbd1).compareTo(DateUtil.getDate(bbd2));
+          return Integer.compare(first.getBestBeforeEpochDay(), second.getBestBeforeEpochDay());
         }
     );
   }
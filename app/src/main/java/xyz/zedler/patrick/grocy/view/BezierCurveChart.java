@@ -47,6 +47,7 @@ public class BezierCurveChart extends View {
   private static final String TAG = BezierCurveChart.class.getSimpleName();
 
   private static final float LABEL_ROTATION = 45;
+  private static final int MIN_POINT_COUNT = 3;
 
   public static class Point implements Comparable<Point> {
     final float x;
@@ -77,17 +78,26 @@ public class BezierCurveChart extends View {
   private final Paint paintLabel = new Paint();
   private final Paint paintBadge = new Paint();
   private final Paint paintBadgeText = new Paint();
-  private final Path pathCurve = new Path();
-  private final Path pathFill = new Path();
   private final Path pathFillMask = new Path();
   private final RectF rectChart = new RectF(); // rectangle without labels
   private final RectF rectBadge = new RectF();
+  private final Rect rectBadgeText = new Rect();
   private final Rect rectMeasure = new Rect();
   private final Rect rectDrawing = new Rect();
+  private final Rect rectLayout = new Rect(); // drawing rect of the cached layout
   private final int[] colorsAccent, colorsOnAccent, colorsAccentContainer, colorsOnAccentContainer;
   private ArrayList<String> labels;
   private HashMap<String, ArrayList<Point>> curveLists;
-  private final HashMap<String, ArrayList<Point>> adjustedCurveLists = new HashMap<>();
+  // cached layout, only rebuilt after init or if the size has changed
+  private final ArrayList<String> curveLabels = new ArrayList<>();
+  private final ArrayList<ArrayList<Point>> adjustedCurveLists = new ArrayList<>();
+  private final ArrayList<Path> pathsCurve = new ArrayList<>();
+  private final ArrayList<Path> pathsFill = new ArrayList<>();
+  private final ArrayList<String> priceLabels = new ArrayList<>();
+  private final ArrayList<Float> priceLabelValues = new ArrayList<>();
+  private final ArrayList<Float> priceLabelHeights = new ArrayList<>();
+  private boolean isLayoutValid = false;
+  private int labelStep = 1;
   private float lastXLeftBadge = 0;
   private float maxY = 0;
   private float scaleY;
@@ -177,7 +187,33 @@ public class BezierCurveChart extends View {
     paintLabel.setAntiAlias(true);
   }
 
-  private void drawLabels(Canvas canvas) {
+
+  /**
+   * Calculates everything which only depends on the data and the size of the view, so onDraw
+   * only has to draw the cached labels and paths.
+   */
+  private void computeLayout() {
+    rectChart.set(rectDrawing);
+    if (isRtl) {
+      rectChart.right -= dotRadius;
+      rectChart.left += paddingEnd;
+    } else {
+      rectChart.left += dotRadius;
+      rectChart.right -= paddingEnd;
+    }
+
+    measureLabels();
+
+    getRoundedRectAsPath(pathFillMask, rectChart, cornerRadiusBg, cornerRadiusBg);
+
+    adjustPoints();
+
+    buildPaths();
+
+    isLayoutValid = true;
+  }
+
+  private void measureLabels() {
     // max date width
     int maxDateHeight = 0;
     int lastDateWidth = 0;
@@ -195,6 +231,9 @@ public class BezierCurveChart extends View {
     rectChart.bottom -= maxDateHeight + paintLabel.getTextSize() / 2;
 
     // max price width
+    priceLabels.clear();
+    priceLabelValues.clear();
+    priceLabelHeights.clear();
     int maxPriceWidth = 0;
     for (float y = 1; y < maxY * (maxY <= 1 ? 10 : 1); y++) {
       if (maxY >= 10 && maxY < 50 && y % 5 != 0) {
@@ -206,24 +245,43 @@ public class BezierCurveChart extends View {
       if (maxY >= 100 && y % 20 != 0) {
         continue;
       }
-      int labelWidth = getTextWidth(paintLabel, NumUtil.trimPrice(y / (maxY <= 1 ? 10 : 1), decimalPlacesPriceDisplay));
+      String label = NumUtil.trimPrice(y / (maxY <= 1 ? 10 : 1), decimalPlacesPriceDisplay);
+      priceLabels.add(label);
+      priceLabelValues.add(y);
+      priceLabelHeights.add(getTextHeight(paintLabel, label));
+      int labelWidth = getTextWidth(paintLabel, label);
       if (labelWidth > maxPriceWidth) {
         maxPriceWidth = labelWidth;
       }
     }
     rectChart.right -= Math.max(maxPriceWidth + labelMargin, lastDateWidth);
 
-    // X-AXIS
+    float drawingHeight = rectChart.height() - badgeHeight - badgeMargin * 2;
+    if (maxY > 1) {
+      scaleY = drawingHeight / maxY; // 800 / 4 = 200
+    } else {
+      scaleY = drawingHeight / (maxY * 10); // 800 / 0.4 * 10
+    }
+
+    // only every n-th date is shown if the rotated labels would overlap otherwise
+    float minSectionWidth = paintLabel.getTextSize() * 1.5f;
+    labelStep = Math.max(1, (int) Math.ceil(minSectionWidth / getSectionWidth()));
+  }
 
-    float sectionWidth;
+  private float getSectionWidth() {
     if (labels.size() > 1) {
-      sectionWidth = rectChart.width() / (labels.size() - 1);
+      return rectChart.width() / (labels.size() - 1);
     } else {
-      sectionWidth = 1;
+      return 1;
     }
+  }
+
+  private void drawLabels(Canvas canvas) {
+    // X-AXIS
 
+    float sectionWidth = getSectionWidth();
     float centerX, centerY;
-    for (int i = 0; i < labels.size(); i++) {
+    for (int i = 0; i < labels.size(); i += labelStep) {
       String label = labels.get(i);
       paintLabel.getTextBounds(label, 0, label.length(), rectMeasure);
       centerX = rectChart.left + sectionWidth * i;
@@ -236,28 +294,11 @@ public class BezierCurveChart extends View {
 
     // Y-AXIS
 
-    float drawingHeight = rectChart.height() - badgeHeight - badgeMargin * 2;
-    if (maxY > 1) {
-      scaleY = drawingHeight / maxY; // 800 / 4 = 200
-    } else {
-      scaleY = drawingHeight / (maxY * 10); // 800 / 0.4 * 10
-    }
-
     centerX = rectChart.right + labelMargin;
-    for (float y = 1; y < maxY * (maxY <= 1 ? 10 : 1); y++) {
-      if (maxY >= 10 && maxY < 50 && y % 5 != 0) {
-        continue;
-      }
-      if (maxY >= 50 && maxY < 100 && y % 10 != 0) {
-        continue;
-      }
-      if (maxY >= 100 && y % 20 != 0) {
-        continue;
-      }
-      String label = NumUtil.trimPrice(y / (maxY <= 1 ? 10 : 1), decimalPlacesPriceDisplay);
-      centerY = rectChart.bottom - y * scaleY;
-      centerY = centerY + getTextHeight(paintLabel, label) / 2;
-      canvas.drawText(label, centerX, centerY, paintLabel);
+    for (int i = 0; i < priceLabels.size(); i++) {
+      centerY = rectChart.bottom - priceLabelValues.get(i) * scaleY;
+      centerY = centerY + priceLabelHeights.get(i) / 2;
+      canvas.drawText(priceLabels.get(i), centerX, centerY, paintLabel);
     }
   }
 
@@ -282,48 +323,91 @@ public class BezierCurveChart extends View {
     }
     float startX = minX;
 
+    // more points than dots fitting next to each other can't be distinguished anyway
+    int maxPointCount = Math.max(MIN_POINT_COUNT, (int) (rectChart.width() / (dotRadius * 2)));
+
+    curveLabels.clear();
+    adjustedCurveLists.clear();
     for (String key : curveLists.keySet()) {
       ArrayList<Point> curveList = curveLists.get(key);
       assert curveList != null;
-      for (int i = 0; i < curveList.size(); i++) {
-        Point p = curveList.get(i);
+      curveList = downsample(curveList, maxPointCount);
 
-        Point newPoint = new Point(
+      ArrayList<Point> adjustedCurveList = new ArrayList<>(curveList.size());
+      for (Point p : curveList) {
+        adjustedCurveList.add(new Point(
             (p.x - startX) * rectChart.width() / axesSpan + rectChart.left,
             rectChart.height() - (p.y * scaleY * (maxY <= 1 ? 10 : 1))
-        );
-
-        ArrayList<Point> adjustedCurveList = adjustedCurveLists.get(key);
-        assert adjustedCurveList != null;
-        if (i + 1 > adjustedCurveList.size()) {
-          adjustedCurveList.add(newPoint);
-        } else {
-          adjustedCurveList.set(i, newPoint);
+        ));
+      }
+      curveLabels.add(key);
+      adjustedCurveLists.add(adjustedCurveList);
+    }
+  }
+
+  /**
+   * Largest-Triangle-Three-Buckets downsampling. The first and the last point are kept, the
+   * points in between are split into buckets and from every bucket the point is kept which
+   * forms the largest triangle with the previously kept point and the average of the next
+   * bucket. This keeps the peaks of the curve, unlike taking every n-th point.
+   */
+  static ArrayList<Point> downsample(ArrayList<Point> points, int threshold) {
+    int size = points.size();
+    if (threshold >= size || threshold < MIN_POINT_COUNT) {
+      return points;
+    }
+    ArrayList<Point> sampled = new ArrayList<>(threshold);
+    double bucketSize = (double) (size - 2) / (threshold - 2);
+
+    int indexA = 0;
+    sampled.add(points.get(indexA));
+    for (int i = 0; i < threshold - 2; i++) {
+      // average of the next bucket
+      int avgStart = (int) ((i + 1) * bucketSize) + 1;
+      int avgEnd = Math.min((int) ((i + 2) * bucketSize) + 1, size);
+      float avgX = 0;
+      float avgY = 0;
+      for (int j = avgStart; j < avgEnd; j++) {
+        avgX += points.get(j).x;
+        avgY += points.get(j).y;
+      }
+      avgX /= avgEnd - avgStart;
+      avgY /= avgEnd - avgStart;
+
+      // point of the current bucket with the largest triangle
+      int rangeStart = (int) (i * bucketSize) + 1;
+      int rangeEnd = (int) ((i + 1) * bucketSize) + 1;
+      Point pointA = points.get(indexA);
+      float maxArea = -1;
+      int indexMax = rangeStart;
+      for (int j = rangeStart; j < rangeEnd; j++) {
+        Point point = points.get(j);
+        float area = Math.abs((pointA.x - avgX) * (point.y - pointA.y)
+            - (pointA.x - point.x) * (avgY - pointA.y));
+        if (area > maxArea) {
+          maxArea = area;
+          indexMax = j;
         }
       }
+      sampled.add(points.get(indexMax));
+      indexA = indexMax;
     }
+    sampled.add(points.get(size - 1));
+    return sampled;
   }
 
   private void drawGrid(Canvas canvas) {
     canvas.drawRoundRect(rectChart, cornerRadiusBg, cornerRadiusBg, paintChartBg);
-    getRoundedRectAsPath(pathFillMask, rectChart, cornerRadiusBg, cornerRadiusBg);
 
     int gridCount = labels.size() - 1;
     float part = rectChart.width() / gridCount;
 
-    for (int i = 1; i < gridCount; i++) {
+    for (int i = labelStep; i < gridCount; i += labelStep) {
       float x = rectChart.left + part * i;
       canvas.drawLine(x, rectChart.top, x, rectChart.bottom, paintGrid);
     }
 
-    for (float y = 1; y < maxY * (maxY <= 1 ? 10 : 1); y++) {
-      if (maxY >= 10 && maxY < 50 && y % 5 != 0) {
-        continue;
-      } else if (maxY >= 50 && maxY < 100 && y % 10 != 0) {
-        continue;
-      } else if (maxY >= 100 && y % 20 != 0) {
-        continue;
-      }
+    for (float y : priceLabelValues) {
       canvas.drawLine(
           rectChart.left, rectChart.bottom - y * scaleY,
           rectChart.right, rectChart.bottom - y * scaleY,
@@ -377,25 +461,21 @@ public class BezierCurveChart extends View {
     target.close();
   }
 
-  private void drawCurvesFill(Canvas canvas) {
-    int colorIndex = 0;
-    for (String curveLabel : adjustedCurveLists.keySet()) {
-      ArrayList<Point> curveList = adjustedCurveLists.get(curveLabel);
-      assert curveList != null;
-      buildPath(pathFill, curveList);
+  private void buildPaths() {
+    pathsCurve.clear();
+    pathsFill.clear();
+    for (ArrayList<Point> curveList : adjustedCurveLists) {
+      Path pathCurve = new Path();
+      buildPath(pathCurve, curveList);
+      pathsCurve.add(pathCurve);
+
+      Path pathFill = new Path(pathCurve);
       pathFill.lineTo(curveList.get(curveList.size() - 1).x, rectChart.bottom);
       pathFill.lineTo(curveList.get(0).x, rectChart.bottom);
       pathFill.lineTo(curveList.get(0).x, curveList.get(0).y);
       pathFill.close();
       pathFill.op(pathFillMask, Op.INTERSECT);
-      int curveColor = colorsAccentContainer[colorIndex];
-      colorIndex++;
-      if (colorIndex > colorsAccentContainer.length - 1) {
-        colorIndex = 0;
-      }
-      paintFill.setColor(curveColor);
-      paintFill.setAlpha(100);
-      canvas.drawPath(pathFill, paintFill);
+      pathsFill.add(pathFill);
     }
   }
 
@@ -418,22 +498,33 @@ public class BezierCurveChart extends View {
     }
   }
 
+  private void drawCurvesFill(Canvas canvas) {
+    int colorIndex = 0;
+    for (Path pathFill : pathsFill) {
+      int curveColor = colorsAccentContainer[colorIndex];
+      colorIndex++;
+      if (colorIndex > colorsAccentContainer.length - 1) {
+        colorIndex = 0;
+      }
+      paintFill.setColor(curveColor);
+      paintFill.setAlpha(100);
+      canvas.drawPath(pathFill, paintFill);
+    }
+  }
+
   private void drawCurvesLine(Canvas canvas) {
     int colorIndex = 0;
-    for (String curveLabel : adjustedCurveLists.keySet()) {
-      ArrayList<Point> curveList = adjustedCurveLists.get(curveLabel);
-      assert curveList != null;
+    for (int i = 0; i < curveLabels.size(); i++) {
       if (colorIndex > colorsAccent.length - 1) {
         colorIndex = 0;
       }
       int curveColor = colorsAccent[colorIndex];
 
-      buildPath(pathCurve, curveList);
       paintCurve.setColor(curveColor);
-      canvas.drawPath(pathCurve, paintCurve);
+      canvas.drawPath(pathsCurve.get(i), paintCurve);
 
-      drawDots(canvas, curveList, curveColor);
-      drawBadge(canvas, curveLabel, colorIndex);
+      drawDots(canvas, adjustedCurveLists.get(i), curveColor);
+      drawBadge(canvas, curveLabels.get(i), colorIndex);
 
       colorIndex++;
     }
@@ -447,7 +538,7 @@ public class BezierCurveChart extends View {
   }
 
   private void drawBadge(Canvas canvas, String text, int colorIndex) {
-    Rect textBounds = new Rect();
+    Rect textBounds = rectBadgeText;
     paintBadgeText.getTextBounds(text, 0, text.length(), textBounds);
     textBounds.inset(-badgePadding, 0);
 
@@ -486,9 +577,6 @@ public class BezierCurveChart extends View {
   ) {
     this.curveLists = curveLists;
     this.labels = labels;
-    for (String key : curveLists.keySet()) {
-      adjustedCurveLists.put(key, new ArrayList<>());
-    }
     // order by x coordinate ascending
     for (ArrayList<Point> curveList : curveLists.values()) {
       Collections.sort(curveList);
@@ -502,35 +590,26 @@ public class BezierCurveChart extends View {
         }
       }
     }
+    isLayoutValid = false;
     super.invalidate();
   }
 
   @Override
   protected void onDraw(Canvas canvas) {
-    getDrawingRect(rectDrawing);
-
-    rectChart.bottom = rectDrawing.bottom;
-    rectChart.top = rectDrawing.top;
-    rectChart.left = rectDrawing.left;
-    rectChart.right = rectDrawing.right;
-    if (isRtl) {
-      rectChart.right -= dotRadius;
-      rectChart.left += paddingEnd;
-    } else {
-      rectChart.left += dotRadius;
-      rectChart.right -= paddingEnd;
-    }
-
     if (curveLists == null) {
       return;
     }
 
+    getDrawingRect(rectDrawing);
+    if (!isLayoutValid || !rectDrawing.equals(rectLayout)) {
+      rectLayout.set(rectDrawing);
+      computeLayout();
+    }
+
     lastXLeftBadge = 0;
 
     drawLabels(canvas);
 
-    adjustPoints();
-
     drawGrid(canvas);
 
     drawCurvesFill(canvas);
@@ -0,0 +1,392 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.view.photoview;
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import xyz.zedler.patrick.grocy.util.PictureUtil;
+
+/**
+ * Drawable for pictures which are too large to be decoded at full size. A base layer scaled to
+ * the screen size is always drawn, if the picture is zoomed in further than the base layer
+ * allows, the visible region is decoded in tiles with BitmapRegionDecoder at the sample size
+ * of the current zoom level and drawn on top of it.
+ * The intrinsic size is the size of the full picture, so the matrix of PhotoView maps picture
+ * pixels and only setViewport has to be called whenever the matrix has changed.
+ */
+public class TiledPictureDrawable extends Drawable {
+
+  private final static String TAG = TiledPictureDrawable.class.getSimpleName();
+
+  private final static int TILE_SIZE = 256;
+  private final static int MAX_POOL_SIZE = 8;
+
+  private final BitmapRegionDecoder decoder;
+  private final Bitmap baseBitmap;
+  private final float baseScale;
+  private final int width, height;
+  private final Config tileConfig;
+  private final Paint paint;
+  private final LruCache<Tile, Bitmap> tileCache;
+  private final ArrayDeque<Bitmap> bitmapPool;
+  private final HashSet<Tile> pendingTiles;
+  private final ArrayList<Tile> visibleTiles;
+  private final ExecutorService executor;
+  private final Handler handler;
+  private final Rect region;
+  private final Rect source;
+  private final RectF destination;
+  private volatile Set<Tile> wantedTiles;
+  private volatile boolean isRecycled;
+
+  private TiledPictureDrawable(BitmapRegionDecoder decoder, Bitmap baseBitmap) {
+    this.decoder = decoder;
+    this.baseBitmap = baseBitmap;
+    width = decoder.getWidth();
+    height = decoder.getHeight();
+    baseScale = (float) baseBitmap.getWidth() / width;
+    // tiles of opaque pictures need only half of the memory
+    tileConfig = baseBitmap.hasAlpha() ? Config.ARGB_8888 : Config.RGB_565;
+    paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // the whole cache is bounded, even if a single viewport would need more tiles than fit
+    int maxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 6, Integer.MAX_VALUE);
+    tileCache = new LruCache<Tile, Bitmap>(maxBytes) {
+      @Override
+      protected int sizeOf(Tile key, Bitmap value) {
+        return value.getAllocationByteCount();
+      }
+
+      @Override
+      protected void entryRemoved(
+          boolean evicted, Tile key, Bitmap oldValue, @Nullable Bitmap newValue
+      ) {
+        recycleTileBitmap(oldValue);
+      }
+    };
+    bitmapPool = new ArrayDeque<>();
+    pendingTiles = new HashSet<>();
+    visibleTiles = new ArrayList<>();
+    wantedTiles = Collections.emptySet();
+    executor = Executors.newSingleThreadExecutor();
+    handler = new Handler(Looper.getMainLooper());
+    region = new Rect();
+    source = new Rect();
+    destination = new RectF();
+  }
+
+  /**
+   * Opens the picture file for region decoding and decodes the base layer so that it fits
+   * into the given size. Blocks, so it has to be called on a background thread.
+   */
+  @NonNull
+  public static TiledPictureDrawable create(
+      File file,
+      int maxWidth,
+      int maxHeight
+  ) throws IOException {
+    BitmapRegionDecoder decoder;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+      decoder = BitmapRegionDecoder.newInstance(file.getAbsolutePath());
+    } else {
+      decoder = BitmapRegionDecoder.newInstance(file.getAbsolutePath(), false);
+    }
+    if (decoder == null) throw new IOException("Picture not supported by region decoder");
+    Bitmap baseBitmap = PictureUtil.decodeScaledBitmap(
+        () -> new FileInputStream(file), maxWidth, maxHeight, 0
+    );
+    if (baseBitmap == null) {
+      decoder.recycle();
+      throw new IOException("Could not decode picture");
+    }
+    return new TiledPictureDrawable(decoder, baseBitmap);
+  }
+
+  /**
+   * Updates the visible tiles for the given display rect of PhotoView and starts decoding the
+   * missing ones. Has to be called on the main thread.
+   */
+  public void setViewport(@Nullable RectF displayRect, int viewWidth, int viewHeight) {
+    if (isRecycled || displayRect == null || displayRect.width() <= 0) return;
+    float scale = displayRect.width() / width;
+    visibleTiles.clear();
+    if (scale <= baseScale) {
+      // base layer is sharp enough
+      wantedTiles = Collections.emptySet();
+      invalidateSelf();
+      return;
+    }
+    int sampleSize = getSampleSize(scale);
+    int tileSourceSize = TILE_SIZE * sampleSize;
+    float left = Math.max(0, -displayRect.left / scale);
+    float top = Math.max(0, -displayRect.top / scale);
+    float right = Math.min(width, (viewWidth - displayRect.left) / scale);
+    float bottom = Math.min(height, (viewHeight - displayRect.top) / scale);
+    int colStart = (int) (left / tileSourceSize);
+    int rowStart = (int) (top / tileSourceSize);
+    int colEnd = (int) Math.ceil(right / tileSourceSize);
+    int rowEnd = (int) Math.ceil(bottom / tileSourceSize);
+
+    HashSet<Tile> tiles = new HashSet<>();
+    for (int row = rowStart; row < rowEnd; row++) {
+      for (int col = colStart; col < colEnd; col++) {
+        Tile tile = new Tile(sampleSize, col, row);
+        tiles.add(tile);
+        visibleTiles.add(tile);
+      }
+    }
+    wantedTiles = tiles;
+    for (Tile tile : visibleTiles) {
+      if (tileCache.get(tile) != null || pendingTiles.contains(tile)) continue;
+      pendingTiles.add(tile);
+      executor.execute(() -> decodeTile(tile));
+    }
+    invalidateSelf();
+  }
+
+  /**
+   * Largest power of two sample size which still has at least as many pixels as displayed.
+   */
+  private static int getSampleSize(float scale) {
+    int sampleSize = 1;
+    while (sampleSize * 2 <= 1 / scale) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+
+  private void decodeTile(Tile tile) {
+    Bitmap bitmap = null;
+    if (!isRecycled && wantedTiles.contains(tile)) {
+      Rect tileRegion = new Rect();
+      tile.getRegion(tileRegion, width, height);
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inSampleSize = tile.sampleSize;
+      options.inPreferredConfig = tileConfig;
+      options.inMutable = true;
+      Bitmap pooledBitmap = takePooledBitmap();
+      options.inBitmap = pooledBitmap;
+      try {
+        bitmap = decoder.decodeRegion(tileRegion, options);
+      } catch (IllegalArgumentException e) {
+        // pooled bitmap could not be reused
+        options.inBitmap = null;
+        bitmap = decoder.decodeRegion(tileRegion, options);
+      } catch (IllegalStateException e) {
+        Log.e(TAG, "decodeTile: " + e);
+      }
+      if (pooledBitmap != null && bitmap != pooledBitmap) {
+        // nothing was decoded into it
+        recycleTileBitmap(pooledBitmap);
+      }
+    }
+    Bitmap decoded = bitmap;
+    handler.post(() -> {
+      pendingTiles.remove(tile);
+      if (decoded == null) return;
+      if (isRecycled) {
+        decoded.recycle();
+        return;
+      }
+      tileCache.put(tile, decoded);
+      invalidateSelf();
+    });
+  }
+
+  @Nullable
+  private Bitmap takePooledBitmap() {
+    synchronized (bitmapPool) {
+      return bitmapPool.poll();
+    }
+  }
+
+  private void recycleTileBitmap(Bitmap bitmap) {
+    // only full tiles can be reused for every other tile
+    if (bitmap.isMutable() && bitmap.getConfig() == tileConfig
+        && bitmap.getAllocationByteCount() >= getFullTileByteCount()) {
+      synchronized (bitmapPool) {
+        // also called on the decode thread, recycle() clears the pool after setting the flag
+        if (!isRecycled && bitmapPool.size() < MAX_POOL_SIZE) {
+          bitmapPool.add(bitmap);
+          return;
+        }
+      }
+    }
+    bitmap.recycle();
+  }
+
+  private int getFullTileByteCount() {
+    return TILE_SIZE * TILE_SIZE * (tileConfig == Config.ARGB_8888 ? 4 : 2);
+  }
+
+  /**
+   * Releases all bitmaps and the region decoder. Has to be called on the main thread when the
+   * drawable isn't displayed anymore.
+   */
+  public void recycle() {
+    if (isRecycled) return;
+    isRecycled = true;
+    handler.removeCallbacksAndMessages(null);
+    tileCache.evictAll();
+    synchronized (bitmapPool) {
+      for (Bitmap bitmap : bitmapPool) {
+        bitmap.recycle();
+      }
+      bitmapPool.clear();
+    }
+    visibleTiles.clear();
+    pendingTiles.clear();
+    // decoder is recycled after the running decode task has finished
+    executor.execute(decoder::recycle);
+    executor.shutdown();
+    baseBitmap.recycle();
+  }
+
+  @Override
+  public void draw(@NonNull Canvas canvas) {
+    if (isRecycled) return;
+    Rect bounds = getBounds();
+    canvas.drawBitmap(baseBitmap, null, bounds, paint);
+    if (visibleTiles.isEmpty()) return;
+    float scaleX = (float) bounds.width() / width;
+    float scaleY = (float) bounds.height() / height;
+    for (Tile tile : visibleTiles) {
+      Bitmap bitmap = tileCache.get(tile);
+      if (bitmap == null) continue;
+      tile.getRegion(region, width, height);
+      tile.getBitmapRect(source, region);
+      destination.set(
+          bounds.left + region.left * scaleX,
+          bounds.top + region.top * scaleY,
+          bounds.left + region.right * scaleX,
+          bounds.top + region.bottom * scaleY
+      );
+      canvas.drawBitmap(bitmap, source, destination, paint);
+    }
+  }
+
+  @Override
+  public int getIntrinsicWidth() {
+    return width;
+  }
+
+  @Override
+  public int getIntrinsicHeight() {
+    return height;
+  }
+
+  @Override
+  public void setAlpha(int alpha) {
+    paint.setAlpha(alpha);
+    invalidateSelf();
+  }
+
+  @Override
+  public void setColorFilter(@Nullable ColorFilter colorFilter) {
+    paint.setColorFilter(colorFilter);
+    invalidateSelf();
+  }
+
+  @Override
+  public int getOpacity() {
+    return PixelFormat.TRANSLUCENT;
+  }
+
+  private static class Tile {
+
+    private final int sampleSize;
+    private final int col;
+    private final int row;
+
+    Tile(int sampleSize, int col, int row) {
+      this.sampleSize = sampleSize;
+      this.col = col;
+      this.row = row;
+    }
+
+    void getRegion(Rect outRect, int width, int height) {
+      int tileSourceSize = TILE_SIZE * sampleSize;
+      outRect.set(
+          col * tileSourceSize,
+          row * tileSourceSize,
+          Math.min(width, (col + 1) * tileSourceSize),
+          Math.min(height, (row + 1) * tileSourceSize)
+      );
+    }
+
+    /**
+     * Part of the tile bitmap which contains the decoded region. Edge tiles decoded into a
+     * pooled bitmap only fill its top left corner.
+     */
+    void getBitmapRect(Rect outRect, Rect region) {
+      outRect.set(
+          0,
+          0,
+          (region.width() + sampleSize - 1) / sampleSize,
+          (region.height() + sampleSize - 1) / sampleSize
+      );
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Tile tile = (Tile) o;
+      return sampleSize == tile.sampleSize && col == tile.col && row == tile.row;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sampleSize, col, row);
+    }
+  }
+}
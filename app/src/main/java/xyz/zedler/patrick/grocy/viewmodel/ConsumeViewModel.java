@@ -51,6 +51,7 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSh
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuickModeConfirmBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StockEntriesBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StockLocationsBottomSheet;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndex;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
@@ -63,12 +64,9 @@ import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.model.StockEntry;
 import xyz.zedler.patrick.grocy.model.StockLocation;
 import xyz.zedler.patrick.grocy.repository.InventoryRepository;
-import xyz.zedler.patrick.grocy.util.ArrayUtil;
-import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
-import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
-import xyz.zedler.patrick.grocy.util.QuantityUnitConversionUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.VersionUtil;
 
 public class ConsumeViewModel extends BaseViewModel {
@@ -83,8 +81,8 @@ public class ConsumeViewModel extends BaseViewModel {
   private final FormDataConsume formData;
 
   private List<Product> products;
-  private List<QuantityUnitConversionResolved> unitConversions;
-  private List<ProductBarcode> barcodes;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private final BarcodeIndex barcodeIndex;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
 
   private final MutableLiveData<Boolean> isLoadingLive;
@@ -125,7 +123,7 @@ public class ConsumeViewModel extends BaseViewModel {
     }
     quickModeEnabled = new MutableLiveData<>(quickModeStart);
 
-    barcodes = new ArrayList<>();
+    barcodeIndex = BarcodeIndex.getInstance();
   }
 
   public FormDataConsume getFormData() {
@@ -135,9 +133,9 @@ public class ConsumeViewModel extends BaseViewModel {
   public void loadFromDatabase(boolean downloadAfterLoading) {
     repository.loadFromDatabase(data -> {
       this.products = data.getProducts();
-      this.barcodes = data.getBarcodes();
-      this.quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      this.unitConversions = data.getQuantityUnitConversionsResolved();
+      barcodeIndex.loadIfNeeded(products, data.getBarcodes(), null, null);
+      this.quantityUnitHashMap = data.getQuantityUnitHashMap();
+      this.unitConversionIndex = data.getUnitConversionIndex();
       formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
       if (downloadAfterLoading) {
         downloadData(false);
@@ -185,12 +183,7 @@ public class ConsumeViewModel extends BaseViewModel {
       formData.getConsumeExactAmountLive().setValue(false);
 
       // quantity unit
-      HashMap<QuantityUnit, Double> unitFactors = QuantityUnitConversionUtil.getUnitFactors(
-          quantityUnitHashMap,
-          unitConversions,
-          product,
-          VersionUtil.isGrocyServerMin400(sharedPrefs)
-      );
+      HashMap<QuantityUnit, Double> unitFactors = unitConversionIndex.getUnitFactors(product);
       formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
       QuantityUnit stock = quantityUnitHashMap.get(product.getQuIdStockInt());
       formData.getQuantityUnitStockLive().setValue(stock);
@@ -310,33 +303,25 @@ public class ConsumeViewModel extends BaseViewModel {
 
   public void onBarcodeRecognized(String barcode) {
     if (formData.getProductDetailsLive().getValue() != null) {
-      if (ProductBarcode.getFromBarcode(barcodes, barcode) == null) {
+      if (barcodeIndex.getBarcode(barcode, false) == null) {
         formData.getBarcodeLive().setValue(barcode);
       } else {
         showMessage(R.string.msg_clear_form_first);
       }
       return;
     }
-    Product product = null;
-    String stockEntryId = null;
-    Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
-    if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
-      if (product == null) {
-        showMessageAndContinueScanning(R.string.msg_not_found);
-        return;
-      }
-      stockEntryId = grocycode.getProductStockEntryId();
-    } else if (grocycode != null) {
+    BarcodeIndex.Match match = barcodeIndex.lookup(barcode, false);
+    if (match.isWrongGrocycodeType()) {
       showMessageAndContinueScanning(R.string.error_wrong_grocycode_type);
       return;
+    } else if (match.isGrocycode() && match.getProduct() == null) {
+      showMessageAndContinueScanning(R.string.msg_not_found);
+      return;
     }
-    ProductBarcode productBarcode = null;
-    if (product == null) {
-      productBarcode = ProductBarcode.getFromBarcode(barcodes, barcode);
-      product = productBarcode != null
-          ? Product.getProductFromId(products, productBarcode.getProductIdInt()) : null;
-    }
+    Product product = match.getProduct();
+    ProductBarcode productBarcode = match.getBarcode();
+    String stockEntryId = match.isGrocycode()
+        ? match.getGrocycode().getProductStockEntryId() : null;
     if (product != null) {
       setProduct(product.getId(), productBarcode, stockEntryId);
     } else {
@@ -352,31 +337,22 @@ public class ConsumeViewModel extends BaseViewModel {
     if (input == null || input.isEmpty()) {
       return;
     }
-    Product product = Product.getProductFromName(products, input);
+    Product product = barcodeIndex.getProductFromName(input);
 
-    Grocycode grocycode = GrocycodeUtil.getGrocycode(input.trim());
-    if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
+    BarcodeIndex.Match match = barcodeIndex.lookup(input, false);
+    if (match.isWrongGrocycodeType()) {
+      showMessageAndContinueScanning(R.string.error_wrong_grocycode_type);
+      return;
+    } else if (match.isGrocycode()) {
+      product = match.getProduct();
       if (product == null) {
         showMessageAndContinueScanning(R.string.msg_not_found);
         return;
       }
-    } else if (grocycode != null) {
-      showMessageAndContinueScanning(R.string.error_wrong_grocycode_type);
-      return;
     }
-    if (product == null) {
-      ProductBarcode productBarcode = null;
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(input.trim())) {
-          productBarcode = code;
-          product = Product.getProductFromId(products, code.getProductIdInt());
-        }
-      }
-      if (product != null) {
-        setProduct(product.getId(), productBarcode, null);
-        return;
-      }
+    if (product == null && match.getProduct() != null) {
+      setProduct(match.getProduct().getId(), match.getBarcode(), null);
+      return;
     }
 
     ProductDetails currentProductDetails = formData.getProductDetailsLive().getValue();
@@ -479,7 +455,8 @@ public class ConsumeViewModel extends BaseViewModel {
     JSONObject body = productBarcode.getJsonFromProductBarcode(debug, TAG);
     ProductBarcode.addProductBarcode(dlHelper, body, () -> {
       formData.getBarcodeLive().setValue(null);
-      barcodes.add(productBarcode); // add to list so it will be found on next scan without reload
+      // add to index so it will be found on next scan without reload
+      barcodeIndex.putProductBarcode(productBarcode);
       if (onSuccess != null) {
         onSuccess.run();
       }
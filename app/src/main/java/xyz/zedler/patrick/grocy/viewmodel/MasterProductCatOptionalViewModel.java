@@ -25,24 +25,18 @@ import android.content.ClipData;
 import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.net.Uri;
 import android.os.Environment;
-import android.os.Handler;
-import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
+import com.android.volley.VolleyError;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.Constants;
@@ -53,6 +47,8 @@ import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
 import xyz.zedler.patrick.grocy.form.FormDataMasterProductCatOptional;
 import xyz.zedler.patrick.grocy.fragment.MasterProductCatOptionalFragmentArgs;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.PictureUploader;
+import xyz.zedler.patrick.grocy.helper.PictureUploader.OnUploadListener;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
@@ -67,6 +63,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
   private static final String TAG = MasterProductCatOptionalViewModel.class.getSimpleName();
 
   private final DownloadHelper dlHelper;
+  private final PictureUploader pictureUploader;
   private final GrocyApi grocyApi;
   private final MasterProductRepository repository;
   private final SharedPreferences sharedPrefs;
@@ -92,6 +89,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
 
     isLoadingLive = new MutableLiveData<>(false);
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue, getOfflineLive());
+    pictureUploader = new PictureUploader(getApplication(), dlHelper);
     grocyApi = new GrocyApi(application);
     repository = new MasterProductRepository(application);
     sharedPrefs = PreferenceManager.getDefaultSharedPreferences(getApplication());
@@ -199,14 +197,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
       showMessage(R.string.error_clipboard_no_image);
       return;
     }
-    try {
-      InputStream imageStream = getApplication().getContentResolver().openInputStream(item.getUri());
-      Bitmap bitmap = BitmapFactory.decodeStream(imageStream);
-      scaleAndUploadBitmap(null, bitmap);
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-      showMessage(R.string.error_clipboard_no_image);
-    }
+    scaleAndUploadPicture(null, item.getUri());
   }
 
   public File createImageFile() throws IOException {
@@ -216,44 +207,35 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
     return image;
   }
 
-  public void scaleAndUploadBitmap(@Nullable String filePath, @Nullable Bitmap image) {
-    if (filePath == null && image == null) {
+  public void scaleAndUploadPicture(@Nullable String filePath, @Nullable Uri uri) {
+    if (filePath == null && uri == null) {
       showErrorMessage();
       return;
     }
     isLoadingLive.setValue(true);
-    ExecutorService executor = Executors.newSingleThreadExecutor();
-    executor.execute(() -> {
-      Bitmap scaledBitmap = filePath != null
-          ? PictureUtil.scaleBitmap(filePath)
-          : PictureUtil.scaleBitmap(image);
-      byte[] imageArray = PictureUtil.convertBitmapToByteArray(scaledBitmap);
-      new Handler(Looper.getMainLooper()).post(() -> {
-        uploadPicture(imageArray);
-        executor.shutdown();
-      });
-    });
-  }
-
-  public void uploadPicture(byte[] pictureData) {
-    if (pictureData == null) {
-      showErrorMessage();
-      isLoadingLive.setValue(false);
-      return;
-    }
     String filename = PictureUtil.createImageFilename();
-    dlHelper.putFile(
-        grocyApi.getProductPicture(filename),
-        pictureData,
-        () -> {
-          deleteCurrentPicture(filename);
-          formData.getPictureFilenameLive().setValue(filename);
-        },
-        error -> {
-          isLoadingLive.setValue(false);
+    OnUploadListener onUploadListener = new OnUploadListener() {
+      @Override
+      public void onUploaded() {
+        deleteCurrentPicture(filename);
+        formData.getPictureFilenameLive().setValue(filename);
+      }
+
+      @Override
+      public void onError(@Nullable VolleyError error) {
+        isLoadingLive.setValue(false);
+        if (error != null) {
           showNetworkErrorMessage(error);
+        } else {
+          showErrorMessage();
         }
-    );
+      }
+    };
+    if (filePath != null) {
+      pictureUploader.uploadFile(filePath, grocyApi.getProductPicture(filename), onUploadListener);
+    } else {
+      pictureUploader.uploadUri(uri, grocyApi.getProductPicture(filename), onUploadListener);
+    }
   }
 
   public void deleteCurrentPicture(String newFilename) {
@@ -319,6 +301,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    pictureUploader.dispose();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -66,6 +66,7 @@ public class MasterProductCatQuantityUnitViewModel extends BaseViewModel {
 
   private List<QuantityUnit> quantityUnits;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+  private List<QuantityUnitConversion> conversions;
   private List<QuantityUnitConversionResolved> conversionsResolved;
 
   private Runnable queueEmptyAction;
@@ -105,6 +106,7 @@ public class MasterProductCatQuantityUnitViewModel extends BaseViewModel {
     repository.loadFromDatabase(data -> {
       this.quantityUnits = data.getQuantityUnits();
       this.quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
+      this.conversions = data.getConversions();
       this.conversionsResolved = data.getConversionsResolved();
       formData.setQuantityUnitHashMap(this.quantityUnitHashMap);
       if (downloadAfterLoading) {
@@ -218,14 +220,14 @@ public class MasterProductCatQuantityUnitViewModel extends BaseViewModel {
       // Old behavior: With Grocy server version until 3.3.2, stock unit can be edited
       // after creation as long as no transactions have been made or purchase unit can always be
       // edited because of available stock to purchase factor.
-      // No transitive conversions allowed (conversionsResolved only contain normal conversions
-      // with server version < v4).
+      // No transitive conversions allowed (only normal conversions are used here, the
+      // resolved conversions are calculated locally with server version < v4).
       if (type.equals(FormDataMasterProductCatQuantityUnit.STOCK)
           && hasProductAlreadyStockTransactionsLive.getValue()) {
         QuantityUnit quStockOld = quantityUnitHashMap.get(args.getProduct().getQuIdStockInt());
         quantityUnitsAllowed = new ArrayList<>();
         ArrayList<Integer> addedQuIds = new ArrayList<>();
-        for (QuantityUnitConversion conversion : conversionsResolved) {
+        for (QuantityUnitConversion conversion : conversions) {
           if ((conversion.getProductIdInt() == args.getProduct().getId()
               || !NumUtil.isStringInt(conversion.getProductId()))
               && quStockOld != null && conversion.getFromQuId() == quStockOld.getId()
@@ -34,6 +34,8 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS.STOCK;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
@@ -41,6 +43,7 @@ import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.MealPlanSummaries;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataFields;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataFields.Field;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
@@ -56,6 +59,7 @@ import xyz.zedler.patrick.grocy.model.Userfield;
 import xyz.zedler.patrick.grocy.repository.MealPlanRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
@@ -81,6 +85,7 @@ public class MealPlanViewModel extends BaseViewModel {
   private final LazyHeaders grocyAuthHeaders;
   private final MealPlanRepository repository;
   private final PluralUtil pluralUtil;
+  private final MealPlanSummaries mealPlanSummaries;
   private final DateTimeFormatter dateFormatter;
   private final DateTimeFormatter weekFormatter;
 
@@ -95,19 +100,20 @@ public class MealPlanViewModel extends BaseViewModel {
 
   private List<MealPlanEntry> mealPlanEntries;
   private List<MealPlanSection> mealPlanSections;
-  private List<Recipe> shadowRecipes;
   private HashMap<Integer, Recipe> recipeHashMap;
   private HashMap<Integer, Product> productHashMap;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
-  private HashMap<String, RecipeFulfillment> recipeResolvedFulfillmentHashMap;
+  private IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
   private HashMap<Integer, StockItem> stockItemHashMap;
   private HashMap<String, Userfield> userfieldHashMap;
+  private LocalDate windowStart;
+  private LocalDate windowEnd;
 
   private final int maxDecimalPlacesAmount;
   private final int decimalPlacesPriceDisplay;
   private final String currency;
   private boolean initialScrollDone;
+  private boolean summariesLoaded;
   private final boolean debug;
 
   public MealPlanViewModel(@NonNull Application application) {
@@ -134,6 +140,7 @@ public class MealPlanViewModel extends BaseViewModel {
     grocyAuthHeaders = RequestHeaders.getGlideGrocyAuthHeaders(getApplication());
     repository = new MealPlanRepository(application);
     pluralUtil = new PluralUtil(application);
+    mealPlanSummaries = new MealPlanSummaries();
 
     infoFullscreenLive = new MutableLiveData<>();
     offlineLive = new MutableLiveData<>(false);
@@ -160,25 +167,28 @@ public class MealPlanViewModel extends BaseViewModel {
   }
 
   public void loadFromDatabase(boolean downloadAfterLoading) {
-    repository.loadFromDatabase(data -> {
-      quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      productHashMap = ArrayUtil.getProductsHashMap(data.getProducts());
+    updateWindow();
+    LocalDate windowStart = this.windowStart;
+    repository.loadFromDatabase(windowStart, windowEnd, data -> {
+      quantityUnitHashMap = data.getQuantityUnitHashMap();
+      productHashMap = data.getProductHashMap();
       productLastPurchasedHashMap = ArrayUtil
           .getProductLastPurchasedHashMap(data.getProductsLastPurchased());
-      shadowRecipes = ArrayUtil.getShadowRecipes(data.getRecipes());
       recipeHashMap = ArrayUtil.getRecipesHashMap(data.getRecipes());
-      recipeResolvedFulfillmentHashMap = ArrayUtil.getRecipeResolvedFulfillmentForMealplanHashMap(
-          ArrayUtil.getRecipeFulfillmentHashMap(data.getRecipeFulfillments()), data.getRecipes()
+      Set<String> changedSummaries = mealPlanSummaries.update(
+          data.getRecipes(), data.getRecipeFulfillments()
       );
-      weekCostsTextLive.setValue(getWeekCostsText());
+      if (!summariesLoaded || changedSummaries.contains(getSelectedWeek())) {
+        summariesLoaded = true;
+        weekCostsTextLive.setValue(getWeekCostsText());
+      }
       stockItemHashMap = ArrayUtil.getStockItemHashMap(data.getStockItems());
       userfieldHashMap = ArrayUtil.getUserfieldHashMap(data.getUserfields());
       this.mealPlanSections = data.getMealPlanSections();
       SortUtil.sortMealPlanSections(this.mealPlanSections);
-      this.mealPlanEntries = data.getMealPlanEntries();
-      mealPlanEntriesLive.setValue(ArrayUtil.getMealPlanEntriesForDayHashMap(
-          data.getMealPlanEntries()
-      ));
+      if (windowStart.equals(this.windowStart)) {
+        setMealPlanEntries(data.getMealPlanEntries());
+      }
       filterChipLiveDataEntriesFields.setUserfields(
           data.getUserfields(),
           DISPLAYED_USERFIELD_ENTITIES
@@ -213,6 +223,54 @@ public class MealPlanViewModel extends BaseViewModel {
     );
   }
 
+  /**
+   * Loads the entries around the selected date if it has moved to another week. The weeks
+   * before and after it are loaded and downloaded with it, so they are already there when the
+   * user pages to them.
+   */
+  public void onSelectedDateChanged() {
+    if (windowStart == null || !updateWindow()) return;
+    loadMealPlanEntries(true);
+  }
+
+  private void loadMealPlanEntries(boolean downloadAfterLoading) {
+    LocalDate windowStart = this.windowStart;
+    repository.loadMealPlanEntries(windowStart, windowEnd, entries -> {
+      if (!windowStart.equals(this.windowStart)) return;
+      setMealPlanEntries(entries);
+      if (downloadAfterLoading) {
+        downloadMealPlanEntries();
+      }
+    }, error -> onError(error, TAG));
+  }
+
+  private void downloadMealPlanEntries() {
+    if (isOffline()) return;
+    dlHelper.updateData(
+        updated -> {
+          if (updated) loadMealPlanEntries(false);
+        },
+        error -> onError(error, TAG),
+        false,
+        true,
+        MealPlanEntry.class
+    );
+  }
+
+  private boolean updateWindow() {
+    LocalDate start = MealPlanEntry.getWindowStart(getSelectedDate(), getFirstDayOfWeek());
+    if (start.equals(windowStart)) return false;
+    windowStart = start;
+    windowEnd = MealPlanEntry.getWindowEnd(getSelectedDate(), getFirstDayOfWeek());
+    dlHelper.setMealPlanWindow(windowStart, windowEnd);
+    return true;
+  }
+
+  private void setMealPlanEntries(List<MealPlanEntry> mealPlanEntries) {
+    this.mealPlanEntries = mealPlanEntries;
+    mealPlanEntriesLive.setValue(ArrayUtil.getMealPlanEntriesForDayHashMap(mealPlanEntries));
+  }
+
   public DayOfWeek getFirstDayOfWeek() {
     return DateUtil.getMealPlanFirstDayOfWeek(sharedPrefs);
   }
@@ -230,13 +288,11 @@ public class MealPlanViewModel extends BaseViewModel {
   }
 
   public String getWeekCostsText() {
-    if (shadowRecipes == null || !filterChipLiveDataHeaderFields.getActiveFields()
+    if (!summariesLoaded || !filterChipLiveDataHeaderFields.getActiveFields()
         .contains(MealPlanViewModel.FIELD_WEEK_COSTS)) {
       return getString(R.string.property_week_costs_insert, getString(R.string.subtitle_unknown));
     };
-    LocalDate selectedDate = getSelectedDate();
-    String weekFormatted = selectedDate.format(weekFormatter);
-    RecipeFulfillment recipeFulfillment = recipeResolvedFulfillmentHashMap.get(weekFormatted);
+    RecipeFulfillment recipeFulfillment = mealPlanSummaries.getWeekSummary(getSelectedWeek());
     double costs = recipeFulfillment != null ? recipeFulfillment.getCosts() : 0;
     return getString(R.string.property_week_costs_insert, getString(
         R.string.property_price_with_currency,
@@ -245,6 +301,10 @@ public class MealPlanViewModel extends BaseViewModel {
     ));
   }
 
+  private String getSelectedWeek() {
+    return getSelectedDate().format(weekFormatter);
+  }
+
   public MutableLiveData<HashMap<String, List<MealPlanEntry>>> getMealPlanEntriesLive() {
     return mealPlanEntriesLive;
   }
@@ -261,8 +321,8 @@ public class MealPlanViewModel extends BaseViewModel {
     return recipeHashMap;
   }
 
-  public HashMap<String, RecipeFulfillment> getRecipeResolvedFulfillmentHashMap() {
-    return recipeResolvedFulfillmentHashMap;
+  public Map<String, RecipeFulfillment> getRecipeResolvedFulfillments(String day) {
+    return mealPlanSummaries.getFulfillmentsForDay(day);
   }
 
   public HashMap<Integer, Product> getProductHashMap() {
@@ -277,7 +337,7 @@ public class MealPlanViewModel extends BaseViewModel {
     return quantityUnitHashMap;
   }
 
-  public HashMap<Integer, ProductLastPurchased> getProductLastPurchasedHashMap() {
+  public IntObjectMap<ProductLastPurchased> getProductLastPurchasedHashMap() {
     return productLastPurchasedHashMap;
   }
 
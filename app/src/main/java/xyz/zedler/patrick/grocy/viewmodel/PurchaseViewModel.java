@@ -23,6 +23,7 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.text.TextUtils;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -31,10 +32,13 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
+import com.android.volley.VolleyError;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.Constants;
@@ -54,9 +58,14 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuickModeConfirmBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StoresBottomSheet;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndex;
+import xyz.zedler.patrick.grocy.helper.BatchPurchasePipeline;
+import xyz.zedler.patrick.grocy.helper.BatchPurchasePipeline.PipelineListener;
+import xyz.zedler.patrick.grocy.helper.BatchPurchasePipeline.Purchase;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
-import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnJSONArrayResponseListener;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectResponseListener;
+import xyz.zedler.patrick.grocy.helper.PriceHistoryLoader;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Location;
@@ -75,12 +84,10 @@ import xyz.zedler.patrick.grocy.repository.PurchaseRepository;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.DateUtil;
-import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
-import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+import xyz.zedler.patrick.grocy.util.IntDoubleMap;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
-import xyz.zedler.patrick.grocy.util.QuantityUnitConversionUtil;
-import xyz.zedler.patrick.grocy.util.VersionUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class PurchaseViewModel extends BaseViewModel {
 
@@ -98,18 +105,21 @@ public class PurchaseViewModel extends BaseViewModel {
   private List<PendingProduct> pendingProducts;
   private List<QuantityUnit> quantityUnits;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private List<QuantityUnitConversionResolved> unitConversions;
-  private HashMap<Integer, Double> shoppingListItemAmountsHashMap;
-  private List<ProductBarcode> barcodes;
-  private List<PendingProductBarcode> pendingProductBarcodes;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private IntDoubleMap shoppingListItemAmountsHashMap;
+  private final BarcodeIndex barcodeIndex;
   private List<Store> stores;
   private List<Location> locations;
   private List<ShoppingListItem> shoppingListItems;
   private HashMap<Integer, ShoppingListItem> shoppingListItemHashMap;
   private ArrayList<Integer> batchShoppingListItemIds;
+  private BatchPurchasePipeline batchPurchasePipeline;
+  private boolean batchModeFinishing;
+  private boolean batchModeLeaving;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
+  private final MutableLiveData<String> failedPurchasesTextLive;
   private final MutableLiveData<Boolean> quickModeEnabled;
 
   private Integer storedPurchaseId;
@@ -137,6 +147,7 @@ public class PurchaseViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue, getOfflineLive());
     grocyApi = new GrocyApi(getApplication());
     repository = new PurchaseRepository(application);
+    barcodeIndex = BarcodeIndex.getInstance();
     formData = new FormDataPurchase(application, sharedPrefs, args);
 
     if (args.getShoppingListItems() != null) {
@@ -144,12 +155,14 @@ public class PurchaseViewModel extends BaseViewModel {
       for (int i : args.getShoppingListItems()) {
         batchShoppingListItemIds.add(i);
       }
+      batchPurchasePipeline = new BatchPurchasePipeline(dlHelper, getPipelineListener());
     }
     if (NumUtil.isStringInt(args.getStoredPurchaseId())) {
       storedPurchaseId = Integer.parseInt(args.getStoredPurchaseId());
     }
 
     infoFullscreenLive = new MutableLiveData<>();
+    failedPurchasesTextLive = new MutableLiveData<>();
     boolean quickModeStart;
     if (args.getStartWithScanner()) {
       quickModeStart = isTurnOnQuickModeEnabled();
@@ -182,12 +195,13 @@ public class PurchaseViewModel extends BaseViewModel {
       formData.getProductsLive().setValue(
               appendPendingProducts(Product.getActiveProductsOnly(products), pendingProducts)
       );
-      productHashMap = ArrayUtil.getProductsHashMap(products);
-      this.pendingProductBarcodes = data.getPendingProductBarcodes();
-      this.barcodes = appendPendingProductBarcodes(data.getBarcodes(), pendingProductBarcodes);
+      productHashMap = data.getProductHashMap();
+      barcodeIndex.loadIfNeeded(
+          products, data.getBarcodes(), pendingProducts, data.getPendingProductBarcodes()
+      );
       this.quantityUnits = data.getQuantityUnits();
-      quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(quantityUnits);
-      this.unitConversions = data.getQuantityUnitConversionsResolved();
+      quantityUnitHashMap = data.getQuantityUnitHashMap();
+      this.unitConversionIndex = data.getUnitConversionIndex();
       this.stores = data.getStores();
       this.locations = data.getLocations();
       this.shoppingListItems = data.getShoppingListItems();
@@ -268,12 +282,7 @@ public class PurchaseViewModel extends BaseViewModel {
       } else if (shoppingListItem != null && shoppingListItem.hasQuId()) {
         forcedQuId = shoppingListItem.getQuIdInt();
       }
-      HashMap<QuantityUnit, Double> unitFactors = QuantityUnitConversionUtil.getUnitFactors(
-          quantityUnitHashMap,
-          unitConversions,
-          updatedProduct,
-          VersionUtil.isGrocyServerMin400(sharedPrefs)
-      );
+      HashMap<QuantityUnit, Double> unitFactors = unitConversionIndex.getUnitFactors(updatedProduct);
       formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
       formData.getQuantityUnitStockLive().setValue(
           quantityUnitHashMap.get(updatedProduct.getQuIdStockInt())
@@ -301,8 +310,7 @@ public class PurchaseViewModel extends BaseViewModel {
         formData.getAmountLive().setValue(NumUtil.trimAmount(barcode.getAmountDouble(), maxDecimalPlacesAmount));
       } else if (!isTareWeightEnabled && shoppingListItem != null) {
         Double amountInUnit = AmountUtil.getShoppingListItemAmount(
-            shoppingListItem, productHashMap, quantityUnitHashMap, unitConversions,
-            VersionUtil.isGrocyServerMin400(sharedPrefs)
+            shoppingListItem, productHashMap, quantityUnitHashMap, unitConversionIndex
         );
         formData.getAmountLive().setValue(
             NumUtil.trimAmount(
@@ -406,11 +414,18 @@ public class PurchaseViewModel extends BaseViewModel {
       formData.getAmountLive().setValue(NumUtil.trimAmount(shoppingListItem.getAmountDouble(), maxDecimalPlacesAmount));
       return;
     }
+    OnErrorListener errorListener = error -> showMessageAndContinueScanning(
+        getString(R.string.error_no_product_details)
+    );
+    if (batchPurchasePipeline != null) {
+      batchPurchasePipeline.getProductDetails(productId, listener, errorListener);
+      return;
+    }
     ProductDetails.getProductDetails(
         dlHelper,
         productId,
         listener,
-        error -> showMessageAndContinueScanning(getString(R.string.error_no_product_details))
+        errorListener
     ).perform(dlHelper.getUuid());
   }
 
@@ -497,35 +512,27 @@ public class PurchaseViewModel extends BaseViewModel {
 
   public void onBarcodeRecognized(String barcode) {
     if (formData.getProductDetailsLive().getValue() != null) {
-      if (ProductBarcode.getFromBarcode(barcodes, barcode) == null) {
+      if (barcodeIndex.getBarcode(barcode, true) == null) {
         formData.getBarcodeLive().setValue(barcode);
       } else {
         showMessage(R.string.msg_clear_form_first);
       }
       return;
     }
-    Product product = null;
-    Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
-    if (grocycode != null && grocycode.isProduct()) {
-      product = productHashMap.get(grocycode.getObjectId());
-      if (product == null) {
-        showMessageAndContinueScanning(R.string.msg_not_found);
-        return;
-      }
-    } else if (grocycode != null) {
+    BarcodeIndex.Match match = barcodeIndex.lookup(barcode, true);
+    if (match.isWrongGrocycodeType()) {
       showMessageAndContinueScanning(R.string.error_wrong_grocycode_type);
       return;
+    } else if (match.isGrocycode() && match.getProduct() == null) {
+      showMessageAndContinueScanning(R.string.msg_not_found);
+      return;
     }
-    ProductBarcode productBarcode = null;
-    if (product == null) {
-      productBarcode = ProductBarcode.getFromBarcode(barcodes, barcode);
-      if (productBarcode instanceof PendingProductBarcode) {
-        setPendingProduct(productBarcode.getProductIdInt(), (PendingProductBarcode) productBarcode);
-        return;
-      } else if (productBarcode != null) {
-        product = productHashMap.get(productBarcode.getProductIdInt());
-      }
+    ProductBarcode productBarcode = match.getBarcode();
+    if (match.isPendingBarcode()) {
+      setPendingProduct(productBarcode.getProductIdInt(), (PendingProductBarcode) productBarcode);
+      return;
     }
+    Product product = match.getProduct();
     if (product != null) {
       setProduct(product.getId(), productBarcode, null);
     } else {
@@ -541,35 +548,27 @@ public class PurchaseViewModel extends BaseViewModel {
     if (input == null || input.isEmpty()) {
       return;
     }
-    Product product = Product.getProductFromName(products, input);
+    Product product = barcodeIndex.getProductFromName(input);
 
-    Grocycode grocycode = GrocycodeUtil.getGrocycode(input.trim());
-    if (grocycode != null && grocycode.isProduct()) {
-      product = productHashMap.get(grocycode.getObjectId());
+    BarcodeIndex.Match match = barcodeIndex.lookup(input, true);
+    if (match.isWrongGrocycodeType()) {
+      showMessageAndContinueScanning(R.string.error_wrong_grocycode_type);
+      return;
+    } else if (match.isGrocycode()) {
+      product = match.getProduct();
       if (product == null) {
         showMessageAndContinueScanning(R.string.msg_not_found);
         return;
       }
-    } else if (grocycode != null) {
-      showMessageAndContinueScanning(R.string.error_wrong_grocycode_type);
-      return;
     }
-    if (product == null) {
-      ProductBarcode productBarcode = null;
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(input.trim())) {
-          productBarcode = code;
-          if (code instanceof PendingProductBarcode) {
-            product = PendingProduct.getFromId(pendingProducts, code.getProductIdInt());
-          } else {
-            product = productHashMap.get(code.getProductIdInt());
-          }
-        }
-      }
-      if (product != null) {
-        setProduct(product.getId(), productBarcode, null);
-        return;
+    if (product == null && match.getProduct() != null) {
+      ProductBarcode productBarcode = match.getBarcode();
+      if (match.isPendingBarcode()) {
+        setPendingProduct(match.getProduct().getId(), (PendingProductBarcode) productBarcode);
+      } else {
+        setProduct(match.getProduct().getId(), productBarcode, null);
       }
+      return;
     }
 
     ProductDetails currentProductDetails = formData.getProductDetailsLive().getValue();
@@ -612,6 +611,20 @@ public class PurchaseViewModel extends BaseViewModel {
     }
     formData.getShoppingListItemLive().setValue(currentItem);
     setProduct(null, null, currentItem);
+    prefetchProductDetails(index + 1);
+  }
+
+  private void prefetchProductDetails(int startIndex) {
+    if (batchPurchasePipeline == null) return;
+    ArrayList<Integer> productIds = new ArrayList<>();
+    int endIndex = Math.min(
+        startIndex + BatchPurchasePipeline.PREFETCH_AHEAD, batchShoppingListItemIds.size()
+    );
+    for (int i = startIndex; i < endIndex; i++) {
+      ShoppingListItem item = shoppingListItemHashMap.get(batchShoppingListItemIds.get(i));
+      if (item != null && item.hasProduct()) productIds.add(item.getProductIdInt());
+    }
+    batchPurchasePipeline.prefetchProductDetails(productIds);
   }
 
   public boolean batchModeNextItem() {  // also returns whether there was a next item
@@ -663,53 +676,25 @@ public class PurchaseViewModel extends BaseViewModel {
       return;
     }
 
-    OnJSONArrayResponseListener onResponse = response -> {
-      // UNDO OPTION
-      String transactionId = null;
-      double amountPurchased = 0;
-      try {
-        transactionId = response.getJSONObject(0)
-            .getString("transaction_id");
-        for (int i = 0; i < response.length(); i++) {
-          amountPurchased += response.getJSONObject(i).getDouble("amount");
-        }
-      } catch (JSONException e) {
-        if (debug) {
-          Log.e(TAG, "purchaseProduct: " + e);
-        }
-      }
-      if (debug) {
-        Log.i(TAG, "purchaseProduct: transaction successful");
-      }
+    ShoppingListItem shoppingListItem = formData.getShoppingListItemLive().getValue();
+    QuantityUnit quantityUnitStock = formData.getQuantityUnitStockLive().getValue();
 
-      SnackbarMessage snackbarMessage = new SnackbarMessage(
-          formData.getTransactionSuccessMsg(amountPurchased)
-      );
-      if (transactionId != null) {
-        String transId = transactionId;
-        ShoppingListItem shoppingListItem = formData.getShoppingListItemLive().getValue();
-        snackbarMessage.setAction(
-            getString(R.string.action_undo),
-            v -> undoTransaction(transId, shoppingListItem)
-        );
-        snackbarMessage.setDurationSecs(sharedPrefs.getInt(
-                Constants.SETTINGS.BEHAVIOR.MESSAGE_DURATION,
-                Constants.SETTINGS_DEFAULT.BEHAVIOR.MESSAGE_DURATION));
-      }
-      showSnackbar(snackbarMessage);
+    if (batchPurchasePipeline != null) {
+      // purchase is sent in background, so the next item can be filled in right away
+      batchPurchasePipeline.enqueuePurchase(new Purchase(
+          product.getId(), body, shoppingListItem, product.getName(), quantityUnitStock
+      ));
       sendEvent(Event.TRANSACTION_SUCCESS);
-    };
+      return;
+    }
 
     dlHelper.postWithArray(
         grocyApi.purchaseProduct(product.getId()),
         body,
         response -> {
-          ShoppingListItem shoppingListItem = formData.getShoppingListItemLive().getValue();
-          if (batchShoppingListItemIds != null && shoppingListItem != null) {
-            deleteShoppingListItem(shoppingListItem.getId(), () -> onResponse.onResponse(response));
-          } else {
-            onResponse.onResponse(response);
-          }
+          PriceHistoryLoader.invalidate(product.getId());
+          showPurchasedMessage(response, quantityUnitStock, product.getName(), shoppingListItem);
+          sendEvent(Event.TRANSACTION_SUCCESS);
         },
         error -> {
           showNetworkErrorMessage(error);
@@ -720,12 +705,188 @@ public class PurchaseViewModel extends BaseViewModel {
     );
   }
 
+  private void showPurchasedMessage(
+      JSONArray response,
+      @Nullable QuantityUnit quantityUnitStock,
+      String productName,
+      @Nullable ShoppingListItem shoppingListItem
+  ) {
+    // UNDO OPTION
+    String transactionId = null;
+    double amountPurchased = 0;
+    try {
+      transactionId = response.getJSONObject(0)
+          .getString("transaction_id");
+      for (int i = 0; i < response.length(); i++) {
+        amountPurchased += response.getJSONObject(i).getDouble("amount");
+      }
+    } catch (JSONException e) {
+      if (debug) {
+        Log.e(TAG, "purchaseProduct: " + e);
+      }
+    }
+    if (debug) {
+      Log.i(TAG, "purchaseProduct: transaction successful");
+    }
+
+    SnackbarMessage snackbarMessage = new SnackbarMessage(
+        formData.getTransactionSuccessMsg(amountPurchased, quantityUnitStock, productName)
+    );
+    if (transactionId != null) {
+      String transId = transactionId;
+      snackbarMessage.setAction(
+          getString(R.string.action_undo),
+          v -> undoTransaction(transId, shoppingListItem)
+      );
+      snackbarMessage.setDurationSecs(sharedPrefs.getInt(
+              Constants.SETTINGS.BEHAVIOR.MESSAGE_DURATION,
+              Constants.SETTINGS_DEFAULT.BEHAVIOR.MESSAGE_DURATION));
+    }
+    showSnackbar(snackbarMessage);
+  }
+
+  /**
+   * Leaves batch mode once all purchases have been sent. If some of them have failed, the
+   * screen stays open and the failed purchases are shown, so they can be retried or discarded.
+   */
+  public void finishBatchMode() {
+    if (batchPurchasePipeline == null || batchPurchasePipeline.isIdle()
+        && batchPurchasePipeline.getFailedPurchases().isEmpty()) {
+      sendEvent(Event.NAVIGATE_UP);
+      return;
+    }
+    batchModeFinishing = true;
+    if (!batchPurchasePipeline.isIdle()) {
+      isLoadingLive.setValue(true);
+    } else {
+      sendEvent(Event.SHOW_FAILED_PURCHASES);
+    }
+  }
+
+  @NonNull
+  public List<Purchase> getFailedPurchases() {
+    if (batchPurchasePipeline == null) return Collections.emptyList();
+    return batchPurchasePipeline.getFailedPurchases();
+  }
+
+  public void retryFailedPurchases(@NonNull List<Purchase> purchases) {
+    for (Purchase purchase : purchases) {
+      batchPurchasePipeline.retryPurchase(purchase);
+    }
+    updateFailedPurchasesText();
+    if (batchModeFinishing && !batchPurchasePipeline.isIdle()) isLoadingLive.setValue(true);
+  }
+
+  public void discardFailedPurchases(@NonNull List<Purchase> purchases) {
+    batchPurchasePipeline.discardFailedPurchases(purchases);
+    updateFailedPurchasesText();
+  }
+
+  private void updateFailedPurchasesText() {
+    List<Purchase> failedPurchases = batchPurchasePipeline.getFailedPurchases();
+    if (failedPurchases.isEmpty()) {
+      failedPurchasesTextLive.setValue(null);
+      return;
+    }
+    ArrayList<String> productNames = new ArrayList<>();
+    for (Purchase purchase : failedPurchases) {
+      productNames.add(purchase.getProductName());
+    }
+    failedPurchasesTextLive.setValue(TextUtils.join(", ", productNames));
+  }
+
+  /**
+   * Returns whether purchases of batch mode are not sent yet or have failed, so leaving the
+   * screen has to be confirmed first.
+   */
+  public boolean hasUnfinishedBatchPurchases() {
+    return batchPurchasePipeline != null && (!batchPurchasePipeline.isIdle()
+        || !batchPurchasePipeline.getFailedPurchases().isEmpty());
+  }
+
+  public String getLeaveBatchModeMessage() {
+    StringBuilder message = new StringBuilder();
+    int unsentPurchases = batchPurchasePipeline.getUnsentPurchases();
+    if (unsentPurchases > 0) {
+      message.append(getResources().getQuantityString(
+          R.plurals.msg_purchases_not_sent, unsentPurchases, unsentPurchases
+      )).append(' ');
+    }
+    int failedPurchases = batchPurchasePipeline.getFailedPurchases().size();
+    if (failedPurchases > 0) {
+      message.append(getResources().getQuantityString(
+          R.plurals.msg_purchases_failed, failedPurchases, failedPurchases
+      )).append(' ');
+    }
+    return message.append(getString(R.string.msg_leave_batch_mode)).toString();
+  }
+
+  /**
+   * Leaves batch mode after the user has confirmed to discard unsent and failed purchases.
+   * Purchases which are already being sent and their shopping list removals are finished
+   * before the screen is closed.
+   */
+  public void leaveBatchMode() {
+    batchModeLeaving = true;
+    isLoadingLive.setValue(true);
+    batchPurchasePipeline.discardUnsentPurchases();
+    updateFailedPurchasesText();
+  }
+
+  private PipelineListener getPipelineListener() {
+    return new PipelineListener() {
+      @Override
+      public void onPurchased(Purchase purchase, JSONArray response) {
+        showPurchasedMessage(
+            response,
+            purchase.getQuantityUnitStock(),
+            purchase.getProductName(),
+            purchase.getShoppingListItem()
+        );
+      }
+
+      @Override
+      public void onPurchaseFailed(Purchase purchase, VolleyError error) {
+        updateFailedPurchasesText();
+        SnackbarMessage snackbarMessage = new SnackbarMessage(
+            getString(R.string.error_purchase_failed, purchase.getProductName())
+        );
+        if (!batchModeLeaving) {
+          snackbarMessage.setAction(
+              getString(R.string.action_retry),
+              v -> retryFailedPurchases(Collections.singletonList(purchase))
+          );
+          snackbarMessage.setDurationSecs(sharedPrefs.getInt(
+              Constants.SETTINGS.BEHAVIOR.MESSAGE_DURATION,
+              Constants.SETTINGS_DEFAULT.BEHAVIOR.MESSAGE_DURATION));
+        }
+        showSnackbar(snackbarMessage);
+      }
+
+      @Override
+      public void onIdle(int failedPurchases) {
+        if (!batchModeFinishing && !batchModeLeaving) return;
+        isLoadingLive.setValue(false);
+        if (batchModeLeaving || failedPurchases == 0) {
+          batchModeFinishing = false;
+          batchModeLeaving = false;
+          sendEvent(Event.NAVIGATE_UP);
+        } else {
+          sendEvent(Event.SHOW_FAILED_PURCHASES);
+        }
+      }
+    };
+  }
+
   private void undoTransaction(String transactionId, @Nullable ShoppingListItem shoppingListItem) {
     dlHelper.post(
         grocyApi.undoStockTransaction(transactionId),
         success -> {
           showMessage(getString(R.string.msg_undone_transaction));
-          if (shoppingListItem != null) undoDeleteShoppingListItem(shoppingListItem);
+          if (shoppingListItem != null && (batchPurchasePipeline == null
+              || !batchPurchasePipeline.cancelRemoval(shoppingListItem.getId()))) {
+            undoDeleteShoppingListItem(shoppingListItem);
+          }
           if (debug) {
             Log.i(TAG, "undoTransaction: undone");
           }
@@ -743,7 +904,8 @@ public class PurchaseViewModel extends BaseViewModel {
     JSONObject body = productBarcode.getJsonFromProductBarcode(debug, TAG);
     ProductBarcode.addProductBarcode(dlHelper, body, () -> {
       formData.getBarcodeLive().setValue(null);
-      barcodes.add(productBarcode); // add to list so it will be found on next scan without reload
+      // add to index so it will be found on next scan without reload
+      barcodeIndex.putProductBarcode(productBarcode);
       if (onSuccess != null) {
         onSuccess.run();
       }
@@ -777,8 +939,6 @@ public class PurchaseViewModel extends BaseViewModel {
   private void storePendingProductBarcode(Runnable onSuccess) {
     PendingProductBarcode productBarcode = formData.fillPendingProductBarcode();
     formData.getBarcodeLive().setValue(null);
-    barcodes.add(productBarcode); // add to list so it will be found on next scan without reload
-    pendingProductBarcodes.add(productBarcode);
     repository.insertPendingProductBarcode(productBarcode, onSuccess);
   }
 
@@ -791,19 +951,6 @@ public class PurchaseViewModel extends BaseViewModel {
     );
   }
 
-  private void deleteShoppingListItem(int itemId, @NonNull Runnable onFinish) {
-    dlHelper.delete(
-        grocyApi.getObject(GrocyApi.ENTITY.SHOPPING_LIST, itemId),
-        response -> onFinish.run(),
-        error -> {
-          if (debug) {
-            Log.e(TAG, "deleteShoppingListItem: " + error);
-          }
-          onFinish.run();
-        }
-    );
-  }
-
   private void undoDeleteShoppingListItem(@NonNull ShoppingListItem item) {
     dlHelper.post(
         grocyApi.getObjects(GrocyApi.ENTITY.SHOPPING_LIST),
@@ -835,14 +982,13 @@ public class PurchaseViewModel extends BaseViewModel {
   }
 
   private void fillShoppingListItemAmountsHashMap() {
-    shoppingListItemAmountsHashMap = new HashMap<>();
+    shoppingListItemAmountsHashMap = new IntDoubleMap();
     if (shoppingListItems == null) {
       return;
     }
-    boolean isGrocyServerMin400 = VersionUtil.isGrocyServerMin400(sharedPrefs);
     for (ShoppingListItem item : shoppingListItems) {
       Double amount = AmountUtil.getShoppingListItemAmount(
-          item, productHashMap, quantityUnitHashMap, unitConversions, isGrocyServerMin400
+          item, productHashMap, quantityUnitHashMap, unitConversionIndex
       );
       if (amount != null) {
         shoppingListItemAmountsHashMap.put(item.getId(), amount);
@@ -850,7 +996,7 @@ public class PurchaseViewModel extends BaseViewModel {
     }
   }
 
-  public HashMap<Integer, Double> getShoppingListItemAmountsHashMap() {
+  public IntDoubleMap getShoppingListItemAmountsHashMap() {
     return shoppingListItemAmountsHashMap;
   }
 
@@ -983,6 +1129,10 @@ public class PurchaseViewModel extends BaseViewModel {
     return infoFullscreenLive;
   }
 
+  public MutableLiveData<String> getFailedPurchasesTextLive() {
+    return failedPurchasesTextLive;
+  }
+
   public void setQueueEmptyAction(Runnable queueEmptyAction) {
     this.queueEmptyAction = queueEmptyAction;
   }
@@ -1013,22 +1163,6 @@ public class PurchaseViewModel extends BaseViewModel {
     return newList;
   }
 
-  private ArrayList<ProductBarcode> appendPendingProductBarcodes(
-      List<ProductBarcode> productBarcodes,
-      List<PendingProductBarcode> pendingProductBarcodes
-  ) {
-    ArrayList<String> barcodeStrings = new ArrayList<>();
-    for (ProductBarcode productBarcode : productBarcodes) {
-      barcodeStrings.add(productBarcode.getBarcode());
-    }
-    ArrayList<ProductBarcode> newList = new ArrayList<>(productBarcodes);
-    for (PendingProductBarcode pendingProductBarcode : pendingProductBarcodes) {
-      if (barcodeStrings.contains(pendingProductBarcode.getBarcode())) continue;
-      newList.add(pendingProductBarcode);
-    }
-    return newList;
-  }
-
   public boolean hasStoredPurchase() {
     return storedPurchaseId != null;
   }
@@ -1074,6 +1208,7 @@ public class PurchaseViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    if (batchPurchasePipeline != null) batchPurchasePipeline.destroy();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -59,8 +59,7 @@ import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
-import xyz.zedler.patrick.grocy.util.QuantityUnitConversionUtil;
-import xyz.zedler.patrick.grocy.util.VersionUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class RecipeEditIngredientEditViewModel extends BaseViewModel {
 
@@ -79,7 +78,7 @@ public class RecipeEditIngredientEditViewModel extends BaseViewModel {
   private List<Product> products;
   private List<ProductBarcode> productBarcodes;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private List<QuantityUnitConversionResolved> unitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
 
   private final boolean debug;
   private final boolean isActionEdit;
@@ -112,7 +111,10 @@ public class RecipeEditIngredientEditViewModel extends BaseViewModel {
       this.products = data.getProducts();
       this.productBarcodes = data.getProductBarcodes();
       this.quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      this.unitConversions = data.getQuantityUnitConversionsResolved();
+      this.unitConversionIndex = new QuantityUnitConversionIndex(
+          data.getQuantityUnitConversionsResolved(),
+          quantityUnitHashMap
+      );
 
       if (downloadAfterLoading) {
         downloadData(false);
@@ -157,12 +159,7 @@ public class RecipeEditIngredientEditViewModel extends BaseViewModel {
       formData.getProductDetailsLive().setValue(productDetails);
       formData.getProductNameLive().setValue(product.getName());
 
-      HashMap<QuantityUnit, Double> unitFactors = QuantityUnitConversionUtil.getUnitFactors(
-          quantityUnitHashMap,
-          unitConversions,
-          product,
-          VersionUtil.isGrocyServerMin400(sharedPrefs)
-      );
+      HashMap<QuantityUnit, Double> unitFactors = unitConversionIndex.getUnitFactors(product);
       formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
       formData.getQuantityUnitStockLive().setValue(
           quantityUnitHashMap.get(product.getQuIdStockInt())
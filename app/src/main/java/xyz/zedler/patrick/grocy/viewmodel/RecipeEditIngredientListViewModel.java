@@ -43,6 +43,7 @@ import xyz.zedler.patrick.grocy.model.Recipe;
 import xyz.zedler.patrick.grocy.model.RecipePosition;
 import xyz.zedler.patrick.grocy.repository.RecipeEditRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class RecipeEditIngredientListViewModel extends BaseViewModel {
 
@@ -60,7 +61,7 @@ public class RecipeEditIngredientListViewModel extends BaseViewModel {
   private ArrayList<RecipePosition> recipePositions;
   private List<Product> products;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private List<QuantityUnitConversionResolved> unitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
 
   private final Recipe recipe;
   private final boolean isActionEdit;
@@ -102,7 +103,10 @@ public class RecipeEditIngredientListViewModel extends BaseViewModel {
           .getRecipePositionsFromRecipeId(data.getRecipePositions(), recipe.getId());
       this.products = Product.getProductsForRecipePositions(data.getProducts(), recipePositions);
       this.quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      this.unitConversions = data.getQuantityUnitConversionsResolved();
+      unitConversionIndex = new QuantityUnitConversionIndex(
+          data.getQuantityUnitConversionsResolved(),
+          quantityUnitHashMap
+      );
 
       formData.getRecipePositionsLive().setValue(recipePositions);
       formData.getProductsLive().setValue(products);
@@ -163,8 +167,8 @@ public class RecipeEditIngredientListViewModel extends BaseViewModel {
     return quantityUnitHashMap;
   }
 
-  public List<QuantityUnitConversionResolved> getUnitConversions() {
-    return unitConversions;
+  public QuantityUnitConversionIndex getUnitConversionIndex() {
+    return unitConversionIndex;
   }
 
   public void deleteRecipePosition(int recipePositionId) {
@@ -25,12 +25,9 @@ import android.content.ClipData;
 import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.Environment;
-import android.os.Handler;
-import android.os.Looper;
 import android.text.Html;
 import android.util.Log;
 import androidx.annotation.NonNull;
@@ -40,13 +37,10 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
+import com.android.volley.VolleyError;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.Constants;
@@ -60,6 +54,8 @@ import xyz.zedler.patrick.grocy.form.FormDataRecipeEdit;
 import xyz.zedler.patrick.grocy.fragment.RecipeEditFragmentArgs;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.InputProductBottomSheet;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.PictureUploader;
+import xyz.zedler.patrick.grocy.helper.PictureUploader.OnUploadListener;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
@@ -77,6 +73,7 @@ public class RecipeEditViewModel extends BaseViewModel {
 
   private final SharedPreferences sharedPrefs;
   private final DownloadHelper dlHelper;
+  private final PictureUploader pictureUploader;
   private final GrocyApi grocyApi;
   private final RecipeEditRepository repository;
   private final FormDataRecipeEdit formData;
@@ -109,6 +106,7 @@ public class RecipeEditViewModel extends BaseViewModel {
 
     isLoadingLive = new MutableLiveData<>(false);
     dlHelper = new DownloadHelper(application, TAG, isLoadingLive::setValue, getOfflineLive());
+    pictureUploader = new PictureUploader(getApplication(), dlHelper);
     grocyApi = new GrocyApi(application);
     repository = new RecipeEditRepository(application);
     formData = new FormDataRecipeEdit(application, sharedPrefs, startupArgs);
@@ -352,14 +350,7 @@ public class RecipeEditViewModel extends BaseViewModel {
       showMessage(R.string.error_clipboard_no_image);
       return;
     }
-    try {
-      InputStream imageStream = getApplication().getContentResolver().openInputStream(item.getUri());
-      Bitmap bitmap = BitmapFactory.decodeStream(imageStream);
-      scaleAndUploadBitmap(null, bitmap);
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-      showMessage(R.string.error_clipboard_no_image);
-    }
+    scaleAndUploadPicture(null, item.getUri());
   }
 
   public File createImageFile() throws IOException {
@@ -369,44 +360,35 @@ public class RecipeEditViewModel extends BaseViewModel {
     return image;
   }
 
-  public void scaleAndUploadBitmap(@Nullable String filePath, @Nullable Bitmap image) {
-    if (filePath == null && image == null) {
+  public void scaleAndUploadPicture(@Nullable String filePath, @Nullable Uri uri) {
+    if (filePath == null && uri == null) {
       showErrorMessage();
       return;
     }
     isLoadingLive.setValue(true);
-    ExecutorService executor = Executors.newSingleThreadExecutor();
-    executor.execute(() -> {
-      Bitmap scaledBitmap = filePath != null
-          ? PictureUtil.scaleBitmap(filePath)
-          : PictureUtil.scaleBitmap(image);
-      byte[] imageArray = PictureUtil.convertBitmapToByteArray(scaledBitmap);
-      new Handler(Looper.getMainLooper()).post(() -> {
-        uploadPicture(imageArray);
-        executor.shutdown();
-      });
-    });
-  }
-
-  public void uploadPicture(byte[] pictureData) {
-    if (pictureData == null) {
-      showErrorMessage();
-      isLoadingLive.setValue(false);
-      return;
-    }
     String filename = PictureUtil.createImageFilename();
-    dlHelper.putFile(
-        grocyApi.getRecipePicture(filename),
-        pictureData,
-        () -> {
-          deleteCurrentPicture(filename);
-          formData.getPictureFilenameLive().setValue(filename);
-        },
-        error -> {
-          isLoadingLive.setValue(false);
+    OnUploadListener onUploadListener = new OnUploadListener() {
+      @Override
+      public void onUploaded() {
+        deleteCurrentPicture(filename);
+        formData.getPictureFilenameLive().setValue(filename);
+      }
+
+      @Override
+      public void onError(@Nullable VolleyError error) {
+        isLoadingLive.setValue(false);
+        if (error != null) {
           showNetworkErrorMessage(error);
+        } else {
+          showErrorMessage();
         }
-    );
+      }
+    };
+    if (filePath != null) {
+      pictureUploader.uploadFile(filePath, grocyApi.getRecipePicture(filename), onUploadListener);
+    } else {
+      pictureUploader.uploadUri(uri, grocyApi.getRecipePicture(filename), onUploadListener);
+    }
   }
 
   public void deleteCurrentPicture(String newFilename) {
@@ -496,6 +478,7 @@ public class RecipeEditViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    pictureUploader.dispose();
     dlHelper.destroy();
     super.onCleared();
   }
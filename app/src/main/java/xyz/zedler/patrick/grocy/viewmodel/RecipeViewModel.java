@@ -45,14 +45,17 @@ import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
 import xyz.zedler.patrick.grocy.fragment.RecipeFragmentArgs;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.InputBottomSheet;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.RecipeFulfillmentCalculator;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataFields;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataFields.Field;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.Recipe;
 import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
+import xyz.zedler.patrick.grocy.model.RecipeNesting;
 import xyz.zedler.patrick.grocy.model.RecipePosition;
 import xyz.zedler.patrick.grocy.model.RecipePositionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
@@ -62,6 +65,7 @@ import xyz.zedler.patrick.grocy.repository.RecipesRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.VersionUtil;
 
 public class RecipeViewModel extends BaseViewModel {
@@ -93,11 +97,16 @@ public class RecipeViewModel extends BaseViewModel {
   private List<RecipePositionResolved> recipePositionsResolved;
   private List<Product> products;
   private List<QuantityUnit> quantityUnits;
-  private List<QuantityUnitConversionResolved> quantityUnitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
   private HashMap<Integer, StockItem> stockItemHashMap;
   private List<ShoppingListItem> shoppingListItems;
   private HashMap<String, Userfield> userfieldHashMap;
   private RecipeFulfillment recipeFulfillment;
+  private Recipe serverRecipe;
+  private RecipeFulfillment serverRecipeFulfillment;
+  private List<RecipePositionResolved> serverRecipePositionsResolved;
+  private RecipeFulfillmentCalculator fulfillmentCalculator;
+  private boolean servingsUnsaved;
 
   private Timer timerUpdateData;
   private final int maxDecimalPlacesAmount;
@@ -155,34 +164,43 @@ public class RecipeViewModel extends BaseViewModel {
   public void loadFromDatabase(boolean downloadAfterLoading) {
     repository.loadFromDatabase(data -> {
       recipes = data.getRecipes();
-      recipeFulfillment = RecipeFulfillment
+      serverRecipeFulfillment = RecipeFulfillment
           .getRecipeFulfillmentFromRecipeId(data.getRecipeFulfillments(), args.getRecipeId());
       recipePositions = RecipePosition
           .getRecipePositionsFromRecipeId(data.getRecipePositions(), args.getRecipeId());
-      recipePositionsResolved = RecipePositionResolved
+      serverRecipePositionsResolved = RecipePositionResolved
           .getRecipePositionsFromRecipeId(data.getRecipePositionsResolved(), args.getRecipeId());
       RecipePositionResolved.fillRecipePositionsResolvedWithNotCheckStockFulfillment(
-          recipePositionsResolved, ArrayUtil.getRecipePositionHashMap(recipePositions)
+          serverRecipePositionsResolved, ArrayUtil.getRecipePositionHashMap(recipePositions)
       );
       products = data.getProducts();
       quantityUnits = data.getQuantityUnits();
-      quantityUnitConversions = data.getQuantityUnitConversionsResolved();
+      unitConversionIndex = data.getUnitConversionIndex();
       stockItemHashMap = ArrayUtil.getStockItemHashMap(data.getStockItems());
       shoppingListItems = data.getShoppingListItems();
+      fulfillmentCalculator = new RecipeFulfillmentCalculator(
+          data.getRecipes(),
+          data.getRecipePositions(),
+          data.getRecipeNestingsResolved(),
+          data.getProductHashMap(),
+          stockItemHashMap,
+          data.getProductsLastPurchased(),
+          shoppingListItems
+      );
       userfieldHashMap = ArrayUtil.getUserfieldHashMap(data.getUserfields());
       filterChipLiveDataRecipeInfoFields.setUserfields(
           data.getUserfields(),
           DISPLAYED_USERFIELD_ENTITIES
       );
 
-      Recipe recipe = Recipe.getRecipeFromId(recipes, args.getRecipeId());
-      recipeLive.setValue(recipe);
+      serverRecipe = Recipe.getRecipeFromId(recipes, args.getRecipeId());
       if ((servingsDesiredLive.getValue() == null || servingsDesiredLive.getValue().isBlank())
-          && recipe != null) {
+          && serverRecipe != null) {
         servingsDesiredLive.setValue(
-            NumUtil.trimAmount(recipe.getDesiredServings(), maxDecimalPlacesAmount)
+            NumUtil.trimAmount(serverRecipe.getDesiredServings(), maxDecimalPlacesAmount)
         );
       }
+      recipeLive.setValue(applyDesiredServings());
       if (downloadAfterLoading) {
         downloadData(false);
       }
@@ -192,7 +210,11 @@ public class RecipeViewModel extends BaseViewModel {
   public void downloadData(boolean forceUpdate) {
     dlHelper.updateData(
         updated -> {
-          if (updated) loadFromDatabase(false);
+          if (servingsUnsaved) {
+            saveDesiredServings(); // connection is back, reloads after saving
+          } else if (updated) {
+            loadFromDatabase(false);
+          }
         },
         error -> onError(error, TAG),
         forceUpdate,
@@ -201,7 +223,9 @@ public class RecipeViewModel extends BaseViewModel {
         RecipeFulfillment.class,
         RecipePosition.class,
         VersionUtil.isGrocyServerMin400(sharedPrefs) ? RecipePositionResolved.class : null,
+        RecipeNesting.class,
         Product.class,
+        ProductLastPurchased.class,
         QuantityUnit.class,
         QuantityUnitConversionResolved.class,
         StockItem.class,
@@ -230,6 +254,7 @@ public class RecipeViewModel extends BaseViewModel {
       if (servingsNew <= 0) servingsNew = 1;
       servingsDesiredLive.setValue(NumUtil.trimAmount(servingsNew, maxDecimalPlacesAmount));
     }
+    onDesiredServingsChanged();
     timerUpdateData.cancel();
     timerUpdateData = new Timer();
     timerUpdateData.schedule(
@@ -243,6 +268,42 @@ public class RecipeViewModel extends BaseViewModel {
     );
   }
 
+  /**
+   * Shows the fulfillment for the desired servings immediately, before they are saved.
+   */
+  public void onDesiredServingsChanged() {
+    recipeLive.setValue(applyDesiredServings());
+  }
+
+  /**
+   * Calculates the fulfillment locally if the desired servings differ from those the server
+   * has calculated the fulfillment for. Returns the recipe with the desired servings.
+   */
+  private Recipe applyDesiredServings() {
+    recipeFulfillment = serverRecipeFulfillment;
+    recipePositionsResolved = serverRecipePositionsResolved;
+    if (serverRecipe == null || fulfillmentCalculator == null
+        || !NumUtil.isStringDouble(servingsDesiredLive.getValue())) {
+      return serverRecipe;
+    }
+    double servingsDesired = NumUtil.toDouble(servingsDesiredLive.getValue());
+    if (serverRecipe.getDesiredServings() != null
+        && Double.compare(serverRecipe.getDesiredServings(), servingsDesired) == 0) {
+      return serverRecipe;
+    }
+    RecipeFulfillmentCalculator.Result result = fulfillmentCalculator.calculate(
+        serverRecipe.getId(), servingsDesired, serverRecipePositionsResolved
+    );
+    if (result == null) return serverRecipe;
+    recipeFulfillment = result.getRecipeFulfillment();
+    if (!serverRecipePositionsResolved.isEmpty()) {
+      recipePositionsResolved = result.getRecipePositions();
+    }
+    Recipe recipe = serverRecipe.getClone();
+    recipe.setDesiredServings(servingsDesired);
+    return recipe;
+  }
+
   public void saveDesiredServings() {
     double servingsDesired;
     if (NumUtil.isStringDouble(servingsDesiredLive.getValue())) {
@@ -251,6 +312,13 @@ public class RecipeViewModel extends BaseViewModel {
       servingsDesired = 1;
       servingsDesiredLive.setValue(NumUtil.trimAmount(servingsDesired, maxDecimalPlacesAmount));
     }
+    if (isOffline()) {
+      // applied locally only, saved with the next successful download
+      if (!servingsUnsaved) showMessage(R.string.msg_servings_not_saved);
+      servingsUnsaved = true;
+      return;
+    }
+    servingsUnsaved = false;
 
     JSONObject body = new JSONObject();
     try {
@@ -276,7 +344,10 @@ public class RecipeViewModel extends BaseViewModel {
             RecipePosition.class,
             VersionUtil.isGrocyServerMin400(sharedPrefs) ? RecipePositionResolved.class : null
         ),
-        error -> onError(error, TAG)
+        error -> {
+          servingsUnsaved = true;
+          onError(error, TAG);
+        }
     ).perform(dlHelper.getUuid());
   }
 
@@ -341,8 +412,8 @@ public class RecipeViewModel extends BaseViewModel {
     return quantityUnits;
   }
 
-  public List<QuantityUnitConversionResolved> getQuantityUnitConversions() {
-    return quantityUnitConversions;
+  public QuantityUnitConversionIndex getUnitConversionIndex() {
+    return unitConversionIndex;
   }
 
   public HashMap<Integer, StockItem> getStockItemHashMap() {
@@ -53,6 +53,7 @@ import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.Userfield;
 import xyz.zedler.patrick.grocy.repository.RecipesRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 
 public class RecipesViewModel extends BaseViewModel {
@@ -87,7 +88,7 @@ public class RecipesViewModel extends BaseViewModel {
   private List<RecipePosition> recipePositions;
   private List<Product> products;
   private List<QuantityUnit> quantityUnits;
-  private List<QuantityUnitConversionResolved> quantityUnitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
   private HashMap<String, Userfield> userfieldHashMap;
 
   private String searchInput;
@@ -138,7 +139,7 @@ public class RecipesViewModel extends BaseViewModel {
       recipePositions = data.getRecipePositions();
       products = data.getProducts();
       quantityUnits = data.getQuantityUnits();
-      quantityUnitConversions = data.getQuantityUnitConversionsResolved();
+      unitConversionIndex = data.getUnitConversionIndex();
       userfieldHashMap = ArrayUtil.getUserfieldHashMap(data.getUserfields());
       filterChipLiveDataSort.setUserfields(data.getUserfields(), DISPLAYED_USERFIELD_ENTITIES);
       filterChipLiveDataFields.setUserfields(data.getUserfields(), DISPLAYED_USERFIELD_ENTITIES);
@@ -272,8 +273,8 @@ public class RecipesViewModel extends BaseViewModel {
     return new ArrayList<>(quantityUnits);
   }
 
-  public List<QuantityUnitConversionResolved> getQuantityUnitConversions() {
-    return quantityUnitConversions;
+  public QuantityUnitConversionIndex getUnitConversionIndex() {
+    return unitConversionIndex;
   }
 
   public HashMap<String, Userfield> getUserfieldHashMap() {
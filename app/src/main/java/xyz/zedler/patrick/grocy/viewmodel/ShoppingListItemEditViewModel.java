@@ -30,8 +30,10 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.Constants;
 import xyz.zedler.patrick.grocy.Constants.ARGUMENT;
@@ -45,6 +47,7 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.InputProductBottomShe
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheetArgs;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ShoppingListOutbox;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
@@ -54,13 +57,14 @@ import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemMutation;
 import xyz.zedler.patrick.grocy.repository.ShoppingListItemEditRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
-import xyz.zedler.patrick.grocy.util.QuantityUnitConversionUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.VersionUtil;
 
 public class ShoppingListItemEditViewModel extends BaseViewModel {
@@ -71,6 +75,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
   private final DownloadHelper dlHelper;
   private final GrocyApi grocyApi;
   private final ShoppingListItemEditRepository repository;
+  private final ShoppingListOutbox outbox;
   private final FormDataShoppingListItemEdit formData;
   private final ShoppingListItemEditFragmentArgs args;
 
@@ -80,7 +85,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
   private List<ShoppingList> shoppingLists;
   private List<Product> products;
   private List<ProductBarcode> barcodes;
-  private List<QuantityUnitConversionResolved> unitConversions;
+  private QuantityUnitConversionIndex unitConversionIndex;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
 
   private Runnable queueEmptyAction;
@@ -105,6 +110,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue, getOfflineLive());
     grocyApi = new GrocyApi(getApplication());
     repository = new ShoppingListItemEditRepository(application);
+    outbox = ShoppingListOutbox.getInstance(application);
     formData = new FormDataShoppingListItemEdit(application);
     args = startupArgs;
     isActionEdit = startupArgs.getAction().equals(Constants.ACTION.EDIT);
@@ -122,7 +128,10 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
       this.products = data.getProducts();
       this.barcodes = data.getBarcodes();
       this.quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      this.unitConversions = data.getQuantityUnitConversions();
+      this.unitConversionIndex = new QuantityUnitConversionIndex(
+          data.getQuantityUnitConversions(),
+          quantityUnitHashMap
+      );
       formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
       ShoppingList selectedShoppingList = formData.getShoppingListLive().getValue();
       if (!isActionEdit && selectedShoppingList == null) {
@@ -171,10 +180,31 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
     }
 
     ShoppingListItem item = null;
+    ShoppingListItem unchangedItem = null;
     if (isActionEdit) {
       item = args.getShoppingListItem();
+      assert item != null;
+      unchangedItem = item.getClone();
     }
     item = formData.fillShoppingListItem(item);
+
+    if (isActionEdit && hasOnlyAmountOrNoteChanged(unchangedItem, item)) {
+      // queued like other changes of existing items, so they are not lost without connection
+      List<ShoppingListItemMutation> mutations = new ArrayList<>();
+      if (unchangedItem.getAmountDouble() != item.getAmountDouble()) {
+        mutations.add(ShoppingListItemMutation.amount(item.getId(), item.getAmount()));
+      }
+      String note = item.getNote() != null ? item.getNote() : "";
+      if (!note.equals(unchangedItem.getNote() != null ? unchangedItem.getNote() : "")) {
+        mutations.add(ShoppingListItemMutation.note(item.getId(), note));
+      }
+      outbox.enqueue(mutations, () -> {
+        outbox.sync(null);
+        saveProductBarcodeAndNavigateUp();
+      });
+      return;
+    }
+
     JSONObject jsonObject = ShoppingListItem.getJsonFromShoppingListItem(item, false,
         debug, TAG);
 
@@ -205,6 +235,18 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
     }
   }
 
+  /**
+   * Changes of the list, product or unit can't be queued, those are sent right away.
+   */
+  private static boolean hasOnlyAmountOrNoteChanged(
+      ShoppingListItem unchangedItem,
+      ShoppingListItem item
+  ) {
+    return unchangedItem.getShoppingListIdInt() == item.getShoppingListIdInt()
+        && Objects.equals(unchangedItem.getProductId(), item.getProductId())
+        && Objects.equals(unchangedItem.getQuId(), item.getQuId());
+  }
+
   private void saveProductBarcodeAndNavigateUp() {
     ProductBarcode productBarcode = formData.fillProductBarcode(null);
     if (productBarcode.getBarcode() == null) {
@@ -238,12 +280,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
       formData.getProductLive().setValue(product);
       formData.getProductNameLive().setValue(product.getName());
 
-      HashMap<QuantityUnit, Double> unitFactors = QuantityUnitConversionUtil.getUnitFactors(
-          quantityUnitHashMap,
-          unitConversions,
-          product,
-          VersionUtil.isGrocyServerMin400(sharedPrefs)
-      );
+      HashMap<QuantityUnit, Double> unitFactors = unitConversionIndex.getUnitFactors(product);
       formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
       formData.getQuantityUnitStockLive().setValue(
           quantityUnitHashMap.get(product.getQuIdStockInt())
@@ -273,12 +310,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
     formData.getProductLive().setValue(product);
     formData.getProductNameLive().setValue(product.getName());
 
-    HashMap<QuantityUnit, Double> unitFactors = QuantityUnitConversionUtil.getUnitFactors(
-        quantityUnitHashMap,
-        unitConversions,
-        product,
-        VersionUtil.isGrocyServerMin400(sharedPrefs)
-    );
+    HashMap<QuantityUnit, Double> unitFactors = unitConversionIndex.getUnitFactors(product);
     formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
     formData.getQuantityUnitStockLive().setValue(
         quantityUnitHashMap.get(product.getQuIdStockInt())
@@ -27,6 +27,7 @@ import android.text.Spanned;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.preference.PreferenceManager;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
@@ -42,6 +43,10 @@ import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Input;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Result;
+import xyz.zedler.patrick.grocy.helper.ShoppingListOutbox;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveData;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataFields;
@@ -58,14 +63,17 @@ import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem.ShoppingListItemWithSync;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemMutation;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.repository.ShoppingListRepository;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
+import xyz.zedler.patrick.grocy.util.IntDoubleMap;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
+import xyz.zedler.patrick.grocy.util.IntSet;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
-import xyz.zedler.patrick.grocy.util.VersionUtil;
-import xyz.zedler.patrick.grocy.web.NetworkQueue;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class ShoppingListViewModel extends BaseViewModel {
 
@@ -82,11 +90,14 @@ public class ShoppingListViewModel extends BaseViewModel {
   private final DownloadHelper dlHelper;
   private final GrocyApi grocyApi;
   private final ShoppingListRepository repository;
+  private final ShoppingListGroupingPipeline groupingPipeline;
+  private final ShoppingListOutbox outbox;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
   private final MutableLiveData<Integer> selectedShoppingListIdLive;
   private final MutableLiveData<ArrayList<ShoppingListItem>> filteredShoppingListItemsLive;
+  private final MutableLiveData<Result> groupedListItemsLive;
   private final FilterChipLiveDataStatusShoppingList filterChipLiveDataStatus;
   private final FilterChipLiveDataGroupingShoppingList filterChipLiveDataGrouping;
   private final FilterChipLiveDataFields filterChipLiveDataFields;
@@ -95,13 +106,13 @@ public class ShoppingListViewModel extends BaseViewModel {
   private List<ShoppingList> shoppingLists;
   private HashMap<Integer, ProductGroup> productGroupHashMap;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private List<QuantityUnitConversionResolved> unitConversions;
-  private HashMap<Integer, Double> shoppingListItemAmountsHashMap;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private IntDoubleMap shoppingListItemAmountsHashMap;
   private HashMap<Integer, Product> productHashMap;
   private HashMap<Integer, String> productNamesHashMap;
-  private HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
+  private IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
   private HashMap<Integer, Store> storeHashMap;
-  private ArrayList<Integer> missingProductIds;
+  private IntSet missingProductIds;
 
   private String searchInput;
   private final boolean debug;
@@ -122,10 +133,13 @@ public class ShoppingListViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue, getOfflineLive());
     grocyApi = new GrocyApi(getApplication());
     repository = new ShoppingListRepository(application);
+    groupingPipeline = new ShoppingListGroupingPipeline(application, false);
+    outbox = ShoppingListOutbox.getInstance(application);
 
     infoFullscreenLive = new MutableLiveData<>();
     selectedShoppingListIdLive = new MutableLiveData<>(1);
     filteredShoppingListItemsLive = new MutableLiveData<>();
+    groupedListItemsLive = new MutableLiveData<>();
     filterChipLiveDataStatus = new FilterChipLiveDataStatusShoppingList(
         getApplication(),
         this::updateFilteredShoppingListItemsWithTopScroll
@@ -164,11 +178,11 @@ public class ShoppingListViewModel extends BaseViewModel {
       this.shoppingListItems = data.getShoppingListItems();
       this.shoppingLists = data.getShoppingLists();
       productGroupHashMap = ArrayUtil.getProductGroupsHashMap(data.getProductGroups());
-      quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      unitConversions = data.getUnitConversionsResolved();
+      quantityUnitHashMap = data.getQuantityUnitHashMap();
+      unitConversionIndex = data.getUnitConversionIndex();
       storeHashMap = ArrayUtil.getStoresHashMap(data.getStores());
       missingProductIds = ArrayUtil.getMissingProductsIds(data.getMissingItems());
-      productHashMap = ArrayUtil.getProductsHashMap(data.getProducts());
+      productHashMap = data.getProductHashMap();
       productNamesHashMap = ArrayUtil.getProductNamesHashMap(data.getProducts());
       productLastPurchasedHashMap = ArrayUtil
           .getProductLastPurchasedHashMap(data.getProductsLastPurchased());
@@ -240,6 +254,22 @@ public class ShoppingListViewModel extends BaseViewModel {
         .emitCounts();
 
     filteredShoppingListItemsLive.setValue(filteredShoppingListItems);
+    groupingPipeline.submit(new Input(
+        filteredShoppingListItems,
+        productHashMap,
+        productNamesHashMap,
+        productLastPurchasedHashMap,
+        quantityUnitHashMap,
+        unitConversionIndex,
+        productGroupHashMap,
+        storeHashMap,
+        shoppingListItemAmountsHashMap,
+        missingProductIds,
+        getShoppingListNotes(),
+        getGroupingMode(),
+        getActiveFields(),
+        false
+    ), groupedListItemsLive::setValue);
     selectedShoppingListIdLive.setValue(selectedShoppingListIdLive.getValue());
 
     if (filteredShoppingListItems.isEmpty()) {
@@ -272,6 +302,10 @@ public class ShoppingListViewModel extends BaseViewModel {
     return filteredShoppingListItemsLive;
   }
 
+  public LiveData<Result> getGroupedListItemsLive() {
+    return groupedListItemsLive;
+  }
+
   public void updateSearchInput(String input) {
     this.searchInput = input.toLowerCase();
     updateFilteredShoppingListItems();
@@ -306,51 +340,26 @@ public class ShoppingListViewModel extends BaseViewModel {
   }
 
   private void syncShoppingListItems() {
+    syncShoppingListItems(true);
+  }
+
+  private void syncShoppingListItems(boolean showSyncedMessage) {
     if (isOffline()) return;
-    ArrayList<ShoppingListItem> itemsToSync = new ArrayList<>();
-    for (ShoppingListItem item : shoppingListItems) {
-      if (item.getDoneSynced() != -1) {
-        itemsToSync.add(item);
-      }
-    }
-    if (itemsToSync.isEmpty()) return;
-    Runnable emptyListener = () -> {
-      ArrayList<ShoppingListItem> itemsToUpdate = new ArrayList<>();
-      for (ShoppingListItem itemToSync : itemsToSync) {
-        itemToSync.setDoneSynced(-1);
-        itemsToUpdate.add(itemToSync);
-      }
-      repository.insertShoppingListItems(
-          () -> {
-            showMessage(getString(R.string.msg_synced));
-            loadFromDatabase(false);
-          },
-          itemsToUpdate.toArray(new ShoppingListItem[0])
-      );
-    };
-    DownloadHelper.OnMultiTypeErrorListener errorListener = error -> {
-      SnackbarMessage snackbarMessage = new SnackbarMessage(getString(R.string.msg_failed_to_sync));
-      snackbarMessage.setAction(
-          getString(R.string.action_details),
-          v -> showSyncErrorDetailsAlertDialog()
-      );
-      snackbarMessage.setDurationSecs(5);
-      showSnackbar(snackbarMessage);
-      showMessage(getString(R.string.msg_failed_to_sync));
-    };
-    NetworkQueue queue = dlHelper.newQueue(updated -> emptyListener.run(), errorListener);
-    for (ShoppingListItem itemToSync : itemsToSync) {
-      JSONObject body = new JSONObject();
-      try {
-        body.put("done", itemToSync.getDoneInt());
-      } catch (JSONException e) {
-        if (debug) {
-          Log.e(TAG, "syncItems: " + e);
-        }
+    outbox.sync((succeeded, failed) -> {
+      if (failed > 0) {
+        SnackbarMessage snackbarMessage = new SnackbarMessage(
+            getString(R.string.msg_failed_to_sync)
+        );
+        snackbarMessage.setAction(
+            getString(R.string.action_details),
+            v -> showSyncErrorDetailsAlertDialog()
+        );
+        snackbarMessage.setDurationSecs(5);
+        showSnackbar(snackbarMessage);
+      } else if (succeeded > 0 && showSyncedMessage) {
+        showMessage(getString(R.string.msg_synced));
       }
-      queue.append(ShoppingListItem.editShoppingListItem(dlHelper, itemToSync.getId(), body));
-    }
-    queue.start();
+    });
   }
 
   private void showSyncErrorDetailsAlertDialog() {
@@ -360,7 +369,7 @@ public class ShoppingListViewModel extends BaseViewModel {
         .setPositiveButton(R.string.action_try_again, (dialog, which) -> syncShoppingListItems())
         .setNegativeButton(
             R.string.action_reload,
-            (dialog, which) -> downloadData(true, true)
+            (dialog, which) -> outbox.clear(() -> downloadData(true, true))
         ).create().show();
   }
 
@@ -389,46 +398,15 @@ public class ShoppingListViewModel extends BaseViewModel {
       showNetworkErrorMessage(null);
       return;
     }
-    ShoppingListItem shoppingListItem = listItem.getClone();
-
-    if (shoppingListItem.getDoneSynced() == -1) {
-      shoppingListItem.setDoneSynced(shoppingListItem.getDoneInt());
-    }
-
-    shoppingListItem.setDone(shoppingListItem.getDoneInt() == 0 ? 1 : 0);  // toggle state
-
-    if (isOffline()) {
-      updateDoneStatus(shoppingListItem);
-      return;
-    }
-
-    JSONObject body = new JSONObject();
-    try {
-      body.put("done", shoppingListItem.getDoneInt());
-    } catch (JSONException e) {
-      if (debug) {
-        Log.e(TAG, "toggleDoneStatus: " + e);
-      }
-    }
-    ShoppingListItem.editShoppingListItem(
-        dlHelper,
-        shoppingListItem.getId(),
-        body,
-        response -> updateDoneStatus(shoppingListItem),
-        error -> {
-          showMessage(getString(R.string.error_undefined));
-          if (debug) {
-            Log.e(TAG, "toggleDoneStatus: " + error);
-          }
-        }
-    ).perform(dlHelper.getUuid());
+    outbox.enqueue(
+        ShoppingListItemMutation.done(listItem.getId(), listItem.getDoneInt() == 0 ? 1 : 0),
+        this::onMutationsEnqueued
+    );
   }
 
-  private void updateDoneStatus(ShoppingListItem shoppingListItem) {
-    repository.insertShoppingListItems(
-        () -> loadFromDatabase(false),
-        shoppingListItem
-    );
+  private void onMutationsEnqueued() {
+    loadFromDatabase(false);
+    syncShoppingListItems(false);
   }
 
   public void addMissingItems() {
@@ -501,16 +479,9 @@ public class ShoppingListViewModel extends BaseViewModel {
   }
 
   public void deleteItem(@NonNull ShoppingListItem shoppingListItem) {
-    dlHelper.delete(
-        grocyApi.getObject(GrocyApi.ENTITY.SHOPPING_LIST, shoppingListItem.getId()),
-        response -> loadFromDatabase(true),
-        error -> {
-          showMessage(getString(R.string.error_undefined));
-          loadFromDatabase(true);
-          if (debug) {
-            Log.e(TAG, "deleteItem: " + error);
-          }
-        }
+    outbox.enqueue(
+        ShoppingListItemMutation.delete(shoppingListItem.getId()),
+        this::onMutationsEnqueued
     );
   }
 
@@ -605,18 +576,7 @@ public class ShoppingListViewModel extends BaseViewModel {
   }
 
   public void clearDoneItems(ShoppingList shoppingList) {
-    NetworkQueue queue = dlHelper.newQueue(
-        updated -> {
-          showMessage(getApplication().getString(
-              R.string.msg_shopping_list_cleared,
-              shoppingList.getName()
-          ));
-          downloadData(false, false);
-        }, volleyError -> {
-          showMessage(getString(R.string.error_undefined));
-          downloadData(false, false);
-        }
-    );
+    List<ShoppingListItemMutation> mutations = new ArrayList<>();
     for (ShoppingListItem shoppingListItem : shoppingListItems) {
       if (shoppingListItem.getShoppingListIdInt() != shoppingList.getId()) {
         continue;
@@ -624,9 +584,28 @@ public class ShoppingListViewModel extends BaseViewModel {
       if (shoppingListItem.getDoneInt() == 0) {
         continue;
       }
-      queue.append(ShoppingListItem.deleteShoppingListItem(dlHelper, shoppingListItem.getId()));
+      mutations.add(ShoppingListItemMutation.delete(shoppingListItem.getId()));
     }
-    queue.start();
+    if (mutations.isEmpty()) {
+      return;
+    }
+    outbox.enqueue(mutations, () -> {
+      loadFromDatabase(false);
+      if (isOffline()) {
+        return;
+      }
+      outbox.sync((succeeded, failed) -> {
+        if (failed > 0) {
+          showMessage(getString(R.string.error_undefined));
+        } else {
+          showMessage(getApplication().getString(
+              R.string.msg_shopping_list_cleared,
+              shoppingList.getName()
+          ));
+        }
+        downloadData(false, false);
+      });
+    });
   }
 
   @Nullable
@@ -673,7 +652,7 @@ public class ShoppingListViewModel extends BaseViewModel {
     return shoppingLists;
   }
 
-  public ArrayList<Integer> getMissingProductIds() {
+  public IntSet getMissingProductIds() {
     return missingProductIds;
   }
 
@@ -681,7 +660,7 @@ public class ShoppingListViewModel extends BaseViewModel {
     return productHashMap;
   }
 
-  public HashMap<Integer, ProductLastPurchased> getProductLastPurchasedHashMap() {
+  public IntObjectMap<ProductLastPurchased> getProductLastPurchasedHashMap() {
     return productLastPurchasedHashMap;
   }
 
@@ -689,8 +668,8 @@ public class ShoppingListViewModel extends BaseViewModel {
     return quantityUnitHashMap;
   }
 
-  public List<QuantityUnitConversionResolved> getUnitConversions() {
-    return unitConversions;
+  public QuantityUnitConversionIndex getUnitConversionIndex() {
+    return unitConversionIndex;
   }
 
   public FilterChipLiveData.Listener getFilterChipLiveDataStatus() {
@@ -714,11 +693,10 @@ public class ShoppingListViewModel extends BaseViewModel {
   }
 
   private void fillShoppingListItemAmountsHashMap() {
-    shoppingListItemAmountsHashMap = new HashMap<>();
-    boolean isGrocyServerMin400 = VersionUtil.isGrocyServerMin400(sharedPrefs);
+    shoppingListItemAmountsHashMap = new IntDoubleMap(shoppingListItems.size());
     for (ShoppingListItem item : shoppingListItems) {
       Double amount = AmountUtil.getShoppingListItemAmount(
-          item, productHashMap, quantityUnitHashMap, unitConversions, isGrocyServerMin400
+          item, productHashMap, quantityUnitHashMap, unitConversionIndex
       );
       if (amount != null) {
         shoppingListItemAmountsHashMap.put(item.getId(), amount);
@@ -726,7 +704,7 @@ public class ShoppingListViewModel extends BaseViewModel {
     }
   }
 
-  public HashMap<Integer, Double> getShoppingListItemAmountsHashMap() {
+  public IntDoubleMap getShoppingListItemAmountsHashMap() {
     return shoppingListItemAmountsHashMap;
   }
 
@@ -747,6 +725,7 @@ public class ShoppingListViewModel extends BaseViewModel {
   @Override
   protected void onCleared() {
     dlHelper.destroy();
+    groupingPipeline.destroy();
     super.onCleared();
   }
 }
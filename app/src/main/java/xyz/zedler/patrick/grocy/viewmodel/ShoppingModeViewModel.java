@@ -27,6 +27,7 @@ import android.text.Spanned;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.preference.PreferenceManager;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
@@ -40,6 +41,12 @@ import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Input;
+import xyz.zedler.patrick.grocy.helper.ShoppingListGroupingPipeline.Result;
+import xyz.zedler.patrick.grocy.helper.ShoppingListOutbox;
+import xyz.zedler.patrick.grocy.helper.ShoppingModeSyncController;
+import xyz.zedler.patrick.grocy.helper.ShoppingModeSyncController.OnFinishedListener;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveData;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataFields;
@@ -55,14 +62,17 @@ import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem.ShoppingListItemWithSync;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemMutation;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.repository.ShoppingListRepository;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
+import xyz.zedler.patrick.grocy.util.IntDoubleMap;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
+import xyz.zedler.patrick.grocy.util.IntSet;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
-import xyz.zedler.patrick.grocy.util.VersionUtil;
-import xyz.zedler.patrick.grocy.web.NetworkQueue;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 
 public class ShoppingModeViewModel extends BaseViewModel {
 
@@ -80,12 +90,16 @@ public class ShoppingModeViewModel extends BaseViewModel {
   private final DownloadHelper dlHelper;
   private final GrocyApi grocyApi;
   private final ShoppingListRepository repository;
+  private final ShoppingListGroupingPipeline groupingPipeline;
+  private final ShoppingListOutbox outbox;
+  private final ShoppingModeSyncController syncController;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<Boolean> autoSyncDisabledLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
   private final MutableLiveData<Integer> selectedShoppingListIdLive;
   private final MutableLiveData<ArrayList<ShoppingListItem>> filteredShoppingListItemsLive;
+  private final MutableLiveData<Result> groupedListItemsLive;
   private final FilterChipLiveDataGroupingShoppingMode filterChipLiveDataGrouping;
   private final FilterChipLiveDataFields filterChipLiveDataFields;
 
@@ -93,13 +107,13 @@ public class ShoppingModeViewModel extends BaseViewModel {
   private List<ShoppingList> shoppingLists;
   private HashMap<Integer, ProductGroup> productGroupHashMap;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private List<QuantityUnitConversionResolved> unitConversions;
-  private HashMap<Integer, Double> shoppingListItemAmountsHashMap;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private IntDoubleMap shoppingListItemAmountsHashMap;
   private HashMap<Integer, Store> storeHashMap;
   private HashMap<Integer, Product> productHashMap;
   private HashMap<Integer, String> productNamesHashMap;
-  private HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
-  private ArrayList<Integer> missingProductIds;
+  private IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
+  private IntSet missingProductIds;
   private final boolean debug;
 
   public ShoppingModeViewModel(@NonNull Application application) {
@@ -113,10 +127,17 @@ public class ShoppingModeViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue, getOfflineLive());
     grocyApi = new GrocyApi(getApplication());
     repository = new ShoppingListRepository(application);
+    groupingPipeline = new ShoppingListGroupingPipeline(application, true);
+    outbox = ShoppingListOutbox.getInstance(application);
+    syncController = new ShoppingModeSyncController(
+        dlHelper, sharedPrefs, debug, this::downloadShoppingListChanges
+    );
+    syncController.setEnabled(getAutoSyncEnabled());
 
     infoFullscreenLive = new MutableLiveData<>();
     selectedShoppingListIdLive = new MutableLiveData<>(1);
     filteredShoppingListItemsLive = new MutableLiveData<>();
+    groupedListItemsLive = new MutableLiveData<>();
     filterChipLiveDataGrouping = new FilterChipLiveDataGroupingShoppingMode(
         getApplication(),
         this::updateFilteredShoppingListItemsWithTopScroll
@@ -148,13 +169,17 @@ public class ShoppingModeViewModel extends BaseViewModel {
   }
 
   public void loadFromDatabase(boolean downloadAfterLoading) {
+    loadFromDatabase(downloadAfterLoading, false);
+  }
+
+  private void loadFromDatabase(boolean downloadAfterLoading, boolean downloadIfProductsUnknown) {
     repository.loadFromDatabase(data -> {
       this.shoppingListItems = data.getShoppingListItems();
       this.shoppingLists = data.getShoppingLists();
       productGroupHashMap = ArrayUtil.getProductGroupsHashMap(data.getProductGroups());
-      quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      unitConversions = data.getUnitConversionsResolved();
-      productHashMap = ArrayUtil.getProductsHashMap(data.getProducts());
+      quantityUnitHashMap = data.getQuantityUnitHashMap();
+      unitConversionIndex = data.getUnitConversionIndex();
+      productHashMap = data.getProductHashMap();
       productNamesHashMap = ArrayUtil.getProductNamesHashMap(data.getProducts());
       productLastPurchasedHashMap = ArrayUtil
           .getProductLastPurchasedHashMap(data.getProductsLastPurchased());
@@ -162,7 +187,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
       missingProductIds = ArrayUtil.getMissingProductsIds(data.getMissingItems());
       fillShoppingListItemAmountsHashMap();
       updateFilteredShoppingListItems();
-      if (downloadAfterLoading) {
+      if (downloadAfterLoading || downloadIfProductsUnknown && hasUnknownProducts()) {
         downloadData(false, false);
       } else {
         syncShoppingListItems();
@@ -182,6 +207,22 @@ public class ShoppingModeViewModel extends BaseViewModel {
       filteredShoppingListItems.add(item);
     }
     filteredShoppingListItemsLive.setValue(filteredShoppingListItems);
+    groupingPipeline.submit(new Input(
+        filteredShoppingListItems,
+        productHashMap,
+        productNamesHashMap,
+        productLastPurchasedHashMap,
+        quantityUnitHashMap,
+        unitConversionIndex,
+        productGroupHashMap,
+        storeHashMap,
+        shoppingListItemAmountsHashMap,
+        missingProductIds,
+        getShoppingListNotes(),
+        getGroupingMode(),
+        getActiveFields(),
+        getShowDoneItemsEnabled()
+    ), groupedListItemsLive::setValue);
     selectedShoppingListIdLive.setValue(selectedShoppingListIdLive.getValue());
 
     if (filteredShoppingListItems.isEmpty()) {
@@ -200,6 +241,10 @@ public class ShoppingModeViewModel extends BaseViewModel {
     return filteredShoppingListItemsLive;
   }
 
+  public LiveData<Result> getGroupedListItemsLive() {
+    return groupedListItemsLive;
+  }
+
   public MutableLiveData<Integer> getSelectedShoppingListIdLive() {
     return selectedShoppingListIdLive;
   }
@@ -227,52 +272,73 @@ public class ShoppingModeViewModel extends BaseViewModel {
     );
   }
 
-  private void syncShoppingListItems() {
-    if (isOffline()) return;
-    ArrayList<ShoppingListItem> itemsToSync = new ArrayList<>();
+  /**
+   * Downloads only the shopping lists and their items after the sync controller has noticed
+   * a change on the server. If items of products which are not known yet have been added,
+   * the other data is downloaded too.
+   */
+  private void downloadShoppingListChanges(
+      String dbChangedTime,
+      OnFinishedListener onFinishedListener
+  ) {
+    dlHelper.updateData(
+        updated -> {
+          if (updated) {
+            loadFromDatabase(false, true);
+          }
+          onFinishedListener.onFinished(true);
+        },
+        error -> {
+          if (debug) {
+            Log.e(TAG, "downloadShoppingListChanges: " + error);
+          }
+          onFinishedListener.onFinished(false);
+        },
+        dbChangedTime,
+        false,
+        false,
+        null,
+        ShoppingListItemWithSync.class,
+        ShoppingList.class
+    );
+  }
+
+  private boolean hasUnknownProducts() {
+    if (shoppingListItems == null || productHashMap == null) {
+      return false;
+    }
     for (ShoppingListItem item : shoppingListItems) {
-      if (item.getDoneSynced() != -1) {
-        itemsToSync.add(item);
+      if (item.hasProduct() && !productHashMap.containsKey(item.getProductIdInt())) {
+        return true;
       }
     }
-    if (itemsToSync.isEmpty()) return;
-    Runnable emptyListener = () -> {
-      ArrayList<ShoppingListItem> itemsToUpdate = new ArrayList<>();
-      for (ShoppingListItem itemToSync : itemsToSync) {
-        itemToSync.setDoneSynced(-1);
-        itemsToUpdate.add(itemToSync);
+    return false;
+  }
+
+  private void syncShoppingListItems() {
+    syncShoppingListItems(true);
+  }
+
+  private void syncShoppingListItems(boolean showSyncedMessage) {
+    if (isOffline()) return;
+    outbox.sync((succeeded, failed) -> {
+      if (succeeded > 0) {
+        syncController.onLocalChange();
       }
-      repository.insertShoppingListItems(
-          () -> {
-            showMessage(getString(R.string.msg_synced));
-            loadFromDatabase(false);
-          },
-          itemsToUpdate.toArray(new ShoppingListItem[0])
-      );
-    };
-    DownloadHelper.OnMultiTypeErrorListener errorListener = error -> {
-      SnackbarMessage snackbarMessage = new SnackbarMessage(getString(R.string.msg_failed_to_sync));
-      snackbarMessage.setAction(
-          getString(R.string.action_details),
-          v -> showSyncErrorDetailsAlertDialog()
-      );
-      snackbarMessage.setDurationSecs(5);
-      showSnackbar(snackbarMessage);
-      showMessage(getString(R.string.msg_failed_to_sync));
-    };
-    NetworkQueue queue = dlHelper.newQueue(updated -> emptyListener.run(), errorListener);
-    for (ShoppingListItem itemToSync : itemsToSync) {
-      JSONObject body = new JSONObject();
-      try {
-        body.put("done", itemToSync.getDoneInt());
-      } catch (JSONException e) {
-        if (debug) {
-          Log.e(TAG, "syncItems: " + e);
-        }
+      if (failed > 0) {
+        SnackbarMessage snackbarMessage = new SnackbarMessage(
+            getString(R.string.msg_failed_to_sync)
+        );
+        snackbarMessage.setAction(
+            getString(R.string.action_details),
+            v -> showSyncErrorDetailsAlertDialog()
+        );
+        snackbarMessage.setDurationSecs(5);
+        showSnackbar(snackbarMessage);
+      } else if (succeeded > 0 && showSyncedMessage) {
+        showMessage(getString(R.string.msg_synced));
       }
-      queue.append(ShoppingListItem.editShoppingListItem(dlHelper, itemToSync.getId(), body));
-    }
-    queue.start();
+    });
   }
 
   private void showSyncErrorDetailsAlertDialog() {
@@ -282,7 +348,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
         .setPositiveButton(R.string.action_try_again, (dialog, which) -> syncShoppingListItems())
         .setNegativeButton(
             R.string.action_reload,
-            (dialog, which) -> downloadData(true, true)
+            (dialog, which) -> outbox.clear(() -> downloadData(true, true))
         ).create().show();
   }
 
@@ -308,49 +374,12 @@ public class ShoppingModeViewModel extends BaseViewModel {
       showErrorMessage();
       return;
     }
-    ShoppingListItem shoppingListItem = listItem.getClone();
-
-    if (isOffline()) {
-      if (shoppingListItem.getDoneSynced() == -1) {
-        shoppingListItem.setDoneSynced(shoppingListItem.getDoneInt());
-      }
-      shoppingListItem.setDone(shoppingListItem.getDoneInt() == 0 ? 1 : 0);  // toggle state
-      updateDoneStatus(shoppingListItem);
-      return;
-    }
-
-    shoppingListItem.setDone(shoppingListItem.getDoneInt() == 0 ? 1 : 0);  // toggle state
-
-    JSONObject body = new JSONObject();
-    try {
-      body.put("done", shoppingListItem.getDoneInt());
-    } catch (JSONException e) {
-      if (debug) {
-        Log.e(TAG, "toggleDoneStatus: " + e);
-      }
-    }
-    ShoppingListItem.editShoppingListItem(
-        dlHelper,
-        shoppingListItem.getId(),
-        body,
-        response -> updateDoneStatus(shoppingListItem),
-        error -> {
-          showMessage(getString(R.string.error_undefined));
-          if (debug) {
-            Log.e(TAG, "toggleDoneStatus: " + error);
-          }
-        }
-    ).perform(dlHelper.getUuid());
-  }
-
-  private void updateDoneStatus(ShoppingListItem shoppingListItem) {
-    repository.insertShoppingListItems(
+    outbox.enqueue(
+        ShoppingListItemMutation.done(listItem.getId(), listItem.getDoneInt() == 0 ? 1 : 0),
         () -> {
-          sharedPrefs.edit()
-              .putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, null).apply();
           loadFromDatabase(false);
-        },
-        shoppingListItem
+          syncShoppingListItems(false);
+        }
     );
   }
 
@@ -375,6 +404,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
           }
           shoppingList.setNotes(notesHtml);
           downloadData(false, false);
+          syncController.onLocalChange();
         },
         error -> {
           showMessage(getString(R.string.error_undefined));
@@ -419,11 +449,10 @@ public class ShoppingModeViewModel extends BaseViewModel {
   }
 
   private void fillShoppingListItemAmountsHashMap() {
-    shoppingListItemAmountsHashMap = new HashMap<>();
-    boolean isGrocyServerMin400 = VersionUtil.isGrocyServerMin400(sharedPrefs);
+    shoppingListItemAmountsHashMap = new IntDoubleMap(shoppingListItems.size());
     for (ShoppingListItem item : shoppingListItems) {
       Double amount = AmountUtil.getShoppingListItemAmount(
-          item, productHashMap, quantityUnitHashMap, unitConversions, isGrocyServerMin400
+          item, productHashMap, quantityUnitHashMap, unitConversionIndex
       );
       if (amount != null) {
         shoppingListItemAmountsHashMap.put(item.getId(), amount);
@@ -431,11 +460,11 @@ public class ShoppingModeViewModel extends BaseViewModel {
     }
   }
 
-  public HashMap<Integer, Double> getShoppingListItemAmountsHashMap() {
+  public IntDoubleMap getShoppingListItemAmountsHashMap() {
     return shoppingListItemAmountsHashMap;
   }
 
-  public ArrayList<Integer> getMissingProductIds() {
+  public IntSet getMissingProductIds() {
     return missingProductIds;
   }
 
@@ -447,7 +476,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
     return productNamesHashMap;
   }
 
-  public HashMap<Integer, ProductLastPurchased> getProductLastPurchasedHashMap() {
+  public IntObjectMap<ProductLastPurchased> getProductLastPurchasedHashMap() {
     return productLastPurchasedHashMap;
   }
 
@@ -463,8 +492,8 @@ public class ShoppingModeViewModel extends BaseViewModel {
     return quantityUnitHashMap;
   }
 
-  public List<QuantityUnitConversionResolved> getUnitConversions() {
-    return unitConversions;
+  public QuantityUnitConversionIndex getUnitConversionIndex() {
+    return unitConversionIndex;
   }
 
   @NonNull
@@ -493,6 +522,13 @@ public class ShoppingModeViewModel extends BaseViewModel {
     return filterChipLiveDataFields.getActiveFields();
   }
 
+  public boolean getShowDoneItemsEnabled() {
+    return sharedPrefs.getBoolean(
+        Constants.SETTINGS.SHOPPING_MODE.SHOW_DONE_ITEMS,
+        Constants.SETTINGS_DEFAULT.SHOPPING_MODE.SHOW_DONE_ITEMS
+    );
+  }
+
   public boolean getAutoSyncEnabled() {
     return sharedPrefs.getBoolean(PREF.SHOPPING_LIST_AUTO_SYNC, true);
   }
@@ -504,11 +540,26 @@ public class ShoppingModeViewModel extends BaseViewModel {
   public void setAutoSyncEnabled(boolean enabled) {
     sharedPrefs.edit().putBoolean(PREF.SHOPPING_LIST_AUTO_SYNC, enabled).apply();
     autoSyncDisabledLive.setValue(!enabled);
+    syncController.setEnabled(enabled);
+  }
+
+  public void resumeAutoSync() {
+    syncController.resume();
+  }
+
+  public void pauseAutoSync() {
+    syncController.pause();
+  }
+
+  public void setAutoSyncOnline(boolean online) {
+    syncController.setOnline(online);
   }
 
   @Override
   protected void onCleared() {
     dlHelper.destroy();
+    groupingPipeline.destroy();
+    syncController.destroy();
     super.onCleared();
   }
 }
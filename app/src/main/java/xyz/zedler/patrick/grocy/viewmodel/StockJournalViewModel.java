@@ -24,6 +24,7 @@ import android.app.Application;
 import android.content.SharedPreferences;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
 import androidx.preference.PreferenceManager;
 import com.google.android.material.snackbar.Snackbar;
@@ -34,7 +35,7 @@ import xyz.zedler.patrick.grocy.Constants.PREF;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
-import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnObjectsResponseListener;
+import xyz.zedler.patrick.grocy.helper.StockJournalPager;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.Product;
@@ -44,8 +45,8 @@ import xyz.zedler.patrick.grocy.model.StockLogEntry;
 import xyz.zedler.patrick.grocy.model.User;
 import xyz.zedler.patrick.grocy.repository.StockEntriesRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
+import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
-import xyz.zedler.patrick.grocy.web.NetworkQueue;
 
 public class StockJournalViewModel extends BaseViewModel {
 
@@ -55,6 +56,7 @@ public class StockJournalViewModel extends BaseViewModel {
   private final DownloadHelper dlHelper;
   private final GrocyApi grocyApi;
   private final StockEntriesRepository repository;
+  private final StockJournalPager pager;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
@@ -69,8 +71,7 @@ public class StockJournalViewModel extends BaseViewModel {
   private String searchInput;
   private final boolean debug;
 
-  private int currentPage = 0;
-  private boolean isLastPage = false;
+  private int shownLimit = StockJournalPager.PAGE_SIZE;
 
   public StockJournalViewModel(@NonNull Application application) {
     super(application);
@@ -82,6 +83,7 @@ public class StockJournalViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue, getOfflineLive());
     grocyApi = new GrocyApi(getApplication());
     repository = new StockEntriesRepository(application);
+    pager = new StockJournalPager(dlHelper);
 
     infoFullscreenLive = new MutableLiveData<>();
     filteredStockLogEntriesLive = new MutableLiveData<>();
@@ -95,20 +97,11 @@ public class StockJournalViewModel extends BaseViewModel {
       locationHashMap = ArrayUtil.getLocationsHashMap(data.getLocations());
       userHashMap = ArrayUtil.getUsersHashMap(data.getUsers());
 
+      loadCachedEntries();
       if (downloadAfterLoading) {
         downloadData(false);
       } else {
-        NetworkQueue queue = dlHelper.newQueue(
-            updated -> updateFilteredStockLogEntries(),
-            error -> onError(error, TAG)
-        );
-        queue.append(StockLogEntry.getStockLogEntries(
-            dlHelper,
-            20,
-            0,
-            entries -> this.stockLogEntries = entries
-        ));
-        queue.start();
+        pager.refreshHead(this::loadCachedEntries, error -> onError(error, TAG));
       }
     }, error -> onError(error, TAG));
   }
@@ -129,17 +122,53 @@ public class StockJournalViewModel extends BaseViewModel {
     );
   }
 
-  public void loadNextPage(OnObjectsResponseListener<StockLogEntry> responseListener) {
-    NetworkQueue queue = dlHelper.newQueue(updated -> {
-      if (isOffline()) setOfflineLive(false);
-    }, error -> onError(error, TAG));
-    queue.append(StockLogEntry.getStockLogEntries(
-        dlHelper,
-        20,
-        currentPage*20,
-        responseListener
-    ));
-    queue.start();
+  private void loadCachedEntries() {
+    if (productHashMap == null) return;
+    List<Integer> searchedProductIds = getSearchedProductIds();
+    pager.loadCached(searchedProductIds, shownLimit, entries -> {
+      stockLogEntries = entries;
+      updateFilteredStockLogEntries();
+      if (searchedProductIds != null) {
+        // download pages until enough entries match or the whole journal is cached
+        if (entries.size() < shownLimit && !pager.isEndReached()) {
+          pager.downloadNextPage(this::loadCachedEntries, error -> onError(error, TAG));
+        }
+        return;
+      }
+      // keep one page more than shown in the cache, so scrolling doesn't have to wait
+      pager.prefetch(shownLimit, () -> {
+        if (stockLogEntries.size() < shownLimit) loadCachedEntries();
+      }, error -> onError(error, TAG));
+    });
+  }
+
+  @Nullable
+  private List<Integer> getSearchedProductIds() {
+    if (searchInput == null || searchInput.isEmpty()) return null;
+    List<Integer> productIds = new ArrayList<>();
+    for (Product product : productHashMap.values()) {
+      if (product.getName().toLowerCase().contains(searchInput)) {
+        productIds.add(product.getId());
+      }
+    }
+    return productIds;
+  }
+
+  public void loadNextPage() {
+    // if the shown page isn't full yet, the running download loads the entries when finished
+    if (stockLogEntries == null || stockLogEntries.size() < shownLimit) return;
+    shownLimit += StockJournalPager.PAGE_SIZE;
+    loadCachedEntries();
+  }
+
+  public boolean isLastPage() {
+    // fewer entries than shown are cached only until the pager has reached the end
+    return pager.isEndReached()
+        && (stockLogEntries == null || stockLogEntries.size() < shownLimit);
+  }
+
+  public boolean isLoadingNextPage() {
+    return pager.isLoading();
   }
 
   public void updateFilteredStockLogEntries() {
@@ -165,6 +194,11 @@ public class StockJournalViewModel extends BaseViewModel {
     dlHelper.post(
         grocyApi.undoStockTransaction(entry.getTransactionId()),
         response -> {
+          pager.markTransactionUndone(
+              entry.getTransactionId(),
+              new DateUtil(getApplication()).getCurrentDateWithTimeStr(),
+              this::loadCachedEntries
+          );
           downloadData(false);
           showSnackbar(new SnackbarMessage(
               getString(R.string.msg_undone_transaction),
@@ -189,8 +223,8 @@ public class StockJournalViewModel extends BaseViewModel {
 
   public void updateSearchInput(String input) {
     this.searchInput = input.toLowerCase();
-
-    updateFilteredStockLogEntries();
+    shownLimit = StockJournalPager.PAGE_SIZE;
+    loadCachedEntries();
   }
 
   public HashMap<Integer, Product> getProductHashMap() {
@@ -209,22 +243,6 @@ public class StockJournalViewModel extends BaseViewModel {
     return userHashMap;
   }
 
-  public boolean isLastPage() {
-    return isLastPage;
-  }
-
-  public void setLastPage(boolean lastPage) {
-    isLastPage = lastPage;
-  }
-
-  public int getCurrentPage() {
-    return currentPage;
-  }
-
-  public void setCurrentPage(int currentPage) {
-    this.currentPage = currentPage;
-  }
-
   @NonNull
   public MutableLiveData<Boolean> getIsLoadingLive() {
     return isLoadingLive;
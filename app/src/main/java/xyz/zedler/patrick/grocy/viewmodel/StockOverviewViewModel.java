@@ -45,6 +45,7 @@ import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
 import xyz.zedler.patrick.grocy.fragment.StockOverviewFragmentArgs;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusClassifier;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveData;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataFields;
@@ -64,7 +65,6 @@ import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversionResolved;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.model.StockItem;
@@ -75,9 +75,12 @@ import xyz.zedler.patrick.grocy.repository.StockOverviewRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+import xyz.zedler.patrick.grocy.util.IntObjectMap;
+import xyz.zedler.patrick.grocy.util.IntSet;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
+import xyz.zedler.patrick.grocy.util.QuantityUnitConversionIndex;
 import xyz.zedler.patrick.grocy.util.VersionUtil;
 
 public class StockOverviewViewModel extends BaseViewModel {
@@ -100,6 +103,7 @@ public class StockOverviewViewModel extends BaseViewModel {
 
   private final SharedPreferences sharedPrefs;
   private final DownloadHelper dlHelper;
+  private final StockStatusClassifier statusClassifier;
   private final GrocyApi grocyApi;
   private final StockOverviewRepository repository;
   private final PluralUtil pluralUtil;
@@ -120,15 +124,15 @@ public class StockOverviewViewModel extends BaseViewModel {
   private HashMap<Integer, ProductGroup> productGroupHashMap;
   private HashMap<String, ProductBarcode> productBarcodeHashMap;
   private HashMap<Integer, Product> productHashMap;
-  private HashMap<Integer, String> productAveragePriceHashMap;
-  private HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
+  private IntObjectMap<String> productAveragePriceHashMap;
+  private IntObjectMap<ProductLastPurchased> productLastPurchasedHashMap;
   private List<ShoppingListItem> shoppingListItems;
-  private ArrayList<String> shoppingListItemsProductIds;
+  private IntSet shoppingListItemsProductIds;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private List<QuantityUnitConversionResolved> quantityUnitConversions;
-  private HashMap<Integer, MissingItem> productIdsMissingItems;
+  private QuantityUnitConversionIndex unitConversionIndex;
+  private IntObjectMap<MissingItem> productIdsMissingItems;
   private HashMap<Integer, Location> locationHashMap;
-  private HashMap<Integer, HashMap<Integer, StockLocation>> stockLocationsHashMap;
+  private IntObjectMap<IntSet> stockLocationIdsHashMap;
   private HashMap<String, Userfield> userfieldHashMap;
 
   private String searchInput;
@@ -150,6 +154,7 @@ public class StockOverviewViewModel extends BaseViewModel {
 
     isLoadingLive = new MutableLiveData<>(false);
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue, getOfflineLive());
+    statusClassifier = new StockStatusClassifier(sharedPrefs);
     grocyApi = new GrocyApi(getApplication());
     repository = new StockOverviewRepository(application);
     pluralUtil = new PluralUtil(application);
@@ -209,12 +214,12 @@ public class StockOverviewViewModel extends BaseViewModel {
 
   public void loadFromDatabase(boolean downloadAfterLoading) {
     repository.loadFromDatabase(data -> {
-      quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      quantityUnitConversions = data.getQuantityUnitConversions();
+      quantityUnitHashMap = data.getQuantityUnitHashMap();
+      unitConversionIndex = data.getUnitConversionIndex();
       productGroupHashMap = ArrayUtil.getProductGroupsHashMap(data.getProductGroups());
       filterChipLiveDataProductGroup.setProductGroups(data.getProductGroups());
       this.products = data.getProducts();
-      productHashMap = ArrayUtil.getProductsHashMap(data.getProducts());
+      productHashMap = data.getProductHashMap();
       productAveragePriceHashMap = ArrayUtil
           .getProductAveragePriceHashMap(data.getProductsAveragePrice());
       productLastPurchasedHashMap = ArrayUtil
@@ -222,28 +227,12 @@ public class StockOverviewViewModel extends BaseViewModel {
       productBarcodeHashMap = ArrayUtil.getProductBarcodesHashMap(data.getProductBarcodes());
       this.stockItems = data.getStockItems();
 
-      int itemsDueCount = 0;
-      int itemsOverdueCount = 0;
-      int itemsExpiredCount = 0;
-      HashMap<Integer, StockItem> stockItemHashMap = ArrayUtil.getStockItemHashMap(stockItems);
-      for (VolatileItem volatileItem : data.getVolatileItems()) {
-        StockItem stockItem = stockItemHashMap.get(volatileItem.getProductId());
-        if (stockItem == null) continue;
-        Product product = productHashMap.get(stockItem.getProductId());
-        if (product != null && product.getNoOwnStockBoolean()) continue;
-        if (volatileItem.getVolatileType() == VolatileItem.TYPE_DUE) {
-          stockItem.setItemDue(true);
-          itemsDueCount++;
-        } else if (volatileItem.getVolatileType() == VolatileItem.TYPE_OVERDUE) {
-          stockItem.setItemOverdue(true);
-          itemsOverdueCount++;
-        } else if (volatileItem.getVolatileType() == VolatileItem.TYPE_EXPIRED) {
-          stockItem.setItemExpired(true);
-          itemsExpiredCount++;
-        }
+      IntObjectMap<StockItem> stockItemHashMap = new IntObjectMap<>(stockItems.size());
+      for (StockItem stockItem : stockItems) {
+        stockItemHashMap.put(stockItem.getProductId(), stockItem);
       }
       int itemsMissingCount = 0;
-      productIdsMissingItems = new HashMap<>();
+      productIdsMissingItems = new IntObjectMap<>(data.getMissingItems().size());
       for (MissingItem missingItem : data.getMissingItems()) {
         itemsMissingCount++;
         productIdsMissingItems.put(missingItem.getId(), missingItem);
@@ -256,6 +245,7 @@ public class StockOverviewViewModel extends BaseViewModel {
           stockItem.setItemMissingAndPartlyInStock(missingItem.getIsPartlyInStockBoolean());
         }
       }
+      statusClassifier.classify(stockItems, data.getVolatileItems(), productHashMap);
       int itemsInStockCount = 0;
       int itemsOpenedCount = 0;
       for (StockItem stockItem : stockItems) {
@@ -269,24 +259,24 @@ public class StockOverviewViewModel extends BaseViewModel {
       }
 
       this.shoppingListItems = data.getShoppingListItems();
-      shoppingListItemsProductIds = new ArrayList<>();
+      shoppingListItemsProductIds = new IntSet(shoppingListItems.size());
       for (ShoppingListItem item : shoppingListItems) {
-        if (item.getProductId() != null && !item.getProductId().isEmpty()) {
-          shoppingListItemsProductIds.add(item.getProductId());
+        if (NumUtil.isStringInt(item.getProductId())) {
+          shoppingListItemsProductIds.add(item.getProductIdInt());
         }
       }
       filterChipLiveDataLocation.setLocations(data.getLocations());
-      locationHashMap = ArrayUtil.getLocationsHashMap(data.getLocations());
+      locationHashMap = data.getLocationHashMap();
 
-      stockLocationsHashMap = new HashMap<>();
+      stockLocationIdsHashMap = new IntObjectMap<>();
       for (StockLocation stockLocation : data.getStockCurrentLocations()) {
-        HashMap<Integer, StockLocation> locationsForProductId = stockLocationsHashMap
+        IntSet locationIdsForProductId = stockLocationIdsHashMap
             .get(stockLocation.getProductId());
-        if (locationsForProductId == null) {
-          locationsForProductId = new HashMap<>();
-          stockLocationsHashMap.put(stockLocation.getProductId(), locationsForProductId);
+        if (locationIdsForProductId == null) {
+          locationIdsForProductId = new IntSet(4);
+          stockLocationIdsHashMap.put(stockLocation.getProductId(), locationIdsForProductId);
         }
-        locationsForProductId.put(stockLocation.getLocationId(), stockLocation);
+        locationIdsForProductId.add(stockLocation.getLocationId());
       }
 
       filterChipLiveDataSort.setUserfields(data.getUserfields(), DISPLAYED_USERFIELD_ENTITIES);
@@ -294,11 +284,8 @@ public class StockOverviewViewModel extends BaseViewModel {
       filterChipLiveDataFields.setUserfields(data.getUserfields(), DISPLAYED_USERFIELD_ENTITIES);
       userfieldHashMap = ArrayUtil.getUserfieldHashMap(data.getUserfields());
 
+      setStatusCounts();
       filterChipLiveDataStatus
-          .setNotFreshCount(itemsDueCount+itemsOverdueCount+itemsExpiredCount)
-          .setDueSoonCount(itemsDueCount)
-          .setOverdueCount(itemsOverdueCount)
-          .setExpiredCount(itemsExpiredCount)
           .setBelowStockCount(itemsMissingCount)
           .setInStockCount(itemsInStockCount)
           .setOpenedCount(itemsOpenedCount)
@@ -334,7 +321,19 @@ public class StockOverviewViewModel extends BaseViewModel {
     );
   }
 
+  private void setStatusCounts() {
+    filterChipLiveDataStatus
+        .setNotFreshCount(statusClassifier.getNotFreshCount())
+        .setDueSoonCount(statusClassifier.getDueCount())
+        .setOverdueCount(statusClassifier.getOverdueCount())
+        .setExpiredCount(statusClassifier.getExpiredCount());
+  }
+
   public void updateFilteredStockItems() {
+    if (statusClassifier.reclassifyIfDateChanged()) {
+      setStatusCounts();
+      filterChipLiveDataStatus.emitCounts();
+    }
     ArrayList<StockItem> filteredStockItems = new ArrayList<>();
 
     Product productSearch = null;
@@ -393,26 +392,25 @@ public class StockOverviewViewModel extends BaseViewModel {
       }
       int locationFilterId = filterChipLiveDataLocation.getSelectedId();
       if (locationFilterId != FilterChipLiveDataLocation.NO_FILTER) {
-        HashMap<Integer, StockLocation> stockLocationsForProductId
-            = stockLocationsHashMap.get(item.getProductId());
-        if (stockLocationsForProductId == null
-            || !stockLocationsForProductId.containsKey(locationFilterId)
+        IntSet locationIdsForProductId = stockLocationIdsHashMap.get(item.getProductId());
+        if (locationIdsForProductId == null
+            || !locationIdsForProductId.contains(locationFilterId)
         ) {
           continue;
         }
       }
 
       MissingItem missingItem = productIdsMissingItems.get(item.getProductId());
-      boolean hasOwnStock = !item.getProduct().getNoOwnStockBoolean();
+      int dueStatus = statusClassifier.getStatus(item.getProductId());
       if (filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStatusStock.STATUS_ALL
           || filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStatusStock.STATUS_NOT_FRESH
-          && (item.isItemDue() || item.isItemOverdue() || item.isItemExpired()) && hasOwnStock
+          && dueStatus != StockStatusClassifier.STATUS_NONE
           || filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStatusStock.STATUS_DUE_SOON
-          && item.isItemDue() && hasOwnStock
+          && dueStatus == StockStatusClassifier.STATUS_DUE
           || filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStatusStock.STATUS_OVERDUE
-          && item.isItemOverdue() && hasOwnStock
+          && dueStatus == StockStatusClassifier.STATUS_OVERDUE
           || filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStatusStock.STATUS_EXPIRED
-          && item.isItemExpired() && hasOwnStock
+          && dueStatus == StockStatusClassifier.STATUS_EXPIRED
           || filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStatusStock.STATUS_BELOW_MIN
           && missingItem != null
           || filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStatusStock.STATUS_IN_STOCK
@@ -655,8 +653,8 @@ public class StockOverviewViewModel extends BaseViewModel {
     updateFilteredStockItems();
   }
 
-  public ArrayList<Integer> getProductIdsMissingItems() {
-    return new ArrayList<>(productIdsMissingItems.keySet());
+  public IntSet getProductIdsMissingItems() {
+    return productIdsMissingItems.keySet();
   }
 
   public HashMap<Integer, ProductGroup> getProductGroupHashMap() {
@@ -667,15 +665,15 @@ public class StockOverviewViewModel extends BaseViewModel {
     return productHashMap;
   }
 
-  public HashMap<Integer, String> getProductAveragePriceHashMap() {
+  public IntObjectMap<String> getProductAveragePriceHashMap() {
     return productAveragePriceHashMap;
   }
 
-  public HashMap<Integer, ProductLastPurchased> getProductLastPurchasedHashMap() {
+  public IntObjectMap<ProductLastPurchased> getProductLastPurchasedHashMap() {
     return productLastPurchasedHashMap;
   }
 
-  public ArrayList<String> getShoppingListItemsProductIds() {
+  public IntSet getShoppingListItemsProductIds() {
     return shoppingListItemsProductIds;
   }
 
@@ -691,8 +689,8 @@ public class StockOverviewViewModel extends BaseViewModel {
     return quantityUnitHashMap;
   }
 
-  public List<QuantityUnitConversionResolved> getQuantityUnitConversions() {
-    return quantityUnitConversions;
+  public QuantityUnitConversionIndex getUnitConversionIndex() {
+    return unitConversionIndex;
   }
 
   public QuantityUnit getQuantityUnitFromId(int id) {
@@ -778,11 +776,7 @@ public class StockOverviewViewModel extends BaseViewModel {
   }
 
   public int getDaysExpriringSoon() {
-    String days = sharedPrefs.getString(
-        STOCK.DUE_SOON_DAYS,
-        SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS
-    );
-    return NumUtil.isStringInt(days) ? Integer.parseInt(days) : 5;
+    return StockStatusClassifier.getDueSoonDays(sharedPrefs);
   }
 
   public String getCurrency() {
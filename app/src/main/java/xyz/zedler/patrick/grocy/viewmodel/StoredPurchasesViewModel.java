@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductLookupCache;
 import xyz.zedler.patrick.grocy.model.GroupedListItem;
 import xyz.zedler.patrick.grocy.model.PendingProduct;
 import xyz.zedler.patrick.grocy.model.PendingProductBarcode;
@@ -59,6 +60,7 @@ public class StoredPurchasesViewModel extends BaseViewModel {
   private final HashMap<Integer, List<StoredPurchase>> pendingPurchasesHashMap;
 
   private Runnable queueEmptyAction;
+  private boolean lookupsPrefetched;
 
   public StoredPurchasesViewModel(@NonNull Application application) {
     super(application);
@@ -114,6 +116,7 @@ public class StoredPurchasesViewModel extends BaseViewModel {
         pendingPurchasesHashMap.put(pendingPurchase.getPendingProductId(), tempPurchases);
       }
       displayItems();
+      prefetchProductLookups();
       if (downloadAfterLoading) {
         downloadData(false);
       } else if (queueEmptyAction != null) {
@@ -123,6 +126,18 @@ public class StoredPurchasesViewModel extends BaseViewModel {
     }, error -> onError(error, TAG));
   }
 
+  private void prefetchProductLookups() {
+    if (lookupsPrefetched || !isOpenFoodFactsEnabled() || isOffline()) return;
+    lookupsPrefetched = true;
+    ArrayList<String> barcodes = new ArrayList<>();
+    for (PendingProductBarcode barcode : pendingProductBarcodes) {
+      barcodes.add(barcode.getBarcode());
+    }
+    if (!barcodes.isEmpty()) {
+      ProductLookupCache.getInstance(getApplication()).prefetch(barcodes);
+    }
+  }
+
   public void downloadData(boolean forceUpdate) {
     dlHelper.updateData(
         updated -> {
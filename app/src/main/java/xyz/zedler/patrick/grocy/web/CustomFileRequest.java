@@ -0,0 +1,63 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import androidx.annotation.Nullable;
+import com.android.volley.Response;
+import java.io.File;
+
+/**
+ * Uploads a file without reading it into memory. The body is written straight from the file by
+ * StreamingHurlStack, getBody only returns an empty placeholder.
+ */
+public class CustomFileRequest extends CustomByteArrayRequest {
+
+  private final File file;
+
+  public CustomFileRequest(
+      int method,
+      String url,
+      String apiKey,
+      String homeAssistantIngressSessionKey,
+      File file,
+      @Nullable Runnable successListener,
+      @Nullable Response.ErrorListener errorListener,
+      int timeoutSeconds,
+      String tag
+  ) {
+    super(
+        method,
+        url,
+        apiKey,
+        homeAssistantIngressSessionKey,
+        new byte[0],
+        successListener,
+        errorListener,
+        timeoutSeconds,
+        tag
+    );
+    this.file = file;
+  }
+
+  public File getFile() {
+    return file;
+  }
+}
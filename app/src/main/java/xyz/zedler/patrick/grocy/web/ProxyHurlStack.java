@@ -21,7 +21,6 @@
 package xyz.zedler.patrick.grocy.web;
 
 import android.content.SharedPreferences;
-import com.android.volley.toolbox.HurlStack;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
@@ -31,7 +30,7 @@ import java.net.URL;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS.NETWORK;
 import xyz.zedler.patrick.grocy.Constants.SETTINGS_DEFAULT;
 
-public class ProxyHurlStack extends HurlStack {
+public class ProxyHurlStack extends StreamingHurlStack {
 
   private final Proxy proxy;
 
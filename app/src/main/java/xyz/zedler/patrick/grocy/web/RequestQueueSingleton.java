@@ -84,9 +84,9 @@ public class RequestQueueSingleton {
       stack = new ProxyHurlStack(sharedPrefs, useTor);
     } else {
       try {
-        stack = new HurlStack(null, new TLSSocketFactory());
+        stack = new StreamingHurlStack(null, new TLSSocketFactory());
       } catch (NoSuchAlgorithmException | KeyManagementException e) {
-        stack = new HurlStack();
+        stack = new StreamingHurlStack();
       }
     }
     Network network = new BasicNetwork(stack);
@@ -0,0 +1,72 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import com.android.volley.Request;
+import com.android.volley.toolbox.HurlStack;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * HurlStack which streams the files of CustomFileRequests to the connection. Volley only knows
+ * request bodies as byte arrays, which would have to hold the whole file in memory.
+ */
+public class StreamingHurlStack extends HurlStack {
+
+  private final static int BUFFER_SIZE = 8192;
+
+  public StreamingHurlStack() {
+    super();
+  }
+
+  public StreamingHurlStack(UrlRewriter urlRewriter, SSLSocketFactory sslSocketFactory) {
+    super(urlRewriter, sslSocketFactory);
+  }
+
+  @Override
+  protected OutputStream createOutputStream(
+      Request<?> request,
+      HttpURLConnection connection,
+      int length
+  ) throws IOException {
+    if (!(request instanceof CustomFileRequest)) {
+      return super.createOutputStream(request, connection, length);
+    }
+    File file = ((CustomFileRequest) request).getFile();
+    // without fixed length the connection would buffer the whole body to calculate it
+    connection.setFixedLengthStreamingMode(file.length());
+    OutputStream outputStream = super.createOutputStream(request, connection, length);
+    try (InputStream inputStream = new FileInputStream(file)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+      }
+    }
+    // HurlStack writes the empty placeholder body afterwards and closes the stream
+    return outputStream;
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.Test;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
+import xyz.zedler.patrick.grocy.model.Recipe;
+import xyz.zedler.patrick.grocy.model.RecipeFulfillment;
+import xyz.zedler.patrick.grocy.model.RecipeNestingResolved;
+import xyz.zedler.patrick.grocy.model.RecipePosition;
+import xyz.zedler.patrick.grocy.model.RecipePositionResolved;
+import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.StockItem;
+
+/**
+ * Compares the local calculation with the recipes_resolved and recipes_pos_resolved objects of
+ * the server. Every fixture in resources/recipe_fulfillment contains the server objects the
+ * calculator gets as input and the resolved objects the server returns for the recipe.
+ */
+public class RecipeFulfillmentCalculatorTest {
+
+  private final static double DELTA = 0.0001;
+
+  @Test
+  public void simpleRecipe_matchesServer() {
+    assertParity("simple.json");
+  }
+
+  @Test
+  public void nestedRecipe_matchesServer() {
+    assertParity("nested.json");
+  }
+
+  @Test
+  public void recipeWithoutShoppingListCheck_matchesServer() {
+    assertParity("not_check_shopping_list.json");
+  }
+
+  private void assertParity(String fixtureName) {
+    Fixture fixture = readFixture(fixtureName);
+    HashMap<Integer, Product> productHashMap = new HashMap<>();
+    for (Product product : fixture.products) {
+      productHashMap.put(product.getId(), product);
+    }
+    HashMap<Integer, StockItem> stockItemHashMap = new HashMap<>();
+    for (StockItem stockItem : fixture.stockItems) {
+      stockItemHashMap.put(stockItem.getProductId(), stockItem);
+    }
+    RecipeFulfillmentCalculator calculator = new RecipeFulfillmentCalculator(
+        fixture.recipes,
+        fixture.recipePositions,
+        fixture.recipeNestingsResolved,
+        productHashMap,
+        stockItemHashMap,
+        fixture.productsLastPurchased,
+        fixture.shoppingListItems
+    );
+    Recipe recipe = null;
+    for (Recipe r : fixture.recipes) {
+      if (r.getId() == fixture.recipeId) recipe = r;
+    }
+    assertNotNull(fixtureName + ": recipe missing", recipe);
+    RecipeFulfillmentCalculator.Result result = calculator.calculate(
+        recipe.getId(), recipe.getDesiredServings(), null
+    );
+    assertNotNull(fixtureName + ": no result", result);
+
+    RecipeFulfillment local = result.getRecipeFulfillment();
+    RecipeFulfillment server = fixture.recipeFulfillment;
+    String msg = fixtureName + ": ";
+    assertEquals(msg + "need_fulfilled", server.getNeedFulfilled(), local.getNeedFulfilled());
+    assertEquals(
+        msg + "need_fulfilled_with_shopping_list",
+        server.getNeedFulfilledWithShoppingList(),
+        local.getNeedFulfilledWithShoppingList()
+    );
+    assertEquals(
+        msg + "missing_products_count",
+        server.getMissingProductsCount(),
+        local.getMissingProductsCount()
+    );
+    assertEquals(msg + "costs", server.getCosts(), local.getCosts(), DELTA);
+    assertEquals(
+        msg + "costs_per_serving", server.getCostsPerServing(), local.getCostsPerServing(), DELTA
+    );
+    assertEquals(msg + "calories", server.getCalories(), local.getCalories(), DELTA);
+
+    List<RecipePositionResolved> localPositions = result.getRecipePositions();
+    assertEquals(msg + "positions", fixture.recipePositionsResolved.size(), localPositions.size());
+    HashMap<Integer, RecipePositionResolved> localPositionHashMap = new HashMap<>();
+    for (RecipePositionResolved position : localPositions) {
+      localPositionHashMap.put(position.getRecipePosId(), position);
+    }
+    for (RecipePositionResolved serverPos : fixture.recipePositionsResolved) {
+      RecipePositionResolved localPos = localPositionHashMap.get(serverPos.getRecipePosId());
+      String posMsg = msg + "recipe_pos_id " + serverPos.getRecipePosId() + " ";
+      assertNotNull(posMsg + "missing", localPos);
+      assertEquals(posMsg + "product_id", serverPos.getProductId(), localPos.getProductId());
+      assertEquals(
+          posMsg + "recipe_amount", serverPos.getRecipeAmount(), localPos.getRecipeAmount(), DELTA
+      );
+      assertEquals(
+          posMsg + "stock_amount", serverPos.getStockAmount(), localPos.getStockAmount(), DELTA
+      );
+      assertEquals(
+          posMsg + "need_fulfilled", serverPos.getNeedFulfilled(), localPos.getNeedFulfilled()
+      );
+      assertEquals(
+          posMsg + "missing_amount",
+          serverPos.getMissingAmount(),
+          localPos.getMissingAmount(),
+          DELTA
+      );
+      assertEquals(
+          posMsg + "amount_on_shopping_list",
+          serverPos.getAmountOnShoppingList(),
+          localPos.getAmountOnShoppingList(),
+          DELTA
+      );
+      assertEquals(
+          posMsg + "need_fulfilled_with_shopping_list",
+          serverPos.getNeedFulfilledWithShoppingList(),
+          localPos.getNeedFulfilledWithShoppingList()
+      );
+      assertEquals(posMsg + "costs", serverPos.getCosts(), localPos.getCosts(), DELTA);
+      assertEquals(posMsg + "calories", serverPos.getCalories(), localPos.getCalories(), DELTA);
+      assertEquals(
+          posMsg + "is_nested_recipe_pos",
+          serverPos.getIsNestedRecipePos(),
+          localPos.getIsNestedRecipePos()
+      );
+    }
+  }
+
+  private Fixture readFixture(String name) {
+    InputStream stream = getClass().getClassLoader()
+        .getResourceAsStream("recipe_fulfillment/" + name);
+    assertNotNull("fixture " + name + " not found", stream);
+    try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+      return new Gson().fromJson(reader, Fixture.class);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static class Fixture {
+
+    @SerializedName("recipe_id")
+    private int recipeId;
+
+    @SerializedName("recipes")
+    private List<Recipe> recipes;
+
+    @SerializedName("recipes_pos")
+    private List<RecipePosition> recipePositions;
+
+    @SerializedName("recipes_nestings_resolved")
+    private List<RecipeNestingResolved> recipeNestingsResolved;
+
+    @SerializedName("products")
+    private List<Product> products;
+
+    @SerializedName("stock")
+    private List<StockItem> stockItems;
+
+    @SerializedName("products_last_purchased")
+    private List<ProductLastPurchased> productsLastPurchased;
+
+    @SerializedName("shopping_list")
+    private List<ShoppingListItem> shoppingListItems;
+
+    @SerializedName("recipes_resolved")
+    private RecipeFulfillment recipeFulfillment;
+
+    @SerializedName("recipes_pos_resolved")
+    private List<RecipePositionResolved> recipePositionsResolved;
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.Result;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Regression test for the decode path of the embedded ZXing scanner over recorded frames,
+ * without camera. The frames in resources/zxing_corpus are greyscale PGM files (P5, like the
+ * Y plane of camera frames), listed in frames.txt with the expected text, one directory per
+ * format and one file per condition. The camera frames have the size of a camera preview, so
+ * they are cropped and downscaled like in the scanner. Every reader configuration has to
+ * decode all frames of its formats. The success rate, latency and allocated bytes per frame
+ * are printed for comparison.
+ */
+public class ZXingFrameReaderTest {
+
+  private final static String CORPUS = "zxing_corpus/";
+  private final static int ITERATIONS = 5;
+
+  private final static EnumSet<BarcodeFormat> PRODUCT_FORMATS = EnumSet.of(
+      BarcodeFormat.EAN_13,
+      BarcodeFormat.EAN_8,
+      BarcodeFormat.UPC_A,
+      BarcodeFormat.UPC_E,
+      BarcodeFormat.CODE_128
+  );
+
+  private static List<Frame> frames;
+  private static EnumSet<BarcodeFormat> corpusFormats;
+
+  @BeforeClass
+  public static void loadCorpus() throws IOException {
+    frames = new ArrayList<>();
+    corpusFormats = EnumSet.noneOf(BarcodeFormat.class);
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        openResource(CORPUS + "frames.txt"), StandardCharsets.UTF_8
+    ))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) continue;
+        // e.g. "EAN_13/blurry.pgm.gz 4006381333931"
+        String[] parts = line.trim().split(" ", 2);
+        String[] path = parts[0].split("/");
+        BarcodeFormat format = BarcodeFormat.valueOf(path[0]);
+        String condition = path[1].substring(0, path[1].indexOf('.'));
+        frames.add(readPgm(parts[0], format, condition, parts[1]));
+        corpusFormats.add(format);
+      }
+    }
+    assertFalse("corpus is empty", frames.isEmpty());
+  }
+
+  @Test
+  public void productFormats_decodeAllFrames() {
+    assertAllDecoded("product formats (1D)", PRODUCT_FORMATS, Collections.emptyMap());
+  }
+
+  @Test
+  public void qrCode_decodesAllFrames() {
+    assertAllDecoded("qr code", EnumSet.of(BarcodeFormat.QR_CODE), Collections.emptyMap());
+  }
+
+  @Test
+  public void dataMatrix_decodesAllFrames() {
+    assertAllDecoded(
+        "data matrix", EnumSet.of(BarcodeFormat.DATA_MATRIX), Collections.emptyMap()
+    );
+  }
+
+  @Test
+  public void allFormats_decodeAllFrames() {
+    // frames of different formats in a row, so the preferred last format changes
+    assertAllDecoded("all corpus formats", corpusFormats, Collections.emptyMap());
+  }
+
+  @Test
+  public void allFormatsTryHarder_decodeAllFrames() {
+    Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    assertAllDecoded("all corpus formats, try harder", corpusFormats, hints);
+  }
+
+  @Test
+  public void oneDimensionalFormats_cropToScanLine() {
+    assertTrue(new ZXingFrameReader(PRODUCT_FORMATS, null).isCroppingToScanLine());
+    assertFalse(new ZXingFrameReader(corpusFormats, null).isCroppingToScanLine());
+  }
+
+  @Test
+  public void cameraFrames_areCroppedAndDownscaled() {
+    ZXingFrameReader oneDReader = new ZXingFrameReader(PRODUCT_FORMATS, null);
+    ZXingFrameReader allReader = new ZXingFrameReader(corpusFormats, null);
+    int cameraFrameCount = 0;
+    for (Frame frame : frames) {
+      if (Math.max(frame.width, frame.height) <= ZXingFrameReader.MAX_FRAME_SIZE) continue;
+      cameraFrameCount++;
+      LuminanceSource cropped = oneDReader.prepare(getSource(frame));
+      assertTrue(cropped.getWidth() <= ZXingFrameReader.MAX_FRAME_SIZE);
+      assertEquals(
+          Math.round(frame.height * ZXingFrameReader.ONE_D_BAND_FRACTION) / 2,
+          cropped.getHeight()
+      );
+      LuminanceSource downscaled = allReader.prepare(getSource(frame));
+      assertEquals(frame.width / 2, downscaled.getWidth());
+      assertEquals(frame.height / 2, downscaled.getHeight());
+    }
+    assertTrue("no camera frames", cameraFrameCount > 0);
+  }
+
+  private void assertAllDecoded(
+      String configuration,
+      EnumSet<BarcodeFormat> formats,
+      Map<DecodeHintType, ?> hints
+  ) {
+    ZXingFrameReader.clearLastFormat();
+    ZXingFrameReader frameReader = new ZXingFrameReader(formats, hints);
+    List<String> failedFrames = new ArrayList<>();
+    List<Long> latencies = new ArrayList<>();
+    long allocatedBytes = 0;
+    int frameCount = 0;
+    for (Frame frame : frames) {
+      if (!formats.contains(frame.format)) continue;
+      frameCount++;
+      // warm up the JIT and the readers of this thread
+      decode(frameReader, frame);
+
+      long allocatedBefore = getAllocatedBytes();
+      Result result = null;
+      for (int i = 0; i < ITERATIONS; i++) {
+        long start = System.nanoTime();
+        result = decode(frameReader, frame);
+        latencies.add(System.nanoTime() - start);
+      }
+      allocatedBytes += (getAllocatedBytes() - allocatedBefore) / ITERATIONS;
+      if (result == null || result.getBarcodeFormat() != frame.format
+          || !frame.expectedText.equals(result.getText())) {
+        failedFrames.add(frame.format + "/" + frame.condition);
+      }
+    }
+    Collections.sort(latencies);
+    int decodedCount = frameCount - failedFrames.size();
+    System.out.printf(
+        Locale.US,
+        "%-32s %3d/%3d decoded (%5.1f %%)  p50 %6.2f ms  p95 %6.2f ms  %s%n",
+        configuration,
+        decodedCount,
+        frameCount,
+        frameCount > 0 ? decodedCount * 100.0 / frameCount : 0,
+        getPercentileMillis(latencies, 0.5),
+        getPercentileMillis(latencies, 0.95),
+        getAllocatedBytes() >= 0 && frameCount > 0
+            ? (allocatedBytes / frameCount / 1024) + " KiB/frame"
+            : "allocations n/a"
+    );
+    assertTrue(configuration + ": no frames", frameCount > 0);
+    assertEquals(configuration + ": not decoded", Collections.emptyList(), failedFrames);
+  }
+
+  private static Result decode(ZXingFrameReader frameReader, Frame frame) {
+    return frameReader.decode(frameReader.prepare(getSource(frame)));
+  }
+
+  private static LuminanceSource getSource(Frame frame) {
+    return new PlanarYUVLuminanceSource(
+        frame.luminance, frame.width, frame.height, 0, 0, frame.width, frame.height, false
+    );
+  }
+
+  private static double getPercentileMillis(List<Long> sortedLatencies, double percentile) {
+    if (sortedLatencies.isEmpty()) return 0;
+    int index = (int) Math.ceil(percentile * sortedLatencies.size()) - 1;
+    return sortedLatencies.get(Math.max(0, index)) / 1_000_000.0;
+  }
+
+  private static long getAllocatedBytes() {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    com.sun.management.ThreadMXBean bean
+        = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    if (!bean.isThreadAllocatedMemorySupported()) return -1;
+    return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static InputStream openResource(String name) {
+    InputStream stream = ZXingFrameReaderTest.class.getClassLoader().getResourceAsStream(name);
+    assertNotNull(name + " not found", stream);
+    return stream;
+  }
+
+  /**
+   * Reads a gzipped binary 8 bit PGM file. Only the header format is parsed which is needed
+   * for recorded frames, maximum values above 255 are not supported.
+   */
+  private static Frame readPgm(
+      String name,
+      BarcodeFormat format,
+      String condition,
+      String expectedText
+  ) throws IOException {
+    try (InputStream inputStream = new GZIPInputStream(openResource(CORPUS + name))) {
+      if (!"P5".equals(readHeaderToken(inputStream))) {
+        throw new IOException(name + " is no binary PGM file");
+      }
+      int width = Integer.parseInt(readHeaderToken(inputStream));
+      int height = Integer.parseInt(readHeaderToken(inputStream));
+      int maxValue = Integer.parseInt(readHeaderToken(inputStream));
+      if (maxValue > 255) {
+        throw new IOException(name + " has more than 8 bits per pixel");
+      }
+      byte[] luminance = new byte[width * height];
+      int offset = 0;
+      while (offset < luminance.length) {
+        int read = inputStream.read(luminance, offset, luminance.length - offset);
+        if (read < 0) throw new IOException(name + " is truncated");
+        offset += read;
+      }
+      return new Frame(format, condition, expectedText, luminance, width, height);
+    }
+  }
+
+  private static String readHeaderToken(InputStream inputStream) throws IOException {
+    StringBuilder token = new StringBuilder();
+    int c;
+    while ((c = inputStream.read()) != -1) {
+      if (c == '#' && token.length() == 0) {
+        // comment until end of line
+        do {
+          c = inputStream.read();
+        } while (c != -1 && c != '\n');
+      } else if (Character.isWhitespace(c)) {
+        if (token.length() > 0) break;
+      } else {
+        token.append((char) c);
+      }
+    }
+    return token.toString();
+  }
+
+  private static class Frame {
+
+    private final BarcodeFormat format;
+    private final String condition;
+    private final String expectedText;
+    private final byte[] luminance;
+    private final int width;
+    private final int height;
+
+    Frame(
+        BarcodeFormat format,
+        String condition,
+        String expectedText,
+        byte[] luminance,
+        int width,
+        int height
+    ) {
+      this.format = format;
+      this.condition = condition;
+      this.expectedText = expectedText;
+      this.luminance = luminance;
+      this.width = width;
+      this.height = height;
+    }
+  }
+}
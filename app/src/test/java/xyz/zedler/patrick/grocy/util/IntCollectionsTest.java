@@ -0,0 +1,186 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2024 by Patrick Zedler and Dominic Zedler
+ * Copyright (c) 2024 by Patrick Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.HashSet;
+import org.junit.Test;
+
+public class IntCollectionsTest {
+
+  // size of a large grocy instance, the maps built per download have one entry per product
+  private static final int PRODUCT_COUNT = 10000;
+
+  @Test
+  public void intObjectMap_behavesLikeHashMap() {
+    IntObjectMap<String> map = new IntObjectMap<>(4);
+    HashMap<Integer, String> reference = new HashMap<>();
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      int key = i * 31 - 5000;
+      map.put(key, "value" + i);
+      reference.put(key, "value" + i);
+    }
+    map.put(-5000, "replaced");
+    reference.put(-5000, "replaced");
+
+    assertEquals(reference.size(), map.size());
+    for (Integer key : reference.keySet()) {
+      assertEquals(reference.get(key), map.get(key));
+    }
+    assertNull(map.get(1));
+    assertEquals(reference.size(), map.keySet().size());
+    assertEquals(reference.size(), map.values().size());
+    assertEquals("replaced", map.putIfAbsent(-5000, "other"));
+
+    IntObjectMap<String> copy = new IntObjectMap<>();
+    copy.putAll(map);
+    assertEquals(map, copy);
+    assertEquals(map.hashCode(), copy.hashCode());
+    copy.put(1, "new");
+    assertFalse(map.equals(copy));
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(-5000));
+  }
+
+  @Test
+  public void intSet_behavesLikeHashSet() {
+    IntSet set = new IntSet();
+    HashSet<Integer> reference = new HashSet<>();
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      assertEquals(reference.add(i % 7000), set.add(i % 7000));
+    }
+    assertEquals(reference.size(), set.size());
+    assertEquals(reference.size(), set.toArray().length);
+    assertTrue(set.contains(6999));
+    assertFalse(set.contains(7000));
+  }
+
+  @Test
+  public void intDoubleMap_behavesLikeHashMap() {
+    IntDoubleMap map = new IntDoubleMap();
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      map.put(i, i / 2d);
+    }
+    map.put(0, 4.5);
+    assertEquals(PRODUCT_COUNT, map.size());
+    assertEquals(4.5, map.get(0, -1), 0);
+    assertEquals(42, map.get(84, -1), 0);
+    assertEquals(-1, map.get(PRODUCT_COUNT, -1), 0);
+    assertTrue(map.containsKey(PRODUCT_COUNT - 1));
+  }
+
+  /**
+   * Compares the bytes allocated for building and reading the per-product lookup maps of a
+   * download with 10k products, HashMap<Integer, V> against IntObjectMap and IntSet.
+   */
+  @Test
+  public void intCollections_allocateLessThanBoxedCollections() {
+    assumeTrue(getAllocatedBytes() >= 0);
+    Object[] values = new Object[PRODUCT_COUNT];
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      values[i] = new Object();
+    }
+    // warm up so class loading and JIT don't count
+    for (int i = 0; i < 20; i++) {
+      buildHashMap(values);
+      buildIntObjectMap(values);
+      buildHashSet();
+      buildIntSet();
+    }
+
+    long hashMapBytes = measure(() -> buildHashMap(values));
+    long intObjectMapBytes = measure(() -> buildIntObjectMap(values));
+    long hashSetBytes = measure(IntCollectionsTest::buildHashSet);
+    long intSetBytes = measure(IntCollectionsTest::buildIntSet);
+
+    System.out.println("HashMap<Integer, V>: " + hashMapBytes + " bytes, IntObjectMap<V>: "
+        + intObjectMapBytes + " bytes");
+    System.out.println("HashSet<Integer>: " + hashSetBytes + " bytes, IntSet: "
+        + intSetBytes + " bytes");
+    assertTrue(intObjectMapBytes * 2 < hashMapBytes);
+    assertTrue(intSetBytes * 2 < hashSetBytes);
+  }
+
+  private static int buildHashMap(Object[] values) {
+    HashMap<Integer, Object> map = new HashMap<>();
+    for (int i = 0; i < values.length; i++) {
+      map.put(1000 + i, values[i]);
+    }
+    int found = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (map.get(1000 + i) != null) found++;
+    }
+    return found;
+  }
+
+  private static int buildIntObjectMap(Object[] values) {
+    IntObjectMap<Object> map = new IntObjectMap<>(values.length);
+    for (int i = 0; i < values.length; i++) {
+      map.put(1000 + i, values[i]);
+    }
+    int found = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (map.get(1000 + i) != null) found++;
+    }
+    return found;
+  }
+
+  private static int buildHashSet() {
+    HashSet<Integer> set = new HashSet<>();
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      set.add(1000 + i);
+    }
+    return set.size();
+  }
+
+  private static int buildIntSet() {
+    IntSet set = new IntSet(PRODUCT_COUNT);
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      set.add(1000 + i);
+    }
+    return set.size();
+  }
+
+  private static long measure(Runnable runnable) {
+    long start = getAllocatedBytes();
+    runnable.run();
+    return getAllocatedBytes() - start;
+  }
+
+  private static long getAllocatedBytes() {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    com.sun.management.ThreadMXBean bean
+        = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    if (!bean.isThreadAllocatedMemorySupported()) return -1;
+    return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+}